@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The spring context shared by the benchmarks that run in the same forked jvm.
+ * It's started by the first benchmark that needs it, and closed when the jvm exits.
+ */
+public final class BenchmarkContext {
+
+	private static ConfigurableApplicationContext context;
+
+	private BenchmarkContext() {
+	}
+
+	public static synchronized ConfigurableApplicationContext get() {
+		if (context == null) {
+			context = new SpringApplicationBuilder(ManagerBenchmarksApplication.class)
+				.logStartupInfo(false)
+				.registerShutdownHook(true)
+				.run();
+		}
+		return context;
+	}
+
+	public static <T> T getBean(Class<T> type) {
+		return get().getBean(type);
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager;
+
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerPortMapping;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
+import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.Service;
+import pt.unl.fct.miei.usmanagement.manager.services.ServiceTypeEnum;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Entities shared by the benchmarks. Random values come from a fixed seed, so every run measures the same data.
+ */
+public final class BenchmarkFixtures {
+
+	public static final long SEED = 42;
+
+	private BenchmarkFixtures() {
+	}
+
+	public static Random random() {
+		return new Random(SEED);
+	}
+
+	public static Coordinates randomCoordinates(Random random) {
+		return new Coordinates(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+	}
+
+	public static Service service(String serviceName) {
+		return Service.builder()
+			.serviceName(serviceName)
+			.dockerRepository("usmanager/" + serviceName)
+			.defaultExternalPort(8080)
+			.defaultInternalPort(80)
+			.minimumReplicas(1)
+			.maximumReplicas(5)
+			.serviceType(ServiceTypeEnum.BACKEND)
+			.environment(new HashSet<>(Set.of("PORT=80")))
+			.volumes(new HashSet<>())
+			.expectedMemoryConsumption(256d * 1024 * 1024)
+			.build();
+	}
+
+	public static Container container(String containerId, String serviceName, Random random) {
+		Map<String, String> labels = new HashMap<>();
+		labels.put(ContainerConstants.Label.SERVICE_NAME, serviceName);
+		labels.put(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.BACKEND.name());
+		Set<ContainerPortMapping> ports = new HashSet<>();
+		ports.add(new ContainerPortMapping(80, 8080, "tcp", "0.0.0.0"));
+		return Container.builder()
+			.id(containerId)
+			.type(ContainerTypeEnum.BY_REQUEST)
+			.created(System.currentTimeMillis())
+			.name(serviceName + "_" + containerId)
+			.image("usmanager/" + serviceName)
+			.command("java -jar " + serviceName + ".jar")
+			.network("bridge")
+			.publicIpAddress("10.0.0.1")
+			.privateIpAddress("192.168.1.1")
+			.mounts(new HashSet<>(Set.of("/var/run/docker.sock:/var/run/docker.sock")))
+			.ports(ports)
+			.labels(labels)
+			.region(RegionEnum.EUROPE)
+			.state("running")
+			.coordinates(randomCoordinates(random))
+			.build();
+	}
+
+}
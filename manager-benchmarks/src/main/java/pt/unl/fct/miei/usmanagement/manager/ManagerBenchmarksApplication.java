@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.mockito.Mockito;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorMvcAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerCoreService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus.PrometheusService;
+
+/**
+ * Spring context of the benchmarks. It runs the manager services against an in-memory database,
+ * with the docker and prometheus clients replaced by stubs, so no cluster is needed.
+ */
+@SpringBootApplication(exclude = ErrorMvcAutoConfiguration.class)
+public class ManagerBenchmarksApplication {
+
+	// the beans below override the ones with the same name found by the component scan
+
+	@Bean
+	public DockerCoreService dockerCoreService() {
+		return Mockito.mock(DockerCoreService.class);
+	}
+
+	@Bean
+	public DockerSwarmService dockerSwarmService() {
+		return Mockito.mock(DockerSwarmService.class);
+	}
+
+	@Bean
+	public PrometheusService prometheusService() {
+		return Mockito.mock(PrometheusService.class);
+	}
+
+}
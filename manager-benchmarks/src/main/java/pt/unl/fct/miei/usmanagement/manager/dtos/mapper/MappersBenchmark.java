@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.dtos.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerDTO;
+import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ServiceDTO;
+import pt.unl.fct.miei.usmanagement.manager.services.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions between the entities and the dtos exchanged through kafka, each with its own mapping context,
+ * as done when sending or receiving a message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappersBenchmark {
+
+	private Container container;
+	private ContainerDTO containerDTO;
+	private Service service;
+	private ServiceDTO serviceDTO;
+
+	@Setup
+	public void setup() {
+		container = BenchmarkFixtures.container("benchmark-container", "benchmark-service", BenchmarkFixtures.random());
+		containerDTO = ContainerMapper.MAPPER.fromContainer(container, new CycleAvoidingMappingContext());
+		service = BenchmarkFixtures.service("benchmark-service");
+		serviceDTO = ServiceMapper.MAPPER.fromService(service, new CycleAvoidingMappingContext());
+	}
+
+	@Benchmark
+	public ContainerDTO fromContainer() {
+		return ContainerMapper.MAPPER.fromContainer(container, new CycleAvoidingMappingContext());
+	}
+
+	@Benchmark
+	public Container toContainer() {
+		return ContainerMapper.MAPPER.toContainer(containerDTO, new CycleAvoidingMappingContext());
+	}
+
+	@Benchmark
+	public ServiceDTO fromService() {
+		return ServiceMapper.MAPPER.fromService(service, new CycleAvoidingMappingContext());
+	}
+
+	@Benchmark
+	public Service toService() {
+		return ServiceMapper.MAPPER.toService(serviceDTO, new CycleAvoidingMappingContext());
+	}
+
+}
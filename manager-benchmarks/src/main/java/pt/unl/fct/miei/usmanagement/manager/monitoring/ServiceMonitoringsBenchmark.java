@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.monitoring;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkContext;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates.ServicesMonitoringAggregatesService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average of every monitored field of a container, read from the service_monitoring table and from the in-memory aggregates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceMonitoringsBenchmark {
+
+	private static final int CONTAINERS = 256;
+	private static final String[] FIELDS = {"cpu", "ram", "cpu-%", "ram-%", "rx-bytes", "tx-bytes", "latency", "requests"};
+
+	private ServiceMonitorings serviceMonitorings;
+	private ServicesMonitoringAggregatesService servicesMonitoringAggregatesService;
+	private String[] containerIds;
+	private int next;
+
+	@Setup
+	public void setup() {
+		serviceMonitorings = BenchmarkContext.getBean(ServiceMonitorings.class);
+		servicesMonitoringAggregatesService = BenchmarkContext.getBean(ServicesMonitoringAggregatesService.class);
+		Random random = BenchmarkFixtures.random();
+		containerIds = new String[CONTAINERS];
+		List<ServiceMonitoring> monitoring = new ArrayList<>();
+		for (int i = 0; i < CONTAINERS; i++) {
+			String containerId = String.format("container-%04d", i);
+			containerIds[i] = containerId;
+			for (String field : FIELDS) {
+				int count = 1 + random.nextInt(1000);
+				double min = random.nextDouble() * 10;
+				double max = min + random.nextDouble() * 90;
+				monitoring.add(ServiceMonitoring.builder()
+					.containerId(containerId)
+					.serviceName("service-" + i % 16)
+					.hostname("10.0.0." + i % 32)
+					.field(field)
+					.minValue(min)
+					.maxValue(max)
+					.sumValue((min + max) / 2 * count)
+					.lastValue(max)
+					.count(count)
+					.lastUpdate(new Timestamp(System.currentTimeMillis()))
+					.build());
+			}
+		}
+		serviceMonitorings.saveAll(monitoring);
+	}
+
+	@Benchmark
+	public List<ContainerFieldAverage> repository() {
+		return serviceMonitorings.getContainerFieldsAvg(containerIds[next++ & (CONTAINERS - 1)]);
+	}
+
+	@Benchmark
+	public List<ContainerFieldAverage> aggregates() {
+		return servicesMonitoringAggregatesService.getContainerFieldsAvg(containerIds[next++ & (CONTAINERS - 1)]);
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerDTO;
+import pt.unl.fct.miei.usmanagement.manager.dtos.mapper.ContainerMapper;
+import pt.unl.fct.miei.usmanagement.manager.dtos.mapper.CycleAvoidingMappingContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a container message with the json and binary serializers the kafka producers and consumers
+ * can be configured with. The size of a record, alone and in a compressed batch, is reported as the auxiliary
+ * counters of {@link RecordSizes}, so it is part of the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaSerializersBenchmark {
+
+	private static final String TOPIC = "containers";
+	private static final int BATCH_RECORDS = 100;
+
+	@Param({"json", "binary"})
+	private String format;
+
+	private Serializer<Object> serializer;
+	private Deserializer<Object> deserializer;
+	private ContainerDTO containerDTO;
+	private Headers headers;
+	private byte[] data;
+	private long bytesPerRecord;
+	private long lz4BytesPerRecord;
+	private long zstdBytesPerRecord;
+
+	@Setup
+	public void setup() throws IOException {
+		if (format.equals("binary")) {
+			serializer = new BinarySerializer<>();
+			deserializer = new BinaryDeserializer<>();
+		}
+		else {
+			serializer = new JsonSerializer<>();
+			deserializer = new JsonDeserializer<>();
+			deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+		}
+		Random random = BenchmarkFixtures.random();
+		containerDTO = ContainerMapper.MAPPER.fromContainer(
+			BenchmarkFixtures.container("benchmark-container", "benchmark-service", random), new CycleAvoidingMappingContext());
+		headers = new RecordHeaders();
+		data = serializer.serialize(TOPIC, headers, containerDTO);
+
+		byte[][] batch = new byte[BATCH_RECORDS][];
+		long batchSize = 0;
+		for (int i = 0; i < BATCH_RECORDS; i++) {
+			ContainerDTO batchContainerDTO = ContainerMapper.MAPPER.fromContainer(
+				BenchmarkFixtures.container("container-" + i, "service-" + i % 10, random), new CycleAvoidingMappingContext());
+			batch[i] = serializer.serialize(TOPIC, new RecordHeaders(), batchContainerDTO);
+			batchSize += batch[i].length;
+		}
+		bytesPerRecord = batchSize / BATCH_RECORDS;
+		lz4BytesPerRecord = compressedSize(batch, CompressionType.LZ4);
+		zstdBytesPerRecord = compressedSize(batch, CompressionType.ZSTD);
+	}
+
+	private long compressedSize(byte[][] batch, CompressionType compressionType) throws IOException {
+		ByteBufferOutputStream buffer = new ByteBufferOutputStream(1024);
+		try (OutputStream out = compressionType.wrapForOutput(buffer, RecordBatch.CURRENT_MAGIC_VALUE)) {
+			for (byte[] record : batch) {
+				out.write(record);
+			}
+		}
+		ByteBuffer compressed = buffer.buffer();
+		return compressed.position() / batch.length;
+	}
+
+	@TearDown
+	public void tearDown() {
+		serializer.close();
+		deserializer.close();
+	}
+
+	@Benchmark
+	public byte[] serialize(RecordSizes recordSizes) {
+		return serializer.serialize(TOPIC, new RecordHeaders(), containerDTO);
+	}
+
+	@Benchmark
+	public Object deserialize(RecordSizes recordSizes) {
+		return deserializer.deserialize(TOPIC, headers, data);
+	}
+
+	/**
+	 * Sizes of a record, alone and compressed in batches of {@value #BATCH_RECORDS} records.
+	 * They are set, not counted, so they are reported as is in every iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RecordSizes {
+
+		public long bytesPerRecord;
+		public long lz4BytesPerRecord;
+		public long zstdBytesPerRecord;
+
+		@Setup(Level.Iteration)
+		public void setup(KafkaSerializersBenchmark benchmark) {
+			bytesPerRecord = benchmark.bytesPerRecord;
+			lz4BytesPerRecord = benchmark.lz4BytesPerRecord;
+			zstdBytesPerRecord = benchmark.zstdBytesPerRecord;
+		}
+
+	}
+
+}
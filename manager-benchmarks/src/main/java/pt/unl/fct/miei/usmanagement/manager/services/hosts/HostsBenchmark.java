@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.hosts;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkContext;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.hosts.edge.EdgeHost;
+import pt.unl.fct.miei.usmanagement.manager.hosts.edge.EdgeHosts;
+import pt.unl.fct.miei.usmanagement.manager.nodes.Node;
+import pt.unl.fct.miei.usmanagement.manager.nodes.NodeConstants;
+import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing the host to place a container on, between the closest swarm node and the closest inactive edge and cloud hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HostsBenchmark {
+
+	private static final int LOCATIONS = 1024;
+
+	@Param({"100", "1000"})
+	private int edgeHostsCount;
+
+	private HostsService hostsService;
+	private Node closestNode;
+	private Coordinates[] locations;
+	private int next;
+
+	@Setup
+	public void setup() {
+		hostsService = BenchmarkContext.getBean(HostsService.class);
+		Random random = BenchmarkFixtures.random();
+		EdgeHosts edgeHosts = BenchmarkContext.getBean(EdgeHosts.class);
+		List<EdgeHost> hosts = new ArrayList<>();
+		for (int i = 0; i < edgeHostsCount; i++) {
+			Coordinates coordinates = BenchmarkFixtures.randomCoordinates(random);
+			hosts.add(EdgeHost.builder()
+				.username("user")
+				.publicIpAddress("10.0." + i / 256 + "." + i % 256)
+				.privateIpAddress("192.168." + i / 256 + "." + i % 256)
+				.publicDnsName("edge-" + i)
+				.region(RegionEnum.getClosestRegion(coordinates))
+				.coordinates(coordinates)
+				.local(false)
+				.build());
+		}
+		edgeHosts.saveAll(hosts);
+
+		Coordinates nodeCoordinates = BenchmarkFixtures.randomCoordinates(random);
+		Map<String, String> labels = new HashMap<>();
+		labels.put(NodeConstants.Label.USERNAME, "user");
+		labels.put(NodeConstants.Label.PRIVATE_IP_ADDRESS, "172.16.0.1");
+		labels.put(NodeConstants.Label.COORDINATES, new Gson().toJson(nodeCoordinates));
+		labels.put(NodeConstants.Label.REGION, RegionEnum.getClosestRegion(nodeCoordinates).name());
+		closestNode = Node.builder()
+			.id("benchmark-node")
+			.publicIpAddress("172.16.0.1")
+			.state("ready")
+			.labels(labels)
+			.build();
+
+		// locations are kept near the seeded edge hosts, so no iteration falls through to launching a cloud instance
+		locations = new Coordinates[LOCATIONS];
+		for (int i = 0; i < LOCATIONS; i++) {
+			Coordinates near = hosts.get(random.nextInt(hosts.size())).getCoordinates();
+			locations[i] = new Coordinates(near.getLatitude() + random.nextDouble() - 0.5, near.getLongitude() + random.nextDouble() - 0.5);
+		}
+	}
+
+	@Benchmark
+	public HostAddress getClosestNode() {
+		Coordinates coordinates = locations[next++ & (LOCATIONS - 1)];
+		return hostsService.getClosestNode(coordinates, closestNode);
+	}
+
+}
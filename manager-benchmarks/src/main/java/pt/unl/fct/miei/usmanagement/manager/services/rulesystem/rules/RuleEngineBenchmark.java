@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.operators.OperatorEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ContainerEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.condition.Condition;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.ServiceDecisionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of the rules of a service against container events, by each rule engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+	private static final String SERVICE_NAME = "benchmark-service";
+	private static final String SERVICE_RULE_TEMPLATE = "drools/service-rule-template.drl";
+	private static final List<String> FIELDS = List.of("cpu-%-effective-val", "ram-%-effective-val",
+		"rx-bytes-per-sec-effective-val", "tx-bytes-per-sec-effective-val", "latency-effective-val");
+	private static final int EVENTS = 1024;
+
+	@Param({"drools", "compiled"})
+	private String engine;
+
+	@Param({"5", "50"})
+	private int rulesCount;
+
+	private RuleEngine ruleEngine;
+	private HostAddress hostAddress;
+	private ContainerEvent[] events;
+	private int next;
+
+	@Setup
+	public void setup() {
+		ruleEngine = "drools".equals(engine)
+			? new DroolsService(new SimpleMeterRegistry())
+			: new CompiledRuleEngine(new SimpleMeterRegistry());
+		hostAddress = new HostAddress("127.0.0.1");
+		Random random = BenchmarkFixtures.random();
+		List<Rule> rules = new ArrayList<>();
+		for (int i = 0; i < rulesCount; i++) {
+			List<Condition> conditions = new ArrayList<>();
+			int conditionsCount = 1 + random.nextInt(3);
+			for (int j = 0; j < conditionsCount; j++) {
+				String field = FIELDS.get(random.nextInt(FIELDS.size()));
+				OperatorEnum operator = OperatorEnum.values()[random.nextInt(OperatorEnum.values().length)];
+				conditions.add(new Condition(field, random.nextDouble() * 100, operator));
+			}
+			RuleDecisionEnum decision = RuleDecisionEnum.values()[random.nextInt(4)];
+			rules.add(new Rule(i + 1, conditions, decision, i + 1));
+		}
+		events = new ContainerEvent[EVENTS];
+		for (int i = 0; i < EVENTS; i++) {
+			ContainerEvent event = new ContainerEvent("container-" + i, SERVICE_NAME, hostAddress);
+			FIELDS.forEach(field -> event.getFields().put(field, random.nextDouble() * 100));
+			events[i] = event;
+		}
+		ruleEngine.createNewServiceRuleSession(SERVICE_NAME, events[0], rules, SERVICE_RULE_TEMPLATE);
+		// waits for the rule session to be built
+		ruleEngine.evaluate(hostAddress, events[0]);
+	}
+
+	@Benchmark
+	public ServiceDecisionResult evaluate() {
+		ContainerEvent event = events[next++ & (EVENTS - 1)];
+		return ruleEngine.evaluate(hostAddress, event);
+	}
+
+}
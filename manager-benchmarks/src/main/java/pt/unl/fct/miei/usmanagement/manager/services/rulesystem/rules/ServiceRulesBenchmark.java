@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkContext;
+import pt.unl.fct.miei.usmanagement.manager.BenchmarkFixtures;
+import pt.unl.fct.miei.usmanagement.manager.containers.Containers;
+import pt.unl.fct.miei.usmanagement.manager.fields.Field;
+import pt.unl.fct.miei.usmanagement.manager.fields.Fields;
+import pt.unl.fct.miei.usmanagement.manager.operators.Operator;
+import pt.unl.fct.miei.usmanagement.manager.operators.OperatorEnum;
+import pt.unl.fct.miei.usmanagement.manager.operators.Operators;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Condition;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Conditions;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decisions;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleConditionKey;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRule;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRuleCondition;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRuleConditions;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRules;
+import pt.unl.fct.miei.usmanagement.manager.services.Services;
+import pt.unl.fct.miei.usmanagement.manager.valuemodes.ValueMode;
+import pt.unl.fct.miei.usmanagement.manager.valuemodes.ValueModes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the rules of a container from the database and turning them into the rules given to the rule engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceRulesBenchmark {
+
+	private static final String SERVICE_NAME = "benchmark-service";
+	private static final String CONTAINER_ID = "benchmark-container";
+	private static final List<String> FIELDS = List.of("cpu-%", "ram-%", "rx-bytes-per-sec", "tx-bytes-per-sec", "latency");
+	private static final int CONDITIONS = 50;
+	private static final int GENERIC_RULES = 20;
+	private static final int SERVICE_RULES = 10;
+
+	private ServiceRulesService serviceRulesService;
+
+	@Setup
+	public void setup() {
+		serviceRulesService = BenchmarkContext.getBean(ServiceRulesService.class);
+		Random random = BenchmarkFixtures.random();
+
+		ValueMode valueMode = BenchmarkContext.getBean(ValueModes.class).save(ValueMode.builder().name("effective-val").build());
+		List<Field> fields = new ArrayList<>();
+		for (String field : FIELDS) {
+			fields.add(BenchmarkContext.getBean(Fields.class).save(Field.builder().name(field).build()));
+		}
+		List<Operator> operators = new ArrayList<>();
+		for (OperatorEnum operator : OperatorEnum.values()) {
+			operators.add(BenchmarkContext.getBean(Operators.class).save(
+				Operator.builder().operator(operator).symbol(operator.getSymbol()).build()));
+		}
+		List<Decision> decisions = new ArrayList<>();
+		for (RuleDecisionEnum decision : List.of(RuleDecisionEnum.NONE, RuleDecisionEnum.REPLICATE, RuleDecisionEnum.MIGRATE, RuleDecisionEnum.STOP)) {
+			decisions.add(BenchmarkContext.getBean(Decisions.class).save(Decision.builder().ruleDecision(decision).build()));
+		}
+		Conditions conditionsRepository = BenchmarkContext.getBean(Conditions.class);
+		List<Condition> conditions = new ArrayList<>();
+		for (int i = 0; i < CONDITIONS; i++) {
+			conditions.add(conditionsRepository.save(Condition.builder()
+				.name("condition-" + i)
+				.valueMode(valueMode)
+				.field(fields.get(random.nextInt(fields.size())))
+				.operator(operators.get(random.nextInt(operators.size())))
+				.value(random.nextInt(100))
+				.build()));
+		}
+
+		ServiceRules serviceRulesRepository = BenchmarkContext.getBean(ServiceRules.class);
+		ServiceRuleConditions ruleConditionsRepository = BenchmarkContext.getBean(ServiceRuleConditions.class);
+		List<ServiceRule> serviceRules = new ArrayList<>();
+		for (int i = 0; i < GENERIC_RULES + SERVICE_RULES; i++) {
+			ServiceRule rule = serviceRulesRepository.save(ServiceRule.builder()
+				.name("rule-" + i)
+				.priority(i)
+				.decision(decisions.get(random.nextInt(decisions.size())))
+				.generic(i < GENERIC_RULES)
+				.build());
+			int conditionsCount = 1 + random.nextInt(3);
+			for (int j = 0; j < conditionsCount; j++) {
+				Condition condition = conditions.get(random.nextInt(conditions.size()));
+				ruleConditionsRepository.save(ServiceRuleCondition.builder()
+					.id(new RuleConditionKey(rule.getId(), condition.getId()))
+					.rule(rule)
+					.condition(condition)
+					.build());
+			}
+			if (!rule.isGeneric()) {
+				serviceRules.add(rule);
+			}
+		}
+
+		BenchmarkContext.getBean(Services.class).save(BenchmarkFixtures.service(SERVICE_NAME).toBuilder()
+			.serviceRules(serviceRules)
+			.build());
+		BenchmarkContext.getBean(Containers.class).save(BenchmarkFixtures.container(CONTAINER_ID, SERVICE_NAME, random));
+	}
+
+	@Benchmark
+	public List<Rule> generateServiceRules() {
+		return serviceRulesService.generateServiceRules(SERVICE_NAME, CONTAINER_ID);
+	}
+
+}
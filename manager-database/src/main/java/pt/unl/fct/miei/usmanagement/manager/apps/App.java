@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.AppSimulatedMetric;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.AppRule;
@@ -39,12 +40,13 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.AppRule;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -58,8 +60,15 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "apps")
+@NamedEntityGraph(name = App.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("appServices"),
+	@NamedAttributeNode("appRules"),
+	@NamedAttributeNode("simulatedAppMetrics")
+})
 public class App /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "App.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -74,12 +83,12 @@ public class App /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "app", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "app", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<AppService> appServices;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "app_rules",
 		joinColumns = @JoinColumn(name = "app_id"),
 		inverseJoinColumns = @JoinColumn(name = "rule_id")
@@ -88,13 +97,28 @@ public class App /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "app_simulated_metrics",
 		joinColumns = @JoinColumn(name = "app_id"),
 		inverseJoinColumns = @JoinColumn(name = "simulated_metric_id")
 	)
 	private Set<AppSimulatedMetric> simulatedAppMetrics;
 
+	/**
+	 * Services, rules and simulated metrics are loaded through the {@link #ENTITIES} graph, and skipped by the mappers otherwise.
+	 */
+	public boolean hasAppServices() {
+		return Hibernate.isInitialized(appServices);
+	}
+
+	public boolean hasAppRules() {
+		return Hibernate.isInitialized(appRules);
+	}
+
+	public boolean hasSimulatedAppMetrics() {
+		return Hibernate.isInitialized(simulatedAppMetrics);
+	}
+
 	public void addRule(AppRule rule) {
 		appRules.add(rule);
 		rule.getApps().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.apps;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,11 +37,18 @@ import java.util.Optional;
 
 public interface Apps extends JpaRepository<App, Long> {
 
-	@Query("select a "
-		+ "from App a left join fetch a.appServices left join fetch a.appRules left join fetch a.simulatedAppMetrics "
+	@EntityGraph(App.ENTITIES)
+	@Query("select distinct a "
+		+ "from App a "
 		+ "where lower(a.name) = lower(:appName)")
 	Optional<App> findByNameWithEntities(String appName);
 
+	@EntityGraph(App.ENTITIES)
+	@Query("select distinct a "
+		+ "from App a "
+		+ "where a.id = :id")
+	Optional<App> getAppAndEntities(@Param("id") Long id);
+
 	@Query("select case when count(a) > 0 then true else false end "
 		+ "from App a "
 		+ "where lower(a.name) = lower(:appName)")
@@ -81,8 +89,9 @@ public interface Apps extends JpaRepository<App, Long> {
 	Optional<AppSimulatedMetric> getSimulatedMetric(@Param("appName") String appName,
 													@Param("simulatedMetricName") String simulatedMetricName);
 
-	@Query("select a "
-		+ "from App a left join fetch a.simulatedAppMetrics join fetch a.appRules join fetch a.appServices")
+	@EntityGraph(App.ENTITIES)
+	@Query("select distinct a "
+		+ "from App a")
 	List<App> getAppsAndRelations();
 }
 
@@ -1,7 +1,14 @@
 package pt.unl.fct.miei.usmanagement.manager.configurations;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface Configurations extends JpaRepository<Configuration, String> {
 
+	@Query("select c.id "
+		+ "from Configuration c")
+	List<String> getIds();
+
 }
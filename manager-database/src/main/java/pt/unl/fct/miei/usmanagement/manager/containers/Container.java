@@ -34,6 +34,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
 import lombok.ToString;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.NaturalId;
@@ -43,15 +44,19 @@ import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ContainerSimulated
 import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ContainerRule;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import java.util.Map;
@@ -67,9 +72,15 @@ import java.util.Set;
 @ToString(exclude = {"containerRules", "simulatedContainerMetrics"})
 @JsonPropertyOrder({ "id", "type", "created", "name", "image", "command", "network", "publicIpAddress", "privateIpAddress", "mounts",
 		"ports", "labels", "region", "state", "managerId", "coordinates"})
-@Table(name = "containers")
+@Table(name = "containers", indexes = @Index(columnList = "publicIpAddress, privateIpAddress"))
+@NamedEntityGraph(name = Container.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("containerRules"),
+	@NamedAttributeNode("simulatedContainerMetrics")
+})
 public class Container /*extends AbstractEntity<String> */ {
 
+	public static final String ENTITIES = "Container.entities";
+
 	@Id
 	@NaturalId
 	private String id;
@@ -107,6 +118,7 @@ public class Container /*extends AbstractEntity<String> */ {
 
 	@MapKeyColumn(name = "LABEL_KEY", length = 64)
 	@Column(name = "LABEL_VALUE", length = 2048)
+	@CollectionTable(name = "container_labels", indexes = @Index(columnList = "LABEL_KEY, LABEL_VALUE"))
 	@ElementCollection(fetch = FetchType.EAGER)
 	@Fetch(value = FetchMode.SUBSELECT)
 	private Map<String, String> labels;
@@ -122,7 +134,7 @@ public class Container /*extends AbstractEntity<String> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "container_rules",
 		joinColumns = @JoinColumn(name = "container_id"),
 		inverseJoinColumns = @JoinColumn(name = "rule_id")
@@ -131,7 +143,7 @@ public class Container /*extends AbstractEntity<String> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "container_simulated_metrics",
 		joinColumns = @JoinColumn(name = "container_id"),
 		inverseJoinColumns = @JoinColumn(name = "simulated_metric_id")
@@ -152,6 +164,18 @@ public class Container /*extends AbstractEntity<String> */ {
 		return String.format("%s:%s", publicIpAddress, labels.get(ContainerConstants.Label.SERVICE_PORT));
 	}
 
+	/**
+	 * Rules and simulated metrics are only loaded through the {@link #ENTITIES} graph.
+	 * Mappers check these before reading them, so that unloaded associations are skipped instead of failing outside a session.
+	 */
+	public boolean hasContainerRules() {
+		return Hibernate.isInitialized(containerRules);
+	}
+
+	public boolean hasSimulatedContainerMetrics() {
+		return Hibernate.isInitialized(simulatedContainerMetrics);
+	}
+
 	public void addRule(ContainerRule rule) {
 		containerRules.add(rule);
 		rule.getContainers().add(this);
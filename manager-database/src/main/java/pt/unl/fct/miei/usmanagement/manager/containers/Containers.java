@@ -24,12 +24,14 @@
 
 package pt.unl.fct.miei.usmanagement.manager.containers;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ContainerSimulatedMetric;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ContainerRule;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -66,7 +68,48 @@ public interface Containers extends JpaRepository<Container, String> {
 		+ "where c.id = :containerId")
 	boolean hasContainer(@Param("containerId") String containerId);
 
-	@Query("select c "
-		+ "from Container c left join fetch c.containerRules left join fetch c.simulatedContainerMetrics")
+	@EntityGraph(Container.ENTITIES)
+	@Query("select distinct c "
+		+ "from Container c")
 	List<Container> getContainersAndEntities();
+
+	@EntityGraph(Container.ENTITIES)
+	@Query("select distinct c "
+		+ "from Container c "
+		+ "where c.id = :containerId")
+	Optional<Container> getContainerAndEntities(@Param("containerId") String containerId);
+
+	@EntityGraph(Container.ENTITIES)
+	@Query("select distinct c "
+		+ "from Container c "
+		+ "where c.id like concat(:containerId, '%')")
+	Optional<Container> getContainerAndEntitiesStartingWith(@Param("containerId") String containerId);
+
+	@Query("select distinct c "
+		+ "from Container c join c.labels l "
+		+ "where key(l) = :key and value(l) in :values")
+	List<Container> getContainersWithLabel(@Param("key") String key, @Param("values") Collection<String> values);
+
+	@Query("select distinct c "
+		+ "from Container c join c.labels l "
+		+ "where c.publicIpAddress = :publicIpAddress and c.privateIpAddress = :privateIpAddress "
+		+ "and key(l) = :key and value(l) in :values")
+	List<Container> getHostContainersWithLabel(@Param("publicIpAddress") String publicIpAddress,
+											   @Param("privateIpAddress") String privateIpAddress,
+											   @Param("key") String key, @Param("values") Collection<String> values);
+
+	@Query("select case when count(c) > 0 then true else false end "
+		+ "from Container c join c.labels l "
+		+ "where key(l) = :key and value(l) in :values")
+	boolean hasContainersWithLabel(@Param("key") String key, @Param("values") Collection<String> values);
+
+	@Query("select c "
+		+ "from Container c join c.labels st join c.labels ct join c.labels sn "
+		+ "where c.publicIpAddress = :publicIpAddress and c.privateIpAddress = :privateIpAddress "
+		+ "and key(st) = '" + ContainerConstants.Label.SERVICE_TYPE + "' and value(st) = 'SYSTEM' "
+		+ "and key(ct) = '" + ContainerConstants.Label.CONTAINER_TYPE + "' and value(ct) = 'SINGLETON' "
+		+ "and key(sn) = '" + ContainerConstants.Label.SERVICE_NAME + "' and value(sn) = :serviceName")
+	List<Container> getSingletonContainers(@Param("publicIpAddress") String publicIpAddress,
+										   @Param("privateIpAddress") String privateIpAddress,
+										   @Param("serviceName") String serviceName);
 }
@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.metrics.PrometheusQueryEnum;
 import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.HostSimulatedMetric;
@@ -41,7 +42,6 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Condition;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
@@ -72,19 +72,31 @@ public class Field /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<Condition> conditions;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<HostSimulatedMetric> simulatedHostMetrics;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "field", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceSimulatedMetric> simulatedServiceMetrics;
 
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
+	public boolean hasSimulatedHostMetrics() {
+		return Hibernate.isInitialized(simulatedHostMetrics);
+	}
+
+	public boolean hasSimulatedServiceMetrics() {
+		return Hibernate.isInitialized(simulatedServiceMetrics);
+	}
+
 	public void clearAssociations() {
 		if (conditions != null) {
 			conditions.clear();
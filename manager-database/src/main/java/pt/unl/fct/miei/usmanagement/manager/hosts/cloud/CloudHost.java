@@ -35,6 +35,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.NaturalId;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
@@ -44,13 +45,14 @@ import pt.unl.fct.miei.usmanagement.manager.services.PlaceEnum;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
 
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import java.util.Objects;
@@ -63,8 +65,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "cloud_hosts")
+@NamedEntityGraph(name = CloudHost.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("hostRules"),
+	@NamedAttributeNode("simulatedHostMetrics")
+})
 public class CloudHost /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "CloudHost.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -99,7 +107,7 @@ public class CloudHost /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "cloud_host_rules",
 		joinColumns = @JoinColumn(name = "cloud_host_id"),
 		inverseJoinColumns = @JoinColumn(name = "rule_id")
@@ -108,13 +116,24 @@ public class CloudHost /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "cloud_host_simulated_metrics",
 		joinColumns = @JoinColumn(name = "cloud_host_id"),
 		inverseJoinColumns = @JoinColumn(name = "simulated_metric_id")
 	)
 	private Set<HostSimulatedMetric> simulatedHostMetrics;
 
+	/**
+	 * Rules and simulated metrics are loaded through the {@link #ENTITIES} graph, e.g. by the synchronization with amazon.
+	 */
+	public boolean hasHostRules() {
+		return Hibernate.isInitialized(hostRules);
+	}
+
+	public boolean hasSimulatedHostMetrics() {
+		return Hibernate.isInitialized(simulatedHostMetrics);
+	}
+
 	public void addRule(HostRule rule) {
 		hostRules.add(rule);
 		rule.getCloudHosts().add(this);
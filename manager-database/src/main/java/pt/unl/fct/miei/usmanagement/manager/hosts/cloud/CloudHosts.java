@@ -25,6 +25,7 @@
 package pt.unl.fct.miei.usmanagement.manager.hosts.cloud;
 
 import com.amazonaws.services.ec2.model.InstanceType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -85,10 +86,17 @@ public interface CloudHosts extends JpaRepository<CloudHost, Long> {
 		+ "where h.publicIpAddress = :hostname or h.instanceId = :hostname")
 	boolean hasCloudHost(@Param("hostname") String hostname);
 
-	@Query("select h "
-		+ "from CloudHost h left join fetch h.hostRules left join fetch h.simulatedHostMetrics")
+	@EntityGraph(CloudHost.ENTITIES)
+	@Query("select distinct h "
+		+ "from CloudHost h")
 	List<CloudHost> getCloudHostsAndRelations();
 
+	@EntityGraph(CloudHost.ENTITIES)
+	@Query("select distinct h "
+		+ "from CloudHost h "
+		+ "where h.id = :id")
+	Optional<CloudHost> getCloudHostAndEntities(@Param("id") Long id);
+
 	@Query("select h "
 		+ "from CloudHost h "
 		+ "where h.instanceType = :type")
@@ -33,6 +33,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.NaturalId;
 import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
@@ -44,13 +45,14 @@ import pt.unl.fct.miei.usmanagement.manager.services.PlaceEnum;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
 
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import java.util.Objects;
@@ -63,8 +65,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "edge_hosts")
+@NamedEntityGraph(name = EdgeHost.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("hostRules"),
+	@NamedAttributeNode("simulatedHostMetrics")
+})
 public class EdgeHost /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "EdgeHost.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -98,7 +106,7 @@ public class EdgeHost /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "edge_host_rules",
 		joinColumns = @JoinColumn(name = "edge_host_id"),
 		inverseJoinColumns = @JoinColumn(name = "rule_id")
@@ -107,7 +115,7 @@ public class EdgeHost /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "edge_host_simulated_metrics",
 		joinColumns = @JoinColumn(name = "edge_host_id"),
 		inverseJoinColumns = @JoinColumn(name = "simulated_metric_id")
@@ -119,6 +127,17 @@ public class EdgeHost /*extends AbstractEntity<Long> */ {
 		return this.publicDnsName == null ? this.publicIpAddress : this.publicDnsName;
 	}
 
+	/**
+	 * Rules and simulated metrics are loaded through the {@link #ENTITIES} graph.
+	 */
+	public boolean hasHostRules() {
+		return Hibernate.isInitialized(hostRules);
+	}
+
+	public boolean hasSimulatedHostMetrics() {
+		return Hibernate.isInitialized(simulatedHostMetrics);
+	}
+
 	public void addRule(HostRule rule) {
 		hostRules.add(rule);
 		rule.getEdgeHosts().add(this);
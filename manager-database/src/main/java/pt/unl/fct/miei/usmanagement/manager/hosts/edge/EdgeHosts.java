@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.hosts.edge;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -41,6 +42,12 @@ public interface EdgeHosts extends JpaRepository<EdgeHost, Long> {
 		+ "where h.id = :id")
 	Optional<EdgeHost> getEdgeHostWithWorker(@Param("id") Long id);
 
+	@EntityGraph(EdgeHost.ENTITIES)
+	@Query("select distinct h "
+		+ "from EdgeHost h "
+		+ "where h.id = :id")
+	Optional<EdgeHost> getEdgeHostAndEntities(@Param("id") Long id);
+
 	Optional<EdgeHost> findByPublicDnsName(@Param("publicDnsName") String publicDnsName);
 
 	Optional<EdgeHost> findByPublicDnsNameOrPublicIpAddress(@Param("publicDnsName") String publicDnsName,
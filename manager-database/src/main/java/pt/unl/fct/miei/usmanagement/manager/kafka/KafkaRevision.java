@@ -0,0 +1,59 @@
+package pt.unl.fct.miei.usmanagement.manager.kafka;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.util.Objects;
+
+/**
+ * The last record of a topic partition applied to this manager's database.
+ */
+@Entity
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@NoArgsConstructor
+@Setter
+@Getter
+@Table(name = "kafka_revisions")
+public class KafkaRevision {
+
+	// topic-partition
+	@Id
+	private String id;
+
+	@NotNull
+	private String topic;
+
+	@Column(name = "topic_partition")
+	private int partition;
+
+	// offset of the last applied record
+	private long revision;
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getId());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof KafkaRevision)) {
+			return false;
+		}
+		KafkaRevision other = (KafkaRevision) o;
+		return id != null && id.equals(other.getId());
+	}
+
+}
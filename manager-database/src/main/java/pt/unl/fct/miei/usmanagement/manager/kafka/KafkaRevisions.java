@@ -0,0 +1,7 @@
+package pt.unl.fct.miei.usmanagement.manager.kafka;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface KafkaRevisions extends JpaRepository<KafkaRevision, String> {
+
+}
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.metrics.simulated;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,6 +37,11 @@ public interface AppSimulatedMetrics extends JpaRepository<AppSimulatedMetric, L
 
 	Optional<AppSimulatedMetric> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(AppSimulatedMetric.ENTITIES)
+	@Query("select distinct m "
+		+ "from AppSimulatedMetric m")
+	List<AppSimulatedMetric> getAppSimulatedMetricsAndEntities();
+
 	@Query("select m "
 		+ "from AppSimulatedMetric m left join m.apps s "
 		+ "where s.name = :name")
@@ -32,18 +32,20 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
 import pt.unl.fct.miei.usmanagement.manager.fields.Field;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -58,8 +60,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "simulated_container_metrics")
+@NamedEntityGraph(name = ContainerSimulatedMetric.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("field"),
+	@NamedAttributeNode("containers")
+})
 public class ContainerSimulatedMetric /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "ContainerSimulatedMetric.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -88,9 +96,16 @@ public class ContainerSimulatedMetric /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "simulatedContainerMetrics", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "simulatedContainerMetrics")
 	private Set<Container> containers;
 
+	/**
+	 * The containers are loaded through the {@link #ENTITIES} graph, which the monitoring reads the simulated metrics with.
+	 */
+	public boolean hasContainers() {
+		return Hibernate.isInitialized(containers);
+	}
+
 	public void addContainer(Container container) {
 		containers.add(container);
 		container.getSimulatedContainerMetrics().add(this);
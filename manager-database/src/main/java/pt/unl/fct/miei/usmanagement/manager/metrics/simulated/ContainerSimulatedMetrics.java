@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.metrics.simulated;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,6 +37,11 @@ public interface ContainerSimulatedMetrics extends JpaRepository<ContainerSimula
 
 	Optional<ContainerSimulatedMetric> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(ContainerSimulatedMetric.ENTITIES)
+	@Query("select distinct m "
+		+ "from ContainerSimulatedMetric m")
+	List<ContainerSimulatedMetric> getContainerSimulatedMetricsAndEntities();
+
 	@Query("select m "
 		+ "from ContainerSimulatedMetric m left join m.containers c "
 		+ "where c.id = :containerId")
@@ -33,6 +33,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.fields.Field;
 import pt.unl.fct.miei.usmanagement.manager.hosts.cloud.CloudHost;
@@ -40,7 +41,6 @@ import pt.unl.fct.miei.usmanagement.manager.hosts.edge.EdgeHost;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -93,14 +93,25 @@ public class HostSimulatedMetric /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "simulatedHostMetrics", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "simulatedHostMetrics")
 	private Set<CloudHost> cloudHosts;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "simulatedHostMetrics", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "simulatedHostMetrics")
 	private Set<EdgeHost> edgeHosts;
 
+	/**
+	 * The monitoring of the hosts looks up the simulated metrics by host, so the hosts are only loaded when changed.
+	 */
+	public boolean hasCloudHosts() {
+		return Hibernate.isInitialized(cloudHosts);
+	}
+
+	public boolean hasEdgeHosts() {
+		return Hibernate.isInitialized(edgeHosts);
+	}
+
 	public void addCloudHost(CloudHost cloudHost) {
 		cloudHosts.add(cloudHost);
 		cloudHost.getSimulatedHostMetrics().add(this);
@@ -31,18 +31,20 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.fields.Field;
 import pt.unl.fct.miei.usmanagement.manager.services.Service;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -57,8 +59,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "simulated_service_metrics")
+@NamedEntityGraph(name = ServiceSimulatedMetric.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("field"),
+	@NamedAttributeNode("services")
+})
 public class ServiceSimulatedMetric /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "ServiceSimulatedMetric.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -90,9 +98,16 @@ public class ServiceSimulatedMetric /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "simulatedServiceMetrics", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "simulatedServiceMetrics")
 	private Set<Service> services;
 
+	/**
+	 * The services are loaded through the {@link #ENTITIES} graph, which the monitoring reads the simulated metrics with.
+	 */
+	public boolean hasServices() {
+		return Hibernate.isInitialized(services);
+	}
+
 	public void addService(Service service) {
 		services.add(service);
 		service.getSimulatedServiceMetrics().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.metrics.simulated;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,6 +37,11 @@ public interface ServiceSimulatedMetrics extends JpaRepository<ServiceSimulatedM
 
 	Optional<ServiceSimulatedMetric> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(ServiceSimulatedMetric.ENTITIES)
+	@Query("select distinct m "
+		+ "from ServiceSimulatedMetric m")
+	List<ServiceSimulatedMetric> getServiceSimulatedMetricsAndEntities();
+
 	@Query("select m "
 		+ "from ServiceSimulatedMetric m left join m.services s "
 		+ "where m.generic = true or lower(s.serviceName) = lower(:serviceName)")
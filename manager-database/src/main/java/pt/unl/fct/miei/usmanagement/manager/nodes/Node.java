@@ -8,8 +8,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.NaturalId;
 import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
@@ -18,9 +16,10 @@ import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import java.util.Map;
@@ -33,8 +32,11 @@ import java.util.Objects;
 @Setter
 @Getter
 @Table(name = "nodes")
+@NamedEntityGraph(name = Node.LABELS, attributeNodes = @NamedAttributeNode("labels"))
 public class Node /*extends AbstractEntity<String> */ {
 
+	public static final String LABELS = "Node.labels";
+
 	@Id
 	@NaturalId
 	private String id;
@@ -56,8 +58,7 @@ public class Node /*extends AbstractEntity<String> */ {
 
 	@MapKeyColumn(name = "LABEL_KEY", length = 64)
 	@Column(name = "LABEL_VALUE", length = 2048)
-	@ElementCollection(fetch = FetchType.EAGER)
-	@Fetch(value = FetchMode.SUBSELECT)
+	@ElementCollection
 	private Map<String, String> labels;
 
 	@JsonIgnore
@@ -1,22 +1,54 @@
 package pt.unl.fct.miei.usmanagement.manager.nodes;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface Nodes extends JpaRepository<Node, String> {
 
-	List<Node> findByPublicIpAddress(String publicIpAddress);
+	@Override
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n")
+	List<Node> findAll();
 
-	List<Node> findByAvailability(NodeAvailability nodeAvailability);
+	@Override
+	@EntityGraph(Node.LABELS)
+	Optional<Node> findById(String id);
 
-	List<Node> findByState(String state);
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n "
+		+ "where n.publicIpAddress = :publicIpAddress")
+	List<Node> findByPublicIpAddress(@Param("publicIpAddress") String publicIpAddress);
+
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n "
+		+ "where n.availability = :nodeAvailability")
+	List<Node> findByAvailability(@Param("nodeAvailability") NodeAvailability nodeAvailability);
 
-	List<Node> findByStateAndManagerStatusIsNotNull(String state);
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n "
+		+ "where n.state = :state")
+	List<Node> findByState(@Param("state") String state);
 
-	List<Node> findByStateAndManagerStatusIsNull(String state);
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n "
+		+ "where n.state = :state and n.managerStatus is not null")
+	List<Node> findByStateAndManagerStatusIsNotNull(@Param("state") String state);
+
+	@EntityGraph(Node.LABELS)
+	@Query("select distinct n "
+		+ "from Node n "
+		+ "where n.state = :state and n.managerStatus is null")
+	List<Node> findByStateAndManagerStatusIsNull(@Param("state") String state);
 
 	@Query("select case when count(n) > 0 then true else false end "
 		+ "from Node n "
@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.NaturalId;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Condition;
@@ -40,7 +41,6 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
@@ -73,9 +73,13 @@ public class Operator /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "operator", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "operator")
 	private Set<Condition> conditions;
 
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
 	public void clearAssociations() {
 		if (conditions != null) {
 			conditions.clear();
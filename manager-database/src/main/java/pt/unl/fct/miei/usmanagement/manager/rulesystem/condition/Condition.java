@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.fields.Field;
 import pt.unl.fct.miei.usmanagement.manager.operators.Operator;
@@ -44,7 +45,6 @@ import pt.unl.fct.miei.usmanagement.manager.valuemodes.ValueMode;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -89,24 +89,40 @@ public class Condition /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<HostRuleCondition> hostConditions;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<AppRuleCondition> appConditions;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceRuleCondition> serviceConditions;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "condition", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ContainerRuleCondition> containerConditions;
 
+	public boolean hasHostConditions() {
+		return Hibernate.isInitialized(hostConditions);
+	}
+
+	public boolean hasAppConditions() {
+		return Hibernate.isInitialized(appConditions);
+	}
+
+	public boolean hasServiceConditions() {
+		return Hibernate.isInitialized(serviceConditions);
+	}
+
+	public boolean hasContainerConditions() {
+		return Hibernate.isInitialized(containerConditions);
+	}
+
 	public void clearAssociations() {
 		if (hostConditions != null) {
 			hostConditions.clear();
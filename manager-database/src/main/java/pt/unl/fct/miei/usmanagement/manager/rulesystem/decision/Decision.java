@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.componenttypes.ComponentType;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostEvent;
@@ -42,7 +43,6 @@ import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -75,12 +75,12 @@ public class Decision /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "decision", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "decision", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceEvent> serviceEvents;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "decision", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "decision", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<HostEvent> hostEvents;
 
   /*@Singular
@@ -88,14 +88,17 @@ public class Decision /*extends AbstractEntity<Long> */ {
   @OneToMany(mappedBy = "decision", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
   private Set<ServiceDecisionEntity> componentDecisionLogs;*/
 
+	/**
+	 * Events are lazy, so there is nothing to detach from the decision when they were not loaded.
+	 */
 	public void removeServiceEvents() {
-		if (serviceEvents != null) {
+		if (serviceEvents != null && Hibernate.isInitialized(serviceEvents)) {
 			serviceEvents.clear();
 		}
 	}
 
 	public void removeHostEvents() {
-		if (hostEvents != null) {
+		if (hostEvents != null && Hibernate.isInitialized(hostEvents)) {
 			hostEvents.clear();
 		}
 	}
@@ -32,12 +32,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.Basic;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -82,7 +82,7 @@ public class HostDecision /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "hostDecision", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "hostDecision", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<HostDecisionValue> hostDecisionValues;
 
 	@PrePersist
@@ -92,6 +92,10 @@ public class HostDecision /*extends AbstractEntity<Long> */ {
 		}
 	}
 
+	public boolean hasHostDecisionValues() {
+		return Hibernate.isInitialized(hostDecisionValues);
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hashCode(getId());
@@ -32,13 +32,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.Basic;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -83,7 +83,7 @@ public class ServiceDecision /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "serviceDecision", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "serviceDecision", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceDecisionValue> serviceDecisionValues;
 
 	@PrePersist
@@ -93,6 +93,10 @@ public class ServiceDecision /*extends AbstractEntity<Long> */ {
 		}
 	}
 
+	public boolean hasServiceDecisionValues() {
+		return Hibernate.isInitialized(serviceDecisionValues);
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hashCode(getId());
@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.apps.App;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
@@ -39,12 +40,13 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -59,8 +61,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "rules_app")
+@NamedEntityGraph(name = AppRule.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("conditions"),
+	@NamedAttributeNode("apps")
+})
 public class AppRule /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "AppRule.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -78,14 +86,25 @@ public class AppRule /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<AppRuleCondition> conditions;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "appRules", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "appRules")
 	private Set<App> apps;
 
+	/**
+	 * Conditions and apps are loaded through the {@link #ENTITIES} graph.
+	 */
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
+	public boolean hasApps() {
+		return Hibernate.isInitialized(apps);
+	}
+
 	public void addApp(App app) {
 		apps.add(app);
 		app.getAppRules().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.rulesystem.rules;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -42,6 +43,12 @@ public interface AppRules extends JpaRepository<AppRule, Long> {
 
 	Optional<AppRule> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(AppRule.ENTITIES)
+	@Query("select distinct r "
+		+ "from AppRule r "
+		+ "where lower(r.name) = lower(:name)")
+	Optional<AppRule> findByNameWithEntities(@Param("name") String name);
+
 	@Query("select r "
 		+ "from AppRule r left join r.apps s "
 		+ "where s.name = :name")
@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
@@ -39,12 +40,13 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -59,8 +61,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "rules_container")
+@NamedEntityGraph(name = ContainerRule.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("conditions"),
+	@NamedAttributeNode("containers")
+})
 public class ContainerRule /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "ContainerRule.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -78,14 +86,25 @@ public class ContainerRule /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ContainerRuleCondition> conditions;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "containerRules", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "containerRules")
 	private Set<Container> containers;
 
+	/**
+	 * Conditions and containers are loaded through the {@link #ENTITIES} graph.
+	 */
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
+	public boolean hasContainers() {
+		return Hibernate.isInitialized(containers);
+	}
+
 	public void addContainer(Container container) {
 		containers.add(container);
 		container.getContainerRules().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.rulesystem.rules;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -37,6 +38,12 @@ public interface ContainerRules extends JpaRepository<ContainerRule, Long> {
 
 	Optional<ContainerRule> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(ContainerRule.ENTITIES)
+	@Query("select distinct r "
+		+ "from ContainerRule r "
+		+ "where lower(r.name) = lower(:name)")
+	Optional<ContainerRule> findByNameWithEntities(@Param("name") String name);
+
 	@Query("select r "
 		+ "from ContainerRule r join r.containers c "
 		+ "where c.id like concat(:containerId, '%')")
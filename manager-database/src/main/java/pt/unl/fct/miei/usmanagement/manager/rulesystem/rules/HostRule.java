@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.hosts.cloud.CloudHost;
 import pt.unl.fct.miei.usmanagement.manager.hosts.edge.EdgeHost;
@@ -40,12 +41,13 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -60,8 +62,15 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "rules_host")
+@NamedEntityGraph(name = HostRule.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("conditions"),
+	@NamedAttributeNode("cloudHosts"),
+	@NamedAttributeNode("edgeHosts")
+})
 public class HostRule /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "HostRule.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -81,19 +90,34 @@ public class HostRule /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<HostRuleCondition> conditions;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "hostRules", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "hostRules")
 	private Set<CloudHost> cloudHosts;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "hostRules", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "hostRules")
 	private Set<EdgeHost> edgeHosts;
 
+	/**
+	 * Conditions and hosts are loaded through the {@link #ENTITIES} graph.
+	 */
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
+	public boolean hasCloudHosts() {
+		return Hibernate.isInitialized(cloudHosts);
+	}
+
+	public boolean hasEdgeHosts() {
+		return Hibernate.isInitialized(edgeHosts);
+	}
+
 	public void addCloudHost(CloudHost cloudHost) {
 		cloudHosts.add(cloudHost);
 		cloudHost.getHostRules().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.rulesystem.rules;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -38,8 +39,9 @@ public interface HostRules extends JpaRepository<HostRule, Long> {
 
 	Optional<HostRule> findByNameIgnoreCase(@Param("name") String name);
 
-	@Query("select r "
-		+ "from HostRule r left join fetch r.conditions left join fetch r.cloudHosts left join fetch r.edgeHosts "
+	@EntityGraph(HostRule.ENTITIES)
+	@Query("select distinct r "
+		+ "from HostRule r "
 		+ "where lower(r.name) = lower(:name)")
 	Optional<HostRule> findByNameWithEntities(String name);
 
@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
 import pt.unl.fct.miei.usmanagement.manager.services.Service;
@@ -39,12 +40,13 @@ import pt.unl.fct.miei.usmanagement.manager.services.Service;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -59,8 +61,14 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "rules_service")
+@NamedEntityGraph(name = ServiceRule.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("conditions"),
+	@NamedAttributeNode("services")
+})
 public class ServiceRule /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "ServiceRule.entities";
+
 	@Id
 	@GenericGenerator(name = "IdGenerator", strategy = "pt.unl.fct.miei.usmanagement.manager.IdGenerator")
 	@GeneratedValue(generator = "IdGenerator")
@@ -80,14 +88,25 @@ public class ServiceRule /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "rule", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceRuleCondition> conditions;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(mappedBy = "serviceRules", fetch = FetchType.EAGER)
+	@ManyToMany(mappedBy = "serviceRules")
 	private Set<Service> services;
 
+	/**
+	 * Conditions and services are loaded through the {@link #ENTITIES} graph.
+	 */
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
+	public boolean hasServices() {
+		return Hibernate.isInitialized(services);
+	}
+
 	public void addService(Service service) {
 		services.add(service);
 		service.getServiceRules().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.rulesystem.rules;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -37,6 +38,12 @@ public interface ServiceRules extends JpaRepository<ServiceRule, Long> {
 
 	Optional<ServiceRule> findByNameIgnoreCase(@Param("name") String name);
 
+	@EntityGraph(ServiceRule.ENTITIES)
+	@Query("select distinct r "
+		+ "from ServiceRule r "
+		+ "where lower(r.name) = lower(:name)")
+	Optional<ServiceRule> findByNameWithEntities(@Param("name") String name);
+
 	@Query("select r "
 		+ "from ServiceRule r left join r.services s "
 		+ "where r.generic = true or s.serviceName = :serviceName")
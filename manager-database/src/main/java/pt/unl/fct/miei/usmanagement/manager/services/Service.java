@@ -32,6 +32,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.NaturalId;
 import pt.unl.fct.miei.usmanagement.manager.apps.AppService;
@@ -52,6 +55,8 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
@@ -66,8 +71,18 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "services")
+@NamedEntityGraph(name = Service.ENTITIES, attributeNodes = {
+	@NamedAttributeNode("appServices"),
+	@NamedAttributeNode("dependencies"),
+	@NamedAttributeNode("dependents"),
+	@NamedAttributeNode("eventPredictions"),
+	@NamedAttributeNode("serviceRules"),
+	@NamedAttributeNode("simulatedServiceMetrics")
+})
 public class Service /*extends AbstractEntity<Long> */ {
 
+	public static final String ENTITIES = "Service.entities";
+
 	@Id
 	@NaturalId
 	private String serviceName;
@@ -97,9 +112,11 @@ public class Service /*extends AbstractEntity<Long> */ {
 	private ServiceTypeEnum serviceType;
 
 	@ElementCollection(fetch = FetchType.EAGER)
+	@Fetch(value = FetchMode.SUBSELECT)
 	private Set<String> environment;
 
 	@ElementCollection(fetch = FetchType.EAGER)
+	@Fetch(value = FetchMode.SUBSELECT)
 	private Set<String> volumes;
 
 	private Double expectedMemoryConsumption;
@@ -126,27 +143,27 @@ public class Service /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<AppService> appServices;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceDependency> dependencies;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "dependency", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "dependency", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceDependency> dependents;
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<ServiceEventPrediction> eventPredictions;
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "service_rules",
 		joinColumns = @JoinColumn(name = "service_name"),
 		inverseJoinColumns = @JoinColumn(name = "rule_id")
@@ -155,13 +172,41 @@ public class Service /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany
 	@JoinTable(name = "service_simulated_metrics",
 		joinColumns = @JoinColumn(name = "service_name"),
 		inverseJoinColumns = @JoinColumn(name = "simulated_metric_id")
 	)
 	private Set<ServiceSimulatedMetric> simulatedServiceMetrics;
 
+	/**
+	 * The associations are lazy and are loaded together through the {@link #ENTITIES} graph.
+	 * Kafka mappers check these, and leave out of the message the associations that were not loaded.
+	 */
+	public boolean hasAppServices() {
+		return Hibernate.isInitialized(appServices);
+	}
+
+	public boolean hasDependencies() {
+		return Hibernate.isInitialized(dependencies);
+	}
+
+	public boolean hasDependents() {
+		return Hibernate.isInitialized(dependents);
+	}
+
+	public boolean hasEventPredictions() {
+		return Hibernate.isInitialized(eventPredictions);
+	}
+
+	public boolean hasServiceRules() {
+		return Hibernate.isInitialized(serviceRules);
+	}
+
+	public boolean hasSimulatedServiceMetrics() {
+		return Hibernate.isInitialized(simulatedServiceMetrics);
+	}
+
 	public void addRule(ServiceRule rule) {
 		serviceRules.add(rule);
 		rule.getServices().add(this);
@@ -24,6 +24,7 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -62,9 +63,9 @@ public interface Services extends JpaRepository<Service, String> {
 		+ "where lower(s.serviceName) = lower(:serviceName)")
 	List<App> getApps(@Param("serviceName") String serviceName);
 
-	@Query("select a.app "
-		+ "from Service s join s.appServices a left join fetch a.app.appRules "
-		+ "where lower(s.serviceName) = lower(:serviceName)")
+	@Query("select distinct a "
+		+ "from App a join a.appServices s left join fetch a.appRules "
+		+ "where lower(s.service.serviceName) = lower(:serviceName)")
 	List<App> getAppsAndAppRules(@Param("serviceName") String serviceName);
 
 	@Query("select a.app "
@@ -137,17 +138,18 @@ public interface Services extends JpaRepository<Service, String> {
 	Optional<ServiceSimulatedMetric> getSimulatedMetric(@Param("serviceName") String serviceName,
 														@Param("simulatedMetricName") String simulatedMetricName);
 
-	@Query("select s "
+	@EntityGraph(Service.ENTITIES)
+	@Query("select distinct s "
 		+ "from Service s "
-		+ "left join fetch s.appServices "
-		+ "left join fetch s.dependencies "
-		+ "left join fetch s.dependents "
-		+ "left join fetch s.eventPredictions "
-		+ "left join fetch s.serviceRules "
-		+ "left join fetch s.simulatedServiceMetrics "
 		+ "where lower(s.serviceName) = lower(:serviceName)")
 	Optional<Service> findByServiceNameIgnoreCaseWithEntities(String serviceName);
 
+	@EntityGraph(Service.ENTITIES)
+	@Query("select distinct s "
+		+ "from Service s "
+		+ "where s.serviceName = :serviceName")
+	Optional<Service> getServiceAndEntities(@Param("serviceName") String serviceName);
+
 	@Query("select d "
 		+ "from Service s join s.dependencies d "
 		+ "where lower(s.serviceName) = lower(:serviceName)")
@@ -32,13 +32,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Singular;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.GenericGenerator;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Condition;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
@@ -67,9 +67,13 @@ public class ValueMode /*extends AbstractEntity<Long> */ {
 
 	@Singular
 	@JsonIgnore
-	@OneToMany(mappedBy = "valueMode", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "valueMode", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<Condition> conditions;
 
+	public boolean hasConditions() {
+		return Hibernate.isInitialized(conditions);
+	}
+
 	public void clearAssociations() {
 		if (conditions != null) {
 			conditions.clear();
@@ -33,6 +33,7 @@ import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerCoreService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.proxy.DockerApiProxyService;
@@ -43,6 +44,9 @@ import pt.unl.fct.miei.usmanagement.manager.management.monitoring.HostsMonitorin
 import pt.unl.fct.miei.usmanagement.manager.management.monitoring.ServicesMonitoringService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostsEventsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ServicesEventsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.HostCapacityService;
+import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.sync.SyncService;
 
 import java.util.Objects;
@@ -54,6 +58,10 @@ public class ManagerMasterShutdown implements ApplicationListener<ContextClosedE
 
 	private final ContainersService containersService;
 	private final DockerSwarmService dockerSwarmService;
+	private final DockerCoreService dockerCoreService;
+	private final HostCapacityService hostCapacityService;
+	private final SshService sshService;
+	private final SchedulerService schedulerService;
 	private final CloudHostsService cloudHostsService;
 	private final ElasticIpsService elasticIpsService;
 	private final HostsMonitoringService hostsMonitoringService;
@@ -70,9 +78,15 @@ public class ManagerMasterShutdown implements ApplicationListener<ContextClosedE
 								 HostsMonitoringService hostsMonitoringService, ServicesMonitoringService servicesMonitoringService,
 								 HostsEventsService hostsEventsService, ServicesEventsService servicesEventsService,
 								 NodesService nodesService, SyncService syncService, KafkaService kafkaService,
-								 ManagerServicesConfiguration managerServicesConfiguration) {
+								 ManagerServicesConfiguration managerServicesConfiguration,
+								 DockerCoreService dockerCoreService, HostCapacityService hostCapacityService,
+								 SshService sshService, SchedulerService schedulerService) {
 		this.containersService = containersService;
 		this.dockerSwarmService = dockerSwarmService;
+		this.dockerCoreService = dockerCoreService;
+		this.hostCapacityService = hostCapacityService;
+		this.sshService = sshService;
+		this.schedulerService = schedulerService;
 		this.elasticIpsService = elasticIpsService;
 		this.cloudHostsService = cloudHostsService;
 		this.hostsMonitoringService = hostsMonitoringService;
@@ -88,6 +102,7 @@ public class ManagerMasterShutdown implements ApplicationListener<ContextClosedE
 	@Override
 	public void onApplicationEvent(ContextClosedEvent event) {
 		hostsMonitoringService.stopHostMonitoring();
+		hostCapacityService.stop();
 		servicesMonitoringService.stopServiceMonitoring();
 		syncService.stopCloudHostsDatabaseSynchronization();
 		syncService.stopContainersDatabaseSynchronization();
@@ -129,6 +144,10 @@ public class ManagerMasterShutdown implements ApplicationListener<ContextClosedE
 		catch (Exception e) {
 			log.error("Failed to stop all docker api proxies: {}", e.getMessage());
 		}
+		// only stopped now, since stopping the containers schedules tasks, e.g. the stop of idle load balancers
+		schedulerService.stop();
+		dockerCoreService.closeDockerClients();
+		sshService.closeSshClients();
 		hostsEventsService.reset();
 		servicesEventsService.reset();
 		hostsMonitoringService.reset();
@@ -755,7 +755,7 @@ public class DatabaseLoader {
 
 	@Transactional
 	List<CloudHost> loadCloudHosts(SyncService syncService) {
-		return syncService.synchronizeCloudHostsDatabase();
+		return syncService.synchronizeCloudHostsDatabase().getEntities();
 	}
 
 	@Transactional
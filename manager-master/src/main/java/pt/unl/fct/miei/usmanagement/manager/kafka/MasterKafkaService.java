@@ -1,10 +1,8 @@
 package pt.unl.fct.miei.usmanagement.manager.kafka;
 
-import com.google.common.base.Objects;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
@@ -55,7 +53,6 @@ import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManage
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
-import java.util.Set;
 
 @Slf4j
 @Service
@@ -72,8 +69,6 @@ public class MasterKafkaService {
 	private final CloudHostsService cloudHostsService;
 	private final WorkerManagersService workerManagersService;
 
-	private final CycleAvoidingMappingContext context;
-
 	public MasterKafkaService(HostsEventsService hostsEventsService, ServicesEventsService servicesEventsService,
 							  HostsMonitoringService hostsMonitoringService, ServicesMonitoringService servicesMonitoringService,
 							  DecisionsService decisionsService, HeartbeatService heartbeatService,
@@ -89,22 +84,22 @@ public class MasterKafkaService {
 		this.nodesService = nodesService;
 		this.cloudHostsService = cloudHostsService;
 		this.workerManagersService = workerManagersService;
-		this.context = new CycleAvoidingMappingContext();
 	}
 
 	@KafkaListener(topics = "containers", autoStartup = "false")
-	public void listenContainers(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ContainerDTO> containerDTOs) {
-		int i = 0;
-		for (ContainerDTO containerDTO : containerDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenContainers(List<ConsumerRecord<KafkaTopicKey, ContainerDTO>> records) {
+		for (ConsumerRecord<KafkaTopicKey, ContainerDTO> record : records) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ContainerDTO containerDTO = record.value();
 			if (key != null && key.getManagerId() != null && key.getManagerId().equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) {
 				continue;
 			}
 			log.debug("Received key={} message={}", key, containerDTO);
 			Container container = ContainerMapper.MAPPER.toContainer(containerDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					String id = container.getId();
+				if (containerDTO == null) {
+					String id = key.getId();
 					containersService.deleteContainer(id);
 				}
 				else {
@@ -120,18 +115,19 @@ public class MasterKafkaService {
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "nodes", autoStartup = "false")
-	public void listenNodes(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<NodeDTO> nodeDTOs) {
-		int i = 0;
-		for (NodeDTO nodeDTO : nodeDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenNodes(List<ConsumerRecord<KafkaTopicKey, NodeDTO>> records) {
+		for (ConsumerRecord<KafkaTopicKey, NodeDTO> record : records) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			NodeDTO nodeDTO = record.value();
 			if (key != null && key.getManagerId() != null && key.getManagerId().equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) {
 				continue;
 			}
-			log.debug("Received key={} message={}", key, nodeDTO.toString());
+			log.debug("Received key={} message={}", key, nodeDTO);
 			Node node = NodeMapper.MAPPER.toNode(nodeDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					String id = node.getId();
+				if (nodeDTO == null) {
+					String id = key.getId();
 					nodesService.deleteNode(id);
 				}
 				else {
@@ -147,18 +143,19 @@ public class MasterKafkaService {
 
 	@Transactional(noRollbackFor = org.hibernate.exception.ConstraintViolationException.class)
 	@KafkaListener(topics = "cloud-hosts", autoStartup = "false")
-	public void listenCloudHosts(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<CloudHostDTO> cloudHostDTOs) {
-		int i = 0;
-		for (CloudHostDTO cloudHostDTO : cloudHostDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, cloudHostDTO.toString());
+	public void listenCloudHosts(List<ConsumerRecord<KafkaTopicKey, CloudHostDTO>> records) {
+		for (ConsumerRecord<KafkaTopicKey, CloudHostDTO> record : records) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			CloudHostDTO cloudHostDTO = record.value();
+			log.debug("Received key={} message={}", key, cloudHostDTO);
 			if (key != null && key.getManagerId() != null && key.getManagerId().equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) {
 				continue;
 			}
 			CloudHost cloudHost = CloudHostMapper.MAPPER.toCloudHost(cloudHostDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = cloudHost.getId();
+				if (cloudHostDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					cloudHostsService.deleteCloudHost(id);
 				}
 				else {
@@ -169,7 +166,7 @@ public class MasterKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic cloud-hosts with key={} and message={}: {}", key, cloudHostDTO.toString(), e.getMessage());
+				log.error("Error while processing topic cloud-hosts with key={} and message={}: {}", key, cloudHostDTO, e.getMessage());
 				e.printStackTrace();
 			}
 		}
@@ -178,6 +175,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "host-events", autoStartup = "false")
 	public void listenHostEvents(List<HostEventDTO> hostEventDTOs) {
 		for (HostEventDTO hostEventDTO : hostEventDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", hostEventDTO);
 			HostEvent hostEvent = HostEventMapper.MAPPER.toHostEvent(hostEventDTO, context);
 			try {
@@ -192,6 +190,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "service-events", autoStartup = "false")
 	public void listenServiceEvents(List<ServiceEventDTO> serviceEventDTOs) {
 		for (ServiceEventDTO serviceEventDTO : serviceEventDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", serviceEventDTO);
 			ServiceEvent serviceEvent = ServiceEventMapper.MAPPER.toServiceEvent(serviceEventDTO, context);
 			try {
@@ -207,6 +206,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "host-monitoring-logs", autoStartup = "false")
 	public void listenHostMonitoringLogs(List<HostMonitoringLogDTO> hostMonitoringLogDTOs) {
 		for (HostMonitoringLogDTO hostMonitoringLogDTO : hostMonitoringLogDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", hostMonitoringLogDTO);
 			HostMonitoringLog hostMonitoringLog = HostMonitoringLogMapper.MAPPER.toHostMonitoringLog(hostMonitoringLogDTO, context);
 			try {
@@ -221,6 +221,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "service-monitoring-logs", autoStartup = "false")
 	public void listenServiceMonitoringLogs(List<ServiceMonitoringLogDTO> serviceMonitoringLogDTOs) {
 		for (ServiceMonitoringLogDTO serviceMonitoringLogDTO : serviceMonitoringLogDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", serviceMonitoringLogDTO);
 			ServiceMonitoringLog serviceMonitoringLog = ServiceMonitoringLogMapper.MAPPER.toServiceMonitoringLog(serviceMonitoringLogDTO, context);
 			try {
@@ -235,6 +236,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "host-decisions", autoStartup = "false")
 	public void listenHostDecisions(List<HostDecisionDTO> hostDecisionDTOs) {
 		for (HostDecisionDTO hostDecisionDTO : hostDecisionDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received value={}", hostDecisionDTO);
 			HostDecision hostDecision = HostDecisionMapper.MAPPER.toHostDecision(hostDecisionDTO, context);
 			try {
@@ -249,6 +251,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "service-decisions", autoStartup = "false")
 	public void listenServiceDecisions(List<ServiceDecisionDTO> serviceDecisionDTOs) {
 		for (ServiceDecisionDTO serviceDecisionDTO : serviceDecisionDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", serviceDecisionDTO);
 			ServiceDecision serviceDecision = ServiceDecisionMapper.MAPPER.toServiceDecision(serviceDecisionDTO, context);
 			try {
@@ -263,6 +266,7 @@ public class MasterKafkaService {
 	@KafkaListener(topics = "heartbeats", autoStartup = "false")
 	public void listenWorkerHeartbeats(List<HeartbeatDTO> heartbeatDTOs) {
 		for (HeartbeatDTO heartbeatDTO : heartbeatDTOs) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
 			log.debug("Received message={}", heartbeatDTOs);
 			Heartbeat heartbeat = HeartbeatMapper.MAPPER.toHeartbeat(heartbeatDTO, context);
 			try {
@@ -157,7 +157,7 @@ public class ContainersController {
 	@PostMapping("/sync")
 	public List<Container> syncDatabaseContainers() {
 		List<Container> workerContainers = workerManagersService.synchronizeDatabaseContainers();
-		List<Container> containers = syncService.synchronizeContainersDatabase();
+		List<Container> containers = syncService.synchronizeContainersDatabase().getEntities();
 		containers.addAll(workerContainers);
 		return containers;
 	}
@@ -116,7 +116,7 @@ public class NodesController {
 	@PostMapping("/sync")
 	public List<Node> synchronizeNodesDatabase() {
 		List<Node> workerNodes = workerManagersService.synchronizeNodesDatabase();
-		List<Node> nodes = syncService.synchronizeNodesDatabase();
+		List<Node> nodes = syncService.synchronizeNodesDatabase().getEntities();
 		nodes.addAll(workerNodes);
 		return nodes;
 	}
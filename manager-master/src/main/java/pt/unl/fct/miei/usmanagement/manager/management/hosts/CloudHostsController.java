@@ -64,7 +64,7 @@ public class CloudHostsController {
 
 	@PostMapping("/sync")
 	public List<CloudHost> synchronizeDatabaseCloudHosts() {
-		return syncService.synchronizeCloudHostsDatabase();
+		return syncService.synchronizeCloudHostsDatabase().getEntities();
 	}
 
 	@GetMapping("/{instanceId}")
@@ -36,27 +36,27 @@ import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmSer
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.location.LocationRequestsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates.HostMonitoringAggregate;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates.HostsMonitoringAggregatesService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostsEventsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs.HostMonitoringLogsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.HostMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.HostSimulatedMetricsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.DecisionsService;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.HostDecisionResult;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.HostRulesService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.ServicesService;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostEvent;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostFieldAverage;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoring;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoringLog;
-import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoringLogs;
-import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitorings;
 import pt.unl.fct.miei.usmanagement.manager.nodes.NodeConstants;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.HostDecision;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
 
-import java.sql.Timestamp;
-import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -65,12 +65,14 @@ import java.util.stream.Collectors;
 @org.springframework.stereotype.Service
 public class HostsMonitoringService {
 
+    private static final String MONITORING_TASK = "hosts-monitoring";
+
     private static final double PERCENTAGE = 0.01;
     private static final int HOST_MINIMUM_LOGS_COUNT = 1;
     private static final int DELAY_STOP_HOST = 60 * 1000;
 
-    private final HostMonitorings hostsMonitoring;
-    private final HostMonitoringLogs hostMonitoringLogs;
+    private final HostsMonitoringAggregatesService hostsMonitoringAggregates;
+    private final HostMonitoringLogsService hostMonitoringLogs;
 
     private final ContainersService containersService;
     private final HostRulesService hostRulesService;
@@ -89,18 +91,18 @@ public class HostsMonitoringService {
     private final int maximumHosts;
     private final int minimumHosts;
     private final boolean isTestEnable;
-    private Timer hostMonitoringTimer;
+    private final SchedulerService schedulerService;
 
-    public HostsMonitoringService(HostMonitorings hostsMonitoring,
-								  HostMonitoringLogs hostMonitoringLogs, ContainersService containersService,
+    public HostsMonitoringService(HostsMonitoringAggregatesService hostsMonitoringAggregates,
+								  HostMonitoringLogsService hostMonitoringLogs, ContainersService containersService,
 								  HostRulesService hostRulesService, HostsService hostsService,
 								  HostMetricsService hostMetricsService, ServicesService servicesService,
 								  HostsEventsService hostsEventsService, DecisionsService decisionsService,
 								  HostSimulatedMetricsService hostSimulatedMetricsService,
 								  DockerSwarmService dockerSwarmService, LocationRequestsService locationRequestsService,
 								  ManagerMasterProperties masterManagerProperties, MonitoringProperties monitoringProperties,
-								  HostProperties hostProperties) {
-        this.hostsMonitoring = hostsMonitoring;
+								  HostProperties hostProperties, SchedulerService schedulerService) {
+        this.hostsMonitoringAggregates = hostsMonitoringAggregates;
         this.hostMonitoringLogs = hostMonitoringLogs;
         this.containersService = containersService;
         this.hostRulesService = hostRulesService;
@@ -118,84 +120,55 @@ public class HostsMonitoringService {
         this.maximumHosts = hostProperties.getMaximumHosts();
         this.minimumHosts = hostProperties.getMinimumHosts();
         this.isTestEnable = masterManagerProperties.getTests().isEnabled();
+        this.schedulerService = schedulerService;
     }
 
     public List<HostMonitoring> getHostsMonitoring() {
-        return hostsMonitoring.findAll();
+        return hostsMonitoringAggregates.getHostsMonitoring();
     }
 
     public List<HostMonitoring> getHostMonitoring(HostAddress hostAddress) {
-        return hostsMonitoring.getByPublicIpAddressAndPrivateIpAddress(hostAddress.getPublicIpAddress(),
-                hostAddress.getPrivateIpAddress());
+        return hostsMonitoringAggregates.getHostMonitoring(hostAddress);
     }
 
     public HostMonitoring getHostMonitoring(HostAddress hostAddress, String field) {
-        return hostsMonitoring.getByPublicIpAddressAndPrivateIpAddressAndFieldIgnoreCase(hostAddress.getPublicIpAddress(),
-                hostAddress.getPrivateIpAddress(), field);
+        return hostsMonitoringAggregates.getHostMonitoring(hostAddress, field);
     }
 
     public void saveHostMonitoring(HostAddress hostAddress, String field, double value) {
-        HostMonitoring hostMonitoring = getHostMonitoring(hostAddress, field);
-        Timestamp updateTime = Timestamp.from(Instant.now());
-        if (hostMonitoring == null) {
-            hostMonitoring = HostMonitoring.builder().publicIpAddress(hostAddress.getPublicIpAddress())
-                    .privateIpAddress(hostAddress.getPrivateIpAddress()).field(field).minValue(value).maxValue(value)
-                    .sumValue(value).lastValue(value).count(1).lastUpdate(updateTime).build();
-        } else {
-            hostMonitoring.update(value, updateTime);
-        }
-        hostsMonitoring.save(hostMonitoring);
+        hostsMonitoringAggregates.update(hostAddress, field, value, System.currentTimeMillis());
         if (isTestEnable) {
             saveHostMonitoringLog(hostAddress, field, value);
         }
     }
 
     public List<HostFieldAverage> getHostMonitoringFieldsAverage(HostAddress hostAddress) {
-        return hostsMonitoring.getHostMonitoringFieldsAverage(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress());
+        return hostsMonitoringAggregates.getHostMonitoringFieldsAverage(hostAddress);
     }
 
     public HostFieldAverage getHostMonitoringFieldAverage(HostAddress hostAddress, String field) {
-        return hostsMonitoring.getHostMonitoringFieldAverage(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress(), field);
+        return hostsMonitoringAggregates.getHostMonitoringFieldAverage(hostAddress, field);
     }
 
-    public HostMonitoringLog saveHostMonitoringLog(HostAddress hostAddress, String field, double effectiveValue) {
-        HostMonitoringLog hostMonitoringLog = HostMonitoringLog.builder()
-                .publicIpAddress(hostAddress.getPublicIpAddress())
-                .privateIpAddress(hostAddress.getPrivateIpAddress())
-                .field(field)
-                .timestamp(LocalDateTime.now())
-                .value(effectiveValue)
-                .build();
-        return addHostMonitoringLog(hostMonitoringLog);
+    public void saveHostMonitoringLog(HostAddress hostAddress, String field, double effectiveValue) {
+        hostMonitoringLogs.addHostMonitoringLog(hostAddress, field, effectiveValue, System.currentTimeMillis());
     }
 
-    public HostMonitoringLog addHostMonitoringLog(HostMonitoringLog hostMonitoringLog) {
-        log.info("Saving host monitoring log: {}", ToStringBuilder.reflectionToString(hostMonitoringLog));
-        return hostMonitoringLogs.save(hostMonitoringLog);
+    public void addHostMonitoringLog(HostMonitoringLog hostMonitoringLog) {
+        log.debug("Adding host monitoring log: {}", ToStringBuilder.reflectionToString(hostMonitoringLog));
+        hostMonitoringLogs.addHostMonitoringLog(hostMonitoringLog);
     }
 
-    public List<HostMonitoringLog> getHostMonitoringLogs() {
-        return hostMonitoringLogs.findAll();
+    public List<HostMonitoringLog> getHostMonitoringLogs(TimeSeriesQuery query) {
+        return hostMonitoringLogs.getHostMonitoringLogs(query);
     }
 
-    public List<HostMonitoringLog> getHostMonitoringLogs(HostAddress hostAddress) {
-        return hostMonitoringLogs.findByPublicIpAddressAndPrivateIpAddress(hostAddress.getPublicIpAddress(),
-                hostAddress.getPrivateIpAddress());
+    public List<HostMonitoringLog> getHostMonitoringLogs(HostAddress hostAddress, TimeSeriesQuery query) {
+        return hostMonitoringLogs.getHostMonitoringLogs(hostAddress, query);
     }
 
     public void initHostMonitorTimer() {
-        hostMonitoringTimer = new Timer("hosts-monitoring", true);
-        hostMonitoringTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    monitorHostsTask();
-				} catch (Exception e) {
-                    log.error("Failed to execute monitor hosts task: {}", e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-        }, monitorPeriod, monitorPeriod);
+        schedulerService.schedule(MONITORING_TASK, monitorPeriod, this::monitorHostsTask);
     }
 
     private void monitorHostsTask() {
@@ -249,21 +222,20 @@ public class HostsMonitoringService {
                 new pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostEvent(node, hostAddress);
         Map<String, Double> hostEventFields = hostEvent.getFields();
 
-        getHostMonitoring(hostAddress)
-                .stream()
-                .filter(loggedField -> loggedField.getCount() >= HOST_MINIMUM_LOGS_COUNT && newFields.get(loggedField.getField()) != null)
-                .forEach(loggedField -> {
-                    String field = loggedField.getField();
-                    Double newValue = newFields.get(field);
-                    hostEventFields.put(field + "-effective-val", newValue);
-                    double average = loggedField.getSumValue() / loggedField.getCount();
-                    hostEventFields.put(field + "-avg-val", average);
-                    double deviationFromAverageValue = ((newValue - average) / average) / PERCENTAGE;
-                    hostEventFields.put(field + "-deviation-%-on-avg-val", deviationFromAverageValue);
-                    double lastValue = loggedField.getLastValue();
-                    double deviationFromLastValue = ((newValue - lastValue) / lastValue) / PERCENTAGE;
-                    hostEventFields.put(field + "-deviation-%-on-last-val", deviationFromLastValue);
-                });
+        newFields.forEach((field, newValue) -> {
+            HostMonitoringAggregate loggedField = hostsMonitoringAggregates.getHostAggregate(hostAddress, field).orElse(null);
+            if (loggedField == null || loggedField.getCount() < HOST_MINIMUM_LOGS_COUNT || newValue == null) {
+                return;
+            }
+            hostEventFields.put(field + "-effective-val", newValue);
+            double average = loggedField.getAverage();
+            hostEventFields.put(field + "-avg-val", average);
+            double deviationFromAverageValue = ((newValue - average) / average) / PERCENTAGE;
+            hostEventFields.put(field + "-deviation-%-on-avg-val", deviationFromAverageValue);
+            double lastValue = loggedField.getLastValue();
+            double deviationFromLastValue = ((newValue - lastValue) / lastValue) / PERCENTAGE;
+            hostEventFields.put(field + "-deviation-%-on-last-val", deviationFromLastValue);
+        });
 
         return hostRulesService.processHostEvent(hostEvent);
     }
@@ -352,14 +324,15 @@ public class HostsMonitoringService {
     }
 
     public void stopHostMonitoring() {
-        if (hostMonitoringTimer != null) {
-            hostMonitoringTimer.cancel();
-            log.info("Stopped host monitoring");
-        }
+        schedulerService.cancel(MONITORING_TASK);
+        log.info("Stopped host monitoring");
+        hostsMonitoringAggregates.stop();
+        hostsEventsService.stop();
     }
 
     public void reset() {
         log.info("Clearing all host monitoring");
-        hostsMonitoring.deleteAll();
+        hostsMonitoringAggregates.reset();
+        hostMonitoringLogs.reset();
     }
 }
@@ -0,0 +1,64 @@
+package pt.unl.fct.miei.usmanagement.manager.sync;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The changes made to the database by a synchronization, identified by entity id, and the resulting entities.
+ */
+@Getter
+public final class SyncReport<T> {
+
+	private final String name;
+	private final List<String> added;
+	private final List<String> updated;
+	private final List<String> removed;
+	private final List<String> skipped;
+	private List<T> entities;
+	private long durationMillis;
+
+	SyncReport(String name) {
+		this.name = name;
+		this.added = new ArrayList<>();
+		this.updated = new ArrayList<>();
+		this.removed = new ArrayList<>();
+		this.skipped = new ArrayList<>();
+		this.entities = new ArrayList<>();
+	}
+
+	void added(String id) {
+		added.add(id);
+	}
+
+	void updated(String id) {
+		updated.add(id);
+	}
+
+	void removed(String id) {
+		removed.add(id);
+	}
+
+	void skipped(String id) {
+		skipped.add(id);
+	}
+
+	SyncReport<T> finish(List<T> entities, long startNanos) {
+		this.entities = entities;
+		this.durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+		return this;
+	}
+
+	public boolean hasChanges() {
+		return !added.isEmpty() || !updated.isEmpty() || !removed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s synchronization: %d added, %d updated, %d removed, %d skipped in %d ms",
+			name, added.size(), updated.size(), removed.size(), skipped.size(), durationMillis);
+	}
+
+}
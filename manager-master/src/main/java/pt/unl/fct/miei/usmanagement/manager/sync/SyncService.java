@@ -6,15 +6,20 @@ import com.spotify.docker.client.messages.swarm.Node;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
 import pt.unl.fct.miei.usmanagement.manager.heartbeats.Heartbeat;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.hosts.cloud.CloudHost;
 import pt.unl.fct.miei.usmanagement.manager.nodes.ManagerStatus;
 import pt.unl.fct.miei.usmanagement.manager.nodes.NodeAvailability;
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.configurations.ConfigurationsService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.events.DockerEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.events.DockerEventsService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
 import pt.unl.fct.miei.usmanagement.manager.services.heartbeats.HeartbeatService;
@@ -22,18 +27,24 @@ import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsServi
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsInstanceState;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsService;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsSimpleInstance;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
 
 import java.time.LocalDateTime;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,7 +54,11 @@ public class SyncService {
 	private final static int CLOUD_HOSTS_DATABASE_SYNC_INTERVAL = 45000;
 	private final static int CONTAINERS_DATABASE_SYNC_INTERVAL = 10000;
 	private final static int NODES_DATABASE_SYNC_INTERVAL = 10000;
+	private final static String CLOUD_HOSTS_SYNC_TASK = "cloud-hosts-database-synchronization";
+	private final static String CONTAINERS_SYNC_TASK = "containers-database-synchronization";
+	private final static String NODES_SYNC_TASK = "nodes-database-synchronization";
 	private final static int INVALID_TIMEOUT = 60000;
+	private final static int NODE_EVENTS_DELAY = 1000;
 
 	private final CloudHostsService cloudHostsService;
 	private final AwsService awsService;
@@ -54,15 +69,23 @@ public class SyncService {
 	private final ConfigurationsService configurationsService;
 	private final HeartbeatService heartbeatService;
 	private final WorkerManagersService workerManagersService;
+	private final DockerEventsService dockerEventsService;
 
-	private Timer cloudHostsDatabaseSyncTimer;
-	private Timer containersDatabaseSyncTimer;
-	private Timer nodesDatabaseSyncTimer;
+	private final SchedulerService schedulerService;
+
+	private final boolean dockerEvents;
+	private final long reconciliationPeriod;
+	// container events waiting to be applied, in the order they were received
+	private final Queue<Runnable> containerEvents;
+	private final AtomicBoolean applyingContainerEvents;
+	private final AtomicBoolean nodeEventsPending;
 
 	public SyncService(CloudHostsService cloudHostsService, AwsService awsService, ContainersService containersService,
 					   DockerContainersService dockerContainersService, NodesService nodesService,
 					   DockerSwarmService dockerSwarmService, ConfigurationsService configurationsService,
-					   HeartbeatService heartbeatService, WorkerManagersService workerManagersService) {
+					   HeartbeatService heartbeatService, WorkerManagersService workerManagersService,
+					   DockerEventsService dockerEventsService, DockerProperties dockerProperties,
+					   SchedulerService schedulerService) {
 		this.cloudHostsService = cloudHostsService;
 		this.awsService = awsService;
 		this.containersService = containersService;
@@ -72,177 +95,302 @@ public class SyncService {
 		this.configurationsService = configurationsService;
 		this.heartbeatService = heartbeatService;
 		this.workerManagersService = workerManagersService;
+		this.dockerEventsService = dockerEventsService;
+		this.schedulerService = schedulerService;
+		this.dockerEvents = dockerProperties.getEvents().isEnabled();
+		this.reconciliationPeriod = dockerProperties.getEvents().getReconciliationPeriod();
+		this.containerEvents = new ConcurrentLinkedQueue<>();
+		this.applyingContainerEvents = new AtomicBoolean();
+		this.nodeEventsPending = new AtomicBoolean();
 	}
 
 	public void startCloudHostsDatabaseSynchronization() {
-		cloudHostsDatabaseSyncTimer = new Timer("cloud-hosts-database-synchronization", true);
-		cloudHostsDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					synchronizeCloudHostsDatabase();
-				}
-				catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL);
+		schedulerService.schedule(CLOUD_HOSTS_SYNC_TASK, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL, this::synchronizeCloudHostsDatabase);
 	}
 
 	public void stopCloudHostsDatabaseSynchronization() {
-		if (cloudHostsDatabaseSyncTimer != null) {
-			cloudHostsDatabaseSyncTimer.cancel();
-			log.info("Stopped database cloud hosts synchronization");
-		}
+		schedulerService.cancel(CLOUD_HOSTS_SYNC_TASK);
+		log.info("Stopped database cloud hosts synchronization");
 	}
 
-	public List<CloudHost> synchronizeCloudHostsDatabase() {
+	public SyncReport<CloudHost> synchronizeCloudHostsDatabase() {
 		log.info("Synchronizing cloud hosts data with amazon");
+		long start = System.nanoTime();
+		SyncReport<CloudHost> report = new SyncReport<>("Cloud hosts");
+		Set<String> configuring = configurationsService.getConfiguringIds();
 		List<CloudHost> cloudHosts = cloudHostsService.getCloudHostsAndRelations();
-		List<Instance> awsInstances = awsService.getInstances();
-		Map<String, Instance> awsInstancesIds = awsInstances.stream()
-			.collect(Collectors.toMap(Instance::getInstanceId, instance -> instance));
-		Iterator<CloudHost> cloudHostsIterator = cloudHosts.iterator();
+		Map<String, Instance> awsInstances = awsService.getInstances().stream()
+			.collect(Collectors.toMap(Instance::getInstanceId, instance -> instance, (i1, i2) -> i1, LinkedHashMap::new));
+		List<CloudHost> synchronizedCloudHosts = new ArrayList<>(awsInstances.size());
+		List<CloudHost> updatedCloudHosts = new ArrayList<>();
+		Set<String> instanceIds = new HashSet<>(cloudHosts.size());
+
 		// Remove invalid and update cloud host entities
-		while (cloudHostsIterator.hasNext()) {
-			CloudHost cloudHost = cloudHostsIterator.next();
+		for (CloudHost cloudHost : cloudHosts) {
 			String instanceId = cloudHost.getInstanceId();
-			if (configurationsService.isConfiguring(instanceId)) {
+			instanceIds.add(instanceId);
+			if (configuring.contains(instanceId)) {
 				log.info("Instance {} is currently being configured, skipping", instanceId);
+				report.skipped(instanceId);
+				synchronizedCloudHosts.add(cloudHost);
 				continue;
 			}
-			if (!awsInstancesIds.containsKey(instanceId)) {
+			Instance instance = awsInstances.get(instanceId);
+			if (instance == null) {
 				cloudHostsService.deleteCloudHost(cloudHost);
-				cloudHostsIterator.remove();
+				report.removed(instanceId);
 				log.info("Removing invalid cloud host {}", instanceId);
+				continue;
 			}
-			else {
-				Instance instance = awsInstancesIds.get(instanceId);
-				InstanceState currentState = instance.getState();
-				InstanceState savedState = cloudHost.getState();
-				if (Objects.equals(currentState.getCode(), AwsInstanceState.TERMINATED.getCode())) {
-					cloudHostsService.deleteCloudHost(cloudHost);
-					log.info("Removing terminated cloud host {}", instanceId);
-				}
-				else {
-					if (!Objects.equals(currentState, savedState)) {
-						log.info("Updating state of cloud host {}", cloudHost.getInstanceId());
-						cloudHost.setState(currentState);
-						cloudHostsService.updateCloudHost(cloudHost);
-					}
-					String currentPublicIpAddress = instance.getPublicIpAddress();
-					String savedPublicIpAddress = cloudHost.getPublicIpAddress();
-					if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
-						log.info("Updating public ip address of cloud host {}", cloudHost.getInstanceId());
-						cloudHostsService.updateAddress(cloudHost, currentPublicIpAddress);
-					}
-				}
-
+			InstanceState currentState = instance.getState();
+			if (Objects.equals(currentState.getCode(), AwsInstanceState.TERMINATED.getCode())) {
+				cloudHostsService.deleteCloudHost(cloudHost);
+				report.removed(instanceId);
+				log.info("Removing terminated cloud host {}", instanceId);
+				continue;
+			}
+			boolean updated = false;
+			InstanceState savedState = cloudHost.getState();
+			if (!Objects.equals(currentState, savedState)) {
+				log.info("Updating state of cloud host {}", instanceId);
+				cloudHost.setState(currentState);
+				updated = true;
+			}
+			String currentPublicIpAddress = instance.getPublicIpAddress();
+			String savedPublicIpAddress = cloudHost.getPublicIpAddress();
+			if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
+				log.info("Updating public ip address of cloud host {}", instanceId);
+				cloudHost.setPublicIpAddress(currentPublicIpAddress);
+				updated = true;
 			}
+			if (updated) {
+				updatedCloudHosts.add(cloudHost);
+				report.updated(instanceId);
+			}
+			synchronizedCloudHosts.add(cloudHost);
 		}
+
 		// Add missing cloud host entities
-		awsInstances.forEach(instance -> {
+		List<AwsSimpleInstance> addedInstances = new ArrayList<>();
+		for (Instance instance : awsInstances.values()) {
 			String instanceId = instance.getInstanceId();
-			if (!configurationsService.isConfiguring(instanceId) && instance.getState().getCode() != AwsInstanceState.TERMINATED.getCode()
-				&& !cloudHostsService.hasCloudHost(instanceId)) {
-				CloudHost cloudHost = cloudHostsService.addCloudHostFromSimpleInstance(new AwsSimpleInstance(instance));
-				cloudHosts.add(cloudHost);
+			if (instanceIds.contains(instanceId) || Objects.equals(instance.getState().getCode(), AwsInstanceState.TERMINATED.getCode())) {
+				continue;
 			}
-		});
-		log.debug("Finished cloud hosts synchronization");
-		return cloudHosts;
+			if (configuring.contains(instanceId)) {
+				report.skipped(instanceId);
+				continue;
+			}
+			addedInstances.add(new AwsSimpleInstance(instance));
+			report.added(instanceId);
+		}
+
+		if (!addedInstances.isEmpty() || !updatedCloudHosts.isEmpty()) {
+			synchronizedCloudHosts.addAll(cloudHostsService.synchronizeCloudHosts(addedInstances, updatedCloudHosts));
+		}
+		report.finish(synchronizedCloudHosts, start);
+		log.debug("Finished cloud hosts synchronization: {}", report);
+		return report;
 	}
 
+	/**
+	 * With docker events enabled, the containers are kept in sync by the events of each node,
+	 * and the full synchronization only runs every reconciliation period, to repair any missed event.
+	 */
 	public void startContainersDatabaseSynchronization() {
-		containersDatabaseSyncTimer = new Timer("containers-database-synchronization", true);
-		containersDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
+		if (dockerEvents) {
+			subscribeDockerEvents();
+			schedulerService.schedule(CONTAINERS_SYNC_TASK, reconciliationPeriod, this::synchronizeContainersDatabase);
+		}
+		else {
+			schedulerService.schedule(CONTAINERS_SYNC_TASK, CONTAINERS_DATABASE_SYNC_INTERVAL, this::synchronizeContainersDatabase);
+		}
+	}
+
+	public void stopContainersDatabaseSynchronization() {
+		schedulerService.cancel(CONTAINERS_SYNC_TASK);
+		dockerEventsService.stop();
+		containerEvents.clear();
+		log.info("Stopped containers database synchronization");
+	}
+
+	private void subscribeDockerEvents() {
+		List<HostAddress> hostAddresses = nodesService.getReadyNodes().stream()
+			.map(pt.unl.fct.miei.usmanagement.manager.nodes.Node::getHostAddress)
+			.collect(Collectors.toList());
+		dockerEventsService.subscribeHosts(hostAddresses, this::onDockerEvent);
+	}
+
+	/**
+	 * Called from the threads of the http client, so the events are only queued here and applied by the scheduler.
+	 * Container events are applied one at a time, on the thread of the containers synchronization.
+	 * The same node event is received from every manager node, so the node events of a short window
+	 * are coalesced into a single nodes synchronization.
+	 */
+	private void onDockerEvent(HostAddress hostAddress, DockerEvent event) {
+		log.debug("Received docker event {} from {}", event, hostAddress.getPublicIpAddress());
+		if (event.isContainerEvent()) {
+			containerEvents.add(() -> onContainerEvent(hostAddress, event));
+			applyContainerEvents();
+		}
+		else if (event.isNodeEvent() && nodeEventsPending.compareAndSet(false, true)
+			&& schedulerService.scheduleOnce(NODES_SYNC_TASK, NODE_EVENTS_DELAY, this::onNodeEvents) == null) {
+			nodeEventsPending.set(false);
+		}
+	}
+
+	private void onNodeEvents() {
+		nodeEventsPending.set(false);
+		synchronizeNodesDatabase();
+		subscribeDockerEvents();
+	}
+
+	private void applyContainerEvents() {
+		if (!containerEvents.isEmpty() && applyingContainerEvents.compareAndSet(false, true)
+			&& schedulerService.scheduleOnce(CONTAINERS_SYNC_TASK, 0, this::drainContainerEvents) == null) {
+			// the scheduler is stopped
+			containerEvents.clear();
+			applyingContainerEvents.set(false);
+		}
+	}
+
+	private void drainContainerEvents() {
+		try {
+			Runnable containerEvent;
+			while ((containerEvent = containerEvents.poll()) != null) {
 				try {
-					synchronizeContainersDatabase();
+					containerEvent.run();
 				}
 				catch (Exception e) {
-					e.printStackTrace();
+					log.error("Failed to apply docker event: {}", e.getMessage());
 				}
 			}
-		}, CONTAINERS_DATABASE_SYNC_INTERVAL, CONTAINERS_DATABASE_SYNC_INTERVAL);
+		}
+		finally {
+			applyingContainerEvents.set(false);
+		}
+		// events queued after the last poll, but before the flag was cleared
+		applyContainerEvents();
 	}
 
-	public void stopContainersDatabaseSynchronization() {
-		if (containersDatabaseSyncTimer != null) {
-			containersDatabaseSyncTimer.cancel();
-			log.info("Stopped containers database synchronization");
+	/**
+	 * Applies a single container event, the same way the full synchronization would have.
+	 * Created containers are only added once started, since only running containers are synchronized.
+	 */
+	private void onContainerEvent(HostAddress hostAddress, DockerEvent event) {
+		String containerId = event.getId();
+		if (!Boolean.parseBoolean(event.getAttributes().get(ContainerConstants.Label.US_MANAGER))
+			|| configurationsService.isConfiguring(containerId)) {
+			return;
+		}
+		switch (event.getAction()) {
+			case "start":
+				dockerContainersService.invalidateContainers(hostAddress);
+				if (!containersService.hasContainer(containerId)) {
+					dockerContainersService.findContainer(hostAddress, containerId).ifPresent(dockerContainer -> {
+						Container container = containersService.addContainerFromDockerContainer(dockerContainer);
+						log.info("Added started {} container {} to the database", container.getName(), containerId);
+					});
+				}
+				break;
+			case "die":
+			case "destroy":
+				dockerContainersService.invalidateContainers(hostAddress);
+				if (containersService.hasContainer(containerId)) {
+					Container container = containersService.getContainer(containerId);
+					String managerId = container.getManagerId();
+					if ((managerId == null || managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER))
+						&& !container.getServiceName().equalsIgnoreCase(ServiceConstants.Name.WORKER_MANAGER)) {
+						containersService.deleteContainer(containerId);
+						log.info("Removed stopped container {}", containerId);
+					}
+				}
+				break;
+			default:
+				break;
 		}
 	}
 
-	public List<Container> synchronizeContainersDatabase() {
+	public SyncReport<Container> synchronizeContainersDatabase() {
 		log.info("Synchronizing containers database with docker swarm");
-
+		long start = System.nanoTime();
+		SyncReport<Container> report = new SyncReport<>("Containers");
+		Set<String> configuring = configurationsService.getConfiguringIds();
 		List<Container> containers = containersService.getContainers();
-		List<DockerContainer> dockerContainers = dockerContainersService.getAllContainers();
-
-		// Add missing containers
-		List<String> containerIds = containers.stream().map(Container::getId).collect(Collectors.toList());
-		for (DockerContainer dockerContainer : dockerContainers) {
-			String containerId = dockerContainer.getId();
-			if (configurationsService.isConfiguring(containerId)) {
-				log.debug("Container {} is currently being configured, skipping", containerId);
-				continue;
-			}
-			if (!containerIds.contains(containerId)) {
-				Container container = containersService.addContainerFromDockerContainer(dockerContainer);
-				containers.add(container);
-				log.info("Added missing {} container {} to the database", container.getName(), containerId);
-			}
-		}
+		Map<String, DockerContainer> dockerContainers = dockerContainersService.getAllContainers().stream()
+			.collect(Collectors.toMap(DockerContainer::getId, container -> container, (c1, c2) -> c1, LinkedHashMap::new));
+		List<Container> synchronizedContainers = new ArrayList<>(dockerContainers.size());
+		List<Container> updatedContainers = new ArrayList<>();
+		List<Container> removedContainers = new ArrayList<>();
+		Set<String> containerIds = new HashSet<>(containers.size());
+		Map<String, Optional<Heartbeat>> heartbeats = new HashMap<>();
 
 		// Remove invalid containers and update existing ones
-		Map<String, DockerContainer> dockerContainerIds = dockerContainers.stream().distinct()
-			.collect(Collectors.toMap(DockerContainer::getId, container -> container));
-		Iterator<Container> containerIterator = containers.iterator();
-		while (containerIterator.hasNext()) {
-			Container container = containerIterator.next();
+		for (Container container : containers) {
 			String serviceName = container.getServiceName();
 			String containerId = container.getId();
 			String managerId = container.getManagerId();
+			containerIds.add(containerId);
+			DockerContainer dockerContainer = dockerContainers.get(containerId);
 			if ((managerId == null || managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER))
 				&& !serviceName.equalsIgnoreCase(ServiceConstants.Name.WORKER_MANAGER)
-				&& !dockerContainerIds.containsKey(containerId)) {
-				containersService.deleteContainer(containerId);
-				containerIterator.remove();
-				log.info("Removed invalid container {}", containerId);
+				&& dockerContainer == null) {
+				removedContainers.add(container);
+				report.removed(containerId);
+				log.info("Removing invalid container {}", containerId);
+				continue;
 			}
-			else {
-				boolean updated = false;
-				DockerContainer dockerContainer = dockerContainerIds.get(containerId);
-				if (dockerContainer == null) {
-					Optional<Heartbeat> heartbeat = heartbeatService.lastHeartbeat(managerId);
-					if (heartbeat.isPresent()
-						&& heartbeat.get().getTimestamp().plusSeconds(TimeUnit.MILLISECONDS.toSeconds(INVALID_TIMEOUT)).isBefore(LocalDateTime.now())
-						&& !container.getState().equalsIgnoreCase("down")) {
-						container.setState("down");
-						log.info("Synchronized container {} state from {} to {}", containerId, "ready", "down");
-						updated = true;
-					}
+			boolean updated = false;
+			if (dockerContainer == null) {
+				Optional<Heartbeat> heartbeat = heartbeats.computeIfAbsent(managerId, heartbeatService::lastHeartbeat);
+				if (heartbeat.isPresent()
+					&& heartbeat.get().getTimestamp().plusSeconds(TimeUnit.MILLISECONDS.toSeconds(INVALID_TIMEOUT)).isBefore(LocalDateTime.now())
+					&& !container.getState().equalsIgnoreCase("down")) {
+					container.setState("down");
+					log.info("Synchronized container {} state from {} to {}", containerId, "ready", "down");
+					updated = true;
 				}
-				else {
-					String currentPublicIpAddress = dockerContainer.getHostAddress().getPublicIpAddress();
-					String savedPublicIpAddress = container.getHostAddress().getPublicIpAddress();
-					if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
-						container.setPublicIpAddress(currentPublicIpAddress);
-						log.info("Synchronized container {} public ip address from {} to {}", containerId, savedPublicIpAddress, currentPublicIpAddress);
-						updated = true;
-					}
-				}
-				if (updated) {
-					containersService.updateContainer(container);
+			}
+			else {
+				String currentPublicIpAddress = dockerContainer.getHostAddress().getPublicIpAddress();
+				String savedPublicIpAddress = container.getHostAddress().getPublicIpAddress();
+				if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
+					container.setPublicIpAddress(currentPublicIpAddress);
+					log.info("Synchronized container {} public ip address from {} to {}", containerId, savedPublicIpAddress, currentPublicIpAddress);
+					updated = true;
 				}
 			}
+			if (updated) {
+				updatedContainers.add(container);
+				report.updated(containerId);
+			}
+			synchronizedContainers.add(container);
+		}
+
+		// Add missing containers
+		List<DockerContainer> addedContainers = new ArrayList<>();
+		for (DockerContainer dockerContainer : dockerContainers.values()) {
+			String containerId = dockerContainer.getId();
+			if (containerIds.contains(containerId)) {
+				continue;
+			}
+			if (configuring.contains(containerId)) {
+				log.debug("Container {} is currently being configured, skipping", containerId);
+				report.skipped(containerId);
+				continue;
+			}
+			addedContainers.add(dockerContainer);
+			report.added(containerId);
+			log.info("Adding missing {} container {} to the database", dockerContainer.getName(), containerId);
+		}
+
+		if (report.hasChanges()) {
+			synchronizedContainers.addAll(containersService.synchronizeContainers(addedContainers, updatedContainers, removedContainers));
 		}
 
 		List<WorkerManager> workerManagers = workerManagersService.getWorkerManagers();
 		for (WorkerManager workerManager : workerManagers) {
-			Optional<Heartbeat> heartbeatOptional = heartbeatService.lastHeartbeat(workerManager.getId());
+			Optional<Heartbeat> heartbeatOptional = heartbeats.computeIfAbsent(workerManager.getId(), heartbeatService::lastHeartbeat);
 			if (heartbeatOptional.isPresent()) {
 				Heartbeat heartbeat = heartbeatOptional.get();
 				if (heartbeat.getTimestamp().plusSeconds(TimeUnit.MILLISECONDS.toSeconds(INVALID_TIMEOUT)).isBefore(LocalDateTime.now())
@@ -252,122 +400,131 @@ public class SyncService {
 			}
 		}
 
-		log.debug("Finished containers synchronization");
-		return containers;
+		if (dockerEvents) {
+			subscribeDockerEvents();
+		}
+
+		report.finish(synchronizedContainers, start);
+		log.debug("Finished containers synchronization: {}", report);
+		return report;
 	}
 
 	public void startNodesDatabaseSynchronization() {
-		nodesDatabaseSyncTimer = new Timer("nodes-database-synchronization", true);
-		nodesDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					synchronizeNodesDatabase();
-				}
-				catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}, NODES_DATABASE_SYNC_INTERVAL, NODES_DATABASE_SYNC_INTERVAL);
+		long interval = dockerEvents ? reconciliationPeriod : NODES_DATABASE_SYNC_INTERVAL;
+		schedulerService.schedule(NODES_SYNC_TASK, interval, this::synchronizeNodesDatabase);
 	}
 
 	public void stopNodesDatabaseSynchronization() {
-		if (nodesDatabaseSyncTimer != null) {
-			nodesDatabaseSyncTimer.cancel();
-			log.info("Stopped nodes database synchronization");
-		}
+		schedulerService.cancel(NODES_SYNC_TASK);
+		log.info("Stopped nodes database synchronization");
 	}
 
-	public List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> synchronizeNodesDatabase() {
+	public SyncReport<pt.unl.fct.miei.usmanagement.manager.nodes.Node> synchronizeNodesDatabase() {
 		log.info("Synchronizing nodes database with docker swarm");
-
-		List<Node> swarmNodes = dockerSwarmService.getNodes();
+		long start = System.nanoTime();
+		SyncReport<pt.unl.fct.miei.usmanagement.manager.nodes.Node> report = new SyncReport<>("Nodes");
+		Set<String> configuring = configurationsService.getConfiguringIds();
+		Map<String, Node> swarmNodes = dockerSwarmService.getNodes().stream()
+			.collect(Collectors.toMap(Node::id, node -> node, (n1, n2) -> n1, LinkedHashMap::new));
 		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> nodes = nodesService.getNodes();
-
-		// Add missing nodes
-		List<String> nodeIds = nodes.stream().map(pt.unl.fct.miei.usmanagement.manager.nodes.Node::getId).collect(Collectors.toList());
-		for (Node swarmNode : swarmNodes) {
-			String nodeId = swarmNode.id();
-			if (configurationsService.isConfiguring(nodeId)) {
-				log.debug("Node {} is currently being configured, skipping", nodeId);
-				continue;
-			}
-			if (!nodeIds.contains(nodeId) && !swarmNode.status().state().equalsIgnoreCase("down")
-				&& swarmNode.spec().labels().size() > 0) {
-				nodesService.addNode(swarmNode);
-				log.info("Added missing node {} to the database", nodeId);
-			}
-		}
+		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> synchronizedNodes = new ArrayList<>(swarmNodes.size());
+		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> updatedNodes = new ArrayList<>();
+		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> removedNodes = new ArrayList<>();
+		Set<String> nodeIds = new HashSet<>(nodes.size());
+		Map<String, Optional<Heartbeat>> heartbeats = new HashMap<>();
 
 		// Remove invalid node entities and update existing ones
-		Map<String, Node> swarmNodesIds = swarmNodes.stream().collect(Collectors.toMap(Node::id, node -> node));
-		Iterator<pt.unl.fct.miei.usmanagement.manager.nodes.Node> nodesIterator = nodes.iterator();
-		while (nodesIterator.hasNext()) {
-			pt.unl.fct.miei.usmanagement.manager.nodes.Node node = nodesIterator.next();
+		for (pt.unl.fct.miei.usmanagement.manager.nodes.Node node : nodes) {
 			String nodeId = node.getId();
-			if (configurationsService.isConfiguring(nodeId)) {
+			nodeIds.add(nodeId);
+			if (configuring.contains(nodeId)) {
+				report.skipped(nodeId);
+				synchronizedNodes.add(node);
 				continue;
 			}
 			String managerId = node.getManagerId();
-			if ((managerId == null || managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) && !swarmNodesIds.containsKey(nodeId)) {
-				nodesService.deleteNode(nodeId);
-				nodesIterator.remove();
-				log.info("Removed invalid node {}", nodeId);
+			Node swarmNode = swarmNodes.get(nodeId);
+			if ((managerId == null || managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) && swarmNode == null) {
+				removedNodes.add(node);
+				report.removed(nodeId);
+				log.info("Removing invalid node {}", nodeId);
+				continue;
+			}
+			boolean updated = false;
+			if (swarmNode == null) {
+				Optional<Heartbeat> heartbeat = heartbeats.computeIfAbsent(managerId, heartbeatService::lastHeartbeat);
+				if (heartbeat.isPresent()
+					&& heartbeat.get().getTimestamp().plusSeconds(TimeUnit.MILLISECONDS.toSeconds(INVALID_TIMEOUT)).isBefore(LocalDateTime.now())
+					&& !node.getState().equalsIgnoreCase("down")) {
+					node.setState("down");
+					log.info("Synchronized node {} state from {} to {}", nodeId, "ready", "down");
+					updated = true;
+				}
 			}
 			else {
-				boolean updated = false;
-				Node swarmNode = swarmNodesIds.get(nodeId);
-				if (swarmNode == null) {
-					Optional<Heartbeat> heartbeat = heartbeatService.lastHeartbeat(managerId);
-					if (heartbeat.isPresent()
-						&& heartbeat.get().getTimestamp().plusSeconds(TimeUnit.MILLISECONDS.toSeconds(INVALID_TIMEOUT)).isBefore(LocalDateTime.now())
-						&& !node.getState().equalsIgnoreCase("down")) {
-						node.setState("down");
-						log.info("Synchronized node {} state from {} to {}", nodeId, "ready", "down");
-						updated = true;
-					}
+				NodeAvailability savedAvailability = node.getAvailability();
+				NodeAvailability currentAvailability = NodeAvailability.getNodeAvailability(swarmNode.spec().availability());
+				if (currentAvailability != savedAvailability) {
+					node.setAvailability(currentAvailability);
+					log.info("Synchronized node {} availability from {} to {}", nodeId, savedAvailability, currentAvailability);
+					updated = true;
 				}
-				else {
-					NodeAvailability savedAvailability = node.getAvailability();
-					NodeAvailability currentAvailability = NodeAvailability.getNodeAvailability(swarmNode.spec().availability());
-					if (currentAvailability != savedAvailability) {
-						node.setAvailability(currentAvailability);
-						log.info("Synchronized node {} availability from {} to {}", nodeId, savedAvailability, currentAvailability);
-						updated = true;
-					}
-					ManagerStatus savedManagerStatus = node.getManagerStatus();
-					com.spotify.docker.client.messages.swarm.ManagerStatus swarmNodeStatus = swarmNode.managerStatus();
-					ManagerStatus currentManagerStatus = swarmNodeStatus == null ? null :
-						new ManagerStatus(swarmNodeStatus.leader(), swarmNodeStatus.reachability(), swarmNodeStatus.addr());
-					if (!Objects.equals(currentManagerStatus, savedManagerStatus)) {
-						node.setManagerStatus(currentManagerStatus);
-						log.info("Synchronized node {} manager status from {} to {}", nodeId, savedManagerStatus, currentManagerStatus);
-						updated = true;
-					}
-					String savedState = node.getState();
-					String currentState = swarmNode.status().state();
-					if (!currentState.equalsIgnoreCase(savedState)) {
-						node.setState(currentState);
-						log.info("Synchronized node {} state from {} to {}", nodeId, savedState, currentState);
-						updated = true;
-					}
-					String currentPublicIpAddress = swarmNode.status().addr();
-					String savedPublicIpAddress = node.getPublicIpAddress();
-					if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
-						node.setPublicIpAddress(currentPublicIpAddress);
-						log.info("Synchronized node {} public ip address from {} to {}", nodeId, savedPublicIpAddress, currentPublicIpAddress);
-						updated = true;
-					}
+				ManagerStatus savedManagerStatus = node.getManagerStatus();
+				com.spotify.docker.client.messages.swarm.ManagerStatus swarmNodeStatus = swarmNode.managerStatus();
+				ManagerStatus currentManagerStatus = swarmNodeStatus == null ? null :
+					new ManagerStatus(swarmNodeStatus.leader(), swarmNodeStatus.reachability(), swarmNodeStatus.addr());
+				if (!Objects.equals(currentManagerStatus, savedManagerStatus)) {
+					node.setManagerStatus(currentManagerStatus);
+					log.info("Synchronized node {} manager status from {} to {}", nodeId, savedManagerStatus, currentManagerStatus);
+					updated = true;
 				}
-
-				if (updated) {
-					nodesService.updateNode(node);
+				String savedState = node.getState();
+				String currentState = swarmNode.status().state();
+				if (!currentState.equalsIgnoreCase(savedState)) {
+					node.setState(currentState);
+					log.info("Synchronized node {} state from {} to {}", nodeId, savedState, currentState);
+					updated = true;
+				}
+				String currentPublicIpAddress = swarmNode.status().addr();
+				String savedPublicIpAddress = node.getPublicIpAddress();
+				if (!Objects.equals(currentPublicIpAddress, savedPublicIpAddress)) {
+					node.setPublicIpAddress(currentPublicIpAddress);
+					log.info("Synchronized node {} public ip address from {} to {}", nodeId, savedPublicIpAddress, currentPublicIpAddress);
+					updated = true;
 				}
 			}
+			if (updated) {
+				updatedNodes.add(node);
+				report.updated(nodeId);
+			}
+			synchronizedNodes.add(node);
+		}
+
+		// Add missing nodes
+		List<Node> addedNodes = new ArrayList<>();
+		for (Node swarmNode : swarmNodes.values()) {
+			String nodeId = swarmNode.id();
+			if (nodeIds.contains(nodeId)) {
+				continue;
+			}
+			if (configuring.contains(nodeId)) {
+				log.debug("Node {} is currently being configured, skipping", nodeId);
+				report.skipped(nodeId);
+				continue;
+			}
+			if (!swarmNode.status().state().equalsIgnoreCase("down") && swarmNode.spec().labels().size() > 0) {
+				addedNodes.add(swarmNode);
+				report.added(nodeId);
+				log.info("Adding missing node {} to the database", nodeId);
+			}
 		}
 
-		log.debug("Finished nodes synchronization");
-		return nodes;
+		if (report.hasChanges()) {
+			synchronizedNodes.addAll(nodesService.synchronizeNodes(addedNodes, updatedNodes, removedNodes));
+		}
+		report.finish(synchronizedNodes, start);
+		log.debug("Finished nodes synchronization: {}", report);
+		return report;
 	}
 
 }
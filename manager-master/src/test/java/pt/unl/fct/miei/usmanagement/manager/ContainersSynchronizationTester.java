@@ -0,0 +1,136 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.services.configurations.ConfigurationsService;
+import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.events.DockerEventsService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
+import pt.unl.fct.miei.usmanagement.manager.services.heartbeats.HeartbeatService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
+import pt.unl.fct.miei.usmanagement.manager.sync.SyncReport;
+import pt.unl.fct.miei.usmanagement.manager.sync.SyncService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@RunWith(SpringRunner.class)
+public class ContainersSynchronizationTester {
+
+	private static final int CONTAINERS = 10_000;
+	private static final int ADDED = 1000;
+	private static final int REMOVED = 1000;
+	private static final int CONFIGURING = 10;
+	private static final int RUNS = 5;
+
+	private ConfigurationsService configurationsService;
+	private ContainersService containersService;
+	private DockerContainersService dockerContainersService;
+	private HeartbeatService heartbeatService;
+	private SyncService syncService;
+
+	@Before
+	public void setup() {
+		configurationsService = mock(ConfigurationsService.class);
+		containersService = mock(ContainersService.class);
+		dockerContainersService = mock(DockerContainersService.class);
+		heartbeatService = mock(HeartbeatService.class);
+		DockerProperties dockerProperties = new DockerProperties();
+		syncService = new SyncService(mock(CloudHostsService.class), mock(AwsService.class), containersService,
+			dockerContainersService, mock(NodesService.class), mock(DockerSwarmService.class), configurationsService,
+			heartbeatService, mock(WorkerManagersService.class),
+			new DockerEventsService(dockerProperties, new SimpleMeterRegistry()), dockerProperties, mock(SchedulerService.class));
+	}
+
+	@Test
+	public void testReconciliationOf10000Containers() {
+		List<Long> durations = new ArrayList<>(RUNS);
+		for (int run = 0; run < RUNS; run++) {
+			reset(configurationsService, containersService, dockerContainersService, heartbeatService);
+			// docker runs containers 0 to 9999, the database has containers 1000 to 10999,
+			// every 20th container in both has moved to another address, and the first 10 are being configured
+			List<DockerContainer> dockerContainers = IntStream.range(0, CONTAINERS)
+				.mapToObj(i -> dockerContainer("container-" + i, "10.0.0.1"))
+				.collect(Collectors.toList());
+			List<Container> containers = IntStream.range(ADDED, CONTAINERS + REMOVED)
+				.mapToObj(i -> container("container-" + i, i % 20 == 0 ? "10.0.0.2" : "10.0.0.1"))
+				.collect(Collectors.toList());
+			Set<String> configuring = IntStream.range(0, CONFIGURING).mapToObj(i -> "container-" + i).collect(Collectors.toSet());
+			when(configurationsService.getConfiguringIds()).thenReturn(configuring);
+			when(containersService.getContainers()).thenReturn(containers);
+			when(dockerContainersService.getAllContainers()).thenReturn(dockerContainers);
+			when(containersService.synchronizeContainers(anyList(), anyList(), anyList())).thenReturn(List.of());
+
+			SyncReport<Container> report = syncService.synchronizeContainersDatabase();
+			durations.add(report.getDurationMillis());
+
+			int updated = (int) IntStream.range(ADDED, CONTAINERS).filter(i -> i % 20 == 0).count();
+			assertThat(report.getAdded()).hasSize(ADDED - CONFIGURING);
+			assertThat(report.getSkipped()).hasSize(CONFIGURING);
+			assertThat(report.getRemoved()).hasSize(REMOVED);
+			assertThat(report.getUpdated()).hasSize(updated);
+			assertThat(new HashSet<>(report.getRemoved())).doesNotContainAnyElementsOf(report.getAdded());
+			assertThat(report.getEntities()).hasSize(CONTAINERS - ADDED);
+			// the configuring ids are loaded once, and the changes are saved together
+			verify(configurationsService, times(1)).getConfiguringIds();
+			verify(configurationsService, never()).isConfiguring(anyString());
+			verify(containersService, times(1)).synchronizeContainers(anyList(), anyList(), anyList());
+			verify(containersService, never()).addContainerFromDockerContainer(any());
+			verify(containersService, never()).deleteContainer(anyString());
+			verify(containersService, never()).updateContainer(any());
+		}
+		durations.sort(Long::compare);
+		long median = durations.get(RUNS / 2);
+		log.info("Reconciliation of {} containers took {} ms (median of {} runs)", CONTAINERS, median, RUNS);
+		assertThat(median).isLessThan(1000);
+	}
+
+	private static DockerContainer dockerContainer(String id, String publicIpAddress) {
+		return new DockerContainer(id, null, 0, id, "image", "command", null, "running", "Up", publicIpAddress,
+			"127.0.0.1", Set.of(), null, null, Set.of(), labels());
+	}
+
+	private static Container container(String id, String publicIpAddress) {
+		return Container.builder().id(id).name(id).publicIpAddress(publicIpAddress).privateIpAddress("127.0.0.1")
+			.state("ready").labels(labels()).build();
+	}
+
+	private static Map<String, String> labels() {
+		Map<String, String> labels = new HashMap<>();
+		labels.put(ContainerConstants.Label.US_MANAGER, "true");
+		labels.put(ContainerConstants.Label.SERVICE_NAME, "app");
+		return labels;
+	}
+
+}
@@ -0,0 +1,304 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.nodes.Node;
+import pt.unl.fct.miei.usmanagement.manager.services.configurations.ConfigurationsService;
+import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.events.DockerEventsService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
+import pt.unl.fct.miei.usmanagement.manager.services.heartbeats.HeartbeatService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
+import pt.unl.fct.miei.usmanagement.manager.sync.SyncReport;
+import pt.unl.fct.miei.usmanagement.manager.sync.SyncService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+public class DockerEventsSynchronizationTester {
+
+	private static final long RECONCILIATION_PERIOD = 300000;
+	private static final long EVENT_TIMEOUT = 5000;
+
+	private StubDockerDaemon daemon;
+	private ContainersService containersService;
+	private DockerContainersService dockerContainersService;
+	private NodesService nodesService;
+	private DockerSwarmService dockerSwarmService;
+	private SchedulerService schedulerService;
+	private SyncService syncService;
+
+	@Before
+	public void setup() throws IOException {
+		daemon = new StubDockerDaemon();
+		DockerProperties dockerProperties = new DockerProperties();
+		dockerProperties.getApiProxy().setPort(daemon.getPort());
+		dockerProperties.getEvents().setEnabled(true);
+		dockerProperties.getEvents().setReconnectDelay(10);
+		dockerProperties.getEvents().setReconciliationPeriod(RECONCILIATION_PERIOD);
+		containersService = mock(ContainersService.class);
+		dockerContainersService = mock(DockerContainersService.class);
+		nodesService = mock(NodesService.class);
+		dockerSwarmService = mock(DockerSwarmService.class);
+		// the events are applied by the scheduler, on the threads of the synchronization tasks
+		SchedulerProperties schedulerProperties = new SchedulerProperties();
+		schedulerProperties.getDedicated().addAll(Set.of("containers-database-synchronization", "nodes-database-synchronization"));
+		schedulerService = spy(new SchedulerService(new SimpleMeterRegistry(), schedulerProperties));
+		Node node = Node.builder().id("node").publicIpAddress("127.0.0.1").state("ready").labels(new HashMap<>()).build();
+		when(nodesService.getReadyNodes()).thenReturn(List.of(node));
+		DockerEventsService dockerEventsService = new DockerEventsService(dockerProperties, new SimpleMeterRegistry());
+		syncService = new SyncService(mock(CloudHostsService.class), mock(AwsService.class), containersService,
+			dockerContainersService, nodesService, dockerSwarmService, mock(ConfigurationsService.class),
+			mock(HeartbeatService.class), mock(WorkerManagersService.class), dockerEventsService, dockerProperties,
+			schedulerService);
+	}
+
+	@After
+	public void teardown() {
+		syncService.stopContainersDatabaseSynchronization();
+		schedulerService.stop();
+		daemon.stop();
+	}
+
+	@Test
+	public void testContainerEvents() throws InterruptedException {
+		syncService.startContainersDatabaseSynchronization();
+		verify(schedulerService).schedule(eq("containers-database-synchronization"), eq(RECONCILIATION_PERIOD), any());
+		daemon.awaitConnections(1);
+
+		DockerContainer dockerContainer = dockerContainer("container");
+		when(dockerContainersService.findContainer(any(HostAddress.class), eq("container"))).thenReturn(Optional.of(dockerContainer));
+		when(containersService.addContainerFromDockerContainer(dockerContainer)).thenReturn(container("container"));
+		daemon.send(event("container", "start", "container", 1, true));
+		verify(containersService, timeout(EVENT_TIMEOUT)).addContainerFromDockerContainer(dockerContainer);
+
+		when(containersService.hasContainer("container")).thenReturn(true);
+		when(containersService.getContainer("container")).thenReturn(container("container"));
+		daemon.send(event("container", "die", "container", 2, true));
+		verify(containersService, timeout(EVENT_TIMEOUT)).deleteContainer("container");
+
+		// containers not launched by the manager are ignored
+		daemon.send(event("container", "start", "other", 3, false));
+		daemon.send(event("container", "destroy", "container", 4, true));
+		verify(containersService, timeout(EVENT_TIMEOUT).times(2)).deleteContainer("container");
+		verify(dockerContainersService, never()).findContainer(any(HostAddress.class), eq("other"));
+		// the cached containers of the host are listed again after each event of a manager container
+		verify(dockerContainersService, times(3)).invalidateContainers(any(HostAddress.class));
+
+		// no polling of the containers of every node
+		verify(dockerContainersService, never()).getAllContainers();
+	}
+
+	@Test
+	public void testNodeEvents() throws InterruptedException {
+		syncService.startContainersDatabaseSynchronization();
+		daemon.awaitConnections(1);
+		daemon.send(event("node", "update", "node", 1, false));
+		verify(dockerSwarmService, timeout(EVENT_TIMEOUT)).getNodes();
+		verify(nodesService, timeout(EVENT_TIMEOUT).atLeast(2)).getReadyNodes();
+	}
+
+	@Test
+	public void testNodeEventsAreCoalesced() throws InterruptedException {
+		syncService.startContainersDatabaseSynchronization();
+		daemon.awaitConnections(1);
+		// the same event, as received from each manager node
+		for (int i = 0; i < 3; i++) {
+			daemon.send(event("node", "update", "node", 1, false));
+		}
+		verify(dockerSwarmService, after(EVENT_TIMEOUT).times(1)).getNodes();
+	}
+
+	@Test
+	public void testReconnectsSinceLastEvent() throws InterruptedException {
+		syncService.startContainersDatabaseSynchronization();
+		daemon.awaitConnections(1);
+		DockerContainer dockerContainer = dockerContainer("container");
+		when(dockerContainersService.findContainer(any(HostAddress.class), eq("container"))).thenReturn(Optional.of(dockerContainer));
+		when(containersService.addContainerFromDockerContainer(dockerContainer)).thenReturn(container("container"));
+		daemon.send(event("container", "start", "container", 1, true));
+		verify(containersService, timeout(EVENT_TIMEOUT)).addContainerFromDockerContainer(dockerContainer);
+
+		daemon.endStream();
+		daemon.awaitConnections(2);
+		List<String> queries = daemon.getQueries();
+		assertThat(queries.get(0)).contains("\"container\"").contains("\"node\"").doesNotContain("since");
+		assertThat(queries.get(1)).contains("since=1.000000001");
+
+		// docker replays the last event, which was already applied
+		when(containersService.hasContainer("container")).thenReturn(true);
+		when(containersService.getContainer("container")).thenReturn(container("container"));
+		daemon.send(event("container", "start", "container", 1, true));
+		daemon.send(event("container", "die", "container", 2, true));
+		verify(containersService, timeout(EVENT_TIMEOUT)).deleteContainer("container");
+		verify(containersService, times(1)).addContainerFromDockerContainer(dockerContainer);
+		verify(dockerContainersService, times(1)).findContainer(any(HostAddress.class), eq("container"));
+	}
+
+	@Test
+	public void testReconciliation() {
+		DockerContainer running = dockerContainer("running");
+		when(dockerContainersService.getAllContainers()).thenReturn(List.of(running));
+		Container stale = container("stale");
+		when(containersService.getContainers()).thenReturn(List.of(stale));
+		when(containersService.synchronizeContainers(List.of(running), List.of(), List.of(stale)))
+			.thenReturn(List.of(container("running")));
+
+		SyncReport<Container> report = syncService.synchronizeContainersDatabase();
+
+		verify(containersService).synchronizeContainers(List.of(running), List.of(), List.of(stale));
+		assertThat(report.getAdded()).containsExactly("running");
+		assertThat(report.getRemoved()).containsExactly("stale");
+		assertThat(report.getEntities()).extracting(Container::getId).containsExactly("running");
+		// the reconciliation also subscribes to the events of new nodes
+		verify(nodesService, atLeast(1)).getReadyNodes();
+		verify(schedulerService, never()).schedule(any(), anyLong(), any());
+	}
+
+	private static DockerContainer dockerContainer(String id) {
+		Map<String, String> labels = Map.of(ContainerConstants.Label.US_MANAGER, "true",
+			ContainerConstants.Label.SERVICE_NAME, "app");
+		return new DockerContainer(id, null, 0, id, "image", "command", null, "running", "Up", "127.0.0.1",
+			"127.0.0.1", Set.of(), null, null, Set.of(), labels);
+	}
+
+	private static Container container(String id) {
+		Map<String, String> labels = new HashMap<>();
+		labels.put(ContainerConstants.Label.US_MANAGER, "true");
+		labels.put(ContainerConstants.Label.SERVICE_NAME, "app");
+		return Container.builder().id(id).name(id).publicIpAddress("127.0.0.1").privateIpAddress("127.0.0.1")
+			.state("ready").labels(labels).build();
+	}
+
+	private static String event(String type, String action, String id, long seconds, boolean managed) {
+		String attributes = managed
+			? String.format("\"%s\":\"true\",\"name\":\"%s\"", ContainerConstants.Label.US_MANAGER, id)
+			: String.format("\"name\":\"%s\"", id);
+		long timeNano = TimeUnit.SECONDS.toNanos(seconds) + 1;
+		return String.format("{\"Type\":\"%s\",\"Action\":\"%s\",\"Actor\":{\"ID\":\"%s\",\"Attributes\":{%s}},"
+			+ "\"scope\":\"local\",\"time\":%d,\"timeNano\":%d}", type, action, id, attributes, seconds, timeNano);
+	}
+
+	/**
+	 * Serves the streaming events api of a docker daemon. Each line sent is written to the open stream.
+	 */
+	private static final class StubDockerDaemon {
+
+		private static final String END_OF_STREAM = "";
+
+		private final HttpServer server;
+		private final ExecutorService executor;
+		private final BlockingQueue<String> lines;
+		private final List<String> queries;
+
+		private StubDockerDaemon() throws IOException {
+			this.lines = new LinkedBlockingQueue<>();
+			this.queries = new ArrayList<>();
+			this.executor = Executors.newCachedThreadPool();
+			this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			this.server.setExecutor(executor);
+			this.server.createContext("/events", exchange -> {
+				synchronized (queries) {
+					queries.add(URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8));
+					queries.notifyAll();
+				}
+				exchange.sendResponseHeaders(200, 0);
+				try (OutputStream body = exchange.getResponseBody()) {
+					while (true) {
+						String line = lines.take();
+						if (line.equals(END_OF_STREAM)) {
+							break;
+						}
+						body.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+						body.flush();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			this.server.start();
+		}
+
+		private int getPort() {
+			return server.getAddress().getPort();
+		}
+
+		private void send(String event) {
+			lines.add(event);
+		}
+
+		private void endStream() {
+			lines.add(END_OF_STREAM);
+		}
+
+		private List<String> getQueries() {
+			synchronized (queries) {
+				return new ArrayList<>(queries);
+			}
+		}
+
+		private void awaitConnections(int connections) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + EVENT_TIMEOUT;
+			synchronized (queries) {
+				while (queries.size() < connections && System.currentTimeMillis() < deadline) {
+					queries.wait(100);
+				}
+				assertThat(queries).hasSizeGreaterThanOrEqualTo(connections);
+			}
+		}
+
+		private void stop() {
+			endStream();
+			server.stop(0);
+			executor.shutdownNow();
+		}
+
+	}
+
+}
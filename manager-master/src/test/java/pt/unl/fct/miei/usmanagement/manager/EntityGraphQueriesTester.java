@@ -0,0 +1,259 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.apps.App;
+import pt.unl.fct.miei.usmanagement.manager.apps.AppService;
+import pt.unl.fct.miei.usmanagement.manager.apps.AppServiceKey;
+import pt.unl.fct.miei.usmanagement.manager.componenttypes.ComponentType;
+import pt.unl.fct.miei.usmanagement.manager.componenttypes.ComponentTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.containers.Containers;
+import pt.unl.fct.miei.usmanagement.manager.fields.Field;
+import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.AppSimulatedMetric;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.AppSimulatedMetrics;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ServiceSimulatedMetric;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ServiceSimulatedMetrics;
+import pt.unl.fct.miei.usmanagement.manager.nodes.Node;
+import pt.unl.fct.miei.usmanagement.manager.nodes.NodeConstants;
+import pt.unl.fct.miei.usmanagement.manager.nodes.Nodes;
+import pt.unl.fct.miei.usmanagement.manager.operators.Operator;
+import pt.unl.fct.miei.usmanagement.manager.operators.OperatorEnum;
+import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.condition.Condition;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.AppRule;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.AppRuleCondition;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleConditionKey;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRule;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRuleCondition;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRules;
+import pt.unl.fct.miei.usmanagement.manager.services.Service;
+import pt.unl.fct.miei.usmanagement.manager.services.ServiceTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.Services;
+import pt.unl.fct.miei.usmanagement.manager.valuemodes.ValueMode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class EntityGraphQueriesTester {
+
+	private static final int CONTAINERS = 50;
+	private static final int NODES = 20;
+	// mounts, ports and labels are loaded by one subselect each
+	private static final int CONTAINER_ELEMENT_COLLECTIONS = 3;
+	private static final int SERVICES = 10;
+	// environment and volumes are loaded by one select each
+	private static final int SERVICE_ELEMENT_COLLECTIONS = 2;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private Containers containers;
+
+	@Autowired
+	private Nodes nodes;
+
+	@Autowired
+	private Services services;
+
+	@Autowired
+	private ServiceRules serviceRules;
+
+	@Autowired
+	private ServiceSimulatedMetrics serviceSimulatedMetrics;
+
+	@Autowired
+	private AppSimulatedMetrics appSimulatedMetrics;
+
+	private Statistics statistics;
+
+	@Before
+	public void setUp() {
+		IntStream.range(0, CONTAINERS).forEach(i -> entityManager.persist(Container.builder()
+			.id("container-" + i)
+			.type(ContainerTypeEnum.BY_REQUEST)
+			.created(i)
+			.name("service-" + (i % 5))
+			.image("image")
+			.publicIpAddress("10.0.0." + (i % 10))
+			.privateIpAddress("192.168.1." + (i % 10))
+			.mounts(Set.of("/var/run/docker.sock:/var/run/docker.sock"))
+			.labels(Map.of(ContainerConstants.Label.SERVICE_NAME, "service-" + (i % 5)))
+			.region(RegionEnum.EUROPE)
+			.state("ready")
+			.coordinates(new Coordinates("Lisbon", 38.7, -9.1))
+			.build()));
+		IntStream.range(0, NODES).forEach(i -> entityManager.persist(Node.builder()
+			.id("node-" + i)
+			.publicIpAddress("10.0.0." + i)
+			.state("ready")
+			.labels(Map.of(NodeConstants.Label.PRIVATE_IP_ADDRESS, "192.168.1." + i,
+				NodeConstants.Label.REGION, RegionEnum.EUROPE.name()))
+			.build()));
+		entityManager.flush();
+		entityManager.clear();
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private void persistRulesAndSimulatedMetrics() {
+		Field field = entityManager.persist(Field.builder().name("cpu-%").build());
+		Condition condition = entityManager.persist(Condition.builder()
+			.name("cpu-over-90")
+			.valueMode(entityManager.persist(ValueMode.builder().name("effective-val").build()))
+			.field(field)
+			.operator(entityManager.persist(Operator.builder().operator(OperatorEnum.GREATER_THAN).symbol(">").build()))
+			.value(90)
+			.build());
+		ComponentType componentType = entityManager.persist(ComponentType.builder().type(ComponentTypeEnum.SERVICE).build());
+		Decision decision = entityManager.persist(Decision.builder()
+			.ruleDecision(RuleDecisionEnum.REPLICATE).componentType(componentType).build());
+		ServiceRule serviceRule = entityManager.persist(ServiceRule.builder()
+			.name("service-rule").priority(1).decision(decision).build());
+		entityManager.persist(ServiceRuleCondition.builder()
+			.id(new RuleConditionKey(serviceRule.getId(), condition.getId())).rule(serviceRule).condition(condition).build());
+		AppRule appRule = entityManager.persist(AppRule.builder()
+			.name("app-rule").priority(1).decision(decision).build());
+		entityManager.persist(AppRuleCondition.builder()
+			.id(new RuleConditionKey(appRule.getId(), condition.getId())).rule(appRule).condition(condition).build());
+		ServiceSimulatedMetric serviceMetric = entityManager.persist(ServiceSimulatedMetric.builder()
+			.name("service-metric").field(field).minimumValue(0).maximumValue(100).active(true).build());
+		AppSimulatedMetric appMetric = entityManager.persist(AppSimulatedMetric.builder()
+			.name("app-metric").field(field).minimumValue(0).maximumValue(100).active(true).build());
+		App app = entityManager.persist(App.builder()
+			.name("app").appRule(appRule).simulatedAppMetric(appMetric).build());
+		IntStream.range(0, SERVICES).forEach(i -> {
+			Service service = entityManager.persist(Service.builder()
+				.serviceName("service-" + i)
+				.dockerRepository("repository")
+				.serviceType(ServiceTypeEnum.BACKEND)
+				.environment(Set.of("KEY=value"))
+				.volumes(Set.of("/data:/data"))
+				.serviceRule(serviceRule)
+				.simulatedServiceMetric(serviceMetric)
+				.build());
+			entityManager.persist(AppService.builder()
+				.id(new AppServiceKey(app.getId(), service.getServiceName())).app(app).service(service).launchOrder(i).build());
+		});
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private <T> T countStatements(Supplier<T> query, long expectedStatements) {
+		statistics.clear();
+		T result = query.get();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(expectedStatements);
+		entityManager.clear();
+		return result;
+	}
+
+	@Test
+	public void testContainersQueries() {
+		List<Container> allContainers = countStatements(containers::findAll, 1 + CONTAINER_ELEMENT_COLLECTIONS);
+		assertThat(allContainers).hasSize(CONTAINERS)
+			.noneMatch(Container::hasContainerRules)
+			.noneMatch(Container::hasSimulatedContainerMetrics);
+
+		List<Container> serviceContainers = countStatements(() -> containers.getContainersWithLabel(
+			ContainerConstants.Label.SERVICE_NAME, Set.of("service-0")), 1 + CONTAINER_ELEMENT_COLLECTIONS);
+		assertThat(serviceContainers).hasSize(CONTAINERS / 5);
+
+		Optional<Container> container = countStatements(() -> containers.getContainerAndEntities("container-0"),
+			1 + CONTAINER_ELEMENT_COLLECTIONS);
+		assertThat(container).hasValueSatisfying(c -> {
+			assertThat(c.hasContainerRules()).isTrue();
+			assertThat(c.hasSimulatedContainerMetrics()).isTrue();
+		});
+
+		List<Container> containersAndEntities = countStatements(containers::getContainersAndEntities,
+			1 + CONTAINER_ELEMENT_COLLECTIONS);
+		assertThat(containersAndEntities).hasSize(CONTAINERS).allMatch(Container::hasContainerRules);
+	}
+
+	@Test
+	public void testNodesQueries() {
+		List<Node> allNodes = countStatements(nodes::findAll, 1);
+		assertThat(allNodes).hasSize(NODES).allMatch(node -> Hibernate.isInitialized(node.getLabels()));
+
+		List<Node> readyNodes = countStatements(() -> nodes.findByState("ready"), 1);
+		assertThat(readyNodes).hasSize(NODES)
+			.allMatch(node -> node.getRegion() == RegionEnum.EUROPE);
+
+		List<Node> hostNodes = countStatements(() -> nodes.findByPublicIpAddress("10.0.0.1"), 1);
+		assertThat(hostNodes).extracting(Node::getPrivateIpAddress).containsExactly("192.168.1.1");
+
+		Optional<Node> node = countStatements(() -> nodes.findById("node-2"), 1);
+		assertThat(node).hasValueSatisfying(n -> assertThat(Hibernate.isInitialized(n.getLabels())).isTrue());
+
+		boolean hasNode = countStatements(() -> nodes.hasNode("node-3"), 1);
+		assertThat(hasNode).isTrue();
+	}
+
+	@Test
+	public void testServicesRulesAndSimulatedMetricsQueries() {
+		persistRulesAndSimulatedMetrics();
+
+		List<Service> allServices = countStatements(services::findAll, 1 + SERVICE_ELEMENT_COLLECTIONS);
+		assertThat(allServices).hasSize(SERVICES)
+			.noneMatch(Service::hasAppServices)
+			.noneMatch(Service::hasServiceRules)
+			.noneMatch(Service::hasSimulatedServiceMetrics);
+
+		// the decision of the rule and the condition of the rule condition are loaded by one select each
+		Optional<ServiceRule> serviceRule = countStatements(() -> serviceRules.findByNameWithEntities("service-rule"),
+			1 + 2 + SERVICE_ELEMENT_COLLECTIONS);
+		assertThat(serviceRule).hasValueSatisfying(rule -> {
+			assertThat(rule.getConditions()).hasSize(1);
+			assertThat(rule.getServices()).hasSize(SERVICES);
+		});
+
+		// the field is part of the graph
+		List<ServiceSimulatedMetric> serviceMetrics = countStatements(
+			serviceSimulatedMetrics::getServiceSimulatedMetricsAndEntities, 1 + SERVICE_ELEMENT_COLLECTIONS);
+		assertThat(serviceMetrics).hasSize(1);
+		assertThat(serviceMetrics.get(0).getServices()).hasSize(SERVICES);
+
+		List<AppSimulatedMetric> appMetrics = countStatements(appSimulatedMetrics::getAppSimulatedMetricsAndEntities, 1);
+		assertThat(appMetrics).hasSize(1);
+		assertThat(appMetrics.get(0).getApps()).hasSize(1);
+
+		// the decision of the app rules is loaded by its own select
+		List<App> apps = countStatements(() -> services.getAppsAndAppRules("service-0"), 1 + 1);
+		assertThat(apps).hasSize(1);
+		assertThat(apps.get(0).getAppRules()).hasSize(1);
+		assertThat(apps.get(0).hasAppServices()).isFalse();
+
+		// the app of the app service, the decision of the rule and the field of the simulated metric
+		// are loaded by one select each
+		Optional<Service> service = countStatements(() -> services.getServiceAndEntities("service-0"),
+			1 + 3 + SERVICE_ELEMENT_COLLECTIONS);
+		assertThat(service).hasValueSatisfying(s -> {
+			assertThat(s.getAppServices()).hasSize(1);
+			assertThat(s.getServiceRules()).hasSize(1);
+			assertThat(s.getSimulatedServiceMetrics()).hasSize(1);
+			assertThat(s.getDependencies()).isEmpty();
+		});
+	}
+
+}
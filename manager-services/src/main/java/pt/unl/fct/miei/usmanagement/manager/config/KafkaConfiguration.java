@@ -18,8 +18,12 @@ import org.springframework.kafka.support.converter.RecordMessageConverter;
 import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.BinaryDeserializer;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.BinarySerializer;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaMessagesProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaTopicKey;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaTopicsProperties;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,16 +33,25 @@ import java.util.UUID;
 public class KafkaConfiguration {
 
 	private final KafkaService kafkaService;
+	private final KafkaTopicsProperties kafkaTopicsProperties;
+	private final KafkaMessagesProperties kafkaMessagesProperties;
 
-	public KafkaConfiguration(@Lazy KafkaService kafkaService) {
+	public KafkaConfiguration(@Lazy KafkaService kafkaService, KafkaTopicsProperties kafkaTopicsProperties,
+							  KafkaMessagesProperties kafkaMessagesProperties) {
 		this.kafkaService = kafkaService;
+		this.kafkaTopicsProperties = kafkaTopicsProperties;
+		this.kafkaMessagesProperties = kafkaMessagesProperties;
 	}
 
 	@Bean
 	public Map<String, Object> producerConfigs() {
 		Map<String, Object> props = new HashMap<>();
-		props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-		props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		Class<?> serializer = isBinary() ? BinarySerializer.class : JsonSerializer.class;
+		props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, serializer);
+		props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, serializer);
+		props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, kafkaMessagesProperties.getCompression());
+		props.put(ProducerConfig.LINGER_MS_CONFIG, kafkaMessagesProperties.getLingerMs());
+		props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaMessagesProperties.getBatchSize());
 		return props;
 	}
 
@@ -59,8 +72,9 @@ public class KafkaConfiguration {
 		Map<String, Object> props = new HashMap<>();
 		props.put(ConsumerConfig.GROUP_ID_CONFIG, UUID.randomUUID().toString());
 		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+		Class<?> deserializer = isBinary() ? BinaryDeserializer.class : JsonDeserializer.class;
+		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, deserializer);
+		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
 		props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
 		return props;
 	}
@@ -77,6 +91,8 @@ public class KafkaConfiguration {
 		ConcurrentKafkaListenerContainerFactory<KafkaTopicKey, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
 		factory.setConsumerFactory(consumerFactory());
 		factory.setBatchListener(true);
+		// one consumer per partition, records of the same entity are still processed in order
+		factory.setConcurrency(Math.max(1, kafkaTopicsProperties.getPartitions()));
 		return factory;
 	}
 
@@ -85,4 +101,8 @@ public class KafkaConfiguration {
 		return new StringJsonMessageConverter();
 	}
 
+	private boolean isBinary() {
+		return kafkaMessagesProperties.getFormat() == KafkaMessagesProperties.Format.BINARY;
+	}
+
 }
@@ -0,0 +1,346 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes logging events to the logging_event tables used by {@link ch.qos.logback.classic.db.DBAppender},
+ * without blocking the threads that log. Events are queued and written by a background thread in multi-row inserts,
+ * one transaction per batch. When the queue is full, events are dropped and counted. Events below the discarding level
+ * are also dropped once the queue is almost full, to leave room for warnings and errors.
+ */
+public class BatchingDBAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+	private static final String INSERT_EVENT_COLUMNS = "INSERT INTO logging_event (timestmp, formatted_message, "
+		+ "logger_name, level_string, thread_name, reference_flag, arg0, arg1, arg2, arg3, caller_filename, caller_class, "
+		+ "caller_method, caller_line) VALUES ";
+	private static final String INSERT_EVENT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_PROPERTY = "INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) "
+		+ "VALUES (?, ?, ?)";
+	private static final String INSERT_EXCEPTION = "INSERT INTO logging_event_exception (event_id, i, trace_line) "
+		+ "VALUES (?, ?, ?)";
+	private static final short PROPERTIES_EXIST = 0x01;
+	private static final short EXCEPTION_EXISTS = 0x02;
+	private static final int MAX_COLUMN_LENGTH = 254;
+
+	@Setter
+	private String driverClass;
+	@Setter
+	private String url;
+	@Setter
+	private String user;
+	@Setter
+	private String password;
+	@Setter
+	private int queueSize = 8192;
+	@Setter
+	private int batchSize = 256;
+	@Setter
+	private long flushPeriod = 1000;
+	@Setter
+	private Level discardingLevel = Level.WARN;
+	@Setter
+	private int discardingThreshold = -1;
+	@Setter
+	private boolean includeCallerData;
+
+	private BlockingQueue<ILoggingEvent> queue;
+	private Thread writer;
+	private Connection connection;
+	private final AtomicLong droppedEvents = new AtomicLong();
+	private long reportedDroppedEvents;
+
+	@Override
+	public void start() {
+		if (url == null) {
+			addError("No url set for the appender named [" + name + "]");
+			return;
+		}
+		if (driverClass != null) {
+			try {
+				Class.forName(driverClass);
+			}
+			catch (ClassNotFoundException e) {
+				addError("Unable to load jdbc driver " + driverClass, e);
+				return;
+			}
+		}
+		if (discardingThreshold < 0) {
+			discardingThreshold = queueSize / 5;
+		}
+		queue = new ArrayBlockingQueue<>(queueSize);
+		writer = new Thread(this::writeEvents, "logging-db-writer-" + name);
+		writer.setDaemon(true);
+		super.start();
+		writer.start();
+	}
+
+	@Override
+	public void stop() {
+		if (!isStarted()) {
+			return;
+		}
+		super.stop();
+		writer.interrupt();
+		try {
+			writer.join(flushPeriod * 2);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		closeConnection();
+	}
+
+	public long getDroppedEvents() {
+		return droppedEvents.get();
+	}
+
+	@Override
+	protected void append(ILoggingEvent event) {
+		if (queue.remainingCapacity() < discardingThreshold && !event.getLevel().isGreaterOrEqual(discardingLevel)) {
+			droppedEvents.incrementAndGet();
+			return;
+		}
+		event.prepareForDeferredProcessing();
+		if (includeCallerData) {
+			event.getCallerData();
+		}
+		if (!queue.offer(event)) {
+			droppedEvents.incrementAndGet();
+		}
+	}
+
+	private void writeEvents() {
+		List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+		while (isStarted() || !queue.isEmpty()) {
+			try {
+				ILoggingEvent event = queue.poll(flushPeriod, TimeUnit.MILLISECONDS);
+				if (event != null) {
+					batch.add(event);
+					queue.drainTo(batch, batchSize - 1);
+				}
+			}
+			catch (InterruptedException e) {
+				queue.drainTo(batch, batchSize);
+			}
+			if (!batch.isEmpty()) {
+				write(batch);
+				batch.clear();
+			}
+			reportDroppedEvents();
+		}
+	}
+
+	private void write(List<ILoggingEvent> events) {
+		try {
+			Connection connection = getConnection();
+			try {
+				long[] eventIds = insertEvents(connection, events);
+				insertPropertiesAndExceptions(connection, events, eventIds);
+				connection.commit();
+			}
+			catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		}
+		catch (SQLException e) {
+			droppedEvents.addAndGet(events.size());
+			addWarn("Failed to write " + events.size() + " logging events", e);
+			closeConnection();
+		}
+	}
+
+	private long[] insertEvents(Connection connection, List<ILoggingEvent> events) throws SQLException {
+		String sql = INSERT_EVENT_COLUMNS + String.join(", ", Collections.nCopies(events.size(), INSERT_EVENT_VALUES));
+		try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			int index = 1;
+			for (ILoggingEvent event : events) {
+				index = bindEvent(statement, index, event);
+			}
+			statement.executeUpdate();
+			long[] eventIds = new long[events.size()];
+			try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+				for (int i = 0; i < eventIds.length; i++) {
+					eventIds[i] = generatedKeys.next() ? generatedKeys.getLong(1) : -1;
+				}
+			}
+			return eventIds;
+		}
+	}
+
+	private int bindEvent(PreparedStatement statement, int index, ILoggingEvent event) throws SQLException {
+		statement.setLong(index++, event.getTimeStamp());
+		statement.setString(index++, event.getFormattedMessage());
+		statement.setString(index++, truncate(event.getLoggerName()));
+		statement.setString(index++, event.getLevel().toString());
+		statement.setString(index++, truncate(event.getThreadName()));
+		statement.setShort(index++, referenceFlag(event));
+		Object[] arguments = event.getArgumentArray();
+		for (int i = 0; i < 4; i++) {
+			Object argument = arguments != null && i < arguments.length ? arguments[i] : null;
+			statement.setString(index++, argument == null ? null : truncate(String.valueOf(argument)));
+		}
+		StackTraceElement[] callerData = includeCallerData ? event.getCallerData() : null;
+		if (callerData != null && callerData.length > 0) {
+			StackTraceElement caller = callerData[0];
+			statement.setString(index++, truncate(caller.getFileName()));
+			statement.setString(index++, truncate(caller.getClassName()));
+			statement.setString(index++, truncate(caller.getMethodName()));
+			statement.setString(index++, Integer.toString(caller.getLineNumber()));
+		}
+		else {
+			for (int i = 0; i < 4; i++) {
+				statement.setNull(index++, Types.VARCHAR);
+			}
+		}
+		return index;
+	}
+
+	private void insertPropertiesAndExceptions(Connection connection, List<ILoggingEvent> events, long[] eventIds)
+		throws SQLException {
+		try (PreparedStatement properties = connection.prepareStatement(INSERT_PROPERTY);
+			 PreparedStatement exceptions = connection.prepareStatement(INSERT_EXCEPTION)) {
+			boolean hasProperties = false;
+			boolean hasExceptions = false;
+			for (int i = 0; i < events.size(); i++) {
+				long eventId = eventIds[i];
+				if (eventId < 0) {
+					continue;
+				}
+				ILoggingEvent event = events.get(i);
+				for (Map.Entry<String, String> property : event.getMDCPropertyMap().entrySet()) {
+					properties.setLong(1, eventId);
+					properties.setString(2, property.getKey());
+					properties.setString(3, property.getValue());
+					properties.addBatch();
+					hasProperties = true;
+				}
+				IThrowableProxy throwable = event.getThrowableProxy();
+				if (throwable != null) {
+					List<String> traceLines = new ArrayList<>();
+					addTraceLines(traceLines, throwable, "");
+					for (short line = 0; line < traceLines.size() && line < Short.MAX_VALUE; line++) {
+						exceptions.setLong(1, eventId);
+						exceptions.setShort(2, line);
+						exceptions.setString(3, truncate(traceLines.get(line)));
+						exceptions.addBatch();
+					}
+					hasExceptions = true;
+				}
+			}
+			if (hasProperties) {
+				properties.executeBatch();
+			}
+			if (hasExceptions) {
+				exceptions.executeBatch();
+			}
+		}
+	}
+
+	private void addTraceLines(List<String> traceLines, IThrowableProxy throwable, String prefix) {
+		traceLines.add(prefix + throwable.getClassName() + ": " + throwable.getMessage());
+		StackTraceElementProxy[] stackTrace = throwable.getStackTraceElementProxyArray();
+		int commonFrames = throwable.getCommonFrames();
+		for (int i = 0; i < stackTrace.length - commonFrames; i++) {
+			traceLines.add("\t" + stackTrace[i].getSTEAsString());
+		}
+		if (commonFrames > 0) {
+			traceLines.add("\t... " + commonFrames + " common frames omitted");
+		}
+		for (IThrowableProxy suppressed : throwable.getSuppressed()) {
+			addTraceLines(traceLines, suppressed, "Suppressed: ");
+		}
+		if (throwable.getCause() != null) {
+			addTraceLines(traceLines, throwable.getCause(), "Caused by: ");
+		}
+	}
+
+	private short referenceFlag(ILoggingEvent event) {
+		short flag = 0;
+		if (!event.getMDCPropertyMap().isEmpty()) {
+			flag |= PROPERTIES_EXIST;
+		}
+		if (event.getThrowableProxy() != null) {
+			flag |= EXCEPTION_EXISTS;
+		}
+		return flag;
+	}
+
+	private Connection getConnection() throws SQLException {
+		if (connection == null) {
+			connection = DriverManager.getConnection(url, user, password);
+			connection.setAutoCommit(false);
+		}
+		return connection;
+	}
+
+	private void closeConnection() {
+		if (connection != null) {
+			try {
+				connection.close();
+			}
+			catch (SQLException ignored) {
+			}
+			connection = null;
+		}
+	}
+
+	private void reportDroppedEvents() {
+		long dropped = droppedEvents.get();
+		if (dropped > reportedDroppedEvents) {
+			addWarn("Dropped " + (dropped - reportedDroppedEvents) + " logging events (" + dropped + " in total)");
+			reportedDroppedEvents = dropped;
+		}
+	}
+
+	private static String truncate(String value) {
+		return value == null || value.length() <= MAX_COLUMN_LENGTH ? value : value.substring(0, MAX_COLUMN_LENGTH);
+	}
+
+}
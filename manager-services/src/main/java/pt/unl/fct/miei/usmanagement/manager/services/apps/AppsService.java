@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.apps;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import pt.unl.fct.miei.usmanagement.manager.apps.App;
@@ -97,9 +96,10 @@ public class AppsService {
 		});
 	}
 
+	@Transactional
 	public App addOrUpdateApp(App app) {
 		if (app.getId() != null) {
-			Optional<App> appOptional = apps.findById(app.getId());
+			Optional<App> appOptional = apps.getAppAndEntities(app.getId());
 			if (appOptional.isPresent()) {
 				App existingApp = appOptional.get();
 				Set<AppService> appServices = app.getAppServices();
@@ -183,20 +183,23 @@ public class AppsService {
 		return app;
 	}
 
+	@Transactional
 	public App updateApp(String appName, App newApp) {
 		App app = getAppAndRelations(appName);
-		log.info("Updating app {} with {}", ToStringBuilder.reflectionToString(app), ToStringBuilder.reflectionToString(newApp));
+		log.info("Updating app {} with {}", EntityUtils.reflectionToString(app), EntityUtils.reflectionToString(newApp));
 		EntityUtils.copyValidProperties(newApp, app);
 		app = saveApp(app);
 		kafkaService.sendApp(app);
 		return app;
 	}
 
+	@Transactional
 	public void deleteApp(Long id) {
 		log.info("Deleting app {}", id);
 		apps.deleteById(id);
 	}
 
+	@Transactional
 	public void deleteApp(String name) {
 		App app = getApp(name);
 		apps.delete(app);
@@ -208,17 +211,20 @@ public class AppsService {
 		return apps.getServices(appName);
 	}
 
+	@Transactional
 	public void addService(String appName, AppService appService) {
-		App app = getApp(appName);
+		App app = getAppAndRelations(appName);
 		addService(app, appService);
 	}
 
+	@Transactional
 	public App addService(App app, AppService appService) {
 		app.getAppServices().remove(appService);
 		app = app.toBuilder().appService(appService).build();
 		return apps.save(app);
 	}
 
+	@Transactional
 	public void addService(String appName, String serviceName, int order) {
 		App app = getAppAndRelations(appName);
 		Service service = servicesService.getService(serviceName);
@@ -227,18 +233,22 @@ public class AppsService {
 		kafkaService.sendApp(app);
 	}
 
+	@Transactional
 	public void addServices(String appName, Map<String, Integer> services) {
 		services.forEach((service, launchOrder) -> addService(appName, service, launchOrder));
 	}
 
+	@Transactional
 	public void addServices(App app, Set<AppService> appServices) {
 		appServices.forEach(appService -> addService(app, appService));
 	}
 
+	@Transactional
 	public void removeService(String appName, String service) {
 		removeServices(appName, List.of(service));
 	}
 
+	@Transactional
 	public void removeServices(String appName, List<String> services) {
 		App app = getAppAndRelations(appName);
 		log.info("Removing services {}", services);
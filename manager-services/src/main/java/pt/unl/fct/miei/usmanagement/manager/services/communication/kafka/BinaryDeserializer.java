@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Deserializes the kafka keys and dtos written in the {@link KafkaBinaryFormat}.
+ * Records written by the json serializer are also accepted, so the managers can be upgraded one at a time.
+ * Records without type header are read as the default type, configured with the same properties as the json
+ * deserializer ({@link JsonDeserializer#KEY_DEFAULT_TYPE} and {@link JsonDeserializer#VALUE_DEFAULT_TYPE}),
+ * or as a {@link JsonNode} when there is none.
+ */
+public class BinaryDeserializer<T> implements Deserializer<T> {
+
+	private final ObjectMapper smileMapper;
+	private final ObjectMapper jsonMapper;
+	private String typeHeader;
+	private Class<?> defaultType;
+
+	public BinaryDeserializer() {
+		this.smileMapper = KafkaBinaryFormat.smileMapper();
+		this.jsonMapper = KafkaBinaryFormat.jsonMapper();
+		this.typeHeader = KafkaBinaryFormat.VALUE_TYPE_HEADER;
+		this.defaultType = JsonNode.class;
+	}
+
+	@Override
+	public void configure(Map<String, ?> configs, boolean isKey) {
+		this.typeHeader = isKey ? KafkaBinaryFormat.KEY_TYPE_HEADER : KafkaBinaryFormat.VALUE_TYPE_HEADER;
+		Object defaultType = configs.get(isKey ? JsonDeserializer.KEY_DEFAULT_TYPE : JsonDeserializer.VALUE_DEFAULT_TYPE);
+		if (defaultType instanceof Class) {
+			this.defaultType = (Class<?>) defaultType;
+		}
+		else if (defaultType instanceof String) {
+			try {
+				this.defaultType = ClassUtils.forName((String) defaultType, getClass().getClassLoader());
+			}
+			catch (ClassNotFoundException | LinkageError e) {
+				throw new IllegalStateException("Default type " + defaultType + " not found", e);
+			}
+		}
+	}
+
+	@Override
+	public T deserialize(String topic, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		return read(topic, data, defaultType);
+	}
+
+	@Override
+	public T deserialize(String topic, Headers headers, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		Header header = headers.lastHeader(typeHeader);
+		Class<?> type = header == null
+			? defaultType
+			: KafkaBinaryFormat.type(new String(header.value(), StandardCharsets.UTF_8));
+		return read(topic, data, type);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T read(String topic, byte[] data, Class<?> type) {
+		try {
+			if (data.length > 0 && data[0] == '{') {
+				return (T) jsonMapper.readValue(data, type);
+			}
+			if (data.length == 0 || data[0] != KafkaBinaryFormat.SCHEMA_VERSION) {
+				throw new SerializationException("Unsupported schema version "
+					+ (data.length == 0 ? "(empty)" : String.valueOf(data[0])) + " on topic [" + topic + "]");
+			}
+			return (T) smileMapper.readValue(data, 1, data.length - 1, type);
+		}
+		catch (IOException e) {
+			throw new SerializationException("Can't deserialize data of topic [" + topic + "] to " + type.getName(), e);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Serializes the kafka keys and dtos in the {@link KafkaBinaryFormat}.
+ * Without headers, the data is written the same way, but its type is not sent.
+ */
+public class BinarySerializer<T> implements Serializer<T> {
+
+	private final ObjectMapper objectMapper;
+	private String typeHeader;
+
+	public BinarySerializer() {
+		this.objectMapper = KafkaBinaryFormat.smileMapper();
+		this.typeHeader = KafkaBinaryFormat.VALUE_TYPE_HEADER;
+	}
+
+	@Override
+	public void configure(Map<String, ?> configs, boolean isKey) {
+		this.typeHeader = isKey ? KafkaBinaryFormat.KEY_TYPE_HEADER : KafkaBinaryFormat.VALUE_TYPE_HEADER;
+	}
+
+	@Override
+	public byte[] serialize(String topic, T data) {
+		if (data == null) {
+			return null;
+		}
+		return write(topic, data);
+	}
+
+	@Override
+	public byte[] serialize(String topic, Headers headers, T data) {
+		if (data == null) {
+			return null;
+		}
+		headers.remove(typeHeader);
+		headers.add(typeHeader, data.getClass().getName().getBytes(StandardCharsets.UTF_8));
+		return write(topic, data);
+	}
+
+	private byte[] write(String topic, T data) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+			out.write(KafkaBinaryFormat.SCHEMA_VERSION);
+			objectMapper.writeValue(out, data);
+			return out.toByteArray();
+		}
+		catch (IOException e) {
+			throw new SerializationException("Can't serialize data [" + data + "] for topic [" + topic + "]", e);
+		}
+	}
+
+}
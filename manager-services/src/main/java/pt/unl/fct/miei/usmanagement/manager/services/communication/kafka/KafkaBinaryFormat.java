@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary encoding of the kafka messages: one byte with the schema version, followed by the dto in smile
+ * (jackson's binary json), so the dtos keep their jackson mapping, including the identity references between them.
+ * The class of the dto goes in the same headers used by the json serializers.
+ * <p>
+ * Adding or removing fields of a dto is compatible (unknown fields are ignored), any other change must increment
+ * {@link #SCHEMA_VERSION}.
+ */
+final class KafkaBinaryFormat {
+
+	static final byte SCHEMA_VERSION = 1;
+	static final String VALUE_TYPE_HEADER = AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME;
+	static final String KEY_TYPE_HEADER = AbstractJavaTypeMapper.DEFAULT_KEY_CLASSID_FIELD_NAME;
+
+	private static final String TRUSTED_PACKAGE = "pt.unl.fct.miei.usmanagement.manager.";
+	private static final Map<String, Class<?>> TYPES = new ConcurrentHashMap<>();
+
+	private KafkaBinaryFormat() {
+	}
+
+	static ObjectMapper smileMapper() {
+		SmileFactory smileFactory = new SmileFactory();
+		// repeated field names and short strings (labels, regions, states) are written once per message
+		smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+		smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+		return configure(new ObjectMapper(smileFactory));
+	}
+
+	static ObjectMapper jsonMapper() {
+		return configure(new ObjectMapper());
+	}
+
+	private static ObjectMapper configure(ObjectMapper objectMapper) {
+		objectMapper.findAndRegisterModules();
+		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		objectMapper.configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false);
+		return objectMapper;
+	}
+
+	static Class<?> type(String className) {
+		return TYPES.computeIfAbsent(className, name -> {
+			if (!name.startsWith(TRUSTED_PACKAGE)) {
+				throw new SerializationException("Class " + name + " is not in a trusted package");
+			}
+			try {
+				return Class.forName(name);
+			}
+			catch (ClassNotFoundException e) {
+				throw new SerializationException("Class " + name + " not found", e);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pt.unl.fct.miei.usmanagement.manager.kafka.KafkaRevision;
+import pt.unl.fct.miei.usmanagement.manager.kafka.KafkaRevisions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps, for each topic partition, the offset of the last record applied to the database.
+ * The offsets are the revisions of the compacted topics: a manager that restarts with its database
+ * resumes each partition after its revision, and so only receives the entities changed or deleted since then,
+ * instead of replaying the whole topics.
+ */
+@Slf4j
+@Service
+public class KafkaRevisionsService {
+
+	private final KafkaRevisions kafkaRevisions;
+
+	private final Map<TopicPartition, Long> revisions;
+	// partition -> offset of the first record that failed to be applied since the start
+	private final Map<TopicPartition, Long> failures;
+	private volatile boolean loaded;
+
+	public KafkaRevisionsService(KafkaRevisions kafkaRevisions) {
+		this.kafkaRevisions = kafkaRevisions;
+		this.revisions = new ConcurrentHashMap<>();
+		this.failures = new ConcurrentHashMap<>();
+	}
+
+	private Map<TopicPartition, Long> getRevisions() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					kafkaRevisions.findAll().forEach(kafkaRevision ->
+						revisions.put(new TopicPartition(kafkaRevision.getTopic(), kafkaRevision.getPartition()), kafkaRevision.getRevision()));
+					loaded = true;
+				}
+			}
+		}
+		return revisions;
+	}
+
+	/**
+	 * The offset to resume each partition from. Partitions never applied are not included,
+	 * and must be read from the beginning.
+	 */
+	public Map<TopicPartition, Long> getPositions(Collection<TopicPartition> partitions) {
+		Map<TopicPartition, Long> revisions = getRevisions();
+		Map<TopicPartition, Long> positions = new HashMap<>();
+		for (TopicPartition partition : partitions) {
+			Long revision = revisions.get(partition);
+			if (revision != null) {
+				positions.put(partition, revision + 1);
+			}
+		}
+		log.info("Resuming {} of {} partitions from their revisions: {}", positions.size(), partitions.size(), positions);
+		return positions;
+	}
+
+	/**
+	 * Saves the revisions of a batch of records that was applied to the database.
+	 * Should be called on the same transaction that applied them, the revisions kept in memory are only updated once
+	 * it commits. Records with a negative offset (not received from kafka) are ignored.
+	 */
+	public void applied(List<? extends ConsumerRecord<?, ?>> records) {
+		applied(records, List.of());
+	}
+
+	/**
+	 * Same as {@link #applied(List)}, but the revision of a partition with failed records stops right before the
+	 * first record of the batch with the key of a failed one, and doesn't move past it on the following batches,
+	 * so the failed records are received again after a restart.
+	 */
+	public void applied(List<? extends ConsumerRecord<?, ?>> records, Collection<? extends ConsumerRecord<?, ?>> failedRecords) {
+		Map<TopicPartition, Set<Object>> failedKeys = new HashMap<>();
+		for (ConsumerRecord<?, ?> record : failedRecords) {
+			if (record.offset() >= 0) {
+				failedKeys.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), partition -> new HashSet<>())
+					.add(record.key());
+			}
+		}
+		Map<TopicPartition, Long> batchRevisions = new HashMap<>();
+		Map<TopicPartition, Long> firstFailures = new HashMap<>();
+		for (ConsumerRecord<?, ?> record : records) {
+			if (record.offset() >= 0) {
+				TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+				batchRevisions.merge(partition, record.offset(), Math::max);
+				if (failedKeys.getOrDefault(partition, Set.of()).contains(record.key())) {
+					firstFailures.merge(partition, record.offset(), Math::min);
+				}
+			}
+		}
+		firstFailures.forEach((partition, offset) -> {
+			log.warn("Failed to apply the record with offset {} of partition {}, its revision is kept before it", offset, partition);
+			failures.merge(partition, offset, Math::min);
+		});
+		failures.forEach((partition, offset) -> batchRevisions.computeIfPresent(partition, (p, revision) -> Math.min(revision, offset - 1)));
+		Map<TopicPartition, Long> revisions = getRevisions();
+		batchRevisions.entrySet().removeIf(revision -> revision.getValue() <= revisions.getOrDefault(revision.getKey(), -1L));
+		if (batchRevisions.isEmpty()) {
+			return;
+		}
+		List<KafkaRevision> kafkaRevisions = new ArrayList<>(batchRevisions.size());
+		batchRevisions.forEach((partition, revision) -> kafkaRevisions.add(KafkaRevision.builder()
+			.id(partition.toString())
+			.topic(partition.topic())
+			.partition(partition.partition())
+			.revision(revision)
+			.build()));
+		this.kafkaRevisions.saveAll(kafkaRevisions);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					batchRevisions.forEach((partition, revision) -> revisions.merge(partition, revision, Math::max));
+				}
+			});
+		}
+		else {
+			batchRevisions.forEach((partition, revision) -> revisions.merge(partition, revision, Math::max));
+		}
+	}
+
+}
@@ -16,27 +16,6 @@ import pt.unl.fct.miei.usmanagement.manager.componenttypes.ComponentType;
 import pt.unl.fct.miei.usmanagement.manager.config.ManagerServicesConfiguration;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
 import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.AppDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.AppRuleDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.AppSimulatedMetricDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.CloudHostDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ComponentTypeDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ConditionDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerRuleDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerSimulatedMetricDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.DecisionDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.EdgeHostDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ElasticIpDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.FieldDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.HostRuleDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.HostSimulatedMetricDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.NodeDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.OperatorDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ServiceDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ServiceRuleDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ServiceSimulatedMetricDTO;
-import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ValueModeDTO;
 import pt.unl.fct.miei.usmanagement.manager.dtos.mapper.AppMapper;
 import pt.unl.fct.miei.usmanagement.manager.dtos.mapper.AppRuleMapper;
 import pt.unl.fct.miei.usmanagement.manager.dtos.mapper.AppSimulatedMetricMapper;
@@ -126,6 +105,7 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -136,6 +116,12 @@ public class KafkaService {
 	private static final int PORT = 9092;
 	private static final int MIN_POPULATE_SLEEP = 5000;
 	private static final int MAX_POPULATE_SLEEP = 15000;
+	private static final List<String> MASTER_MANAGER_TOPICS = List.of("apps", "cloud-hosts", "component-types", "conditions",
+		"containers", "decisions", "edge-hosts", "eips", "fields", "nodes", "operators", "services", "simulated-host-metrics",
+		"simulated-app-metrics", "simulated-service-metrics", "simulated-container-metrics", "host-rules", "app-rules",
+		"service-rules", "container-rules", "value-modes");
+	private static final List<String> WORKER_MANAGER_TOPICS = List.of("host-events", "service-events", "host-monitoring-logs",
+		"service-monitoring-logs", "host-decisions", "service-decisions");
 
 	private final AppsService appsService;
 	private final CloudHostsService cloudHostsService;
@@ -165,6 +151,7 @@ public class KafkaService {
 	private final ProducerFactory<KafkaTopicKey, Object> producerFactory;
 	private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
 	private final KafkaBrokers kafkaBrokers;
+	private final KafkaTopicsProperties kafkaTopicsProperties;
 	private final KafkaTemplate<KafkaTopicKey, Object> kafkaTemplate;
 	private final String kafkaBootstrapServers;
 	private final AtomicLong increment;
@@ -200,6 +187,7 @@ public class KafkaService {
 						@Lazy ProducerFactory<KafkaTopicKey, Object> producerFactory,
 						KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
 						KafkaBrokers kafkaBrokers,
+						KafkaTopicsProperties kafkaTopicsProperties,
 						@Lazy KafkaTemplate<KafkaTopicKey, Object> kafkaTemplate,
 						Environment environment) {
 		this.appsService = appsService;
@@ -228,6 +216,7 @@ public class KafkaService {
 		this.managerServicesConfiguration = managerServicesConfiguration;
 		this.producerFactory = producerFactory;
 		this.kafkaBrokers = kafkaBrokers;
+		this.kafkaTopicsProperties = kafkaTopicsProperties;
 		this.kafkaTemplate = kafkaTemplate;
 		this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
 		this.kafkaBootstrapServers = environment.getProperty(ContainerConstants.Environment.Manager.KAFKA_BOOTSTRAP_SERVERS);
@@ -375,12 +364,12 @@ public class KafkaService {
 		Random random = new Random();
 		do {
 			try {
-				for (Map.Entry<String, Supplier<?>> topicKeyValue : topicsValues().entrySet()) {
+				for (Map.Entry<String, Supplier<Map<Object, Object>>> topicKeyValue : topicsValues().entrySet()) {
 					String topic = topicKeyValue.getKey();
-					List<?> values = (List<?>) topicKeyValue.getValue().get();
-					for (Object value : values) {
-						log.info("Sending {} to topic={}", value, topic);
-						kafkaTemplate.send(topic, value);
+					Map<Object, Object> values = topicKeyValue.getValue().get();
+					for (Map.Entry<Object, Object> value : values.entrySet()) {
+						log.info("Sending {} to topic={}", value.getValue(), topic);
+						kafkaTemplate.send(topic, key(value.getKey()), value.getValue());
 					}
 				}
 				populated = true;
@@ -395,61 +384,69 @@ public class KafkaService {
 		} while (!populated);
 	}
 
-	private Map<String, Supplier<?>> topicsValues() {
-		Map<String, Supplier<?>> topicsValues = new HashMap<>();
-		topicsValues.put("apps", () ->
-			appsService.getApps().stream().map(app -> AppMapper.MAPPER.fromApp(app, context)).collect(Collectors.toList()));
-		topicsValues.put("cloud-hosts", () ->
-			cloudHostsService.getCloudHosts().stream().map(cloudHost -> CloudHostMapper.MAPPER.fromCloudHost(cloudHost, context)).collect(Collectors.toList()));
-		topicsValues.put("component-types", () ->
-			componentTypesService.getComponentTypes().stream().map(componentType -> ComponentTypeMapper.MAPPER.fromComponentType(componentType, context)).collect(Collectors.toList()));
-		topicsValues.put("conditions", () ->
-			conditionsService.getConditions().stream().map(condition -> ConditionMapper.MAPPER.fromCondition(condition, context)).collect(Collectors.toList()));
-		topicsValues.put("containers", () ->
-			containersService.getContainers().stream().map(container -> ContainerMapper.MAPPER.fromContainer(container, context)).collect(Collectors.toList()));
+	private Map<String, Supplier<Map<Object, Object>>> topicsValues() {
+		Map<String, Supplier<Map<Object, Object>>> topicsValues = new HashMap<>();
+		topicsValues.put("apps", values(appsService::getApps, App::getId,
+			app -> AppMapper.MAPPER.fromApp(app, context)));
+		topicsValues.put("cloud-hosts", values(cloudHostsService::getCloudHosts, CloudHost::getId,
+			cloudHost -> CloudHostMapper.MAPPER.fromCloudHost(cloudHost, context)));
+		topicsValues.put("component-types", values(componentTypesService::getComponentTypes, ComponentType::getId,
+			componentType -> ComponentTypeMapper.MAPPER.fromComponentType(componentType, context)));
+		topicsValues.put("conditions", values(conditionsService::getConditions, Condition::getId,
+			condition -> ConditionMapper.MAPPER.fromCondition(condition, context)));
+		topicsValues.put("containers", values(containersService::getContainers, Container::getId,
+			container -> ContainerMapper.MAPPER.fromContainer(container, context)));
 		// TODO check where kafka is sent on decisions
-		topicsValues.put("decisions", () ->
-			decisionsService.getDecisions().stream().map(decision -> DecisionMapper.MAPPER.fromDecision(decision, context)).collect(Collectors.toList()));
-		topicsValues.put("edge-hosts", () ->
-			edgeHostsService.getEdgeHosts().stream().map(edgeHost -> EdgeHostMapper.MAPPER.fromEdgeHost(edgeHost, context)).collect(Collectors.toList()));
-		topicsValues.put("eips", () ->
-			elasticIpsService.getElasticIps().stream().map(elasticIp -> ElasticIpMapper.MAPPER.fromElasticIp(elasticIp, context)).collect(Collectors.toList()));
-		topicsValues.put("fields", () ->
-			fieldsService.getFields().stream().map(field -> FieldMapper.MAPPER.fromField(field, context)).collect(Collectors.toList()));
-		topicsValues.put("nodes", () ->
-			nodesService.getNodes().stream().map(node -> NodeMapper.MAPPER.fromNode(node, context)).collect(Collectors.toList()));
-		topicsValues.put("operators", () ->
-			operatorsService.getOperators().stream().map(operator -> OperatorMapper.MAPPER.fromOperator(operator, context)).collect(Collectors.toList()));
-		topicsValues.put("services", () ->
-			servicesService.getServices().stream().map(service -> ServiceMapper.MAPPER.fromService(service, context)).collect(Collectors.toList()));
-		topicsValues.put("simulated-host-metrics", () ->
-			hostSimulatedMetricsService.getHostSimulatedMetrics().stream().map(metric -> HostSimulatedMetricMapper.MAPPER.fromHostSimulatedMetric(metric, context)).collect(Collectors.toList()));
-		topicsValues.put("simulated-app-metrics", () ->
-			appSimulatedMetricsService.getAppSimulatedMetrics().stream().map(metric -> AppSimulatedMetricMapper.MAPPER.fromAppSimulatedMetric(metric, context)).collect(Collectors.toList()));
-		topicsValues.put("simulated-service-metrics", () ->
-			serviceSimulatedMetricsService.getServiceSimulatedMetrics().stream().map(metric -> ServiceSimulatedMetricMapper.MAPPER.fromServiceSimulatedMetric(metric, context)).collect(Collectors.toList()));
-		topicsValues.put("simulated-container-metrics", () ->
-			containerSimulatedMetricsService.getContainerSimulatedMetrics().stream().map(metric -> ContainerSimulatedMetricMapper.MAPPER.fromContainerSimulatedMetric(metric, context)).collect(Collectors.toList()));
-		topicsValues.put("host-rules", () ->
-			hostRulesService.getRules().stream().map(rule -> HostRuleMapper.MAPPER.fromHostRule(rule, context)).collect(Collectors.toList()));
-		topicsValues.put("app-rules", () ->
-			appRulesService.getRules().stream().map(rule -> AppRuleMapper.MAPPER.fromAppRule(rule, context)).collect(Collectors.toList()));
-		topicsValues.put("service-rules", () ->
-			serviceRulesService.getRules().stream().map(rule -> ServiceRuleMapper.MAPPER.fromServiceRule(rule, context)).collect(Collectors.toList()));
-		topicsValues.put("container-rules", () ->
-			containerRulesService.getRules().stream().map(rule -> ContainerRuleMapper.MAPPER.fromContainerRule(rule, context)).collect(Collectors.toList()));
-		topicsValues.put("value-modes", () ->
-			valueModesService.getValueModes().stream().map(valueMode -> ValueModeMapper.MAPPER.fromValueMode(valueMode, context)).collect(Collectors.toList()));
+		topicsValues.put("decisions", values(decisionsService::getDecisions, Decision::getId,
+			decision -> DecisionMapper.MAPPER.fromDecision(decision, context)));
+		topicsValues.put("edge-hosts", values(edgeHostsService::getEdgeHosts, EdgeHost::getId,
+			edgeHost -> EdgeHostMapper.MAPPER.fromEdgeHost(edgeHost, context)));
+		topicsValues.put("eips", values(elasticIpsService::getElasticIps, ElasticIp::getId,
+			elasticIp -> ElasticIpMapper.MAPPER.fromElasticIp(elasticIp, context)));
+		topicsValues.put("fields", values(fieldsService::getFields, Field::getId,
+			field -> FieldMapper.MAPPER.fromField(field, context)));
+		topicsValues.put("nodes", values(nodesService::getNodes, Node::getId,
+			node -> NodeMapper.MAPPER.fromNode(node, context)));
+		topicsValues.put("operators", values(operatorsService::getOperators, Operator::getId,
+			operator -> OperatorMapper.MAPPER.fromOperator(operator, context)));
+		topicsValues.put("services", values(servicesService::getServices, pt.unl.fct.miei.usmanagement.manager.services.Service::getServiceName,
+			service -> ServiceMapper.MAPPER.fromService(service, context)));
+		topicsValues.put("simulated-host-metrics", values(hostSimulatedMetricsService::getHostSimulatedMetrics, HostSimulatedMetric::getId,
+			metric -> HostSimulatedMetricMapper.MAPPER.fromHostSimulatedMetric(metric, context)));
+		topicsValues.put("simulated-app-metrics", values(appSimulatedMetricsService::getAppSimulatedMetrics, AppSimulatedMetric::getId,
+			metric -> AppSimulatedMetricMapper.MAPPER.fromAppSimulatedMetric(metric, context)));
+		topicsValues.put("simulated-service-metrics", values(serviceSimulatedMetricsService::getServiceSimulatedMetrics, ServiceSimulatedMetric::getId,
+			metric -> ServiceSimulatedMetricMapper.MAPPER.fromServiceSimulatedMetric(metric, context)));
+		topicsValues.put("simulated-container-metrics", values(containerSimulatedMetricsService::getContainerSimulatedMetrics, ContainerSimulatedMetric::getId,
+			metric -> ContainerSimulatedMetricMapper.MAPPER.fromContainerSimulatedMetric(metric, context)));
+		topicsValues.put("host-rules", values(hostRulesService::getRules, HostRule::getId,
+			rule -> HostRuleMapper.MAPPER.fromHostRule(rule, context)));
+		topicsValues.put("app-rules", values(appRulesService::getRules, AppRule::getId,
+			rule -> AppRuleMapper.MAPPER.fromAppRule(rule, context)));
+		topicsValues.put("service-rules", values(serviceRulesService::getRules, ServiceRule::getId,
+			rule -> ServiceRuleMapper.MAPPER.fromServiceRule(rule, context)));
+		topicsValues.put("container-rules", values(containerRulesService::getRules, ContainerRule::getId,
+			rule -> ContainerRuleMapper.MAPPER.fromContainerRule(rule, context)));
+		topicsValues.put("value-modes", values(valueModesService::getValueModes, ValueMode::getId,
+			valueMode -> ValueModeMapper.MAPPER.fromValueMode(valueMode, context)));
 		return topicsValues;
 	}
 
+	private <T> Supplier<Map<Object, Object>> values(Supplier<? extends Collection<T>> entities, Function<T, Object> id,
+													 Function<T, Object> mapper) {
+		return () -> entities.get().stream().collect(Collectors.toMap(id, mapper, (first, second) -> second, LinkedHashMap::new));
+	}
+
 	private String topics() {
-		String masterManagerTopics = "apps:1:1,cloud-hosts:1:1,component-types:1:1,conditions:1:1,containers:1:1,decisions:1:1,"
-			+ "edge-hosts:1:1,eips:1:1,fields:1:1,nodes:1:1,operators:1:1,services:1:1,simulated-host-metrics:1:1,"
-			+ "simulated-app-metrics:1:1,simulated-service-metrics:1:1,simulated-container-metrics:1:1,host-rules:1:1,"
-			+ "app-rules:1:1,service-rules:1:1,container-rules:1:1,value-modes:1:1";
-		String workerManagerTopics = "host-events:1:1,service-events:1:1,host-monitoring-logs:1:1,service-monitoring-logs:1:1,"
-			+ "host-decisions:1:1,service-decisions:1:1";
+		int partitions = kafkaTopicsProperties.getPartitions();
+		int replicationFactor = kafkaTopicsProperties.getReplicationFactor();
+		// entity topics are compacted, so a new consumer only reads the latest state of each entity
+		String masterManagerTopics = MASTER_MANAGER_TOPICS.stream()
+			.map(topic -> String.format("%s:%d:%d:compact", topic, partitions, replicationFactor))
+			.collect(Collectors.joining(","));
+		String workerManagerTopics = WORKER_MANAGER_TOPICS.stream()
+			.map(topic -> String.format("%s:%d:%d", topic, partitions, replicationFactor))
+			.collect(Collectors.joining(","));
 		return masterManagerTopics + "," + workerManagerTopics;
 	}
 
@@ -467,7 +464,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteApp(App app) {
-		delete("apps", new AppDTO(app.getId()));
+		delete("apps", app.getId());
 	}
 
 	public void sendCloudHost(CloudHost cloudHost) {
@@ -475,7 +472,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteCloudHost(CloudHost cloudHost) {
-		delete("cloud-hosts", new CloudHostDTO(cloudHost.getId()));
+		delete("cloud-hosts", cloudHost.getId());
 	}
 
 	public void sendComponentType(ComponentType componentType) {
@@ -483,7 +480,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteComponentType(ComponentType componentType) {
-		delete("component-types", new ComponentTypeDTO(componentType.getId()));
+		delete("component-types", componentType.getId());
 	}
 
 	public void sendCondition(Condition condition) {
@@ -491,7 +488,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteCondition(Condition condition) {
-		delete("conditions", new ConditionDTO(condition.getId()));
+		delete("conditions", condition.getId());
 	}
 
 	public void sendContainer(Container container) {
@@ -499,7 +496,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteContainer(Container container) {
-		delete("containers", new ContainerDTO(container.getId()));
+		delete("containers", container.getId());
 	}
 
 	public void sendDecision(Decision decision) {
@@ -507,7 +504,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteDecision(Decision decision) {
-		delete("decisions", new DecisionDTO(decision.getId()));
+		delete("decisions", decision.getId());
 	}
 
 	public void sendEdgeHost(EdgeHost edgeHost) {
@@ -515,7 +512,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteEdgeHost(EdgeHost edgeHost) {
-		delete("edge-hosts", new EdgeHostDTO(edgeHost.getId()));
+		delete("edge-hosts", edgeHost.getId());
 	}
 
 	public void sendElasticIp(ElasticIp elasticIp) {
@@ -523,7 +520,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteElasticIp(ElasticIp elasticIp) {
-		delete("eips", new ElasticIpDTO(elasticIp.getId()));
+		delete("eips", elasticIp.getId());
 	}
 
 	public void sendField(Field field) {
@@ -531,7 +528,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteField(Field field) {
-		delete("fields", new FieldDTO(field.getId()));
+		delete("fields", field.getId());
 	}
 
 	public void sendNode(Node node) {
@@ -539,7 +536,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteNode(Node node) {
-		delete("nodes", new NodeDTO(node.getId()));
+		delete("nodes", node.getId());
 	}
 
 	public void sendOperator(Operator operator) {
@@ -547,7 +544,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteOperator(Operator operator) {
-		delete("operators", new OperatorDTO(operator.getId()));
+		delete("operators", operator.getId());
 	}
 
 	public void sendService(pt.unl.fct.miei.usmanagement.manager.services.Service service) {
@@ -555,7 +552,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteService(pt.unl.fct.miei.usmanagement.manager.services.Service service) {
-		delete("services", new ServiceDTO(service.getServiceName()));
+		delete("services", service.getServiceName());
 	}
 
 	public void sendHostSimulatedMetric(HostSimulatedMetric hostSimulatedMetric) {
@@ -563,7 +560,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteHostSimulatedMetric(HostSimulatedMetric hostSimulatedMetric) {
-		delete("simulated-host-metrics", new HostSimulatedMetricDTO(hostSimulatedMetric.getId()));
+		delete("simulated-host-metrics", hostSimulatedMetric.getId());
 	}
 
 	public void sendAppSimulatedMetric(AppSimulatedMetric appSimulatedMetric) {
@@ -571,7 +568,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteAppSimulatedMetric(AppSimulatedMetric appSimulatedMetric) {
-		delete("simulated-app-metrics", new AppSimulatedMetricDTO(appSimulatedMetric.getId()));
+		delete("simulated-app-metrics", appSimulatedMetric.getId());
 	}
 
 	public void sendServiceSimulatedMetric(ServiceSimulatedMetric serviceSimulatedMetric) {
@@ -579,7 +576,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteServiceSimulatedMetric(ServiceSimulatedMetric serviceSimulatedMetric) {
-		delete("simulated-service-metrics", new ServiceSimulatedMetricDTO(serviceSimulatedMetric.getId()));
+		delete("simulated-service-metrics", serviceSimulatedMetric.getId());
 	}
 
 	public void sendContainerSimulatedMetric(ContainerSimulatedMetric containerSimulatedMetric) {
@@ -587,7 +584,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteContainerSimulatedMetric(ContainerSimulatedMetric containerSimulatedMetric) {
-		delete("simulated-container-metrics", new ContainerSimulatedMetricDTO(containerSimulatedMetric.getId()));
+		delete("simulated-container-metrics", containerSimulatedMetric.getId());
 	}
 
 	public void sendHostRule(HostRule hostRule) {
@@ -595,7 +592,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteHostRule(HostRule hostRule) {
-		delete("host-rules", new HostRuleDTO(hostRule.getId()));
+		delete("host-rules", hostRule.getId());
 	}
 
 	public void sendAppRule(AppRule appRule) {
@@ -603,7 +600,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteAppRule(AppRule appRule) {
-		delete("app-rules", new AppRuleDTO(appRule.getId()));
+		delete("app-rules", appRule.getId());
 	}
 
 	public void sendServiceRule(ServiceRule serviceRule) {
@@ -611,7 +608,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteServiceRule(ServiceRule serviceRule) {
-		delete("service-rules", new ServiceRuleDTO(serviceRule.getId()));
+		delete("service-rules", serviceRule.getId());
 	}
 
 	public void sendContainerRule(ContainerRule containerRule) {
@@ -619,7 +616,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteContainerRule(ContainerRule containerRule) {
-		delete("container-rules", new ContainerRuleDTO(containerRule.getId()));
+		delete("container-rules", containerRule.getId());
 	}
 
 	public void sendValueMode(ValueMode valueMode) {
@@ -627,7 +624,7 @@ public class KafkaService {
 	}
 
 	public void sendDeleteValueMode(ValueMode valueMode) {
-		delete("value-modes", new ValueModeDTO(valueMode.getId()));
+		delete("value-modes", valueMode.getId());
 	}
 
 	public void sendHostEvent(HostEvent hostEvent) {
@@ -666,7 +663,7 @@ public class KafkaService {
 		boolean hasKafkaBrokers = hasKafkaBrokers();
 		if (managerId != null && !managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER) || hasKafkaBrokers && populated) {
 			log.info("Sending {} to topic={}", ToStringBuilder.reflectionToString(message), topic);
-			kafkaTemplate.send(topic, new KafkaTopicKey(managerId), message);
+			kafkaTemplate.send(topic, key(id), message);
 		}
 		else {
 			log.warn("Not sending message id={} to topic={} because managerId={}, hasKafkaBrokers={} and populated={}",
@@ -674,11 +671,15 @@ public class KafkaService {
 		}
 	}
 
+	/**
+	 * Sends a tombstone (null value) with the key of the entity, which the consumers handle as a delete
+	 * and log compaction eventually uses to remove all records of the entity.
+	 */
 	public void delete(String topic, Object id) {
 		boolean hasKafkaBrokers = hasKafkaBrokers();
 		if (managerId != null && !managerId.equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER) || hasKafkaBrokers && populated) {
 			log.info("Sending DELETE id={} request to topic={}", id, topic);
-			kafkaTemplate.send(topic, new KafkaTopicKey(managerId, "DELETE"), id);
+			kafkaTemplate.send(topic, key(id), null);
 		}
 		else {
 			log.warn("Not sending DELETE id={} request to topic={} because managerId={}, hasKafkaBrokers={} and populated={}",
@@ -686,4 +687,8 @@ public class KafkaService {
 		}
 	}
 
-}
\ No newline at end of file
+	private KafkaTopicKey key(Object id) {
+		return new KafkaTopicKey(managerId, id == null ? null : String.valueOf(id));
+	}
+
+}
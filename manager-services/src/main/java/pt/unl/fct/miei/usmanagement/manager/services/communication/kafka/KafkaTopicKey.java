@@ -7,6 +7,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+/**
+ * Key of every kafka record. Records of the same entity, sent by the same manager, always have the same key,
+ * so they land on the same partition and log compaction keeps only the latest one (or the tombstone, if deleted).
+ */
 @ToString
 @EqualsAndHashCode
 @Setter
@@ -16,10 +20,6 @@ import lombok.ToString;
 public class KafkaTopicKey {
 
 	private String managerId;
-	private String operation;
+	private String id;
 
-	public KafkaTopicKey(String managerId) {
-		this.managerId = managerId;
-		this.operation = null;
-	}
 }
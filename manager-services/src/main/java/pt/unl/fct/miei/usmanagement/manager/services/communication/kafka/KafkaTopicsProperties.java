@@ -22,20 +22,22 @@
  * SOFTWARE.
  */
 
-package pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus;
 
-import com.fasterxml.jackson.annotation.JsonAnySetter;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+package pt.unl.fct.miei.usmanagement.manager.services.communication.kafka;
 
-import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
 
-@Data
-@NoArgsConstructor
-class QueryMetric {
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("kafka.topics")
+public class KafkaTopicsProperties {
 
-	private String instance;
-	@JsonAnySetter
-	private Map<String, String> properties;
+	// partitions of each topic, also the number of consumer threads of each listener
+	private int partitions = 1;
+	private int replicationFactor = 1;
 
 }
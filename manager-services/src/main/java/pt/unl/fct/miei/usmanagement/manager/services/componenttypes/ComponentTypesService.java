@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.componenttypes;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -89,7 +88,7 @@ public class ComponentTypesService {
 
 	public ComponentType updateComponentType(String componentTypeName, ComponentType newComponentType) {
 		ComponentType componentType = getComponentType(componentTypeName);
-		log.info("Updating componentType {} with {}", ToStringBuilder.reflectionToString(componentType), ToStringBuilder.reflectionToString(newComponentType));
+		log.info("Updating componentType {} with {}", EntityUtils.reflectionToString(componentType), EntityUtils.reflectionToString(newComponentType));
 		EntityUtils.copyValidProperties(newComponentType, componentType);
 		componentType = componentTypes.save(componentType);
 		kafkaService.sendComponentType(componentType);
@@ -104,6 +103,7 @@ public class ComponentTypesService {
 		});
 	}
 
+	@Transactional
 	public ComponentType addOrUpdateComponentType(ComponentType componentType) {
 		if (componentType.getId() != null) {
 			Optional<ComponentType> componentTypeOptional = componentTypes.findById(componentType.getId());
@@ -128,7 +128,7 @@ public class ComponentTypesService {
 	}
 
 	public ComponentType saveComponentType(ComponentType componentType) {
-		log.info("Saving componentType {}", ToStringBuilder.reflectionToString(componentType));
+		log.info("Saving componentType {}", EntityUtils.reflectionToString(componentType));
 		return componentTypes.save(componentType);
 	}
 
@@ -5,8 +5,10 @@ import org.springframework.stereotype.Service;
 import pt.unl.fct.miei.usmanagement.manager.configurations.Configuration;
 import pt.unl.fct.miei.usmanagement.manager.configurations.Configurations;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -52,6 +54,10 @@ public class ConfigurationsService {
 		return configurations.existsById(id);
 	}
 
+	public Set<String> getConfiguringIds() {
+		return new HashSet<>(configurations.getIds());
+	}
+
 	public void reset() {
 		configurations.deleteAll();
 	}
@@ -24,7 +24,9 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.containers;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +37,20 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties("container")
 public class ContainerProperties {
 
+	private final Inventory inventory;
 	private int delayBeforeStop;
 
+	public ContainerProperties() {
+		this.inventory = new Inventory();
+	}
+
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	@Setter
+	public static final class Inventory {
+
+		private long maxStaleness;
+
+	}
+
 }
@@ -54,6 +54,7 @@ import pt.unl.fct.miei.usmanagement.manager.services.docker.proxy.DockerApiProxy
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.loadbalancer.nginx.LoadBalancerService;
 import pt.unl.fct.miei.usmanagement.manager.services.location.LocationRequestsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs.ServiceMonitoringLogsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.ContainerSimulatedMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus.PrometheusService;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.ContainerRulesService;
@@ -87,6 +88,7 @@ public class ContainersService {
 	private final LoadBalancerService loadBalancerService;
 	private final LocationRequestsService locationRequestsService;
 	private final PrometheusService prometheusService;
+	private final ServiceMonitoringLogsService serviceMonitoringLogsService;
 	private final Environment environment;
 
 	private final Containers containers;
@@ -101,8 +103,8 @@ public class ContainersService {
 							 RegistrationServerService registrationServerService, LoadBalancerService nginxLoadBalancerService,
 							 KafkaService kafkaService, ZookeeperService zookeeperService,
 							 LoadBalancerService loadBalancerService, LocationRequestsService locationRequestsService,
-							 PrometheusService prometheusService, Environment environment, Containers containers,
-							 ParallelismProperties parallelismProperties) {
+							 PrometheusService prometheusService, ServiceMonitoringLogsService serviceMonitoringLogsService,
+							 Environment environment, Containers containers, ParallelismProperties parallelismProperties) {
 		this.dockerContainersService = dockerContainersService;
 		this.containerRulesService = containerRulesService;
 		this.containerSimulatedMetricsService = containerSimulatedMetricsService;
@@ -118,6 +120,7 @@ public class ContainersService {
 		this.loadBalancerService = loadBalancerService;
 		this.locationRequestsService = locationRequestsService;
 		this.prometheusService = prometheusService;
+		this.serviceMonitoringLogsService = serviceMonitoringLogsService;
 		this.environment = environment;
 		this.containers = containers;
 		this.threads = parallelismProperties.getThreads();
@@ -128,27 +131,30 @@ public class ContainersService {
 			return getContainer(dockerContainer.getId());
 		}
 		catch (EntityNotFoundException e) {
-			Container container = Container.builder()
-				.id(dockerContainer.getId())
-				.type(dockerContainer.getType())
-				.created(dockerContainer.getCreated())
-				.name(dockerContainer.getName())
-				.image(dockerContainer.getImage())
-				.command(dockerContainer.getCommand())
-				.network(dockerContainer.getNetwork())
-				.publicIpAddress(dockerContainer.getPublicIpAddress())
-				.privateIpAddress(dockerContainer.getPrivateIpAddress())
-				.mounts(dockerContainer.getMounts())
-				.ports(dockerContainer.getPorts())
-				.labels(dockerContainer.getLabels())
-				.coordinates(dockerContainer.getCoordinates())
-				.state("ready")
-				.region(dockerContainer.getRegion())
-				.build();
-			return addContainer(container);
+			return addContainer(fromDockerContainer(dockerContainer));
 		}
 	}
 
+	private Container fromDockerContainer(DockerContainer dockerContainer) {
+		return Container.builder()
+			.id(dockerContainer.getId())
+			.type(dockerContainer.getType())
+			.created(dockerContainer.getCreated())
+			.name(dockerContainer.getName())
+			.image(dockerContainer.getImage())
+			.command(dockerContainer.getCommand())
+			.network(dockerContainer.getNetwork())
+			.publicIpAddress(dockerContainer.getPublicIpAddress())
+			.privateIpAddress(dockerContainer.getPrivateIpAddress())
+			.mounts(dockerContainer.getMounts())
+			.ports(dockerContainer.getPorts())
+			.labels(dockerContainer.getLabels())
+			.coordinates(dockerContainer.getCoordinates())
+			.state("ready")
+			.region(dockerContainer.getRegion())
+			.build();
+	}
+
 	public Optional<Container> addContainer(String containerId) {
 		return dockerContainersService.getContainer(containerId).map(this::addContainerFromDockerContainer);
 	}
@@ -173,6 +179,33 @@ public class ContainersService {
 	public Container saveContainer(Container container) {
 		log.info("Saving container {}", container.toString());
 		container = containers.save(container);
+		saveContainerComponent(container);
+		return container;
+	}
+
+	/**
+	 * Applies the changes found by a synchronization with docker in a single transaction,
+	 * so that the inserts, updates and deletes are flushed together, in jdbc batches.
+	 * Returns the added containers.
+	 */
+	@Transactional
+	public List<Container> synchronizeContainers(List<DockerContainer> addedContainers, List<Container> updatedContainers,
+												 List<Container> removedContainers) {
+		List<Container> changedContainers = new ArrayList<>(addedContainers.size() + updatedContainers.size());
+		addedContainers.stream().map(this::fromDockerContainer).forEach(changedContainers::add);
+		changedContainers.addAll(updatedContainers);
+		List<Container> savedContainers = containers.saveAll(changedContainers);
+		removedContainers.forEach(this::deleteContainerComponent);
+		containers.deleteAll(removedContainers);
+		savedContainers.forEach(container -> {
+			saveContainerComponent(container);
+			kafkaService.sendContainer(container);
+		});
+		removedContainers.forEach(kafkaService::sendDeleteContainer);
+		return new ArrayList<>(savedContainers.subList(0, addedContainers.size()));
+	}
+
+	private void saveContainerComponent(Container container) {
 		String containerName = container.getName();
 		if (containerName.contains(ServiceConstants.Name.LOAD_BALANCER) && !loadBalancerService.hasLoadBalancer(container)) {
 			loadBalancerService.saveLoadBalancer(container);
@@ -189,12 +222,11 @@ public class ContainersService {
 		else if (containerName.contains(ServiceConstants.Name.ZOOKEEPER) && !zookeeperService.hasZookeeper(container)) {
 			zookeeperService.saveZookeeper(container);
 		}
-		return container;
 	}
 
 	public Container addOrUpdateContainer(Container container) {
 		if (container.getId() != null) {
-			Optional<Container> containerOptional = containers.findById(container.getId());
+			Optional<Container> containerOptional = containers.getContainerAndEntities(container.getId());
 			if (containerOptional.isPresent()) {
 				Container existingContainer = containerOptional.get();
 				Set<ContainerRule> containerRules = container.getContainerRules();
@@ -255,7 +287,7 @@ public class ContainersService {
 	}
 
 	public List<Container> getManagerContainers(String managerId) {
-		return getContainersWithLabels(Set.of(Pair.of(ContainerConstants.Environment.Manager.ID, managerId)));
+		return getContainersWithLabels(Set.of(Pair.of(ContainerConstants.Label.MANAGER_ID, managerId)));
 	}
 
 	public Container getContainer(String containerId) {
@@ -263,35 +295,58 @@ public class ContainersService {
 			new EntityNotFoundException(Container.class, "containerId", containerId));
 	}
 
+	/**
+	 * Returns the container with its rules and simulated metrics loaded, to be used when changing these associations.
+	 */
+	public Container getContainerAndEntities(String containerId) {
+		return containers.getContainerAndEntitiesStartingWith(containerId).orElseThrow(() ->
+			new EntityNotFoundException(Container.class, "containerId", containerId));
+	}
+
 	public List<Container> getHostContainers(HostAddress hostAddress) {
 		return containers.findByPublicIpAddressAndPrivateIpAddress(hostAddress.getPublicIpAddress(),
 			hostAddress.getPrivateIpAddress());
 	}
 
+	/**
+	 * Returns the containers of the host that, for each label key, have one of the given values.
+	 */
 	public List<Container> getHostContainersWithLabels(HostAddress hostAddress, Set<Pair<String, String>> labels) {
-		List<Container> containers = getHostContainers(hostAddress);
-		return filterContainersWithLabels(containers, labels);
+		Map<String, Set<String>> labelValues = getLabelValues(labels);
+		if (labelValues.isEmpty()) {
+			return getHostContainers(hostAddress);
+		}
+		Map.Entry<String, Set<String>> label = labelValues.entrySet().iterator().next();
+		List<Container> containers = this.containers.getHostContainersWithLabel(hostAddress.getPublicIpAddress(),
+			hostAddress.getPrivateIpAddress(), label.getKey(), label.getValue());
+		return filterContainersWithLabels(containers, labelValues);
 	}
 
+	/**
+	 * Returns the containers that, for each label key, have one of the given values.
+	 */
 	public List<Container> getContainersWithLabels(Set<Pair<String, String>> labels) {
-		List<Container> containers = getContainers();
-		return filterContainersWithLabels(containers, labels);
+		Map<String, Set<String>> labelValues = getLabelValues(labels);
+		if (labelValues.isEmpty()) {
+			return getContainers();
+		}
+		Map.Entry<String, Set<String>> label = labelValues.entrySet().iterator().next();
+		List<Container> containers = this.containers.getContainersWithLabel(label.getKey(), label.getValue());
+		return filterContainersWithLabels(containers, labelValues);
+	}
+
+	private Map<String, Set<String>> getLabelValues(Set<Pair<String, String>> labels) {
+		return labels.stream().collect(Collectors.groupingBy(Pair::getFirst, Collectors.mapping(Pair::getSecond, Collectors.toSet())));
 	}
 
-	private List<Container> filterContainersWithLabels(List<Container> containers, Set<Pair<String, String>> labels) {
-		// TODO try to build a database query instead
-		List<String> labelKeys = labels.stream().map(Pair::getFirst).collect(Collectors.toList());
+	private List<Container> filterContainersWithLabels(List<Container> containers, Map<String, Set<String>> labelValues) {
+		// the first label key was already matched by the query
+		if (labelValues.size() == 1) {
+			return containers;
+		}
 		return containers.stream()
-			.filter(container -> {
-				for (Map.Entry<String, String> containerLabel : container.getLabels().entrySet()) {
-					String key = containerLabel.getKey();
-					String value = containerLabel.getValue();
-					if (labelKeys.contains(key) && !labels.contains(Pair.of(key, value))) {
-						return false;
-					}
-				}
-				return true;
-			})
+			.filter(container -> labelValues.entrySet().stream()
+				.allMatch(label -> label.getValue().contains(container.getLabels().get(label.getKey()))))
 			.collect(Collectors.toList());
 	}
 
@@ -422,10 +477,19 @@ public class ContainersService {
 
 	public void deleteContainer(Container container) {
 		containers.delete(container);
+		serviceMonitoringLogsService.removeContainer(container.getId());
 	}
 
 	public void deleteContainer(String id) {
 		Container container = getContainer(id);
+		deleteContainerComponent(container);
+		containers.delete(container);
+		kafkaService.sendDeleteContainer(container);
+	}
+
+	private void deleteContainerComponent(Container container) {
+		String id = container.getId();
+		serviceMonitoringLogsService.removeContainer(id);
 		if (container.getName().contains(ServiceConstants.Name.WORKER_MANAGER)) {
 			try {
 				workerManagersService.deleteWorkerManagerByContainer(container);
@@ -466,8 +530,6 @@ public class ContainersService {
 				log.error("Failed to delete zookeeper associated with container {}: {}", id, e.getMessage());
 			}
 		}
-		containers.delete(container);
-		kafkaService.sendDeleteContainer(container);
 	}
 
 	public List<Container> getAppContainers() {
@@ -533,11 +595,8 @@ public class ContainersService {
 	}
 
 	public Optional<Container> getSingletonContainer(HostAddress hostAddress, String name) {
-		return getHostContainersWithLabels(hostAddress, Set.of(
-			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.SYSTEM.name()),
-			Pair.of(ContainerConstants.Label.CONTAINER_TYPE, ContainerTypeEnum.SINGLETON.name()),
-			Pair.of(ContainerConstants.Label.SERVICE_NAME, name))
-		).stream().findFirst();
+		return containers.getSingletonContainers(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress(), name)
+			.stream().findFirst();
 	}
 
 	public Optional<ContainerStats> getContainerStats(String containerId, HostAddress hostAddress) {
@@ -657,7 +716,7 @@ public class ContainersService {
 	}
 
 	public boolean hasContainers(RegionEnum region) {
-		return getContainersWithLabels(Set.of(Pair.of(ContainerConstants.Label.REGION, region.name()))).size() > 0;
+		return containers.hasContainersWithLabel(ContainerConstants.Label.REGION, Set.of(region.name()));
 	}
 
 	public boolean hasContainers(RegionEnum region, String serviceName) {
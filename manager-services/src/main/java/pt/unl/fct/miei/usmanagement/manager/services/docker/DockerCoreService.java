@@ -26,13 +26,20 @@ package pt.unl.fct.miei.usmanagement.manager.services.docker;
 
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+import pt.unl.fct.miei.usmanagement.manager.util.HitCounters;
 
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 public class DockerCoreService {
 
@@ -44,8 +51,15 @@ public class DockerCoreService {
 	private final String dockerAuthorization;
 	private final int dockerApiPort;
 	private final String dockerScriptFile;
+	private final int connectionPoolSize;
+	private final long idleTimeout;
 
-	public DockerCoreService(SshService sshService, DockerProperties dockerProperties) {
+	private final Map<String, PooledDockerClient> dockerClients;
+	private final HitCounters hitCounters;
+	private final SchedulerService schedulerService;
+
+	public DockerCoreService(SshService sshService, DockerProperties dockerProperties, MeterRegistry meterRegistry,
+							 SchedulerService schedulerService) {
 		this.sshService = sshService;
 		String dockerApiProxyUsername = dockerProperties.getApiProxy().getUsername();
 		String dockerApiProxyPassword = dockerProperties.getApiProxy().getPassword();
@@ -53,18 +67,88 @@ public class DockerCoreService {
 		this.dockerAuthorization = String.format("Basic %s", new String(Base64.getEncoder().encode(auth)));
 		this.dockerApiPort = dockerProperties.getApiProxy().getPort();
 		this.dockerScriptFile = dockerProperties.getInstallScript();
+		this.connectionPoolSize = dockerProperties.getClient().getConnectionPoolSize();
+		this.idleTimeout = dockerProperties.getClient().getIdleTimeout();
+		this.dockerClients = new ConcurrentHashMap<>();
+		this.hitCounters = new HitCounters(meterRegistry, "docker.clients");
+		meterRegistry.gauge("docker.clients.open", dockerClients, Map::size);
+		meterRegistry.gauge("docker.clients.leased", dockerClients,
+			clients -> clients.values().stream().mapToInt(PooledDockerClient::getLeases).sum());
+		this.schedulerService = schedulerService;
+		long evictionPeriod = dockerProperties.getClient().getEvictionPeriod();
+		if (evictionPeriod > 0) {
+			schedulerService.schedule("docker-clients-eviction", evictionPeriod, this::evictIdleDockerClients);
+		}
 	}
 
+	/**
+	 * Returns a client of the docker api of the host. Clients are pooled per host and reused across calls,
+	 * closing the returned client only releases it back to the pool.
+	 */
 	public DockerClient getDockerClient(HostAddress hostAddress) {
-		String uri = String.format("http://%s:%d", hostAddress.getPublicIpAddress(), dockerApiPort);
+		String host = hostAddress.getPublicIpAddress();
+		while (true) {
+			PooledDockerClient pooledClient = dockerClients.get(host);
+			if (pooledClient != null) {
+				DockerClient dockerClient = pooledClient.lease();
+				if (dockerClient != null) {
+					hitCounters.hit();
+					return dockerClient;
+				}
+				// evicted concurrently
+				dockerClients.remove(host, pooledClient);
+			}
+			else {
+				PooledDockerClient newClient = new PooledDockerClient(host, newDockerClient(host));
+				PooledDockerClient currentClient = dockerClients.putIfAbsent(host, newClient);
+				if (currentClient == null) {
+					hitCounters.miss();
+					log.info("Opened docker client of host {}", host);
+				}
+				else {
+					newClient.evict();
+				}
+			}
+		}
+	}
+
+	private DockerClient newDockerClient(String host) {
+		String uri = String.format("http://%s:%d", host, dockerApiPort);
 		return DefaultDockerClient.builder()
 			.uri(uri)
 			.header("Authorization", dockerAuthorization)
 			.connectTimeoutMillis(CONNECTION_TIMEOUT)
 			.readTimeoutMillis(READ_TIMEOUT)
+			.connectionPoolSize(connectionPoolSize)
 			.build();
 	}
 
+	public void invalidateDockerClient(HostAddress hostAddress) {
+		invalidateDockerClient(hostAddress.getPublicIpAddress());
+	}
+
+	public void invalidateDockerClient(String host) {
+		PooledDockerClient pooledClient = dockerClients.remove(host);
+		if (pooledClient != null) {
+			log.info("Invalidated docker client of host {}", host);
+			pooledClient.evict();
+		}
+	}
+
+	private void evictIdleDockerClients() {
+		dockerClients.forEach((host, pooledClient) -> {
+			if (pooledClient.isIdle(idleTimeout) && dockerClients.remove(host, pooledClient)) {
+				log.info("Evicting idle docker client of host {}", host);
+				pooledClient.evict();
+			}
+		});
+	}
+
+	public void closeDockerClients() {
+		schedulerService.cancel("docker-clients-eviction");
+		dockerClients.keySet().forEach(this::invalidateDockerClient);
+	}
+
 	public void installDocker(HostAddress hostAddress) {
 		sshService.uploadFile(hostAddress, dockerScriptFile);
 		String installDockerCommand = String.format("sh %s", dockerScriptFile);
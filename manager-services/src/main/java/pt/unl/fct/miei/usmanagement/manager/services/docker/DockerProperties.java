@@ -41,6 +41,8 @@ public class DockerProperties {
 	private final ApiProxy apiProxy;
 	private final Hub hub;
 	private final Swarm swarm;
+	private final Client client;
+	private final Events events;
 	private String installScript;
 	private String uninstallScript;
 	private String installApiScript;
@@ -51,6 +53,8 @@ public class DockerProperties {
 		this.apiProxy = new ApiProxy();
 		this.hub = new Hub();
 		this.swarm = new Swarm();
+		this.client = new Client();
+		this.events = new Events();
 	}
 
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -91,4 +95,26 @@ public class DockerProperties {
 
 	}
 
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	@Setter
+	public static final class Client {
+
+		private int connectionPoolSize;
+		private long idleTimeout;
+		private long evictionPeriod;
+
+	}
+
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	@Setter
+	public static final class Events {
+
+		private boolean enabled;
+		private long reconnectDelay;
+		private long reconciliationPeriod;
+
+	}
+
 }
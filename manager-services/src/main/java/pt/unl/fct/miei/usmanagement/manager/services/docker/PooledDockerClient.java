@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker;
+
+import com.spotify.docker.client.DockerClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-lived docker client of a single host, shared by all callers of {@link DockerCoreService#getDockerClient}.
+ * Callers keep using {@code try (DockerClient client = ...)}: each lease is a proxy whose {@code close()}
+ * only releases the lease, the underlying client (and its connection pool) is closed when evicted.
+ */
+@Slf4j
+final class PooledDockerClient {
+
+	private final String host;
+	private final DockerClient dockerClient;
+	private int leases;
+	private long lastUsed;
+	private boolean evicted;
+
+	PooledDockerClient(String host, DockerClient dockerClient) {
+		this.host = host;
+		this.dockerClient = dockerClient;
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return a new lease of this client, or null if it was already evicted
+	 */
+	synchronized DockerClient lease() {
+		if (evicted) {
+			return null;
+		}
+		leases++;
+		lastUsed = System.currentTimeMillis();
+		return (DockerClient) Proxy.newProxyInstance(DockerClient.class.getClassLoader(),
+			new Class<?>[]{DockerClient.class}, new Lease());
+	}
+
+	synchronized int getLeases() {
+		return leases;
+	}
+
+	synchronized boolean isIdle(long idleTimeout) {
+		return !evicted && leases == 0 && System.currentTimeMillis() - lastUsed >= idleTimeout;
+	}
+
+	/**
+	 * Marks this client as evicted. It is closed right away if there are no leases,
+	 * otherwise when the last lease is released.
+	 */
+	synchronized void evict() {
+		evicted = true;
+		if (leases == 0) {
+			close();
+		}
+	}
+
+	private synchronized void release() {
+		leases--;
+		lastUsed = System.currentTimeMillis();
+		if (evicted && leases == 0) {
+			close();
+		}
+	}
+
+	private void close() {
+		log.info("Closing docker client of host {}", host);
+		try {
+			dockerClient.close();
+		}
+		catch (Exception e) {
+			log.error("Failed to close docker client of host {}: {}", host, e.getMessage());
+		}
+	}
+
+	private final class Lease implements InvocationHandler {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					if (method.getParameterCount() == 0) {
+						if (released.compareAndSet(false, true)) {
+							release();
+						}
+						return null;
+					}
+					break;
+				case "equals":
+					return args != null && args.length == 1 && proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "PooledDockerClient[" + host + "]";
+				default:
+					break;
+			}
+			try {
+				return method.invoke(dockerClient, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
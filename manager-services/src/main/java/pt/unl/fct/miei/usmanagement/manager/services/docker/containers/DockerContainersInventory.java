@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.containers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.util.Pair;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.util.HitCounters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the containers running on the hosts of the cluster, indexed by id, host, service name and label.
+ * Each host is listed again once its containers are older than the maximum staleness, or after being invalidated,
+ * and all stale hosts are listed in parallel. Lookups read an immutable index, rebuilt after each refresh.
+ * The age of the containers of a host counts from the end of its listing, so a slow host doesn't leave the index
+ * stale as soon as it is built. The list of hosts has an age of its own, and is only listed again once it is stale.
+ */
+@Slf4j
+public class DockerContainersInventory {
+
+	private final Supplier<Collection<HostAddress>> hostsSupplier;
+	private final Function<HostAddress, List<DockerContainer>> containersLoader;
+	private final long maxStaleness;
+	private final ForkJoinPool refreshPool;
+
+	private final Map<String, HostContainers> hostsContainers;
+	private Map<String, HostAddress> hosts;
+	// when the hosts were last listed, independent of the age of their containers
+	private long hostsRefreshTime;
+	private volatile Index index;
+
+	private final HitCounters hitCounters;
+	private final Timer refreshTimer;
+
+	public DockerContainersInventory(Supplier<Collection<HostAddress>> hostsSupplier,
+									 Function<HostAddress, List<DockerContainer>> containersLoader,
+									 long maxStaleness, int threads, MeterRegistry meterRegistry) {
+		this.hostsSupplier = hostsSupplier;
+		this.containersLoader = containersLoader;
+		this.maxStaleness = TimeUnit.MILLISECONDS.toNanos(maxStaleness);
+		this.refreshPool = new ForkJoinPool(Math.max(1, threads));
+		this.hostsContainers = new ConcurrentHashMap<>();
+		this.hitCounters = new HitCounters(meterRegistry, "docker.containers.inventory");
+		meterRegistry.gauge("docker.containers.inventory.size", this, inventory -> {
+			Index index = inventory.index;
+			return index == null ? 0 : index.containers.size();
+		});
+		this.refreshTimer = meterRegistry.timer("docker.containers.inventory.refresh");
+	}
+
+	public List<DockerContainer> getContainers() {
+		return new ArrayList<>(lookup().containers.values());
+	}
+
+	public Optional<DockerContainer> getContainer(String id) {
+		return Optional.ofNullable(lookup().containers.get(id));
+	}
+
+	public List<DockerContainer> getHostContainers(HostAddress hostAddress) {
+		return new ArrayList<>(lookup().hostContainers.getOrDefault(hostAddress.getPublicIpAddress(), List.of()));
+	}
+
+	public List<DockerContainer> getServiceContainers(String serviceName) {
+		return getContainersWithLabels(Set.of(Pair.of(ContainerConstants.Label.SERVICE_NAME, serviceName)));
+	}
+
+	/**
+	 * Returns the containers that, for each label key, have one of the given values.
+	 */
+	public List<DockerContainer> getContainersWithLabels(Set<Pair<String, String>> labels) {
+		return getContainersWithLabels(lookup(), labels);
+	}
+
+	public List<DockerContainer> getHostContainersWithLabels(HostAddress hostAddress, Set<Pair<String, String>> labels) {
+		Map<String, Set<String>> labelValues = getLabelValues(labels);
+		return lookup().hostContainers.getOrDefault(hostAddress.getPublicIpAddress(), List.of()).stream()
+			.filter(container -> hasLabels(container, labelValues))
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Lists the containers of every host again, regardless of their staleness, and returns them.
+	 */
+	public List<DockerContainer> refresh() {
+		return new ArrayList<>(refresh(true).containers.values());
+	}
+
+	/**
+	 * Forces the containers of the host to be listed again on the next lookup.
+	 */
+	public synchronized void invalidate(HostAddress hostAddress) {
+		String host = hostAddress.getPublicIpAddress();
+		hostsContainers.remove(host);
+		if (hosts != null && !hosts.containsKey(host)) {
+			// a host that joined after the last listing of the hosts
+			hosts = null;
+		}
+		index = null;
+		log.debug("Invalidated containers inventory of host {}", host);
+	}
+
+	public synchronized void invalidateAll() {
+		hostsContainers.clear();
+		hosts = null;
+		index = null;
+	}
+
+	public double getHitRatio() {
+		return hitCounters.getHitRatio();
+	}
+
+	private Index lookup() {
+		Index index = this.index;
+		if (index != null && index.isFresh(System.nanoTime(), maxStaleness)) {
+			hitCounters.hit();
+			return index;
+		}
+		hitCounters.miss();
+		return refresh(false);
+	}
+
+	private synchronized Index refresh(boolean force) {
+		long now = System.nanoTime();
+		Index index = this.index;
+		if (!force && index != null && index.isFresh(now, maxStaleness)) {
+			// refreshed by a concurrent lookup
+			return index;
+		}
+		if (force || hosts == null || now - hostsRefreshTime >= maxStaleness) {
+			hosts = hostsSupplier.get().stream()
+				.collect(Collectors.toMap(HostAddress::getPublicIpAddress, hostAddress -> hostAddress, (h1, h2) -> h1,
+					LinkedHashMap::new));
+			hostsRefreshTime = System.nanoTime();
+			hostsContainers.keySet().retainAll(hosts.keySet());
+		}
+		List<HostAddress> staleHosts = hosts.values().stream()
+			.filter(hostAddress -> {
+				HostContainers hostContainers = hostsContainers.get(hostAddress.getPublicIpAddress());
+				return force || hostContainers == null || now - hostContainers.refreshTime >= maxStaleness;
+			})
+			.collect(Collectors.toList());
+		if (!staleHosts.isEmpty()) {
+			refreshPool.submit(() -> staleHosts.parallelStream().forEach(this::refreshHost)).join();
+		}
+		long oldestRefreshTime = hostsContainers.values().stream()
+			.mapToLong(hostContainers -> hostContainers.refreshTime)
+			.min()
+			.orElse(hostsRefreshTime);
+		this.index = new Index(hostsContainers.values(), oldestRefreshTime);
+		return this.index;
+	}
+
+	private void refreshHost(HostAddress hostAddress) {
+		String host = hostAddress.getPublicIpAddress();
+		long start = System.nanoTime();
+		List<DockerContainer> containers;
+		try {
+			containers = containersLoader.apply(hostAddress);
+		}
+		catch (RuntimeException e) {
+			// keeps the last known containers of the host until the next refresh, without failing the other hosts
+			log.error("Failed to refresh containers inventory of host {}: {}", host, e.getMessage());
+			HostContainers previous = hostsContainers.get(host);
+			containers = previous == null ? List.of() : previous.containers;
+		}
+		long end = System.nanoTime();
+		refreshTimer.record(end - start, TimeUnit.NANOSECONDS);
+		hostsContainers.put(host, new HostContainers(containers, end));
+	}
+
+	private static List<DockerContainer> getContainersWithLabels(Index index, Set<Pair<String, String>> labels) {
+		Map<String, Set<String>> labelValues = getLabelValues(labels);
+		// starts from the key with the fewest containers, the remaining keys are then checked on each of them
+		List<DockerContainer> candidates = null;
+		for (Map.Entry<String, Set<String>> label : labelValues.entrySet()) {
+			List<DockerContainer> keyContainers = new ArrayList<>();
+			label.getValue().forEach(value ->
+				keyContainers.addAll(index.labelContainers.getOrDefault(Pair.of(label.getKey(), value), List.of())));
+			if (candidates == null || keyContainers.size() < candidates.size()) {
+				candidates = keyContainers;
+			}
+		}
+		if (candidates == null) {
+			return new ArrayList<>(index.containers.values());
+		}
+		if (labelValues.size() == 1) {
+			return candidates;
+		}
+		return candidates.stream().filter(container -> hasLabels(container, labelValues)).collect(Collectors.toList());
+	}
+
+	private static Map<String, Set<String>> getLabelValues(Set<Pair<String, String>> labels) {
+		return labels.stream().collect(Collectors.groupingBy(Pair::getFirst, Collectors.mapping(Pair::getSecond, Collectors.toSet())));
+	}
+
+	private static boolean hasLabels(DockerContainer container, Map<String, Set<String>> labelValues) {
+		Map<String, String> containerLabels = container.getLabels();
+		return labelValues.entrySet().stream()
+			.allMatch(label -> label.getValue().contains(containerLabels.get(label.getKey())));
+	}
+
+	private static final class HostContainers {
+
+		private final List<DockerContainer> containers;
+		private final long refreshTime;
+
+		private HostContainers(List<DockerContainer> containers, long refreshTime) {
+			this.containers = containers;
+			this.refreshTime = refreshTime;
+		}
+
+	}
+
+	private static final class Index {
+
+		private final Map<String, DockerContainer> containers;
+		private final Map<String, List<DockerContainer>> hostContainers;
+		private final Map<Pair<String, String>, List<DockerContainer>> labelContainers;
+		private final long refreshTime;
+
+		private Index(Collection<HostContainers> hostsContainers, long refreshTime) {
+			Map<String, DockerContainer> containers = new LinkedHashMap<>();
+			Map<String, List<DockerContainer>> hostContainers = new HashMap<>();
+			Map<Pair<String, String>, List<DockerContainer>> labelContainers = new HashMap<>();
+			hostsContainers.forEach(host -> host.containers.forEach(container -> {
+				containers.put(container.getId(), container);
+				hostContainers.computeIfAbsent(container.getPublicIpAddress(), h -> new ArrayList<>()).add(container);
+				container.getLabels().forEach((key, value) ->
+					labelContainers.computeIfAbsent(Pair.of(key, value), l -> new ArrayList<>()).add(container));
+			}));
+			this.containers = Collections.unmodifiableMap(containers);
+			this.hostContainers = hostContainers;
+			this.labelContainers = labelContainers;
+			this.refreshTime = refreshTime;
+		}
+
+		private boolean isFresh(long now, long maxStaleness) {
+			return now - refreshTime < maxStaleness;
+		}
+
+	}
+
+}
@@ -38,6 +38,7 @@ import com.spotify.docker.client.messages.ContainerUpdate;
 import com.spotify.docker.client.messages.HostConfig;
 import com.spotify.docker.client.messages.PortBinding;
 import com.spotify.docker.client.shaded.com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.env.Environment;
@@ -65,6 +66,7 @@ import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.loadbalancer.nginx.LoadBalancerService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.ServiceDependenciesService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.ServicesService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.discovery.registration.RegistrationProperties;
@@ -98,6 +100,8 @@ public class DockerContainersService {
 	private final Environment environment;
 	private final DockerSwarmService dockerSwarmService;
 	private final NodesService nodesService;
+	private final SchedulerService schedulerService;
+	private final DockerContainersInventory inventory;
 
 	private final String managerId;
 	private final int dockerDelayBeforeStopContainer;
@@ -110,7 +114,8 @@ public class DockerContainersService {
 								   RegistrationProperties registrationProperties, ContainerProperties containerProperties,
 								   ConfigurationsService configurationsService,
 								   Environment environment, DockerSwarmService dockerSwarmService,
-								   NodesService nodesService, ParallelismProperties parallelismProperties) {
+								   NodesService nodesService, ParallelismProperties parallelismProperties,
+								   SchedulerService schedulerService, MeterRegistry meterRegistry) {
 		this.containersService = containersService;
 		this.dockerCoreService = dockerCoreService;
 		this.servicesService = servicesService;
@@ -126,6 +131,9 @@ public class DockerContainersService {
 		this.configurationsService = configurationsService;
 		this.nodesService = nodesService;
 		this.threads = parallelismProperties.getThreads();
+		this.schedulerService = schedulerService;
+		this.inventory = new DockerContainersInventory(this::getReadyHosts, hostAddress -> getContainers(hostAddress),
+			containerProperties.getInventory().getMaxStaleness(), threads, meterRegistry);
 	}
 
 	public Map<String, List<DockerContainer>> launchApp(List<Service> services, Coordinates coordinates) {
@@ -241,7 +249,7 @@ public class DockerContainersService {
 
 	public Optional<DockerContainer> launchContainer(HostAddress address, String serviceName, ContainerTypeEnum containerType,
 													 int externalPort, int internalPort, List<String> environment) {
-		Service service = servicesService.getService(serviceName).toBuilder()
+		Service service = servicesService.getServiceAndEntities(serviceName).toBuilder()
 			.defaultExternalPort(externalPort)
 			.defaultInternalPort(internalPort)
 			.build();
@@ -403,6 +411,7 @@ public class DockerContainersService {
 						dockerClient.connectToNetwork(containerId, DockerSwarmService.NETWORK_OVERLAY);
 					}*/
 					dockerClient.startContainer(containerId);
+					inventory.invalidate(hostAddress);
 					if (ServiceTypeEnum.getServiceType(serviceType) == ServiceTypeEnum.FRONTEND) {
 						nginxLoadBalancerService.addServer(serviceName, serviceAddress, hostAddress.getCoordinates(), hostAddress.getRegion());
 					}
@@ -493,6 +502,9 @@ public class DockerContainersService {
 		catch (DockerException | InterruptedException e) {
 			log.error("Failed to stop container {}: {}", id, e.getMessage());
 		}
+		finally {
+			inventory.invalidate(hostAddress);
+		}
 	}
 
 	public Optional<DockerContainer> replicateContainer(Container container, HostAddress toHostAddress) {
@@ -536,36 +548,48 @@ public class DockerContainersService {
 			toHostAddress = hostsService.completeHostAddress(toHostAddress);
 		}
 		Optional<DockerContainer> replicaContainer = replicateContainer(container, toHostAddress);
-		new Timer("stop-container-timer").schedule(new TimerTask() {
-			@Override
-			public void run() {
-				stopContainer(container);
-			}
-		}, dockerDelayBeforeStopContainer);
+		schedulerService.scheduleOnce("stop-container-" + container.getId(), dockerDelayBeforeStopContainer,
+			() -> stopContainer(container));
 		return replicaContainer;
 	}
 
+	/**
+	 * Lists the containers of all ready nodes again, bypassing the staleness of the inventory.
+	 */
 	public List<DockerContainer> getAllContainers(DockerClient.ListContainersParam... filter) {
-		return nodesService.getReadyNodes().stream()
-			.map(node -> {
-				HostAddress hostAddress = node.getHostAddress();
-				return getContainers(hostAddress, filter);
-			})
-			.flatMap(List::stream)
+		if (filter == null || filter.length == 0) {
+			return inventory.refresh();
+		}
+		List<HostAddress> hostAddresses = nodesService.getReadyNodes().stream()
+			.map(pt.unl.fct.miei.usmanagement.manager.nodes.Node::getHostAddress)
 			.collect(Collectors.toList());
+		return getContainers(hostAddresses, filter);
 	}
 
 	public List<DockerContainer> getContainers(DockerClient.ListContainersParam... filter) {
+		if (filter == null || filter.length == 0) {
+			return inventory.getContainers();
+		}
+		return getContainers(getReadyHosts(), filter);
+	}
+
+	private List<DockerContainer> getContainers(List<HostAddress> hostAddresses, DockerClient.ListContainersParam... filter) {
+		return new ForkJoinPool(threads).submit(() ->
+			hostAddresses.parallelStream()
+				.map(hostAddress -> getContainers(hostAddress, filter))
+				.flatMap(List::stream)
+				.collect(Collectors.toList())).join();
+	}
+
+	private List<HostAddress> getReadyHosts() {
 		Gson gson = new Gson();
 		return dockerSwarmService.getReadyNodes().stream()
 			.map(node -> {
 				String publicIp = node.status().addr();
 				String privateIp = node.spec().labels().get(NodeConstants.Label.PRIVATE_IP_ADDRESS);
 				Coordinates coordinates = gson.fromJson(node.spec().labels().get(NodeConstants.Label.COORDINATES), Coordinates.class);
-				HostAddress hostAddress = new HostAddress(publicIp, privateIp, coordinates);
-				return getContainers(hostAddress, filter);
+				return new HostAddress(publicIp, privateIp, coordinates);
 			})
-			.flatMap(List::stream)
 			.collect(Collectors.toList());
 	}
 
@@ -594,8 +618,7 @@ public class DockerContainersService {
 	}
 
 	private Optional<DockerContainer> findContainer(String id) {
-		DockerClient.ListContainersParam idFilter = DockerClient.ListContainersParam.filter("id", id);
-		return getContainers(idFilter).stream().findFirst();
+		return inventory.getContainer(id);
 	}
 
 	public Optional<DockerContainer> getContainer(String id) {
@@ -674,7 +697,7 @@ public class DockerContainersService {
 	}
 
 	public List<DockerContainer> stopAll(Predicate<DockerContainer> containersPredicate) {
-		List<DockerContainer> containers = getContainers();
+		List<DockerContainer> containers = inventory.refresh();
 		if (containersPredicate != null) {
 			containers.removeIf(Predicate.not(containersPredicate));
 		}
@@ -689,14 +712,15 @@ public class DockerContainersService {
 	}
 
 	public List<DockerContainer> getHostContainers(HostAddress hostAddress) {
-		return getContainers().stream()
-			.filter(container -> container.getHostAddress().equals(hostAddress))
-			.collect(Collectors.toList());
+		return inventory.getHostContainers(hostAddress);
 	}
 
 	public List<DockerContainer> getHostContainersWithLabels(HostAddress hostAddress, Set<Pair<String, String>> labels) {
-		List<DockerContainer> containers = getHostContainers(hostAddress);
-		return filterContainersWithLabels(containers, labels);
+		return inventory.getHostContainersWithLabels(hostAddress, labels);
+	}
+
+	public List<DockerContainer> getServiceContainers(String serviceName) {
+		return inventory.getServiceContainers(serviceName);
 	}
 
 	public List<DockerContainer> getDatabaseContainers() {
@@ -723,25 +747,15 @@ public class DockerContainersService {
 	}
 
 	public List<DockerContainer> getContainersWithLabels(Set<Pair<String, String>> labels) {
-		List<DockerContainer> containers = getContainers();
-		return filterContainersWithLabels(containers, labels);
-	}
-
-	private List<DockerContainer> filterContainersWithLabels(List<DockerContainer> containers,
-															 Set<Pair<String, String>> labels) {
-		List<String> labelKeys = labels.stream().map(Pair::getFirst).collect(Collectors.toList());
-		return containers.stream()
-			.filter(container -> {
-				for (Map.Entry<String, String> containerLabel : container.getLabels().entrySet()) {
-					String key = containerLabel.getKey();
-					String value = containerLabel.getValue();
-					if (labelKeys.contains(key) && !labels.contains(Pair.of(key, value))) {
-						return false;
-					}
-				}
-				return true;
-			})
-			.collect(Collectors.toList());
+		return inventory.getContainersWithLabels(labels);
+	}
+
+	/**
+	 * Forces the containers of the host to be listed again, e.g. after a container was started or stopped there
+	 * without going through this service.
+	 */
+	public void invalidateContainers(HostAddress hostAddress) {
+		inventory.invalidate(hostAddress);
 	}
 
 	public ContainerUpdate updateContainer(Container container, HostConfig config) {
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An event of the docker events api, e.g. a container that started or died, or a swarm node that was updated.
+ */
+@Data
+public final class DockerEvent {
+
+	public static final String CONTAINER = "container";
+	public static final String NODE = "node";
+
+	private final String type;
+	private final String action;
+	private final String id;
+	private final Map<String, String> attributes;
+	private final long timeNano;
+
+	public static DockerEvent fromJson(JsonNode event) {
+		String type = event.path("Type").asText();
+		String action = event.path("Action").asText();
+		JsonNode actor = event.path("Actor");
+		String id = actor.path("ID").asText();
+		Map<String, String> attributes = new HashMap<>();
+		actor.path("Attributes").fields().forEachRemaining(attribute -> attributes.put(attribute.getKey(), attribute.getValue().asText()));
+		long timeNano = event.path("timeNano").asLong();
+		return new DockerEvent(type, action, id, attributes, timeNano);
+	}
+
+	public boolean isContainerEvent() {
+		return CONTAINER.equals(type);
+	}
+
+	public boolean isNodeEvent() {
+		return NODE.equals(type);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.streams.DockerApiSubscribers;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+@Slf4j
+@Service
+public class DockerEventsService {
+
+	private static final long CONNECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+	private final DockerApiSubscribers<DockerEventsSubscriber> hostsSubscribers;
+	private volatile BiConsumer<HostAddress, DockerEvent> listener;
+
+	public DockerEventsService(DockerProperties dockerProperties, MeterRegistry meterRegistry) {
+		long reconnectDelay = dockerProperties.getEvents().getReconnectDelay();
+		this.hostsSubscribers = new DockerApiSubscribers<>(dockerProperties, CONNECTION_TIMEOUT,
+			(hostAddress, httpClient, baseUri, authorization) -> {
+				DockerEventsSubscriber subscriber = new DockerEventsSubscriber(hostAddress, httpClient, baseUri,
+					authorization, reconnectDelay, (host, event) -> listener.accept(host, event));
+				subscriber.subscribe();
+				return subscriber;
+			},
+			DockerEventsSubscriber::close);
+		meterRegistry.gauge("docker.events.streams", hostsSubscribers,
+			subscribers -> subscribers.getSubscribers().stream().filter(DockerEventsSubscriber::isSubscribed).count());
+	}
+
+	/**
+	 * Keeps an events stream open to the docker daemon of each of the given hosts, closing the streams of any other host.
+	 * The events of all streams are passed to the listener, from the threads of the http client.
+	 */
+	public void subscribeHosts(Collection<HostAddress> hostAddresses, BiConsumer<HostAddress, DockerEvent> listener) {
+		this.listener = listener;
+		hostAddresses.forEach(hostsSubscribers::getSubscriber);
+		hostsSubscribers.retain(hostAddresses);
+	}
+
+	public void stop() {
+		hostsSubscribers.close();
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.streams.DockerApiStream;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps one streaming request open to the events api of the docker daemon of a host, passing its container and node
+ * events to the listener. When the stream ends, e.g. the daemon restarted, it is reopened since the last received event,
+ * so that the events in between are replayed by docker instead of lost.
+ */
+@Slf4j
+public class DockerEventsSubscriber {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final String FILTERS = String.format("{\"type\":[\"%s\",\"%s\"]}", DockerEvent.CONTAINER, DockerEvent.NODE);
+
+	private final HostAddress hostAddress;
+	private final HttpClient httpClient;
+	private final String baseUri;
+	private final String authorization;
+	private final long reconnectDelay;
+	private final BiConsumer<HostAddress, DockerEvent> listener;
+	private volatile DockerApiStream stream;
+	private volatile long lastEventTimeNano;
+	private volatile boolean closed;
+
+	public DockerEventsSubscriber(HostAddress hostAddress, HttpClient httpClient, String baseUri, String authorization,
+								  long reconnectDelay, BiConsumer<HostAddress, DockerEvent> listener) {
+		this.hostAddress = hostAddress;
+		this.httpClient = httpClient;
+		this.baseUri = baseUri;
+		this.authorization = authorization;
+		this.reconnectDelay = reconnectDelay;
+		this.listener = listener;
+	}
+
+	public boolean isSubscribed() {
+		return stream != null;
+	}
+
+	public void subscribe() {
+		if (closed || this.stream != null) {
+			return;
+		}
+		String host = hostAddress.getPublicIpAddress();
+		DockerApiStream stream = new DockerApiStream(String.format("Events stream of %s", host), this::update);
+		this.stream = stream;
+		stream.open(httpClient, getEventsUri(), authorization, () -> {
+			if (this.stream == stream) {
+				this.stream = null;
+				if (!closed) {
+					CompletableFuture.delayedExecutor(reconnectDelay, TimeUnit.MILLISECONDS).execute(this::subscribe);
+				}
+			}
+		});
+		log.info("Subscribed to events of {}", host);
+	}
+
+	public void close() {
+		closed = true;
+		DockerApiStream stream = this.stream;
+		this.stream = null;
+		if (stream != null) {
+			stream.cancel();
+		}
+		log.info("Unsubscribed from events of {}", hostAddress.getPublicIpAddress());
+	}
+
+	private String getEventsUri() {
+		String uri = String.format("%s/events?filters=%s", baseUri, URLEncoder.encode(FILTERS, StandardCharsets.UTF_8));
+		long since = lastEventTimeNano;
+		if (since > 0) {
+			// the events since the last one received, in the daemon's own clock
+			uri += String.format("&since=%d.%09d", TimeUnit.NANOSECONDS.toSeconds(since), since % TimeUnit.SECONDS.toNanos(1));
+		}
+		return uri;
+	}
+
+	/**
+	 * Passes an event, from a json object of the docker events api, to the listener.
+	 * Events already received before the stream was reopened are skipped.
+	 */
+	public void update(String eventJson) {
+		DockerEvent event;
+		try {
+			event = DockerEvent.fromJson(OBJECT_MAPPER.readTree(eventJson));
+		}
+		catch (IOException e) {
+			log.error("Failed to parse event of {}: {}", hostAddress.getPublicIpAddress(), e.getMessage());
+			return;
+		}
+		if (event.getTimeNano() <= lastEventTimeNano) {
+			return;
+		}
+		lastEventTimeNano = event.getTimeNano();
+		try {
+			listener.accept(hostAddress, event);
+		}
+		catch (RuntimeException e) {
+			log.error("Failed to process event {} of {}: {}", event, hostAddress.getPublicIpAddress(), e.getMessage());
+		}
+	}
+
+}
@@ -50,7 +50,9 @@ import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.GeoIndex;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs.HostMonitoringLogsService;
 import pt.unl.fct.miei.usmanagement.manager.util.EntityUtils;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
 
@@ -72,22 +74,28 @@ public class NodesService {
 	private final HostsService hostsService;
 	private final ContainersService containersService;
 	private final KafkaService kafkaService;
+	private final HostMonitoringLogsService hostMonitoringLogsService;
 	private final Environment environment;
 
 	private final Nodes nodes;
 
 	private final int threads;
+	private final GeoIndex<String, pt.unl.fct.miei.usmanagement.manager.nodes.Node> readyNodesIndex;
 
 	public NodesService(@Lazy DockerSwarmService dockerSwarmService, @Lazy HostsService hostsService,
-						@Lazy ContainersService containersService, KafkaService kafkaService, Environment environment,
-						Nodes nodes, ParallelismProperties parallelismProperties) {
+						@Lazy ContainersService containersService, KafkaService kafkaService,
+						HostMonitoringLogsService hostMonitoringLogsService, Environment environment, Nodes nodes,
+						ParallelismProperties parallelismProperties) {
 		this.dockerSwarmService = dockerSwarmService;
 		this.hostsService = hostsService;
 		this.containersService = containersService;
 		this.kafkaService = kafkaService;
+		this.hostMonitoringLogsService = hostMonitoringLogsService;
 		this.environment = environment;
 		this.nodes = nodes;
 		this.threads = parallelismProperties.getThreads();
+		this.readyNodesIndex = new GeoIndex<>(pt.unl.fct.miei.usmanagement.manager.nodes.Node::getId, pt.unl.fct.miei.usmanagement.manager.nodes.Node::getCoordinates,
+			() -> nodes.findByState("ready"));
 	}
 
 	@Transactional(readOnly = true)
@@ -128,6 +136,10 @@ public class NodesService {
 		return filter == null ? getReadyNodes() : getReadyNodes().stream().filter(node -> node.getRegion() != null).collect(Collectors.toList());
 	}
 
+	public Optional<pt.unl.fct.miei.usmanagement.manager.nodes.Node> getClosestReadyNode(Coordinates coordinates, Predicate<pt.unl.fct.miei.usmanagement.manager.nodes.Node> filter) {
+		return readyNodesIndex.nearest(coordinates, filter);
+	}
+
 	public List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> getReadyManagers() {
 		return nodes.findByStateAndManagerStatusIsNotNull("ready");
 	}
@@ -169,7 +181,35 @@ public class NodesService {
 
 	public pt.unl.fct.miei.usmanagement.manager.nodes.Node saveNode(pt.unl.fct.miei.usmanagement.manager.nodes.Node node) {
 		log.info("Saving node {}", ToStringBuilder.reflectionToString(node));
-		return nodes.save(node);
+		node = nodes.save(node);
+		indexNode(node);
+		return node;
+	}
+
+	/**
+	 * Applies the changes found by a synchronization with the swarm in a single transaction,
+	 * so that the inserts, updates and deletes are flushed together, in jdbc batches.
+	 * Returns the added nodes.
+	 */
+	@Transactional
+	public List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> synchronizeNodes(List<Node> addedNodes,
+																				  List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> updatedNodes,
+																				  List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> removedNodes) {
+		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> changedNodes = new ArrayList<>(addedNodes.size() + updatedNodes.size());
+		addedNodes.stream().map(this::fromSwarmNode).forEach(changedNodes::add);
+		changedNodes.addAll(updatedNodes);
+		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> savedNodes = nodes.saveAll(changedNodes);
+		nodes.deleteAll(removedNodes);
+		savedNodes.forEach(node -> {
+			indexNode(node);
+			kafkaService.sendNode(node);
+		});
+		removedNodes.forEach(node -> {
+			readyNodesIndex.remove(node.getId());
+			hostMonitoringLogsService.removeHost(node.getHostAddress());
+			kafkaService.sendDeleteNode(node);
+		});
+		return new ArrayList<>(savedNodes.subList(0, addedNodes.size()));
 	}
 
 	public pt.unl.fct.miei.usmanagement.manager.nodes.Node addOrUpdateNode(pt.unl.fct.miei.usmanagement.manager.nodes.Node node) {
@@ -203,6 +243,8 @@ public class NodesService {
 
 	public void deleteNode(pt.unl.fct.miei.usmanagement.manager.nodes.Node node) {
 		nodes.delete(node);
+		readyNodesIndex.remove(node.getId());
+		hostMonitoringLogsService.removeHost(node.getHostAddress());
 		kafkaService.sendDeleteNode(node);
 	}
 
@@ -294,9 +336,19 @@ public class NodesService {
 
 	public void reset() {
 		nodes.deleteAll();
+		readyNodesIndex.invalidate();
 		log.info("Clearing all nodes");
 	}
 
+	private void indexNode(pt.unl.fct.miei.usmanagement.manager.nodes.Node node) {
+		if ("ready".equalsIgnoreCase(node.getState())) {
+			readyNodesIndex.put(node);
+		}
+		else {
+			readyNodesIndex.remove(node.getId());
+		}
+	}
+
 	private void checkNodeDoesntExist(Node node) {
 		String nodeId = node.id();
 		if (nodes.hasNode(nodeId)) {
@@ -330,7 +382,7 @@ public class NodesService {
 		hostsService.stopBackgroundProcesses(hostAddress);
 		List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> nodes = getHostNodes(hostAddress);
 		nodes.forEach(node -> node.setState("down"));
-		this.nodes.saveAll(nodes);
+		this.nodes.saveAll(nodes).forEach(this::indexNode);
 		nodes.forEach(kafkaService::sendNode);
 		return nodes;
 	}
@@ -355,6 +407,7 @@ public class NodesService {
 	public List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> saveNodes(List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> nodes) {
 		log.info("Saving nodes {}", nodes);
 		nodes = this.nodes.saveAll(nodes);
+		nodes.forEach(this::indexNode);
 		nodes.forEach(kafkaService::sendNode);
 		return nodes;
 	}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.streams;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * A streaming request to the docker api of a host, such as the stats or the events api, which passes each line of the
+ * response to the listener. Once the stream ends, on its own or by failing, the end callback is called.
+ */
+@Slf4j
+public class DockerApiStream implements Flow.Subscriber<String> {
+
+	private final String name;
+	private final Consumer<String> listener;
+	private volatile Flow.Subscription subscription;
+	private volatile boolean cancelled;
+
+	public DockerApiStream(String name, Consumer<String> listener) {
+		this.name = name;
+		this.listener = listener;
+	}
+
+	public void open(HttpClient httpClient, String uri, String authorization, Runnable onEnd) {
+		HttpRequest request = HttpRequest.newBuilder()
+			.uri(URI.create(uri))
+			.header("Authorization", authorization)
+			.GET()
+			.build();
+		httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(this))
+			.whenComplete((response, e) -> {
+				if (e != null) {
+					log.error("{} failed: {}", name, e.getMessage());
+				}
+				else if (response.statusCode() != 200) {
+					log.error("{} returned status {}", name, response.statusCode());
+				}
+				else {
+					log.info("{} ended", name);
+				}
+				onEnd.run();
+			});
+	}
+
+	public void cancel() {
+		cancelled = true;
+		Flow.Subscription subscription = this.subscription;
+		if (subscription != null) {
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		if (cancelled) {
+			subscription.cancel();
+		}
+		else {
+			subscription.request(Long.MAX_VALUE);
+		}
+	}
+
+	@Override
+	public void onNext(String line) {
+		if (!cancelled && !line.isBlank()) {
+			listener.accept(line);
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+	}
+
+	@Override
+	public void onComplete() {
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.docker.streams;
+
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The subscribers of the streaming apis of the docker daemons, one per host, sharing a single http client.
+ */
+public class DockerApiSubscribers<S> {
+
+	private final HttpClient httpClient;
+	private final String authorization;
+	private final int port;
+	private final Factory<S> factory;
+	private final Consumer<S> closer;
+	private final Map<String, S> hostsSubscribers;
+
+	public DockerApiSubscribers(DockerProperties dockerProperties, long connectionTimeout, Factory<S> factory,
+								Consumer<S> closer) {
+		String username = dockerProperties.getApiProxy().getUsername();
+		String password = dockerProperties.getApiProxy().getPassword();
+		byte[] auth = String.format("%s:%s", username, password).getBytes();
+		this.authorization = String.format("Basic %s", new String(Base64.getEncoder().encode(auth)));
+		this.port = dockerProperties.getApiProxy().getPort();
+		this.httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofMillis(connectionTimeout))
+			.build();
+		this.factory = factory;
+		this.closer = closer;
+		this.hostsSubscribers = new ConcurrentHashMap<>();
+	}
+
+	public S getSubscriber(HostAddress hostAddress) {
+		return hostsSubscribers.computeIfAbsent(hostAddress.getPublicIpAddress(), host ->
+			factory.newSubscriber(hostAddress, httpClient, String.format("http://%s:%d", host, port), authorization));
+	}
+
+	public Collection<S> getSubscribers() {
+		return hostsSubscribers.values();
+	}
+
+	/**
+	 * Closes the subscribers of all hosts other than the given ones.
+	 */
+	public void retain(Collection<HostAddress> hostAddresses) {
+		Set<String> hosts = hostAddresses.stream().map(HostAddress::getPublicIpAddress).collect(Collectors.toSet());
+		hostsSubscribers.forEach((host, subscriber) -> {
+			if (!hosts.contains(host) && hostsSubscribers.remove(host, subscriber)) {
+				closer.accept(subscriber);
+			}
+		});
+	}
+
+	public void close() {
+		hostsSubscribers.values().forEach(closer);
+		hostsSubscribers.clear();
+	}
+
+	@FunctionalInterface
+	public interface Factory<S> {
+
+		S newSubscriber(HostAddress hostAddress, HttpClient httpClient, String baseUri, String authorization);
+
+	}
+
+}
@@ -226,6 +226,9 @@ public class DockerSwarmService {
 		try (DockerClient docker = dockerCoreService.getDockerClient(hostAddress)) {
 			return leaveSwarm(docker, hostAddress);
 		}
+		finally {
+			dockerCoreService.invalidateDockerClient(hostAddress);
+		}
 	}
 
 	private Optional<String> leaveSwarm(DockerClient docker, HostAddress hostAddress) {
@@ -252,8 +255,7 @@ public class DockerSwarmService {
 	}
 
 	public void destroySwarm() {
-		try {
-			DockerClient swarmLeader = getSwarmLeader();
+		try (DockerClient swarmLeader = getSwarmLeader()) {
 			swarmLeader.leaveSwarm(true);
 		}
 		catch (DockerException | InterruptedException e) {
@@ -333,8 +335,10 @@ public class DockerSwarmService {
 
 	public void removeNode(String nodeId) {
 		try (DockerClient swarmManager = getSwarmLeader()) {
+			String nodeAddress = swarmManager.inspectNode(nodeId).status().addr();
 			swarmManager.deleteNode(nodeId, true);
 			log.info("Deleted node {}", nodeId);
+			dockerCoreService.invalidateDockerClient(nodeAddress);
 		}
 		catch (DockerException | InterruptedException e) {
 			throw new ManagerException("Unable remove node %s from the swarm: %s", nodeId, e.getMessage());
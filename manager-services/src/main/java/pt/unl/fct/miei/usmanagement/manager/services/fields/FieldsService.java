@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.fields;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -70,7 +69,7 @@ public class FieldsService {
 
 	public Field addField(Field field) {
 		checkFieldDoesntExist(field);
-		log.info("Saving field {}", ToStringBuilder.reflectionToString(field));
+		log.info("Saving field {}", EntityUtils.reflectionToString(field));
 		field = fields.save(field);
 		/*Field kafkaField = field;
 		kafkaField.setNew(true);
@@ -81,7 +80,7 @@ public class FieldsService {
 
 	public Field updateField(String fieldName, Field newField) {
 		Field field = getField(fieldName);
-		log.info("Updating field {} with {}", ToStringBuilder.reflectionToString(field), ToStringBuilder.reflectionToString(newField));
+		log.info("Updating field {} with {}", EntityUtils.reflectionToString(field), EntityUtils.reflectionToString(newField));
 		EntityUtils.copyValidProperties(newField, field);
 		field = saveField(field);
 		kafkaService.sendField(field);
@@ -89,7 +88,7 @@ public class FieldsService {
 	}
 
 	public Field saveField(Field field) {
-		log.info("Saving field {}", ToStringBuilder.reflectionToString(field));
+		log.info("Saving field {}", EntityUtils.reflectionToString(field));
 		return fields.save(field);
 	}
 
@@ -101,6 +100,7 @@ public class FieldsService {
 		});
 	}
 
+	@Transactional
 	public Field addOrUpdateField(Field field) {
 		if (field.getId() != null) {
 			Optional<Field> fieldOptional = fields.findById(field.getId());
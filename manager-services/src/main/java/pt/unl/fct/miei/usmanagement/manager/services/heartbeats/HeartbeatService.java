@@ -11,6 +11,7 @@ import pt.unl.fct.miei.usmanagement.manager.nodes.Node;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagerProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
@@ -19,8 +20,6 @@ import javax.persistence.EntityNotFoundException;
 import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,10 +33,11 @@ public class HeartbeatService {
 	private final NodesService nodesService;
 	private final Environment environment;
 	private final int heartbeatInterval;
+	private final SchedulerService schedulerService;
 
 	public HeartbeatService(Heartbeats heartbeats, KafkaService kafkaService, WorkerManagersService workerManagersService,
 							ContainersService containersService, NodesService nodesService, Environment environment,
-							WorkerManagerProperties workerManagerProperties) {
+							WorkerManagerProperties workerManagerProperties, SchedulerService schedulerService) {
 		this.heartbeats = heartbeats;
 		this.kafkaService = kafkaService;
 		this.workerManagersService = workerManagersService;
@@ -45,6 +45,7 @@ public class HeartbeatService {
 		this.nodesService = nodesService;
 		this.environment = environment;
 		this.heartbeatInterval = workerManagerProperties.getHeartbeatInterval();
+		this.schedulerService = schedulerService;
 	}
 
 	public Optional<Heartbeat> lastHeartbeat(String id) {
@@ -86,13 +87,10 @@ public class HeartbeatService {
 	}
 
 	public void startHeartbeat() {
-		new Timer("heartbeat").schedule(new TimerTask() {
-			@Override
-			public void run() {
-				String id = environment.getProperty(ContainerConstants.Environment.Manager.ID);
-				kafkaService.sendHeartbeat(Heartbeat.builder().id(id).build());
-			}
-		}, heartbeatInterval, heartbeatInterval);
+		schedulerService.schedule("heartbeat", heartbeatInterval, () -> {
+			String id = environment.getProperty(ContainerConstants.Environment.Manager.ID);
+			kafkaService.sendHeartbeat(Heartbeat.builder().id(id).build());
+		});
 	}
 
 	public void deleteHeartbeat(String id) {
@@ -0,0 +1,380 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.hosts;
+
+import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Index of values by their location, for nearest neighbour queries.
+ * Coordinates are mapped to points on the unit sphere and kept in a 3-d tree. The euclidean distance between two
+ * points grows with the great-circle distance between them, so the nearest point is also the closest location.
+ * Values are added and removed one at a time, removed values are only dropped from the tree when it's rebuilt,
+ * once they outnumber the values in it. The index is loaded on the first query, and again after being invalidated.
+ */
+public final class GeoIndex<K, V> {
+
+	private static final int DIMENSIONS = 3;
+
+	private final Function<V, K> keyFunction;
+	private final Function<V, Coordinates> coordinatesFunction;
+	private final Supplier<? extends Collection<V>> loader;
+	private final ReadWriteLock lock;
+	private final Map<K, Point<K, V>> points;
+	private Point<K, V> root;
+	private int removedPoints;
+	private boolean loaded;
+
+	public GeoIndex(Function<V, K> keyFunction, Function<V, Coordinates> coordinatesFunction,
+					Supplier<? extends Collection<V>> loader) {
+		this.keyFunction = keyFunction;
+		this.coordinatesFunction = coordinatesFunction;
+		this.loader = loader;
+		this.lock = new ReentrantReadWriteLock();
+		this.points = new HashMap<>();
+	}
+
+	public void put(V value) {
+		lock.writeLock().lock();
+		try {
+			if (loaded) {
+				insert(value);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void putAll(Collection<V> values) {
+		lock.writeLock().lock();
+		try {
+			if (loaded) {
+				values.forEach(this::insert);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(K key) {
+		lock.writeLock().lock();
+		try {
+			if (loaded) {
+				delete(key);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops all values, which are loaded again on the next query.
+	 */
+	public void invalidate() {
+		lock.writeLock().lock();
+		try {
+			clear();
+			loaded = false;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return points.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Optional<V> nearest(Coordinates coordinates) {
+		return nearest(coordinates, value -> true);
+	}
+
+	public Optional<V> nearest(Coordinates coordinates, Predicate<? super V> filter) {
+		List<V> nearest = nearest(coordinates, 1, filter);
+		return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0));
+	}
+
+	/**
+	 * Returns the k values closest to the coordinates, from closest to farthest, that match the filter.
+	 * The filter may be slow, e.g. a request to the host, so it's never tested while holding the lock. The closest
+	 * candidates are copied from the index and tested after releasing it, doubling their number while less than k match.
+	 */
+	public List<V> nearest(Coordinates coordinates, int k, Predicate<? super V> filter) {
+		if (k <= 0) {
+			return List.of();
+		}
+		load();
+		double[] target = toPoint(coordinates);
+		List<Neighbour<K, V>> matches = new ArrayList<>(k);
+		Set<K> tested = new HashSet<>();
+		int candidates = k;
+		while (true) {
+			List<Neighbour<K, V>> nearest = nearestPoints(target, candidates);
+			for (Neighbour<K, V> neighbour : nearest) {
+				if (matches.size() == k) {
+					break;
+				}
+				Point<K, V> point = neighbour.point;
+				if (tested.add(point.key) && filter.test(point.value)) {
+					matches.add(neighbour);
+				}
+			}
+			if (matches.size() == k || nearest.size() < candidates) {
+				break;
+			}
+			candidates *= 2;
+		}
+		// the index may have changed between batches
+		matches.sort(Comparator.comparingDouble(neighbour -> neighbour.distance));
+		return matches.stream().map(neighbour -> neighbour.point.value).collect(Collectors.toList());
+	}
+
+	private List<Neighbour<K, V>> nearestPoints(double[] target, int k) {
+		lock.readLock().lock();
+		try {
+			if (root == null) {
+				return List.of();
+			}
+			PriorityQueue<Neighbour<K, V>> neighbours = new PriorityQueue<>(k,
+				Comparator.comparingDouble((Neighbour<K, V> neighbour) -> neighbour.distance).reversed());
+			search(root, target, k, neighbours);
+			List<Neighbour<K, V>> nearest = new ArrayList<>(neighbours.size());
+			while (!neighbours.isEmpty()) {
+				nearest.add(neighbours.poll());
+			}
+			Collections.reverse(nearest);
+			return nearest;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void load() {
+		lock.readLock().lock();
+		try {
+			if (loaded) {
+				return;
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		Collection<V> values = loader.get();
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				clear();
+				List<Point<K, V>> newPoints = new ArrayList<>(values.size());
+				for (V value : values) {
+					Point<K, V> point = newPoint(value);
+					if (point != null) {
+						points.put(point.key, point);
+						newPoints.add(point);
+					}
+				}
+				root = build(newPoints, 0, newPoints.size(), 0);
+				loaded = true;
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void clear() {
+		points.clear();
+		root = null;
+		removedPoints = 0;
+	}
+
+	private void insert(V value) {
+		delete(keyFunction.apply(value));
+		Point<K, V> point = newPoint(value);
+		if (point == null) {
+			return;
+		}
+		points.put(point.key, point);
+		if (root == null) {
+			root = point;
+			return;
+		}
+		Point<K, V> parent = root;
+		while (true) {
+			int axis = parent.axis;
+			if (point.coordinates[axis] < parent.coordinates[axis]) {
+				if (parent.left == null) {
+					parent.left = point;
+					break;
+				}
+				parent = parent.left;
+			}
+			else {
+				if (parent.right == null) {
+					parent.right = point;
+					break;
+				}
+				parent = parent.right;
+			}
+		}
+		point.axis = (parent.axis + 1) % DIMENSIONS;
+	}
+
+	private void delete(K key) {
+		Point<K, V> point = points.remove(key);
+		if (point == null) {
+			return;
+		}
+		point.removed = true;
+		removedPoints++;
+		if (removedPoints > points.size()) {
+			List<Point<K, V>> livePoints = new ArrayList<>(points.values());
+			livePoints.forEach(livePoint -> {
+				livePoint.left = null;
+				livePoint.right = null;
+			});
+			root = build(livePoints, 0, livePoints.size(), 0);
+			removedPoints = 0;
+		}
+	}
+
+	private Point<K, V> newPoint(V value) {
+		Coordinates coordinates = coordinatesFunction.apply(value);
+		if (coordinates == null) {
+			return null;
+		}
+		return new Point<>(keyFunction.apply(value), value, toPoint(coordinates));
+	}
+
+	private Point<K, V> build(List<Point<K, V>> points, int from, int to, int axis) {
+		if (from >= to) {
+			return null;
+		}
+		points.subList(from, to).sort(Comparator.comparingDouble(point -> point.coordinates[axis]));
+		int median = (from + to) >>> 1;
+		Point<K, V> point = points.get(median);
+		point.axis = axis;
+		int nextAxis = (axis + 1) % DIMENSIONS;
+		point.left = build(points, from, median, nextAxis);
+		point.right = build(points, median + 1, to, nextAxis);
+		return point;
+	}
+
+	private void search(Point<K, V> point, double[] target, int k, PriorityQueue<Neighbour<K, V>> neighbours) {
+		if (point == null) {
+			return;
+		}
+		if (!point.removed) {
+			double distance = squaredDistance(point.coordinates, target);
+			if (neighbours.size() < k || distance < neighbours.peek().distance) {
+				neighbours.add(new Neighbour<>(point, distance));
+				if (neighbours.size() > k) {
+					neighbours.poll();
+				}
+			}
+		}
+		double delta = target[point.axis] - point.coordinates[point.axis];
+		Point<K, V> near = delta < 0 ? point.left : point.right;
+		Point<K, V> far = delta < 0 ? point.right : point.left;
+		search(near, target, k, neighbours);
+		if (neighbours.size() < k || delta * delta < neighbours.peek().distance) {
+			search(far, target, k, neighbours);
+		}
+	}
+
+	private static double squaredDistance(double[] one, double[] another) {
+		double distance = 0;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			double delta = one[i] - another[i];
+			distance += delta * delta;
+		}
+		return distance;
+	}
+
+	private static double[] toPoint(Coordinates coordinates) {
+		double latitude = Math.toRadians(coordinates.getLatitude());
+		double longitude = Math.toRadians(coordinates.getLongitude());
+		double cosLatitude = Math.cos(latitude);
+		return new double[]{cosLatitude * Math.cos(longitude), cosLatitude * Math.sin(longitude), Math.sin(latitude)};
+	}
+
+	private static final class Point<K, V> {
+
+		private final K key;
+		private final V value;
+		private final double[] coordinates;
+		private int axis;
+		private boolean removed;
+		private Point<K, V> left;
+		private Point<K, V> right;
+
+		private Point(K key, V value, double[] coordinates) {
+			this.key = key;
+			this.value = value;
+			this.coordinates = coordinates;
+		}
+
+	}
+
+	private static final class Neighbour<K, V> {
+
+		private final Point<K, V> point;
+		private final double distance;
+
+		private Neighbour(Point<K, V> point, double distance) {
+			this.point = point;
+			this.distance = distance;
+		}
+
+	}
+
+}
@@ -24,7 +24,6 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.hosts;
 
-import com.google.gson.Gson;
 import com.spotify.docker.client.messages.swarm.Node;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
@@ -41,7 +40,6 @@ import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.hosts.cloud.AwsRegion;
 import pt.unl.fct.miei.usmanagement.manager.hosts.cloud.CloudHost;
 import pt.unl.fct.miei.usmanagement.manager.hosts.edge.EdgeHost;
-import pt.unl.fct.miei.usmanagement.manager.nodes.NodeConstants;
 import pt.unl.fct.miei.usmanagement.manager.nodes.NodeRole;
 import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
@@ -55,13 +53,14 @@ import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsServi
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsInstanceState;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.edge.EdgeHostsService;
-import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.HostMetricsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.HostCapacityService;
 import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshCommandResult;
 import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshService;
 import pt.unl.fct.miei.usmanagement.manager.util.Timing;
 
 import javax.ws.rs.BadRequestException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -90,7 +89,7 @@ public class HostsService {
 	private final CloudHostsService cloudHostsService;
 	private final SshService sshService;
 	private final BashService bashService;
-	private final HostMetricsService hostMetricsService;
+	private final HostCapacityService hostCapacityService;
 	private final ManagerServicesConfiguration managerServicesConfiguration;
 	private final int maxWorkers;
 	private final int maxInstances;
@@ -100,7 +99,7 @@ public class HostsService {
 	public HostsService(@Lazy NodesService nodesService, @Lazy ContainersService containersService,
 						DockerSwarmService dockerSwarmService, EdgeHostsService edgeHostsService,
 						CloudHostsService cloudHostsService, SshService sshService, BashService bashService,
-						HostMetricsService hostMetricsService, ManagerServicesConfiguration managerServicesConfiguration,
+						HostCapacityService hostCapacityService, ManagerServicesConfiguration managerServicesConfiguration,
 						DockerProperties dockerProperties, AwsProperties awsProperties,
 						ParallelismProperties parallelismProperties) {
 		this.nodesService = nodesService;
@@ -110,7 +109,7 @@ public class HostsService {
 		this.cloudHostsService = cloudHostsService;
 		this.sshService = sshService;
 		this.bashService = bashService;
-		this.hostMetricsService = hostMetricsService;
+		this.hostCapacityService = hostCapacityService;
 		this.managerServicesConfiguration = managerServicesConfiguration;
 		this.maxWorkers = dockerProperties.getSwarm().getInitialMaxWorkers();
 		this.maxInstances = awsProperties.getInitialMaxInstances();
@@ -330,15 +329,16 @@ public class HostsService {
 		}
 		log.info("Looking for node on region {} with enough resources to launch service with {} expected ram usage",
 			region.getRegion(), availableMemory);
-		List<HostAddress> nodes = nodesService.getReadyNodes().stream()
-			.filter(node -> node.getRegion() == region && hostMetricsService.hostHasEnoughResources(node.getHostAddress(), availableMemory)
-				&& (filter == null || filter.test(node)))
+		List<HostAddress> regionNodes = nodesService.getReadyNodes().stream()
+			.filter(node -> node.getRegion() == region && (filter == null || filter.test(node)))
 			.map(pt.unl.fct.miei.usmanagement.manager.nodes.Node::getHostAddress)
 			.collect(Collectors.toList());
+		List<HostAddress> nodes = hostCapacityService.getCapableHosts(regionNodes, availableMemory);
 		HostAddress hostAddress;
 		if (nodes.size() > 0) {
 			Random random = new Random();
 			hostAddress = nodes.get(random.nextInt(nodes.size()));
+			hostCapacityService.reserve(hostAddress, availableMemory);
 			log.info("Found node {}", hostAddress);
 		}
 		else {
@@ -356,49 +356,37 @@ public class HostsService {
 		if (managerServicesConfiguration.getMode() == Mode.LOCAL) {
 			return getManagerHostAddress();
 		}
-		Gson gson = new Gson();
-		List<Node> nodes = dockerSwarmService.getReadyNodes().stream().filter(node -> {
-			String publicIp = node.status().addr();
-			String privateIp = node.spec().labels().get(NodeConstants.Label.PRIVATE_IP_ADDRESS);
-			Coordinates nodeCoordinates = gson.fromJson(node.spec().labels().get(NodeConstants.Label.COORDINATES), Coordinates.class);
-			HostAddress hostAddress = new HostAddress(publicIp, privateIp, nodeCoordinates);
-			return !hostAddresses.contains(hostAddress) && hostMetricsService.hostHasEnoughResources(hostAddress, availableMemory);
-		}).collect(Collectors.toList());
-		return getClosestNode(coordinates, nodes);
+		Optional<pt.unl.fct.miei.usmanagement.manager.nodes.Node> closestNode = nodesService.getClosestReadyNode(coordinates, node -> {
+			HostAddress hostAddress = node.getHostAddress();
+			return !hostAddresses.contains(hostAddress) && hostCapacityService.hasEnoughResources(hostAddress, availableMemory);
+		});
+		HostAddress hostAddress = getClosestNode(coordinates, closestNode.orElse(null));
+		hostCapacityService.reserve(hostAddress, availableMemory);
+		return hostAddress;
 	}
 
 	public HostAddress getClosestHost(Coordinates coordinates) {
-		List<EdgeHost> edgeHosts = edgeHostsService.getEdgeHosts();
-		List<CloudHost> cloudHosts = cloudHostsService.getCloudHosts();
-		return getClosestHost(coordinates, edgeHosts, cloudHosts);
+		if (managerServicesConfiguration.getMode() == Mode.LOCAL) {
+			return getManagerHostAddress();
+		}
+		EdgeHost edgeHost = edgeHostsService.getClosestEdgeHost(coordinates).orElse(null);
+		CloudHost cloudHost = cloudHostsService.getClosestCloudHost(coordinates).orElse(null);
+		return getClosestHost(coordinates, edgeHost, cloudHost);
 	}
 
 	public HostAddress getClosestInactiveHost(Coordinates coordinates) {
-		List<EdgeHost> inactiveEdgeHosts = edgeHostsService.getInactiveEdgeHosts();
-		List<CloudHost> inactiveCloudHosts = cloudHostsService.getInactiveCloudHosts();
-		return getClosestHost(coordinates, inactiveEdgeHosts, inactiveCloudHosts);
+		if (managerServicesConfiguration.getMode() == Mode.LOCAL) {
+			return getManagerHostAddress();
+		}
+		EdgeHost edgeHost = getClosestInactiveEdgeHost(coordinates);
+		CloudHost cloudHost = getClosestInactiveCloudHost(coordinates);
+		return getClosestHost(coordinates, edgeHost, cloudHost);
 	}
 
-	public HostAddress getClosestNode(Coordinates coordinates, List<Node> nodes) {
-		log.info("Getting closest node of list {} to {}", nodes.stream()
-			.map(node -> node.id() + ":" + node.status().addr() + ":" + node.spec().labels().get(NodeConstants.Label.COORDINATES))
-			.collect(Collectors.toList()), coordinates);
+	HostAddress getClosestNode(Coordinates coordinates, pt.unl.fct.miei.usmanagement.manager.nodes.Node closestNode) {
 		if (managerServicesConfiguration.getMode() == Mode.LOCAL) {
 			return getManagerHostAddress();
 		}
-		Gson gson = new Gson();
-		nodes.sort((oneNode, anotherNode) -> {
-			Coordinates oneCoordinates = gson.fromJson(oneNode.spec().labels().get(NodeConstants.Label.COORDINATES), Coordinates.class);
-			double oneDistance = oneCoordinates.distanceTo(coordinates);
-			Coordinates anotherCoordinates = gson.fromJson(anotherNode.spec().labels().get(NodeConstants.Label.COORDINATES), Coordinates.class);
-			double anotherDistance = anotherCoordinates.distanceTo(coordinates);
-			log.info("Comparing node {} at {} with distance {} to another node {} at {} with distance {}, to coordinates {}",
-				oneNode.status().addr(), oneCoordinates, oneDistance, anotherNode.status().addr(), anotherCoordinates, anotherDistance, coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
-		log.info("Nodes sorted by distance: {}", nodes.stream()
-			.map(node -> node.id() + ":" + node.status().addr() + ":" + node.spec().labels().get(NodeConstants.Label.COORDINATES))
-			.collect(Collectors.toList()));
 		EdgeHost closestEdgeHost = getClosestInactiveEdgeHost(coordinates);
 		Double closestEdgeHostDistance = closestEdgeHost == null ? null : closestEdgeHost.getCoordinates().distanceTo(coordinates);
 		CloudHost closestCloudHost = getClosestInactiveCloudHost(coordinates);
@@ -406,20 +394,17 @@ public class HostsService {
 		AwsRegion closestAwsRegion = cloudHostsService.getClosestAwsRegion(coordinates);
 		double closestAwsRegionDistance = closestAwsRegion.getCoordinates().distanceTo(coordinates);
 		HostAddress hostAddress = null;
-		if (!nodes.isEmpty()) {
-			Node closestNode = nodes.get(0);
-			Coordinates closestCoordinates = gson.fromJson(closestNode.spec().labels().get(NodeConstants.Label.COORDINATES), Coordinates.class);
-			double distance = closestCoordinates.distanceTo(coordinates);
+		if (closestNode != null) {
+			HostAddress closestNodeAddress = closestNode.getHostAddress();
+			double distance = closestNodeAddress.getCoordinates().distanceTo(coordinates);
 			log.info("Closest aws region to {}: {}", coordinates, closestAwsRegion);
 			log.info("Closest inactive edge host distance to {}: {}", coordinates, closestEdgeHostDistance);
 			log.info("Closest inactive cloud host distance to {}: {}", coordinates, closestCloudHostDistance);
 			if ((closestEdgeHostDistance == null || distance <= closestEdgeHostDistance * HOST_DISTANCE_FACTOR)
 				&& (closestCloudHostDistance == null || distance <= closestCloudHostDistance * HOST_DISTANCE_FACTOR)
 				&& distance <= closestAwsRegionDistance * NEW_HOST_DISTANCE_FACTOR) {
-				String publicIp = closestNode.status().addr();
-				String privateIp = closestNode.spec().labels().get(NodeConstants.Label.PRIVATE_IP_ADDRESS);
-				hostAddress = new HostAddress(publicIp, privateIp, closestCoordinates);
-				log.info("Found closest node {} at host {} at distance of {}", closestNode.id(), hostAddress.toSimpleString(), distance);
+				hostAddress = closestNodeAddress;
+				log.info("Found closest node {} at host {} at distance of {}", closestNode.getId(), hostAddress.toSimpleString(), distance);
 			}
 		}
 		if (hostAddress == null && (closestEdgeHost != null || closestCloudHost != null)) {
@@ -443,60 +428,38 @@ public class HostsService {
 	}
 
 	public EdgeHost getClosestInactiveEdgeHost(Coordinates coordinates) {
-		List<EdgeHost> edgeHosts = edgeHostsService.getInactiveEdgeHosts();
-		edgeHosts.sort((oneHost, anotherHost) -> {
-			double oneDistance = oneHost.getCoordinates().distanceTo(coordinates);
-			double anotherDistance = anotherHost.getCoordinates().distanceTo(coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
-		if (edgeHosts.size() > 0) {
-			return edgeHosts.get(0);
-		}
-		return null;
+		return edgeHostsService.getClosestInactiveEdgeHost(coordinates).orElse(null);
 	}
 
 	public CloudHost getClosestInactiveCloudHost(Coordinates coordinates) {
-		List<CloudHost> cloudHosts = cloudHostsService.getInactiveCloudHosts();
-		cloudHosts.sort((oneHost, anotherHost) -> {
-			double oneDistance = oneHost.getAwsRegion().getCoordinates().distanceTo(coordinates);
-			double anotherDistance = anotherHost.getAwsRegion().getCoordinates().distanceTo(coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
-		if (cloudHosts.size() > 0) {
-			return cloudHosts.get(0);
-		}
-		return null;
+		return cloudHostsService.getClosestInactiveCloudHost(coordinates).orElse(null);
 	}
 
 	public HostAddress getClosestHost(Coordinates coordinates, List<EdgeHost> edgeHosts, List<CloudHost> cloudHosts) {
 		if (managerServicesConfiguration.getMode() == Mode.LOCAL) {
 			return getManagerHostAddress();
 		}
-		edgeHosts.sort((oneEdgeHost, anotherEdgeHost) -> {
-			double oneDistance = oneEdgeHost.getCoordinates().distanceTo(coordinates);
-			double anotherDistance = anotherEdgeHost.getCoordinates().distanceTo(coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
-
-		cloudHosts.sort((oneCloudHost, anotherCloudHost) -> {
-			double oneDistance = oneCloudHost.getAwsRegion().getCoordinates().distanceTo(coordinates);
-			double anotherDistance = anotherCloudHost.getAwsRegion().getCoordinates().distanceTo(coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
+		EdgeHost edgeHost = edgeHosts.stream()
+			.min(Comparator.comparingDouble(host -> host.getCoordinates().distanceTo(coordinates)))
+			.orElse(null);
+		CloudHost cloudHost = cloudHosts.stream()
+			.min(Comparator.comparingDouble(host -> host.getAwsRegion().getCoordinates().distanceTo(coordinates)))
+			.orElse(null);
+		return getClosestHost(coordinates, edgeHost, cloudHost);
+	}
 
+	private HostAddress getClosestHost(Coordinates coordinates, EdgeHost edgeHost, CloudHost cloudHost) {
 		final HostAddress hostAddress;
-		if (!edgeHosts.isEmpty() && !cloudHosts.isEmpty()) {
-			EdgeHost edgeHost = edgeHosts.get(0);
+		if (edgeHost != null && cloudHost != null) {
 			double distanceToEdgeHost = edgeHost.getCoordinates().distanceTo(coordinates);
-			CloudHost cloudHost = cloudHosts.get(0);
 			double distanceToCloudHost = cloudHost.getAwsRegion().getCoordinates().distanceTo(coordinates);
 			hostAddress = distanceToEdgeHost <= distanceToCloudHost ? edgeHost.getAddress() : cloudHost.getAddress();
 		}
-		else if (!edgeHosts.isEmpty()) {
-			hostAddress = edgeHosts.get(0).getAddress();
+		else if (edgeHost != null) {
+			hostAddress = edgeHost.getAddress();
 		}
-		else if (!cloudHosts.isEmpty()) {
-			hostAddress = cloudHosts.get(0).getAddress();
+		else if (cloudHost != null) {
+			hostAddress = cloudHost.getAddress();
 		}
 		else {
 			hostAddress = cloudHostsService.launchInstance(coordinates).getAddress();
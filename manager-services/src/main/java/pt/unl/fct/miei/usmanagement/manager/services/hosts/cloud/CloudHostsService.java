@@ -28,7 +28,6 @@ import com.amazonaws.services.ec2.model.Instance;
 import com.amazonaws.services.ec2.model.InstanceState;
 import com.amazonaws.services.ec2.model.InstanceType;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -51,6 +50,7 @@ import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersServic
 import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
 import pt.unl.fct.miei.usmanagement.manager.services.eips.ElasticIpsService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.GeoIndex;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsInstanceState;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsService;
@@ -60,12 +60,14 @@ import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.HostRulesS
 import pt.unl.fct.miei.usmanagement.manager.util.EntityUtils;
 import pt.unl.fct.miei.usmanagement.manager.workermanagers.WorkerManager;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -83,9 +85,13 @@ public class CloudHostsService {
 	private final ElasticIpsService elasticIpsService;
 	private final KafkaService kafkaService;
 
+	private static final GeoIndex<AwsRegion, AwsRegion> AWS_REGIONS_INDEX =
+		new GeoIndex<>(Function.identity(), AwsRegion::getCoordinates, AwsRegion::getAwsRegions);
+
 	private final CloudHosts cloudHosts;
 
 	private final int threads;
+	private final GeoIndex<Long, CloudHost> cloudHostsIndex;
 
 	public CloudHostsService(@Lazy AwsService awsService,
 							 @Lazy HostRulesService hostRulesService,
@@ -109,6 +115,8 @@ public class CloudHostsService {
 		this.kafkaService = kafkaService;
 		this.cloudHosts = cloudHosts;
 		this.threads = parallelismProperties.getThreads();
+		this.cloudHostsIndex = new GeoIndex<>(CloudHost::getId, cloudHost -> cloudHost.getAwsRegion().getCoordinates(),
+			cloudHosts::findAll);
 	}
 
 	@Transactional(readOnly = true)
@@ -126,6 +134,14 @@ public class CloudHostsService {
 			.collect(Collectors.toList());
 	}
 
+	public Optional<CloudHost> getClosestCloudHost(Coordinates coordinates) {
+		return cloudHostsIndex.nearest(coordinates);
+	}
+
+	public Optional<CloudHost> getClosestInactiveCloudHost(Coordinates coordinates) {
+		return cloudHostsIndex.nearest(coordinates, host -> !nodesService.isPartOfSwarm(host.getAddress()));
+	}
+
 	public CloudHost getCloudHostById(String id) {
 		return cloudHosts.findByInstanceId(id).orElseThrow(() ->
 			new EntityNotFoundException(CloudHost.class, "id", id));
@@ -158,8 +174,14 @@ public class CloudHostsService {
 	}
 
 	public CloudHost saveCloudHost(CloudHost cloudHost) {
-		log.info("Saving cloudHost {}", ToStringBuilder.reflectionToString(cloudHost));
-		return cloudHosts.save(cloudHost);
+		log.info("Saving cloudHost {}", EntityUtils.reflectionToString(cloudHost));
+		return storeCloudHost(cloudHost);
+	}
+
+	private CloudHost storeCloudHost(CloudHost cloudHost) {
+		cloudHost = cloudHosts.save(cloudHost);
+		cloudHostsIndex.put(cloudHost);
+		return cloudHost;
 	}
 
 	public CloudHost addIfNotPresent(CloudHost cloudHost) {
@@ -170,9 +192,10 @@ public class CloudHostsService {
 		});
 	}
 
+	@Transactional
 	public CloudHost addOrUpdateCloudHost(CloudHost cloudHost) {
 		if (cloudHost.getId() != null) {
-			Optional<CloudHost> cloudHostOptional = cloudHosts.findById(cloudHost.getId());
+			Optional<CloudHost> cloudHostOptional = cloudHosts.getCloudHostAndEntities(cloudHost.getId());
 			if (cloudHostOptional.isPresent()) {
 				CloudHost existingCloudHost = cloudHostOptional.get();
 				Set<HostRule> rules = cloudHost.getHostRules();
@@ -258,7 +281,33 @@ public class CloudHostsService {
 	}
 
 	public CloudHost addCloudHostFromSimpleInstance(AwsSimpleInstance simpleInstance) {
-		CloudHost cloudHost = CloudHost.builder()
+		CloudHost cloudHost = saveCloudHost(fromSimpleInstance(simpleInstance));
+		/*CloudHost kafkaCloudHost = cloudHost;
+		kafkaCloudHost.setNew(true);
+		kafkaService.sendCloudHost(kafkaCloudHost);*/
+		kafkaService.sendCloudHost(cloudHost);
+		return cloudHost;
+	}
+
+	/**
+	 * Saves the cloud hosts added and updated by a synchronization with amazon in a single transaction,
+	 * so that they are flushed together, in jdbc batches. Returns the added cloud hosts.
+	 */
+	@Transactional
+	public List<CloudHost> synchronizeCloudHosts(List<AwsSimpleInstance> addedInstances, List<CloudHost> updatedCloudHosts) {
+		List<CloudHost> changedCloudHosts = new ArrayList<>(addedInstances.size() + updatedCloudHosts.size());
+		addedInstances.stream().map(this::fromSimpleInstance).forEach(changedCloudHosts::add);
+		changedCloudHosts.addAll(updatedCloudHosts);
+		List<CloudHost> savedCloudHosts = cloudHosts.saveAll(changedCloudHosts);
+		savedCloudHosts.forEach(cloudHost -> {
+			cloudHostsIndex.put(cloudHost);
+			kafkaService.sendCloudHost(cloudHost);
+		});
+		return new ArrayList<>(savedCloudHosts.subList(0, addedInstances.size()));
+	}
+
+	private CloudHost fromSimpleInstance(AwsSimpleInstance simpleInstance) {
+		return CloudHost.builder()
 			.instanceId(simpleInstance.getInstanceId())
 			.instanceType(simpleInstance.getInstanceType())
 			.state(simpleInstance.getState())
@@ -269,18 +318,15 @@ public class CloudHostsService {
 			.awsRegion(AwsRegion.fromPlacement(simpleInstance.getPlacement()))
 			.placement(simpleInstance.getPlacement())
 			.build();
-		cloudHost = saveCloudHost(cloudHost);
-		/*CloudHost kafkaCloudHost = cloudHost;
-		kafkaCloudHost.setNew(true);
-		kafkaService.sendCloudHost(kafkaCloudHost);*/
-		kafkaService.sendCloudHost(cloudHost);
-		return cloudHost;
 	}
 
+	@Transactional
 	public void deleteCloudHost(Long id) {
 		cloudHosts.deleteById(id);
+		cloudHostsIndex.remove(id);
 	}
 
+	@Transactional
 	public void deleteCloudHost(CloudHost cloudHost) {
 		deleteCloudHost(cloudHost.getId());
 		kafkaService.sendDeleteCloudHost(cloudHost);
@@ -297,14 +343,8 @@ public class CloudHostsService {
 	}
 
 	public AwsRegion getClosestAwsRegion(Coordinates coordinates) {
-		List<AwsRegion> awsRegions = AwsRegion.getAwsRegions();
-		awsRegions.sort((oneRegion, anotherRegion) -> {
-			double oneDistance = oneRegion.getCoordinates().distanceTo(coordinates);
-			double anotherDistance = anotherRegion.getCoordinates().distanceTo(coordinates);
-			return Double.compare(oneDistance, anotherDistance);
-		});
-		log.info("Aws regions sorted by distance to {}: {}", coordinates, awsRegions.stream().map(AwsRegion::getName).collect(Collectors.toList()));
-		return awsRegions.get(0);
+		return AWS_REGIONS_INDEX.nearest(coordinates).orElseThrow(() ->
+			new EntityNotFoundException(AwsRegion.class, "coordinates", coordinates.toString()));
 	}
 
 	public CloudHost launchInstance(Coordinates coordinates) {
@@ -351,7 +391,7 @@ public class CloudHostsService {
 			.withCode(AwsInstanceState.PENDING.getCode())
 			.withName(AwsInstanceState.PENDING.getState());
 		cloudHost.setState(state);
-		cloudHost = cloudHosts.save(cloudHost);
+		cloudHost = storeCloudHost(cloudHost);
 		Instance instance = awsService.startInstance(cloudHost.getInstanceId(), cloudHost.getAwsRegion(), true);
 		cloudHost = saveCloudHostFromInstance(cloudHost.getId(), instance);
 		if (addToSwarm) {
@@ -372,7 +412,7 @@ public class CloudHostsService {
 			.withCode(AwsInstanceState.STOPPING.getCode())
 			.withName(AwsInstanceState.STOPPING.getState());
 		cloudHost.setState(state);
-		cloudHost = cloudHosts.save(cloudHost);
+		cloudHost = storeCloudHost(cloudHost);
 		Instance instance = awsService.stopInstance(cloudHost.getInstanceId(), cloudHost.getAwsRegion(), true);
 		return saveCloudHostFromInstance(cloudHost.getId(), instance);
 	}
@@ -388,7 +428,7 @@ public class CloudHostsService {
 		InstanceState state = new InstanceState().withCode(AwsInstanceState.SHUTTING_DOWN.getCode())
 			.withName(AwsInstanceState.SHUTTING_DOWN.getState());
 		cloudHost.setState(state);
-		cloudHost = cloudHosts.save(cloudHost);
+		cloudHost = storeCloudHost(cloudHost);
 		awsService.terminateInstance(cloudHost.getInstanceId(), cloudHost.getAwsRegion(), wait);
 		HostAddress address = cloudHost.getAddress();
 		if (nodesService.isPartOfSwarm(address)) {
@@ -476,19 +516,21 @@ public class CloudHostsService {
 		simulatedMetricNames.forEach(simulatedMetric -> hostSimulatedMetricsService.removeCloudHost(simulatedMetric, hostname));
 	}
 
+	@Transactional
 	public void assignWorkerManager(WorkerManager workerManager, String hostname) {
 		log.info("Assigning worker manager {} to cloud host {}", workerManager.getId(), hostname);
 		CloudHost cloudHost = getCloudHostByIp(hostname).toBuilder()
 			.managedByWorker(workerManager)
 			.build();
-		cloudHosts.save(cloudHost);
+		storeCloudHost(cloudHost);
 	}
 
+	@Transactional
 	public void unassignWorkerManager(String hostname) {
 		CloudHost cloudHost = getCloudHostByIp(hostname).toBuilder()
 			.managedByWorker(null)
 			.build();
-		cloudHosts.save(cloudHost);
+		storeCloudHost(cloudHost);
 	}
 
 	public CloudHost updateAddress(CloudHost cloudHost, String publicIpAddress) {
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.hosts.edge;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -42,6 +41,7 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.HostRule;
 import pt.unl.fct.miei.usmanagement.manager.services.bash.BashService;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.nodes.NodesService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.GeoIndex;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.HostSimulatedMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshCommandResult;
 import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshService;
@@ -74,6 +74,7 @@ public class EdgeHostsService {
 	private final EdgeHosts edgeHosts;
 
 	private final String edgeKeyFilePath;
+	private final GeoIndex<Long, EdgeHost> edgeHostsIndex;
 
 	public EdgeHostsService(@Lazy HostRulesService hostRulesService,
 							@Lazy HostSimulatedMetricsService hostSimulatedMetricsService,
@@ -88,6 +89,7 @@ public class EdgeHostsService {
 		this.kafkaService = kafkaService;
 		this.edgeHosts = edgeHosts;
 		this.edgeKeyFilePath = edgeHostsProperties.getAccess().getKeyFilePath();
+		this.edgeHostsIndex = new GeoIndex<>(EdgeHost::getId, EdgeHost::getCoordinates, edgeHosts::findAll);
 	}
 
 	public String getKeyFilePath(EdgeHost edgeHost) {
@@ -151,6 +153,7 @@ public class EdgeHostsService {
 		}
 		if (!setup) {
 			edgeHosts.delete(edgeHost);
+			edgeHostsIndex.remove(edgeHost.getId());
 			throw new ManagerException("Unable to setup new edge host");
 		}
 
@@ -170,6 +173,7 @@ public class EdgeHostsService {
 			}
 			catch (Exception e) {
 				edgeHosts.delete(edgeHost);
+				edgeHostsIndex.remove(edgeHost.getId());
 				throw new ManagerException("Unable to setup new edge host: %s", e.getMessage());
 			}
 			finally {
@@ -220,8 +224,8 @@ public class EdgeHostsService {
 	public EdgeHost updateEdgeHost(HostAddress hostAddress, EdgeHost newEdgeHost) {
 		EdgeHost edgeHost = getEdgeHostByAddress(hostAddress);
 		log.info("Updating edgeHost {} with {}",
-			ToStringBuilder.reflectionToString(edgeHost),
-			ToStringBuilder.reflectionToString(newEdgeHost));
+			EntityUtils.reflectionToString(edgeHost),
+			EntityUtils.reflectionToString(newEdgeHost));
 		EntityUtils.copyValidProperties(newEdgeHost, edgeHost);
 		edgeHost = saveEdgeHost(edgeHost);
 		kafkaService.sendEdgeHost(edgeHost);
@@ -229,8 +233,10 @@ public class EdgeHostsService {
 	}
 
 	public EdgeHost saveEdgeHost(EdgeHost edgeHost) {
-		log.info("Saving edgeHost {}", ToStringBuilder.reflectionToString(edgeHost));
-		return edgeHosts.save(edgeHost);
+		log.info("Saving edgeHost {}", EntityUtils.reflectionToString(edgeHost));
+		edgeHost = edgeHosts.save(edgeHost);
+		edgeHostsIndex.put(edgeHost);
+		return edgeHost;
 	}
 
 	public EdgeHost addIfNotPresent(EdgeHost edgeHost) {
@@ -241,9 +247,10 @@ public class EdgeHostsService {
 		});
 	}
 
+	@Transactional
 	public EdgeHost addOrUpdateEdgeHost(EdgeHost edgeHost) {
 		if (edgeHost.getId() != null) {
-			Optional<EdgeHost> edgeHostOptional = edgeHosts.findById(edgeHost.getId());
+			Optional<EdgeHost> edgeHostOptional = edgeHosts.getEdgeHostAndEntities(edgeHost.getId());
 			if (edgeHostOptional.isPresent()) {
 				EdgeHost existingEdgeHost = edgeHostOptional.get();
 				Set<HostRule> rules = edgeHost.getHostRules();
@@ -291,13 +298,17 @@ public class EdgeHostsService {
 		return saveEdgeHost(edgeHost);
 	}
 
+	@Transactional
 	public void deleteEdgeHost(Long id) {
 		edgeHosts.deleteById(id);
+		edgeHostsIndex.remove(id);
 	}
 
+	@Transactional
 	public void deleteEdgeHost(HostAddress hostAddress) {
 		EdgeHost edgeHost = getEdgeHostByAddress(hostAddress);
 		edgeHosts.delete(edgeHost);
+		edgeHostsIndex.remove(edgeHost.getId());
 		kafkaService.sendDeleteEdgeHost(edgeHost);
 		deleteEdgeHostConfig(edgeHost);
 	}
@@ -364,6 +375,7 @@ public class EdgeHostsService {
 			hostSimulatedMetricsService.removeEdgeHost(simulatedMetric, hostAddress));
 	}
 
+	@Transactional
 	public void assignWorkerManager(WorkerManager workerManager, String edgeHost) {
 		log.info("Assigning worker manager {} to edge host {}", workerManager.getId(), edgeHost);
 		EdgeHost edgeHostEntity = getEdgeHostByHostname(edgeHost).toBuilder()
@@ -373,6 +385,7 @@ public class EdgeHostsService {
 		kafkaService.sendEdgeHost(edgeHostEntity);
 	}
 
+	@Transactional
 	public void unassignWorkerManager(String edgeHost) {
 		EdgeHost edgeHostEntity = getEdgeHostByHostname(edgeHost).toBuilder()
 			.managedByWorker(null)
@@ -409,6 +422,14 @@ public class EdgeHostsService {
 			.collect(Collectors.toList());
 	}
 
+	public Optional<EdgeHost> getClosestEdgeHost(Coordinates coordinates) {
+		return edgeHostsIndex.nearest(coordinates);
+	}
+
+	public Optional<EdgeHost> getClosestInactiveEdgeHost(Coordinates coordinates) {
+		return edgeHostsIndex.nearest(coordinates, host -> !nodesService.isPartOfSwarm(host.getAddress()));
+	}
+
 	public EdgeHost getLocalEdgeHost(HostAddress hostAddress) {
 		return edgeHosts.getLocalEdgeHost(hostAddress.getPrivateIpAddress()).orElseThrow(() ->
 				new EntityNotFoundException(EdgeHost.class, "local", String.valueOf(true)));
@@ -53,12 +53,14 @@ import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.ServicesService;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -78,12 +80,14 @@ public class LoadBalancerService {
 	private final HttpHeaders headers;
 	private final RestTemplate restTemplate;
 	private final int threads;
-	private final Map<RegionEnum, Timer> stopLoadBalancerTimers;
+	private final Map<RegionEnum, ScheduledFuture<?>> stopLoadBalancerTasks;
+	private final SchedulerService schedulerService;
 
 	public LoadBalancerService(@Lazy ContainersService containersService, HostsService hostsService,
 							   ServicesService servicesService,
 							   LoadBalancers loadBalancers, NginxLoadBalancerProperties nginxLoadBalancerProperties,
-							   DockerProperties dockerProperties, ParallelismProperties parallelismProperties) {
+							   DockerProperties dockerProperties, ParallelismProperties parallelismProperties,
+							   SchedulerService schedulerService) {
 		this.containersService = containersService;
 		this.hostsService = hostsService;
 		this.servicesService = servicesService;
@@ -96,7 +100,8 @@ public class LoadBalancerService {
 		this.headers = new HttpHeaders();
 		this.headers.add("Authorization", basicAuthorization);
 		this.restTemplate = new RestTemplate();
-		this.stopLoadBalancerTimers = new HashMap<>(Regions.values().length);
+		this.stopLoadBalancerTasks = new HashMap<>(Regions.values().length);
+		this.schedulerService = schedulerService;
 		this.threads = parallelismProperties.getThreads();
 	}
 
@@ -151,30 +156,25 @@ public class LoadBalancerService {
 	}
 
 	private void initStopLoadBalancerTimer(RegionEnum region) {
-		Timer currentTimer = stopLoadBalancerTimers.get(region);
-		if (currentTimer != null) {
-			currentTimer.cancel();
+		ScheduledFuture<?> currentTask = stopLoadBalancerTasks.get(region);
+		if (currentTask != null) {
+			currentTask.cancel(false);
 		}
 
-		String timerName = String.format("stop-load-balancer-timer-%s", region.name().toLowerCase());
-		Timer stopLoadBalancerTimer = new Timer(timerName, true);
-
-		stopLoadBalancerTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					containersService.stopContainers((dockerContainer ->
-						dockerContainer.getName().contains(ServiceConstants.Name.LOAD_BALANCER) && dockerContainer.getRegion() == region));
-				}
-				catch (ManagerException e) {
-					log.error("Failed to stop load balancers on region {}: {}. Retrying in {} minutes", region, e.getMessage(),
-						TimeUnit.MILLISECONDS.toMinutes(stopDelay));
-					initStopLoadBalancerTimer(region);
-				}
+		String taskName = String.format("stop-load-balancer-%s", region.name().toLowerCase());
+		ScheduledFuture<?> stopLoadBalancerTask = schedulerService.scheduleOnce(taskName, stopDelay, () -> {
+			try {
+				containersService.stopContainers((dockerContainer ->
+					dockerContainer.getName().contains(ServiceConstants.Name.LOAD_BALANCER) && dockerContainer.getRegion() == region));
 			}
-		}, stopDelay);
+			catch (ManagerException e) {
+				log.error("Failed to stop load balancers on region {}: {}. Retrying in {} minutes", region, e.getMessage(),
+					TimeUnit.MILLISECONDS.toMinutes(stopDelay));
+				initStopLoadBalancerTimer(region);
+			}
+		});
 
-		stopLoadBalancerTimers.put(region, stopLoadBalancerTimer);
+		stopLoadBalancerTasks.put(region, stopLoadBalancerTask);
 	}
 
 	public List<LoadBalancer> getLoadBalancers() {
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates;
+
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoring;
+
+import java.sql.Timestamp;
+
+public final class HostMonitoringAggregate extends MonitoringAggregate {
+
+	private final String publicIpAddress;
+	private final String privateIpAddress;
+
+	HostMonitoringAggregate(String publicIpAddress, String privateIpAddress, String field) {
+		super(field);
+		this.publicIpAddress = publicIpAddress;
+		this.privateIpAddress = privateIpAddress;
+	}
+
+	HostMonitoringAggregate(HostMonitoring hostMonitoring) {
+		super(hostMonitoring.getId(), hostMonitoring.getField(), hostMonitoring.getMinValue(),
+			hostMonitoring.getMaxValue(), hostMonitoring.getSumValue(), hostMonitoring.getLastValue(),
+			hostMonitoring.getCount(), hostMonitoring.getLastUpdate() == null ? 0 : hostMonitoring.getLastUpdate().getTime());
+		this.publicIpAddress = hostMonitoring.getPublicIpAddress();
+		this.privateIpAddress = hostMonitoring.getPrivateIpAddress();
+	}
+
+	public String getPublicIpAddress() {
+		return publicIpAddress;
+	}
+
+	public String getPrivateIpAddress() {
+		return privateIpAddress;
+	}
+
+	public synchronized HostMonitoring toEntity() {
+		return HostMonitoring.builder()
+			.id(getId())
+			.publicIpAddress(publicIpAddress)
+			.privateIpAddress(privateIpAddress)
+			.field(getField())
+			.minValue(getMinValue()).maxValue(getMaxValue()).sumValue(getSumValue()).lastValue(getLastValue())
+			.count(getCount())
+			.lastUpdate(new Timestamp(getLastUpdate()))
+			.build();
+	}
+
+	public synchronized HostFieldAverage toHostFieldAverage() {
+		return new HostFieldAverage(publicIpAddress, privateIpAddress, getField(), getAverage(), getCount());
+	}
+
+	synchronized HostMonitoring takeDirtySnapshot() {
+		if (!isDirty()) {
+			return null;
+		}
+		setDirty(false);
+		return toEntity();
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoring;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitorings;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the host monitoring aggregates (per host and field) in memory, and periodically
+ * writes the ones that changed to the host_monitoring table in a single batch.
+ */
+@Slf4j
+@Service
+public class HostsMonitoringAggregatesService {
+
+	private final HostMonitorings hostsMonitoring;
+
+	// public ip/private ip -> lower case field -> aggregate
+	private final Map<String, Map<String, HostMonitoringAggregate>> hostsAggregates;
+	private final SchedulerService schedulerService;
+	private volatile boolean loaded;
+
+	public HostsMonitoringAggregatesService(HostMonitorings hostsMonitoring, MonitoringProperties monitoringProperties,
+											SchedulerService schedulerService) {
+		this.hostsMonitoring = hostsMonitoring;
+		this.hostsAggregates = new ConcurrentHashMap<>();
+		this.schedulerService = schedulerService;
+		long flushPeriod = monitoringProperties.getHosts().getFlushPeriod();
+		if (flushPeriod > 0) {
+			schedulerService.schedule("hosts-monitoring-flush", flushPeriod, this::flush);
+		}
+	}
+
+	private static String hostKey(String publicIpAddress, String privateIpAddress) {
+		return publicIpAddress + "/" + privateIpAddress;
+	}
+
+	private Map<String, Map<String, HostMonitoringAggregate>> getHostsAggregates() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					hostsMonitoring.findAll().forEach(hostMonitoring ->
+						hostsAggregates.computeIfAbsent(hostKey(hostMonitoring.getPublicIpAddress(), hostMonitoring.getPrivateIpAddress()),
+							k -> new ConcurrentHashMap<>())
+							.putIfAbsent(hostMonitoring.getField().toLowerCase(), new HostMonitoringAggregate(hostMonitoring)));
+					loaded = true;
+				}
+			}
+		}
+		return hostsAggregates;
+	}
+
+	private Stream<HostMonitoringAggregate> aggregates() {
+		return getHostsAggregates().values().stream().flatMap(fields -> fields.values().stream());
+	}
+
+	public HostMonitoringAggregate update(HostAddress hostAddress, String field, double value, long updateTime) {
+		String publicIpAddress = hostAddress.getPublicIpAddress();
+		String privateIpAddress = hostAddress.getPrivateIpAddress();
+		HostMonitoringAggregate aggregate = getHostsAggregates()
+			.computeIfAbsent(hostKey(publicIpAddress, privateIpAddress), k -> new ConcurrentHashMap<>())
+			.computeIfAbsent(field.toLowerCase(), k -> new HostMonitoringAggregate(publicIpAddress, privateIpAddress, field));
+		aggregate.update(value, updateTime);
+		return aggregate;
+	}
+
+	public Optional<HostMonitoringAggregate> getHostAggregate(HostAddress hostAddress, String field) {
+		Map<String, HostMonitoringAggregate> fields = getHostsAggregates()
+			.get(hostKey(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress()));
+		return fields == null ? Optional.empty() : Optional.ofNullable(fields.get(field.toLowerCase()));
+	}
+
+	public List<HostMonitoringAggregate> getHostAggregates(HostAddress hostAddress) {
+		Map<String, HostMonitoringAggregate> fields = getHostsAggregates()
+			.get(hostKey(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress()));
+		return fields == null ? Collections.emptyList() : new ArrayList<>(fields.values());
+	}
+
+	public List<HostMonitoring> getHostsMonitoring() {
+		return aggregates().map(HostMonitoringAggregate::toEntity).collect(Collectors.toList());
+	}
+
+	public List<HostMonitoring> getHostMonitoring(HostAddress hostAddress) {
+		return getHostAggregates(hostAddress).stream()
+			.map(HostMonitoringAggregate::toEntity)
+			.collect(Collectors.toList());
+	}
+
+	public HostMonitoring getHostMonitoring(HostAddress hostAddress, String field) {
+		return getHostAggregate(hostAddress, field).map(HostMonitoringAggregate::toEntity).orElse(null);
+	}
+
+	public List<HostFieldAverage> getHostMonitoringFieldsAverage(HostAddress hostAddress) {
+		return getHostAggregates(hostAddress).stream()
+			.map(HostMonitoringAggregate::toHostFieldAverage)
+			.collect(Collectors.toList());
+	}
+
+	public HostFieldAverage getHostMonitoringFieldAverage(HostAddress hostAddress, String field) {
+		return getHostAggregate(hostAddress, field).map(HostMonitoringAggregate::toHostFieldAverage).orElse(null);
+	}
+
+	/**
+	 * Writes all aggregates updated since the last flush to the database, in one batch.
+	 */
+	public synchronized void flush() {
+		if (!loaded) {
+			return;
+		}
+		List<HostMonitoringAggregate> dirtyAggregates = new ArrayList<>();
+		List<HostMonitoring> dirtyEntities = new ArrayList<>();
+		aggregates().forEach(aggregate -> {
+			HostMonitoring entity = aggregate.takeDirtySnapshot();
+			if (entity != null) {
+				dirtyAggregates.add(aggregate);
+				dirtyEntities.add(entity);
+			}
+		});
+		if (dirtyEntities.isEmpty()) {
+			return;
+		}
+		try {
+			List<HostMonitoring> savedEntities = hostsMonitoring.saveAll(dirtyEntities);
+			for (int i = 0; i < savedEntities.size(); i++) {
+				dirtyAggregates.get(i).setId(savedEntities.get(i).getId());
+			}
+			log.debug("Flushed {} host monitoring aggregates", savedEntities.size());
+		}
+		catch (RuntimeException e) {
+			dirtyAggregates.forEach(aggregate -> aggregate.setDirty(true));
+			throw e;
+		}
+	}
+
+	public void stop() {
+		schedulerService.cancel("hosts-monitoring-flush");
+		flush();
+	}
+
+	public synchronized void reset() {
+		hostsAggregates.clear();
+		hostsMonitoring.deleteAll();
+	}
+
+}
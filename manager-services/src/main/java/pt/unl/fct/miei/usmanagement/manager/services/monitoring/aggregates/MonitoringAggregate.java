@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates;
+
+/**
+ * Running min/max/sum/count/last of a monitored field, kept in memory and written behind to the database.
+ */
+public abstract class MonitoringAggregate {
+
+	private final String field;
+	private Long id;
+	private double minValue;
+	private double maxValue;
+	private double sumValue;
+	private double lastValue;
+	private long count;
+	private long lastUpdate;
+	private boolean dirty;
+
+	protected MonitoringAggregate(String field) {
+		this.field = field;
+	}
+
+	protected MonitoringAggregate(Long id, String field, double minValue, double maxValue, double sumValue,
+								  double lastValue, long count, long lastUpdate) {
+		this.id = id;
+		this.field = field;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+		this.sumValue = sumValue;
+		this.lastValue = lastValue;
+		this.count = count;
+		this.lastUpdate = lastUpdate;
+	}
+
+	public synchronized void update(double value, long updateTime) {
+		if (count == 0) {
+			minValue = value;
+			maxValue = value;
+		}
+		else {
+			minValue = Math.min(value, minValue);
+			maxValue = Math.max(value, maxValue);
+		}
+		lastValue = value;
+		sumValue += value;
+		count++;
+		lastUpdate = updateTime;
+		dirty = true;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public synchronized Long getId() {
+		return id;
+	}
+
+	synchronized void setId(Long id) {
+		this.id = id;
+	}
+
+	public synchronized double getMinValue() {
+		return minValue;
+	}
+
+	public synchronized double getMaxValue() {
+		return maxValue;
+	}
+
+	public synchronized double getSumValue() {
+		return sumValue;
+	}
+
+	public synchronized double getLastValue() {
+		return lastValue;
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized double getAverage() {
+		return count == 0 ? 0 : sumValue / count;
+	}
+
+	public synchronized long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	synchronized void setDirty(boolean dirty) {
+		this.dirty = dirty;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates;
+
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ContainerFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoring;
+
+import java.sql.Timestamp;
+
+public final class ServiceMonitoringAggregate extends MonitoringAggregate {
+
+	private final String containerId;
+	private final String serviceName;
+	private final String hostname;
+
+	ServiceMonitoringAggregate(String containerId, String serviceName, String hostname, String field) {
+		super(field);
+		this.containerId = containerId;
+		this.serviceName = serviceName;
+		this.hostname = hostname;
+	}
+
+	ServiceMonitoringAggregate(ServiceMonitoring serviceMonitoring) {
+		super(serviceMonitoring.getId(), serviceMonitoring.getField(), serviceMonitoring.getMinValue(),
+			serviceMonitoring.getMaxValue(), serviceMonitoring.getSumValue(), serviceMonitoring.getLastValue(),
+			serviceMonitoring.getCount(), serviceMonitoring.getLastUpdate() == null ? 0 : serviceMonitoring.getLastUpdate().getTime());
+		this.containerId = serviceMonitoring.getContainerId();
+		this.serviceName = serviceMonitoring.getServiceName();
+		this.hostname = serviceMonitoring.getHostname();
+	}
+
+	public String getContainerId() {
+		return containerId;
+	}
+
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	public String getHostname() {
+		return hostname;
+	}
+
+	public synchronized ServiceMonitoring toEntity() {
+		return ServiceMonitoring.builder()
+			.id(getId())
+			.containerId(containerId)
+			.serviceName(serviceName)
+			.hostname(hostname)
+			.field(getField())
+			.minValue(getMinValue()).maxValue(getMaxValue()).sumValue(getSumValue()).lastValue(getLastValue())
+			.count((int) getCount())
+			.lastUpdate(new Timestamp(getLastUpdate()))
+			.build();
+	}
+
+	public synchronized ContainerFieldAverage toContainerFieldAverage() {
+		return new ContainerFieldAverage(containerId, getField(), getAverage(), (int) getCount());
+	}
+
+	public synchronized ServiceFieldAverage toServiceFieldAverage() {
+		return new ServiceFieldAverage(serviceName, getField(), getAverage(), (int) getCount());
+	}
+
+	synchronized ServiceMonitoring takeDirtySnapshot() {
+		if (!isDirty()) {
+			return null;
+		}
+		setDirty(false);
+		return toEntity();
+	}
+
+}
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ContainerFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceFieldAverage;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoring;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitorings;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the service monitoring aggregates (per container and field) in memory, and periodically
+ * writes the ones that changed to the service_monitoring table in a single batch.
+ */
+@Slf4j
+@Service
+public class ServicesMonitoringAggregatesService {
+
+	private final ServiceMonitorings servicesMonitoring;
+
+	// container id -> lower case field -> aggregate
+	private final Map<String, Map<String, ServiceMonitoringAggregate>> containersAggregates;
+	private final SchedulerService schedulerService;
+	private volatile boolean loaded;
+
+	public ServicesMonitoringAggregatesService(ServiceMonitorings servicesMonitoring,
+											   MonitoringProperties monitoringProperties, SchedulerService schedulerService) {
+		this.servicesMonitoring = servicesMonitoring;
+		this.containersAggregates = new ConcurrentHashMap<>();
+		this.schedulerService = schedulerService;
+		long flushPeriod = monitoringProperties.getServices().getFlushPeriod();
+		if (flushPeriod > 0) {
+			schedulerService.schedule("services-monitoring-flush", flushPeriod, this::flush);
+		}
+	}
+
+	private Map<String, Map<String, ServiceMonitoringAggregate>> getContainersAggregates() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					servicesMonitoring.findAll().forEach(serviceMonitoring ->
+						containersAggregates.computeIfAbsent(serviceMonitoring.getContainerId(), k -> new ConcurrentHashMap<>())
+							.putIfAbsent(serviceMonitoring.getField().toLowerCase(), new ServiceMonitoringAggregate(serviceMonitoring)));
+					loaded = true;
+				}
+			}
+		}
+		return containersAggregates;
+	}
+
+	private Stream<ServiceMonitoringAggregate> aggregates() {
+		return getContainersAggregates().values().stream().flatMap(fields -> fields.values().stream());
+	}
+
+	public ServiceMonitoringAggregate update(String containerId, String serviceName, String hostname, String field,
+											 double value, long updateTime) {
+		ServiceMonitoringAggregate aggregate = getContainersAggregates()
+			.computeIfAbsent(containerId, k -> new ConcurrentHashMap<>())
+			.computeIfAbsent(field.toLowerCase(), k -> new ServiceMonitoringAggregate(containerId, serviceName, hostname, field));
+		aggregate.update(value, updateTime);
+		return aggregate;
+	}
+
+	public Optional<ServiceMonitoringAggregate> getContainerAggregate(String containerId, String field) {
+		Map<String, ServiceMonitoringAggregate> fields = getContainersAggregates().get(containerId);
+		return fields == null ? Optional.empty() : Optional.ofNullable(fields.get(field.toLowerCase()));
+	}
+
+	public List<ServiceMonitoringAggregate> getContainerAggregates(String containerId) {
+		Map<String, ServiceMonitoringAggregate> fields = getContainersAggregates().get(containerId);
+		return fields == null ? Collections.emptyList() : new ArrayList<>(fields.values());
+	}
+
+	public List<ServiceMonitoring> getServicesMonitoring() {
+		return aggregates().map(ServiceMonitoringAggregate::toEntity).collect(Collectors.toList());
+	}
+
+	public List<ServiceMonitoring> getServiceMonitoring(String serviceName) {
+		return aggregates()
+			.filter(aggregate -> aggregate.getServiceName().equalsIgnoreCase(serviceName))
+			.map(ServiceMonitoringAggregate::toEntity)
+			.collect(Collectors.toList());
+	}
+
+	public List<ServiceMonitoring> getContainerMonitoring(String containerId) {
+		return getContainerAggregates(containerId).stream()
+			.map(ServiceMonitoringAggregate::toEntity)
+			.collect(Collectors.toList());
+	}
+
+	public ServiceMonitoring getContainerMonitoring(String containerId, String field) {
+		return getContainerAggregate(containerId, field).map(ServiceMonitoringAggregate::toEntity).orElse(null);
+	}
+
+	public List<ServiceFieldAverage> getServiceFieldsAvg(String serviceName) {
+		return aggregates()
+			.filter(aggregate -> Objects.equals(aggregate.getServiceName(), serviceName))
+			.map(ServiceMonitoringAggregate::toServiceFieldAverage)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Average of the field over all the containers of the service, or null if it was never monitored.
+	 */
+	public ServiceFieldAverage getServiceFieldAverage(String serviceName, String field) {
+		List<ServiceMonitoringAggregate> serviceAggregates = aggregates()
+			.filter(aggregate -> Objects.equals(aggregate.getServiceName(), serviceName) && aggregate.getField().equalsIgnoreCase(field))
+			.collect(Collectors.toList());
+		double sum = 0;
+		int count = 0;
+		for (ServiceMonitoringAggregate aggregate : serviceAggregates) {
+			synchronized (aggregate) {
+				sum += aggregate.getSumValue();
+				count += aggregate.getCount();
+			}
+		}
+		return count == 0 ? null : new ServiceFieldAverage(serviceName, field, sum / count, count);
+	}
+
+	public List<ContainerFieldAverage> getContainerFieldsAvg(String containerId) {
+		return getContainerAggregates(containerId).stream()
+			.map(ServiceMonitoringAggregate::toContainerFieldAverage)
+			.collect(Collectors.toList());
+	}
+
+	public ContainerFieldAverage getContainerFieldAverage(String containerId, String field) {
+		return getContainerAggregate(containerId, field).map(ServiceMonitoringAggregate::toContainerFieldAverage).orElse(null);
+	}
+
+	/**
+	 * The monitoring of the field on the given containers, ordered by the highest average first.
+	 */
+	public List<ServiceMonitoring> getTopContainersByField(Collection<String> containerIds, String field) {
+		return containerIds.stream()
+			.map(containerId -> getContainerAggregate(containerId, field))
+			.flatMap(Optional::stream)
+			.sorted(Comparator.comparingDouble(ServiceMonitoringAggregate::getAverage).reversed())
+			.map(ServiceMonitoringAggregate::toEntity)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Writes all aggregates updated since the last flush to the database, in one batch.
+	 */
+	public synchronized void flush() {
+		if (!loaded) {
+			return;
+		}
+		List<ServiceMonitoringAggregate> dirtyAggregates = new ArrayList<>();
+		List<ServiceMonitoring> dirtyEntities = new ArrayList<>();
+		aggregates().forEach(aggregate -> {
+			ServiceMonitoring entity = aggregate.takeDirtySnapshot();
+			if (entity != null) {
+				dirtyAggregates.add(aggregate);
+				dirtyEntities.add(entity);
+			}
+		});
+		if (dirtyEntities.isEmpty()) {
+			return;
+		}
+		try {
+			List<ServiceMonitoring> savedEntities = servicesMonitoring.saveAll(dirtyEntities);
+			for (int i = 0; i < savedEntities.size(); i++) {
+				dirtyAggregates.get(i).setId(savedEntities.get(i).getId());
+			}
+			log.debug("Flushed {} service monitoring aggregates", savedEntities.size());
+		}
+		catch (RuntimeException e) {
+			dirtyAggregates.forEach(aggregate -> aggregate.setDirty(true));
+			throw e;
+		}
+	}
+
+	public void stop() {
+		schedulerService.cancel("services-monitoring-flush");
+		flush();
+	}
+
+	public synchronized void reset() {
+		containersAggregates.clear();
+		servicesMonitoring.deleteAll();
+	}
+
+}
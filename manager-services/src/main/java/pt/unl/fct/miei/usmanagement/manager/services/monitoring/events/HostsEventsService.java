@@ -21,7 +21,6 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.events;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,13 +30,26 @@ import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostEvent;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostEvents;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.DecisionsService;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
+/**
+ * Keeps the streak of consecutive decisions of each host in memory. The events are only written to the
+ * host_events table when a host gets its first event, and then periodically, in a single batch, for the ones
+ * that changed. Both writes go through {@link #flush()}, never from inside the map of events. They are read back
+ * from the table on first use, so the streaks survive a restart.
+ */
 @Slf4j
 @Service
 public class HostsEventsService {
@@ -46,59 +58,189 @@ public class HostsEventsService {
 	private final DecisionsService decisionsService;
 	private final HostsService hostsService;
 
-	public HostsEventsService(HostEvents hostEvents, DecisionsService decisionsService, HostsService hostsService) {
+	// public ip address/private ip address -> event
+	private final Map<String, HostEvent> hostsEvents;
+	private final Set<String> dirtyHosts;
+	private final Map<RuleDecisionEnum, Decision> decisions;
+	private final SchedulerService schedulerService;
+	private volatile boolean loaded;
+
+	public HostsEventsService(HostEvents hostEvents, DecisionsService decisionsService, HostsService hostsService,
+							  MonitoringProperties monitoringProperties, SchedulerService schedulerService) {
 		this.hostEvents = hostEvents;
 		this.decisionsService = decisionsService;
 		this.hostsService = hostsService;
+		this.hostsEvents = new ConcurrentHashMap<>();
+		this.dirtyHosts = ConcurrentHashMap.newKeySet();
+		this.decisions = new ConcurrentHashMap<>();
+		this.schedulerService = schedulerService;
+		long flushPeriod = monitoringProperties.getHosts().getFlushPeriod();
+		if (flushPeriod > 0) {
+			schedulerService.schedule("hosts-events-flush", flushPeriod, this::flush);
+		}
+	}
+
+	private static String hostKey(String publicIpAddress, String privateIpAddress) {
+		return publicIpAddress + "/" + privateIpAddress;
+	}
+
+	private static String hostKey(HostAddress hostAddress) {
+		return hostKey(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress());
+	}
+
+	private Map<String, HostEvent> getHostsEvents() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					hostEvents.findAll().forEach(hostEvent ->
+						hostsEvents.putIfAbsent(hostKey(hostEvent.getPublicIpAddress(), hostEvent.getPrivateIpAddress()), hostEvent));
+					loaded = true;
+				}
+			}
+		}
+		return hostsEvents;
 	}
 
 	public List<HostEvent> getHostEvents() {
-		return hostEvents.findAll();
+		return getHostsEvents().values().stream()
+			.map(HostsEventsService::snapshot)
+			.collect(Collectors.toList());
 	}
 
 	public List<HostEvent> getHostEventsByHostAddress(HostAddress hostAddress) {
-		return hostEvents.findByPublicIpAddressAndPrivateIpAddress(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress());
+		HostEvent hostEvent = getHostsEvents().get(hostKey(hostAddress));
+		return hostEvent == null ? new ArrayList<>() : new ArrayList<>(List.of(snapshot(hostEvent)));
 	}
 
 	public HostEvent addHostEvent(HostEvent hostEvent) {
 		log.info("Saving host event: {}", ToStringBuilder.reflectionToString(hostEvent));
-		return hostEvents.save(hostEvent);
+		String hostKey = hostKey(hostEvent.getPublicIpAddress(), hostEvent.getPrivateIpAddress());
+		if (hostEvent.getId() == null) {
+			hostEvent = hostEvents.save(hostEvent);
+		}
+		else {
+			dirtyHosts.add(hostKey);
+		}
+		getHostsEvents().put(hostKey, hostEvent);
+		return snapshot(hostEvent);
 	}
 
 	public HostEvent saveHostEvent(HostAddress hostAddress, String decisionName) {
-		HostAddress managerHostAddress = hostsService.getManagerHostAddress();
-		Decision decision = decisionsService.getHostPossibleDecision(decisionName);
-		HostEvent hostEvent = getHostEventsByHostAddress(hostAddress).stream().findFirst()
-			.orElseGet(() -> HostEvent.builder().publicIpAddress(hostAddress.getPublicIpAddress()).privateIpAddress(hostAddress.getPrivateIpAddress())
+		Decision decision = getDecision(decisionName);
+		String hostKey = hostKey(hostAddress);
+		Map<String, HostEvent> events = getHostsEvents();
+		HostEvent hostEvent = events.get(hostKey);
+		if (hostEvent == null) {
+			HostAddress managerHostAddress = hostsService.getManagerHostAddress();
+			HostEvent newHostEvent = HostEvent.builder().publicIpAddress(hostAddress.getPublicIpAddress()).privateIpAddress(hostAddress.getPrivateIpAddress())
 				.managerPublicIpAddress(managerHostAddress.getPublicIpAddress()).managerPrivateIpAddress(managerHostAddress.getPrivateIpAddress())
-				.decision(decision).count(0).build());
-		if (!Objects.equals(hostEvent.getDecision().getId(), decision.getId())) {
-			hostEvent.setDecision(decision);
-			hostEvent.setCount(1);
+				.decision(decision).count(0).build();
+			hostEvent = events.putIfAbsent(hostKey, newHostEvent);
+			if (hostEvent == null) {
+				hostEvent = newHostEvent;
+			}
 		}
-		else {
-			hostEvent.setCount(hostEvent.getCount() + 1);
+		synchronized (hostEvent) {
+			if (!Objects.equals(hostEvent.getDecision().getId(), decision.getId())) {
+				hostEvent.setDecision(decision);
+				hostEvent.setCount(1);
+			}
+			else {
+				hostEvent.setCount(hostEvent.getCount() + 1);
+			}
+			dirtyHosts.add(hostKey);
+			if (hostEvent.getId() != null) {
+				return snapshot(hostEvent);
+			}
 		}
-		return addHostEvent(hostEvent);
+		// the first event of a host is flushed right away, to get the id that is shared with the other managers
+		flush();
+		return snapshot(hostEvent);
 	}
 
-	public void reset() {
+	public synchronized void reset() {
 		log.info("Clearing all host events");
+		hostsEvents.clear();
+		dirtyHosts.clear();
+		decisions.clear();
 		decisionsService.getDecisions().forEach(Decision::removeHostEvents);
 		hostEvents.deleteAll();
 	}
 
-	public void deleteEvents(HostAddress hostAddress) {
-		List<HostEvent> events = getHostEventsByHostAddress(hostAddress);
+	public synchronized void deleteEvents(HostAddress hostAddress) {
+		String hostKey = hostKey(hostAddress);
+		getHostsEvents().remove(hostKey);
+		dirtyHosts.remove(hostKey);
+		List<HostEvent> events = hostEvents.findByPublicIpAddressAndPrivateIpAddress(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress());
 		log.info("Deleting events {} from host {}", events, hostAddress.toSimpleString());
 		hostEvents.deleteAll(events);
 	}
 
 	public void reset(HostAddress hostAddress) {
-		Optional<HostEvent> hostEvent = getHostEventsByHostAddress(hostAddress).stream().findFirst();
-		hostEvent.ifPresent(event -> {
-			event.setCount(0);
-			hostEvents.save(event);
-		});
+		String hostKey = hostKey(hostAddress);
+		HostEvent hostEvent = getHostsEvents().get(hostKey);
+		if (hostEvent != null) {
+			synchronized (hostEvent) {
+				hostEvent.setCount(0);
+				dirtyHosts.add(hostKey);
+			}
+		}
 	}
+
+	/**
+	 * Writes the events changed since the last flush to the database, in one batch.
+	 */
+	public synchronized void flush() {
+		if (!loaded || dirtyHosts.isEmpty()) {
+			return;
+		}
+		List<String> hostKeys = new ArrayList<>();
+		List<HostEvent> dirtyEvents = new ArrayList<>();
+		for (String hostKey : dirtyHosts) {
+			dirtyHosts.remove(hostKey);
+			HostEvent hostEvent = hostsEvents.get(hostKey);
+			if (hostEvent != null) {
+				hostKeys.add(hostKey);
+				dirtyEvents.add(snapshot(hostEvent));
+			}
+		}
+		try {
+			List<HostEvent> savedEvents = hostEvents.saveAll(dirtyEvents);
+			for (int i = 0; i < savedEvents.size(); i++) {
+				setId(hostsEvents.get(hostKeys.get(i)), savedEvents.get(i).getId());
+			}
+			log.debug("Flushed {} host events", dirtyEvents.size());
+		}
+		catch (RuntimeException e) {
+			dirtyHosts.addAll(hostKeys);
+			throw e;
+		}
+	}
+
+	public void stop() {
+		schedulerService.cancel("hosts-events-flush");
+		flush();
+	}
+
+	private Decision getDecision(String decisionName) {
+		RuleDecisionEnum ruleDecision = RuleDecisionEnum.valueOf(decisionName.toUpperCase());
+		return decisions.computeIfAbsent(ruleDecision, decisionsService::getHostPossibleDecision);
+	}
+
+	private static void setId(HostEvent hostEvent, Long id) {
+		if (hostEvent != null) {
+			synchronized (hostEvent) {
+				if (hostEvent.getId() == null) {
+					hostEvent.setId(id);
+				}
+			}
+		}
+	}
+
+	private static HostEvent snapshot(HostEvent hostEvent) {
+		synchronized (hostEvent) {
+			return hostEvent.toBuilder().build();
+		}
+	}
+
 }
@@ -21,7 +21,6 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.events;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,13 +30,27 @@ import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceEvent;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceEvents;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.DecisionsService;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+/**
+ * Keeps the streak of consecutive decisions of each container in memory. The events are only written to the
+ * service_events table when a container gets its first event, and then periodically, in a single batch, for the ones
+ * that changed. Both writes go through {@link #flush()}, never from inside the map of events. They are read back
+ * from the table on first use, so the streaks survive a restart.
+ */
 @Slf4j
 @Service
 public class ServicesEventsService {
@@ -46,66 +59,191 @@ public class ServicesEventsService {
 	private final DecisionsService decisionsService;
 	private final HostsService hostsService;
 
-	public ServicesEventsService(ServiceEvents serviceEvents, DecisionsService decisionsService, HostsService hostsService) {
+	// container id -> event
+	private final Map<String, ServiceEvent> containersEvents;
+	private final Set<String> dirtyContainers;
+	private final Map<RuleDecisionEnum, Decision> decisions;
+	private final SchedulerService schedulerService;
+	private volatile boolean loaded;
+
+	public ServicesEventsService(ServiceEvents serviceEvents, DecisionsService decisionsService, HostsService hostsService,
+								 MonitoringProperties monitoringProperties, SchedulerService schedulerService) {
 		this.serviceEvents = serviceEvents;
 		this.decisionsService = decisionsService;
 		this.hostsService = hostsService;
+		this.containersEvents = new ConcurrentHashMap<>();
+		this.dirtyContainers = ConcurrentHashMap.newKeySet();
+		this.decisions = new ConcurrentHashMap<>();
+		this.schedulerService = schedulerService;
+		long flushPeriod = monitoringProperties.getServices().getFlushPeriod();
+		if (flushPeriod > 0) {
+			schedulerService.schedule("services-events-flush", flushPeriod, this::flush);
+		}
+	}
+
+	private Map<String, ServiceEvent> getContainersEvents() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					serviceEvents.findAll().forEach(serviceEvent ->
+						containersEvents.putIfAbsent(serviceEvent.getContainerId(), serviceEvent));
+					loaded = true;
+				}
+			}
+		}
+		return containersEvents;
 	}
 
 	public List<ServiceEvent> getServiceEvents() {
-		return serviceEvents.findAll();
+		return getServiceEvents(serviceEvent -> true);
 	}
 
 	public List<ServiceEvent> getServiceEventsByServiceName(String serviceName) {
-		return serviceEvents.findByServiceName(serviceName);
+		return getServiceEvents(serviceEvent -> Objects.equals(serviceEvent.getServiceName(), serviceName));
 	}
 
 	public List<ServiceEvent> getServiceEventsByContainerId(String containerId) {
-		return serviceEvents.findByContainerIdStartingWith(containerId);
+		return getServiceEvents(serviceEvent -> serviceEvent.getContainerId().startsWith(containerId));
+	}
+
+	private List<ServiceEvent> getServiceEvents(Predicate<ServiceEvent> filter) {
+		return getContainersEvents().values().stream()
+			.map(ServicesEventsService::snapshot)
+			.filter(filter)
+			.collect(Collectors.toList());
 	}
 
 	public ServiceEvent addServiceEvent(ServiceEvent serviceEvent) {
 		log.info("Saving service event: {}", ToStringBuilder.reflectionToString(serviceEvent));
-		return serviceEvents.save(serviceEvent);
+		if (serviceEvent.getId() == null) {
+			serviceEvent = serviceEvents.save(serviceEvent);
+		}
+		else {
+			dirtyContainers.add(serviceEvent.getContainerId());
+		}
+		getContainersEvents().put(serviceEvent.getContainerId(), serviceEvent);
+		return snapshot(serviceEvent);
 	}
 
 	public ServiceEvent saveServiceEvent(String containerId, String serviceName, String decisionName) {
-		HostAddress managerHostAddress = hostsService.getManagerHostAddress();
-		Decision decision = decisionsService.getServicePossibleDecision(decisionName);
-		ServiceEvent event = getServiceEventsByContainerId(containerId).stream().findFirst().orElseGet(() ->
-			ServiceEvent.builder().containerId(containerId).serviceName(serviceName)
+		Decision decision = getDecision(decisionName);
+		Map<String, ServiceEvent> events = getContainersEvents();
+		ServiceEvent event = events.get(containerId);
+		if (event == null) {
+			HostAddress managerHostAddress = hostsService.getManagerHostAddress();
+			ServiceEvent newEvent = ServiceEvent.builder().containerId(containerId).serviceName(serviceName)
 				.managerPublicIpAddress(managerHostAddress.getPublicIpAddress()).managerPrivateIpAddress(managerHostAddress.getPrivateIpAddress())
-				.decision(decision).count(0).build());
-		if (!Objects.equals(event.getDecision().getId(), decision.getId())) {
-			event.setDecision(decision);
-			event.setCount(1);
+				.decision(decision).count(0).build();
+			event = events.putIfAbsent(containerId, newEvent);
+			if (event == null) {
+				event = newEvent;
+			}
 		}
-		else {
-			event.setCount(event.getCount() + 1);
+		synchronized (event) {
+			if (!Objects.equals(event.getDecision().getId(), decision.getId())) {
+				event.setDecision(decision);
+				event.setCount(1);
+			}
+			else {
+				event.setCount(event.getCount() + 1);
+			}
+			dirtyContainers.add(containerId);
+			if (event.getId() != null) {
+				return snapshot(event);
+			}
 		}
-		return addServiceEvent(event);
+		// the first event of a container is flushed right away, to get the id that is shared with the other managers
+		flush();
+		return snapshot(event);
 	}
 
 	public void resetServiceEvent(String serviceName) {
-		Decision decision = decisionsService.getServicePossibleDecision("NONE");
-		serviceEvents.findByServiceName(serviceName).forEach(serviceEvent -> {
-			serviceEvent.setDecision(decision);
-			serviceEvent.setCount(1);
-			serviceEvents.save(serviceEvent);
+		Decision decision = getDecision(RuleDecisionEnum.NONE.name());
+		getContainersEvents().forEach((containerId, serviceEvent) -> {
+			synchronized (serviceEvent) {
+				if (Objects.equals(serviceEvent.getServiceName(), serviceName)) {
+					serviceEvent.setDecision(decision);
+					serviceEvent.setCount(1);
+					dirtyContainers.add(containerId);
+				}
+			}
 		});
 	}
 
-	public void reset() {
+	public synchronized void reset() {
 		log.info("Clearing all service events");
+		containersEvents.clear();
+		dirtyContainers.clear();
+		decisions.clear();
 		decisionsService.getDecisions().forEach(Decision::removeServiceEvents);
 		serviceEvents.deleteAll();
 	}
 
 	public void reset(String containerId) {
-		Optional<ServiceEvent> containerEvent = getServiceEventsByContainerId(containerId).stream().findFirst();
-		containerEvent.ifPresent(event -> {
-			event.setCount(0);
-			serviceEvents.save(event);
+		getContainersEvents().forEach((id, serviceEvent) -> {
+			if (id.startsWith(containerId)) {
+				synchronized (serviceEvent) {
+					serviceEvent.setCount(0);
+					dirtyContainers.add(id);
+				}
+			}
 		});
 	}
+
+	/**
+	 * Writes the events changed since the last flush to the database, in one batch.
+	 */
+	public synchronized void flush() {
+		if (!loaded || dirtyContainers.isEmpty()) {
+			return;
+		}
+		List<String> containerIds = new ArrayList<>();
+		List<ServiceEvent> dirtyEvents = new ArrayList<>();
+		for (String containerId : dirtyContainers) {
+			dirtyContainers.remove(containerId);
+			ServiceEvent serviceEvent = containersEvents.get(containerId);
+			if (serviceEvent != null) {
+				containerIds.add(containerId);
+				dirtyEvents.add(snapshot(serviceEvent));
+			}
+		}
+		try {
+			List<ServiceEvent> savedEvents = serviceEvents.saveAll(dirtyEvents);
+			for (int i = 0; i < savedEvents.size(); i++) {
+				setId(containersEvents.get(containerIds.get(i)), savedEvents.get(i).getId());
+			}
+			log.debug("Flushed {} service events", dirtyEvents.size());
+		}
+		catch (RuntimeException e) {
+			dirtyContainers.addAll(containerIds);
+			throw e;
+		}
+	}
+
+	public void stop() {
+		schedulerService.cancel("services-events-flush");
+		flush();
+	}
+
+	private Decision getDecision(String decisionName) {
+		RuleDecisionEnum ruleDecision = RuleDecisionEnum.valueOf(decisionName.toUpperCase());
+		return decisions.computeIfAbsent(ruleDecision, decisionsService::getServicePossibleDecision);
+	}
+
+	private static void setId(ServiceEvent serviceEvent, Long id) {
+		if (serviceEvent != null) {
+			synchronized (serviceEvent) {
+				if (serviceEvent.getId() == null) {
+					serviceEvent.setId(id);
+				}
+			}
+		}
+	}
+
+	private static ServiceEvent snapshot(ServiceEvent serviceEvent) {
+		synchronized (serviceEvent) {
+			return serviceEvent.toBuilder().build();
+		}
+	}
+
 }
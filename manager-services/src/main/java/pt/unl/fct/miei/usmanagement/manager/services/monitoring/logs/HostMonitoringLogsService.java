@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs;
+
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoringLog;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesPoint;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesStore;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the host monitoring logs in a bounded time-series store, instead of the host_monitoring_logs table.
+ */
+@Service
+public class HostMonitoringLogsService {
+
+	private final TimeSeriesStore<HostKey> store;
+
+	public HostMonitoringLogsService(MonitoringProperties monitoringProperties) {
+		this.store = new TimeSeriesStore<>(monitoringProperties.getLogs());
+	}
+
+	public void addHostMonitoringLog(HostMonitoringLog hostMonitoringLog) {
+		LocalDateTime timestamp = hostMonitoringLog.getTimestamp();
+		long time = timestamp == null ? System.currentTimeMillis() : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		store.record(new HostKey(hostMonitoringLog.getPublicIpAddress(), hostMonitoringLog.getPrivateIpAddress()),
+			hostMonitoringLog.getField(), time, hostMonitoringLog.getValue());
+	}
+
+	public void addHostMonitoringLog(HostAddress hostAddress, String field, double value, long timestamp) {
+		store.record(new HostKey(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress()), field, timestamp, value);
+	}
+
+	public List<HostMonitoringLog> getHostMonitoringLogs(TimeSeriesQuery query) {
+		return getHostMonitoringLogs(key -> true, query);
+	}
+
+	public List<HostMonitoringLog> getHostMonitoringLogs(HostAddress hostAddress, TimeSeriesQuery query) {
+		return getHostMonitoringLogs(key -> Objects.equals(key.getPublicIpAddress(), hostAddress.getPublicIpAddress())
+			&& Objects.equals(key.getPrivateIpAddress(), hostAddress.getPrivateIpAddress()), query);
+	}
+
+	public void removeHost(HostAddress hostAddress) {
+		store.remove(new HostKey(hostAddress.getPublicIpAddress(), hostAddress.getPrivateIpAddress()));
+	}
+
+	public void reset() {
+		store.clear();
+	}
+
+	private List<HostMonitoringLog> getHostMonitoringLogs(Predicate<HostKey> filter, TimeSeriesQuery query) {
+		return store.query(filter, query, HostMonitoringLogsService::toHostMonitoringLog);
+	}
+
+	private static HostMonitoringLog toHostMonitoringLog(HostKey key, String field, TimeSeriesPoint point) {
+		return HostMonitoringLog.builder()
+			.publicIpAddress(key.getPublicIpAddress())
+			.privateIpAddress(key.getPrivateIpAddress())
+			.field(field)
+			.value(point.getValue())
+			.timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(point.getTimestamp()), ZoneId.systemDefault()))
+			.build();
+	}
+
+	@Value
+	private static class HostKey {
+
+		String publicIpAddress;
+		String privateIpAddress;
+
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs;
+
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoringLog;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesPoint;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesStore;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the service monitoring logs in a bounded time-series store, instead of the service_monitoring_logs table.
+ */
+@Service
+public class ServiceMonitoringLogsService {
+
+	private final TimeSeriesStore<ContainerKey> store;
+
+	public ServiceMonitoringLogsService(MonitoringProperties monitoringProperties) {
+		this.store = new TimeSeriesStore<>(monitoringProperties.getLogs());
+	}
+
+	public void addServiceMonitoringLog(ServiceMonitoringLog serviceMonitoringLog) {
+		LocalDateTime timestamp = serviceMonitoringLog.getTimestamp();
+		long time = timestamp == null ? System.currentTimeMillis() : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		addServiceMonitoringLog(serviceMonitoringLog.getContainerId(), serviceMonitoringLog.getServiceName(),
+			serviceMonitoringLog.getField(), serviceMonitoringLog.getValue(), time);
+	}
+
+	public void addServiceMonitoringLog(String containerId, String serviceName, String field, double value, long timestamp) {
+		store.record(new ContainerKey(containerId, serviceName), field, timestamp, value);
+	}
+
+	public List<ServiceMonitoringLog> getServiceMonitoringLogs(TimeSeriesQuery query) {
+		return getServiceMonitoringLogs(key -> true, query);
+	}
+
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByServiceName(String serviceName, TimeSeriesQuery query) {
+		return getServiceMonitoringLogs(key -> Objects.equals(key.getServiceName(), serviceName), query);
+	}
+
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByContainerId(String containerId, TimeSeriesQuery query) {
+		return getServiceMonitoringLogs(key -> key.getContainerId().startsWith(containerId), query);
+	}
+
+	public void removeContainer(String containerId) {
+		store.removeIf(key -> Objects.equals(key.getContainerId(), containerId));
+	}
+
+	public void reset() {
+		store.clear();
+	}
+
+	private List<ServiceMonitoringLog> getServiceMonitoringLogs(Predicate<ContainerKey> filter, TimeSeriesQuery query) {
+		return store.query(filter, query, ServiceMonitoringLogsService::toServiceMonitoringLog);
+	}
+
+	private static ServiceMonitoringLog toServiceMonitoringLog(ContainerKey key, String field, TimeSeriesPoint point) {
+		return ServiceMonitoringLog.builder()
+			.containerId(key.getContainerId())
+			.serviceName(key.getServiceName())
+			.field(field)
+			.value(point.getValue())
+			.timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(point.getTimestamp()), ZoneId.systemDefault()))
+			.build();
+	}
+
+	@Value
+	private static class ContainerKey {
+
+		String containerId;
+		String serviceName;
+
+	}
+
+}
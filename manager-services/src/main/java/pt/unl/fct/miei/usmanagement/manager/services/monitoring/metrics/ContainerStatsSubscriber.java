@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.streams.DockerApiStream;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one streaming stats request open, to the docker api of a host, for each subscribed container,
+ * and the latest stats computed from each stream. The stream of a container ends when the container stops,
+ * which removes its stats.
+ */
+@Slf4j
+public class ContainerStatsSubscriber {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final String host;
+	private final HttpClient httpClient;
+	private final String baseUri;
+	private final String authorization;
+	private final Map<String, DockerApiStream> subscriptions;
+	private final Map<String, ContainerStatsEntry> containersStats;
+
+	public ContainerStatsSubscriber(String host, HttpClient httpClient, String baseUri, String authorization) {
+		this.host = host;
+		this.httpClient = httpClient;
+		this.baseUri = baseUri;
+		this.authorization = authorization;
+		this.subscriptions = new ConcurrentHashMap<>();
+		this.containersStats = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the latest stats of the container, if received after the given timestamp.
+	 */
+	public Optional<Map<String, Double>> getStats(String containerId, long notBefore) {
+		ContainerStatsEntry entry = containersStats.get(containerId);
+		if (entry == null || entry.timestamp < notBefore) {
+			return Optional.empty();
+		}
+		return Optional.of(new HashMap<>(entry.stats));
+	}
+
+	public boolean isSubscribed(String containerId) {
+		return subscriptions.containsKey(containerId);
+	}
+
+	public int getSubscriptions() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Subscribes to the stats of the given containers, and unsubscribes from the containers that are no longer running.
+	 */
+	public void retain(Collection<String> containerIds) {
+		Set<String> runningContainers = Set.copyOf(containerIds);
+		Iterator<Map.Entry<String, DockerApiStream>> iterator = subscriptions.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, DockerApiStream> subscription = iterator.next();
+			if (!runningContainers.contains(subscription.getKey())) {
+				iterator.remove();
+				subscription.getValue().cancel();
+				containersStats.remove(subscription.getKey());
+			}
+		}
+		runningContainers.forEach(this::subscribe);
+	}
+
+	public void subscribe(String containerId) {
+		DockerApiStream subscription = new DockerApiStream(
+			String.format("Stats stream of container %s on %s", containerId, host), line -> update(containerId, line));
+		if (subscriptions.putIfAbsent(containerId, subscription) != null) {
+			return;
+		}
+		String uri = String.format("%s/containers/%s/stats", baseUri, containerId);
+		subscription.open(httpClient, uri, authorization, () -> {
+			if (subscriptions.remove(containerId, subscription)) {
+				containersStats.remove(containerId);
+			}
+		});
+		log.info("Subscribed to stats of container {} on {}", containerId, host);
+	}
+
+	public void unsubscribe(String containerId) {
+		DockerApiStream subscription = subscriptions.remove(containerId);
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		containersStats.remove(containerId);
+	}
+
+	public void close() {
+		subscriptions.keySet().forEach(this::unsubscribe);
+	}
+
+	/**
+	 * Requests the current stats of the container once, e.g. while its stream didn't deliver any stats yet.
+	 */
+	public Optional<Map<String, Double>> poll(String containerId) {
+		HttpRequest request = HttpRequest.newBuilder()
+			.uri(URI.create(String.format("%s/containers/%s/stats?stream=false", baseUri, containerId)))
+			.header("Authorization", authorization)
+			.GET()
+			.build();
+		try {
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				log.error("Stats of container {} on {} returned status {}", containerId, host, response.statusCode());
+				return Optional.empty();
+			}
+			return Optional.of(new HashMap<>(toStats(OBJECT_MAPPER.readTree(response.body()))));
+		}
+		catch (IOException e) {
+			log.error("Failed to get stats of container {} on {}: {}", containerId, host, e.getMessage());
+			return Optional.empty();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Updates the latest stats of the container from a json object of the docker stats api.
+	 */
+	public void update(String containerId, String statsJson) {
+		try {
+			JsonNode stats = OBJECT_MAPPER.readTree(statsJson);
+			containersStats.put(containerId, new ContainerStatsEntry(toStats(stats), System.currentTimeMillis()));
+		}
+		catch (IOException e) {
+			log.error("Failed to parse stats of container {} on {}: {}", containerId, host, e.getMessage());
+		}
+	}
+
+	private static Map<String, Double> toStats(JsonNode stats) {
+		JsonNode cpuStats = stats.path("cpu_stats");
+		JsonNode preCpuStats = stats.path("precpu_stats");
+		double totalUsage = cpuStats.path("cpu_usage").path("total_usage").asDouble();
+		double systemDelta = cpuStats.path("system_cpu_usage").asDouble() - preCpuStats.path("system_cpu_usage").asDouble();
+		double cpuDelta = totalUsage - preCpuStats.path("cpu_usage").path("total_usage").asDouble();
+		double onlineCpus = cpuStats.path("online_cpus").asDouble();
+		if (onlineCpus == 0) {
+			for (JsonNode cpuUsage : cpuStats.path("cpu_usage").path("percpu_usage")) {
+				if (cpuUsage.asDouble() >= 1) {
+					onlineCpus++;
+				}
+			}
+		}
+		JsonNode memoryStats = stats.path("memory_stats");
+		double ram = memoryStats.path("usage").asDouble();
+		double ramLimit = memoryStats.path("limit").asDouble();
+		double rxBytes = 0;
+		double txBytes = 0;
+		for (JsonNode networkStats : stats.path("networks")) {
+			rxBytes += networkStats.path("rx_bytes").asDouble();
+			txBytes += networkStats.path("tx_bytes").asDouble();
+		}
+		return Map.of(
+			"cpu", totalUsage,
+			"cpu-%", ServiceMetricsService.getCpuPercent(cpuDelta, systemDelta, onlineCpus),
+			"ram", ram,
+			"ram-%", ServiceMetricsService.getRamPercent(ram, ramLimit),
+			"rx-bytes", rxBytes,
+			"tx-bytes", txBytes
+		);
+	}
+
+	private static final class ContainerStatsEntry {
+
+		private final Map<String, Double> stats;
+		private final long timestamp;
+
+		private ContainerStatsEntry(Map<String, Double> stats, long timestamp) {
+			this.stats = stats;
+			this.timestamp = timestamp;
+		}
+
+	}
+
+}
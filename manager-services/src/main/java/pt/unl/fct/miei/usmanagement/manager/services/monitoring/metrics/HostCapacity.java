@@ -22,18 +22,25 @@
  * SOFTWARE.
  */
 
-package pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics;
 
-import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
-@Data
-@NoArgsConstructor
-class QueryData {
+/**
+ * Ram and cpu of a host, as reported by its prometheus at the given time.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public final class HostCapacity {
 
-	private String resultType;
-	private List<QueryResult> result;
+	private final double totalRam;
+	private final double availableRam;
+	// cpu usage percentage, divided by the number of cores
+	private final double cpuUsage;
+	private final long timestamp;
 
 }
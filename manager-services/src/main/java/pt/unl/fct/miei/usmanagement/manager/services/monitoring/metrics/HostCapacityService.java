@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Serves placement decisions from a snapshot of the capacity of each host, refreshed in the background.
+ * The expected memory of the containers placed on a host is reserved locally until the snapshots are expected
+ * to reflect it, so that back-to-back decisions don't overcommit the same host.
+ */
+@Slf4j
+@Service
+public class HostCapacityService {
+
+	private final HostMetricsService hostMetricsService;
+	private final double maximumRamPercentage;
+	private final double maximumCpuPercentage;
+	private final long refreshPeriod;
+	private final long reservationTtl;
+
+	private final Map<HostAddress, HostCapacity> capacities;
+	private final Map<HostAddress, Long> lastAccesses;
+	private final Map<HostAddress, Queue<Reservation>> reservations;
+	private final SchedulerService schedulerService;
+
+	public HostCapacityService(HostMetricsService hostMetricsService, MonitoringProperties monitoringProperties,
+							   SchedulerService schedulerService) {
+		this.hostMetricsService = hostMetricsService;
+		MonitoringProperties.Hosts hostsProperties = monitoringProperties.getHosts();
+		this.maximumRamPercentage = hostsProperties.getMaximumRamPercentage();
+		this.maximumCpuPercentage = hostsProperties.getMaximumCpuPercentage();
+		this.refreshPeriod = hostsProperties.getCapacityRefreshPeriod();
+		this.reservationTtl = hostsProperties.getCapacityReservationTtl();
+		this.capacities = new ConcurrentHashMap<>();
+		this.lastAccesses = new ConcurrentHashMap<>();
+		this.reservations = new ConcurrentHashMap<>();
+		this.schedulerService = schedulerService;
+		if (refreshPeriod > 0) {
+			schedulerService.schedule("hosts-capacity-refresh", refreshPeriod, this::refreshCapacities);
+		}
+	}
+
+	public boolean hasEnoughResources(HostAddress hostAddress, double expectedMemoryConsumption) {
+		return !getCapableHosts(List.of(hostAddress), expectedMemoryConsumption).isEmpty();
+	}
+
+	/**
+	 * Filters the hosts with enough resources, fetching the capacity of the hosts without a recent snapshot concurrently.
+	 */
+	public List<HostAddress> getCapableHosts(Collection<HostAddress> hostAddresses, double expectedMemoryConsumption) {
+		Map<HostAddress, HostCapacity> hostsCapacity = getCapacities(hostAddresses);
+		return hostAddresses.stream()
+			.filter(hostAddress -> {
+				HostCapacity capacity = hostsCapacity.get(hostAddress);
+				if (capacity == null) {
+					log.info("Node {} doesn't have enough capacity: failed to fetch metrics", hostAddress);
+					return false;
+				}
+				return hasEnoughResources(hostAddress, capacity, expectedMemoryConsumption);
+			})
+			.collect(Collectors.toList());
+	}
+
+	public void reserve(HostAddress hostAddress, double expectedMemoryConsumption) {
+		if (expectedMemoryConsumption <= 0) {
+			return;
+		}
+		long expiration = System.currentTimeMillis() + reservationTtl;
+		reservations.computeIfAbsent(hostAddress, k -> new ConcurrentLinkedQueue<>())
+			.add(new Reservation(expectedMemoryConsumption, expiration));
+		log.info("Reserved {} of ram on node {} until {}", expectedMemoryConsumption, hostAddress, expiration);
+	}
+
+	public double getReservedMemory(HostAddress hostAddress) {
+		Queue<Reservation> hostReservations = reservations.get(hostAddress);
+		if (hostReservations == null) {
+			return 0;
+		}
+		long now = System.currentTimeMillis();
+		hostReservations.removeIf(reservation -> reservation.expiration <= now);
+		return hostReservations.stream().mapToDouble(reservation -> reservation.memory).sum();
+	}
+
+	public void invalidate(HostAddress hostAddress) {
+		capacities.remove(hostAddress);
+		lastAccesses.remove(hostAddress);
+		reservations.remove(hostAddress);
+	}
+
+	public void stop() {
+		schedulerService.cancel("hosts-capacity-refresh");
+	}
+
+	private boolean hasEnoughResources(HostAddress hostAddress, HostCapacity capacity, double expectedMemoryConsumption) {
+		double totalRam = capacity.getTotalRam();
+		double reservedRam = getReservedMemory(hostAddress);
+		double availableRam = capacity.getAvailableRam() - reservedRam;
+		double predictedRamUsage = (1.0 - ((availableRam - expectedMemoryConsumption) / totalRam)) * 100.0;
+		boolean hasEnoughMemory = predictedRamUsage < maximumRamPercentage;
+		log.info("Node {} {} enough ram, predictedRamUsage={} {} maximumRamPercentage={} (total ram={}, available ram={}, reserved ram={})",
+			hostAddress, hasEnoughMemory ? "has" : "doesn't have", predictedRamUsage, hasEnoughMemory ? "<" : ">=",
+			maximumRamPercentage, totalRam, capacity.getAvailableRam(), reservedRam);
+		double cpuUsage = capacity.getCpuUsage();
+		boolean hasEnoughCpu = cpuUsage < maximumCpuPercentage;
+		log.info("Node {} {} enough cpu, cpuUsage={} {} maximumCpuPercentage={}",
+			hostAddress, hasEnoughCpu ? "has" : "doesn't have", cpuUsage, hasEnoughCpu ? "<" : ">=",
+			maximumCpuPercentage);
+		return hasEnoughMemory && hasEnoughCpu;
+	}
+
+	private Map<HostAddress, HostCapacity> getCapacities(Collection<HostAddress> hostAddresses) {
+		long now = System.currentTimeMillis();
+		Map<HostAddress, HostCapacity> hostsCapacity = new HashMap<>(hostAddresses.size());
+		Map<HostAddress, CompletableFuture<Optional<HostCapacity>>> requests = new HashMap<>();
+		for (HostAddress hostAddress : hostAddresses) {
+			lastAccesses.put(hostAddress, now);
+			HostCapacity capacity = capacities.get(hostAddress);
+			// snapshots are refreshed every period, a snapshot older than two periods means the refresh failed
+			if (capacity != null && (refreshPeriod <= 0 || now - capacity.getTimestamp() < 2 * refreshPeriod)) {
+				hostsCapacity.put(hostAddress, capacity);
+			}
+			else {
+				requests.put(hostAddress, CompletableFuture.supplyAsync(() -> hostMetricsService.getHostCapacity(hostAddress)));
+			}
+		}
+		requests.forEach((hostAddress, request) -> {
+			Optional<HostCapacity> capacity = request.exceptionally(e -> Optional.empty()).join();
+			capacity.ifPresent(c -> {
+				capacities.put(hostAddress, c);
+				hostsCapacity.put(hostAddress, c);
+			});
+		});
+		return hostsCapacity;
+	}
+
+	private void refreshCapacities() {
+		long now = System.currentTimeMillis();
+		// hosts that haven't been considered for placement for a while are no longer refreshed
+		lastAccesses.entrySet().removeIf(lastAccess -> {
+			boolean expired = now - lastAccess.getValue() > Math.max(reservationTtl, 10 * refreshPeriod);
+			if (expired) {
+				capacities.remove(lastAccess.getKey());
+				reservations.remove(lastAccess.getKey());
+			}
+			return expired;
+		});
+		List<CompletableFuture<Void>> requests = capacities.keySet().stream()
+			.map(hostAddress -> CompletableFuture.supplyAsync(() -> hostMetricsService.getHostCapacity(hostAddress))
+				.thenAccept(capacity -> capacity.ifPresent(c -> capacities.put(hostAddress, c)))
+				.exceptionally(e -> {
+					log.error("Failed to refresh capacity of host {}: {}", hostAddress.toSimpleString(), e.getMessage());
+					return null;
+				}))
+			.collect(Collectors.toList());
+		CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+	}
+
+	private static final class Reservation {
+
+		private final double memory;
+		private final long expiration;
+
+		private Reservation(double memory, long expiration) {
+			this.memory = memory;
+			this.expiration = expiration;
+		}
+
+	}
+
+}
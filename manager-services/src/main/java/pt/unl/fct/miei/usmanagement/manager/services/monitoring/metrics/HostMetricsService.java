@@ -35,10 +35,8 @@ import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
 import pt.unl.fct.miei.usmanagement.manager.services.fields.FieldsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus.PrometheusService;
-import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,24 +46,20 @@ public class HostMetricsService {
 	private final PrometheusService prometheusService;
 	private final ContainersService containersService;
 	private final FieldsService fieldsService;
-	private final double maximumRamPercentage;
-	private final double maximumCpuPercentage;
 
 	public HostMetricsService(PrometheusService prometheusService, @Lazy ContainersService containersService,
-							  FieldsService fieldsService, MonitoringProperties monitoringProperties) {
+							  FieldsService fieldsService) {
 		this.prometheusService = prometheusService;
 		this.containersService = containersService;
 		this.fieldsService = fieldsService;
-		this.maximumRamPercentage = monitoringProperties.getHosts().getMaximumRamPercentage();
-		this.maximumCpuPercentage = monitoringProperties.getHosts().getMaximumCpuPercentage();
 	}
 
-	public boolean hostHasEnoughResources(HostAddress hostAddress, double expectedMemoryConsumption) {
+	public Optional<HostCapacity> getHostCapacity(HostAddress hostAddress) {
 		Optional<Integer> port = containersService.getSingletonContainer(hostAddress, ServiceConstants.Name.PROMETHEUS)
 			.map(c -> c.getPorts().stream().findFirst().get().getPublicPort());
 		if (port.isEmpty()) {
 			log.info("Failed to find prometheus container on host {}", hostAddress);
-			return false;
+			return Optional.empty();
 		}
 
 		List<PrometheusQueryEnum> prometheusQueries = List.of(
@@ -74,61 +68,34 @@ public class HostMetricsService {
 			PrometheusQueryEnum.CPU_USAGE_PERCENTAGE,
 			PrometheusQueryEnum.CPU_CORES);
 
-		Map<PrometheusQueryEnum, Optional<Double>> metrics = new HashMap<>(prometheusQueries.size());
+		long timestamp = System.currentTimeMillis();
+		Map<PrometheusQueryEnum, Double> metrics = prometheusService.getStats(hostAddress, port.get(), prometheusQueries);
 
-		CompletableFuture<?>[] requests = new CompletableFuture[prometheusQueries.size()];
-		int count = 0;
-		for (PrometheusQueryEnum prometheusQuery : prometheusQueries) {
-			CompletableFuture<?> future = CompletableFuture
-				.supplyAsync(() -> prometheusService.getStat(hostAddress, port.get(), prometheusQuery))
-				.exceptionally(ex -> Optional.empty())
-				.thenAccept(metric -> metrics.put(prometheusQuery, metric));
-			requests[count++] = future;
+		Double totalRam = metrics.get(PrometheusQueryEnum.TOTAL_MEMORY);
+		Double availableRam = metrics.get(PrometheusQueryEnum.AVAILABLE_MEMORY);
+		Double cpuUsage = metrics.get(PrometheusQueryEnum.CPU_USAGE_PERCENTAGE);
+		Double cpuCores = metrics.get(PrometheusQueryEnum.CPU_CORES);
+		if (totalRam == null || availableRam == null || cpuUsage == null || cpuCores == null) {
+			log.info("Failed to fetch capacity metrics of node {}", hostAddress);
+			return Optional.empty();
 		}
-		CompletableFuture.allOf(requests).join();
-
-		Optional<Double> totalRam = metrics.get(PrometheusQueryEnum.TOTAL_MEMORY);
-		Optional<Double> availableRam = metrics.get(PrometheusQueryEnum.AVAILABLE_MEMORY);
-		Optional<Double> cpuUsage = metrics.get(PrometheusQueryEnum.CPU_USAGE_PERCENTAGE);
-		Optional<Double> cpuCores = metrics.get(PrometheusQueryEnum.CPU_CORES);
-		if (totalRam != null && totalRam.isPresent()
-			&& availableRam != null
-			&& availableRam.isPresent()
-			&& cpuUsage != null && cpuUsage.isPresent()
-			&& cpuCores != null && cpuCores.isPresent()) {
-			double totalRamValue = totalRam.get();
-			double availableRamValue = availableRam.get();
-			double predictedRamUsage = (1.0 - ((availableRamValue - expectedMemoryConsumption) / totalRamValue)) * 100.0;
-			boolean hasEnoughMemory = predictedRamUsage < maximumRamPercentage;
-			log.info("Node {} {} enough ram, predictedRamUsage={} {} maximumRamPercentage={} (total ram={}, available ram={})",
-				hostAddress, hasEnoughMemory ? "has" : "doesn't have", predictedRamUsage, hasEnoughMemory ? "<" : ">=",
-				maximumRamPercentage, totalRamValue, availableRamValue);
-			double cpuCoresNumber = cpuCores.get();
-			double cpuUsageValue = cpuCoresNumber == 0 ? cpuUsage.get() : cpuUsage.get() / cpuCoresNumber;
-			boolean hasEnoughCpu = cpuUsageValue < maximumCpuPercentage;
-			log.info("Node {} {} enough cpu, cpuUsage={} {} maximumCpuPercentage={}",
-				hostAddress, hasEnoughCpu ? "has" : "doesn't have", cpuUsageValue, hasEnoughCpu ? "<" : ">=",
-				maximumCpuPercentage);
-			return hasEnoughMemory && hasEnoughCpu;
-		}
-		log.info("Node {} doesn't have enough capacity: failed to fetch metrics", hostAddress);
-		return false;
+		double cpuUsageValue = cpuCores == 0 ? cpuUsage : cpuUsage / cpuCores;
+		return Optional.of(new HostCapacity(totalRam, availableRam, cpuUsageValue, timestamp));
 	}
 
 	public Map<String, Optional<Double>> getHostStats(HostAddress hostAddress) {
 		Optional<Integer> port = containersService.getSingletonContainer(hostAddress, ServiceConstants.Name.PROMETHEUS)
 			.map(c -> c.getPorts().stream().findFirst().get().getPublicPort());
-		// Stats from prometheus (node exporter)
-		return fieldsService.getFields().stream()
+		// Stats from prometheus (node exporter), all fetched with a single request
+		List<Field> fields = fieldsService.getFields().stream()
 			.filter(field -> field.getPrometheusQuery() != null)
-			.collect(Collectors.toMap(Field::getName, field -> {
-				if (port.isPresent()) {
-					return prometheusService.getStat(hostAddress, port.get(), field.getPrometheusQuery());
-				}
-				else {
-					return Optional.empty();
-				}
-			}));
+			.collect(Collectors.toList());
+		Map<PrometheusQueryEnum, Double> stats = port.isPresent()
+			? prometheusService.getStats(hostAddress, port.get(), fields.stream().map(Field::getPrometheusQuery).collect(Collectors.toList()))
+			: Map.of();
+		Map<String, Optional<Double>> hostStats = new HashMap<>(fields.size());
+		fields.forEach(field -> hostStats.put(field.getName(), Optional.ofNullable(stats.get(field.getPrometheusQuery()))));
+		return hostStats;
 	}
 
 }
@@ -24,67 +24,81 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics;
 
-import com.spotify.docker.client.messages.ContainerStats;
-import com.spotify.docker.client.messages.CpuStats;
-import com.spotify.docker.client.messages.MemoryStats;
-import com.spotify.docker.client.messages.NetworkStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
-import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.streams.DockerApiSubscribers;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+import pt.unl.fct.miei.usmanagement.manager.util.HitCounters;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+@Slf4j
 @Service
 public class ServiceMetricsService {
 
-	private final ContainersService containersService;
+	private static final int CONNECTION_TIMEOUT = 10000;
 
-	public ServiceMetricsService(ContainersService containersService) {
-		this.containersService = containersService;
+	private final long staleTimeout;
+	private final DockerApiSubscribers<ContainerStatsSubscriber> hostsSubscribers;
+	private final HitCounters hitCounters;
+
+	public ServiceMetricsService(DockerProperties dockerProperties, MonitoringProperties monitoringProperties,
+								 MeterRegistry meterRegistry) {
+		// a stats sample is considered stale after missing a few monitoring periods
+		this.staleTimeout = 3L * monitoringProperties.getServices().getPeriod();
+		this.hostsSubscribers = new DockerApiSubscribers<>(dockerProperties, CONNECTION_TIMEOUT,
+			(hostAddress, httpClient, baseUri, authorization) ->
+				new ContainerStatsSubscriber(hostAddress.getPublicIpAddress(), httpClient, baseUri, authorization),
+			ContainerStatsSubscriber::close);
+		this.hitCounters = new HitCounters(meterRegistry, "monitoring.services.stats");
+		meterRegistry.gauge("monitoring.services.stats.streams", hostsSubscribers,
+			subscribers -> subscribers.getSubscribers().stream().mapToInt(ContainerStatsSubscriber::getSubscriptions).sum());
 	}
 
+	/**
+	 * Returns the latest stats of the container, kept up to date by its stats stream.
+	 * If there are no recent stats yet, e.g. the container was just started, they are requested once to the docker api.
+	 */
 	public Map<String, Double> getContainerStats(HostAddress hostAddress, String containerId) {
-		Map<String, Double> stats = new HashMap<>();
-		Optional<ContainerStats> containerStats = containersService.getContainerStats(containerId, hostAddress);
-		containerStats.ifPresent(s -> {
-			CpuStats cpuStats = s.cpuStats();
-			CpuStats preCpuStats = s.precpuStats();
-			double cpu = cpuStats.cpuUsage().totalUsage().doubleValue();
-			stats.put("cpu", cpu);
-			double cpuPercent = getContainerCpuPercent(preCpuStats, cpuStats);
-			stats.put("cpu-%", cpuPercent);
-			MemoryStats memoryStats = s.memoryStats();
-			double ram = memoryStats.usage().doubleValue();
-			stats.put("ram", ram);
-			double ramPercent = getContainerRamPercent(memoryStats);
-			stats.put("ram-%", ramPercent);
-			double rxBytes = 0;
-			double txBytes = 0;
-			for (NetworkStats networkStats : s.networks().values()) {
-				rxBytes += networkStats.rxBytes().doubleValue();
-				txBytes += networkStats.txBytes().doubleValue();
-			}
-			stats.put("rx-bytes", rxBytes);
-			stats.put("tx-bytes", txBytes);
-		});
-		return stats;
+		ContainerStatsSubscriber subscriber = hostsSubscribers.getSubscriber(hostAddress);
+		Optional<Map<String, Double>> latestStats = subscriber.getStats(containerId, System.currentTimeMillis() - staleTimeout);
+		if (latestStats.isPresent()) {
+			hitCounters.hit();
+			return latestStats.get();
+		}
+		hitCounters.miss();
+		subscriber.subscribe(containerId);
+		return subscriber.poll(containerId).orElseGet(HashMap::new);
+	}
+
+	/**
+	 * Keeps a stats stream open for each of the given containers of each host, closing the streams of any other container.
+	 */
+	public void subscribeContainers(Map<HostAddress, ? extends Collection<String>> hostsContainers) {
+		hostsContainers.forEach((hostAddress, containerIds) -> hostsSubscribers.getSubscriber(hostAddress).retain(containerIds));
+		hostsSubscribers.retain(hostsContainers.keySet());
+	}
+
+	public void stop() {
+		hostsSubscribers.close();
 	}
 
-	private double getContainerCpuPercent(CpuStats preCpuStats, CpuStats cpuStats) {
-		double systemDelta = cpuStats.systemCpuUsage().doubleValue() - preCpuStats.systemCpuUsage().doubleValue();
-		double cpuDelta = cpuStats.cpuUsage().totalUsage().doubleValue() - preCpuStats.cpuUsage().totalUsage().doubleValue();
+	static double getCpuPercent(double cpuDelta, double systemDelta, double onlineCpus) {
 		double cpuPercent = 0.0;
 		if (systemDelta > 0.0 && cpuDelta > 0.0) {
-			double onlineCpus = cpuStats.cpuUsage().percpuUsage().stream().filter(cpuUsage -> cpuUsage >= 1).count();
 			cpuPercent = (cpuDelta / systemDelta) * onlineCpus * 100.0;
 		}
 		return cpuPercent;
 	}
 
-	private double getContainerRamPercent(MemoryStats memStats) {
-		return memStats.limit() < 1 ? 0.0 : (memStats.usage().doubleValue() / memStats.limit().doubleValue()) * 100.0;
+	static double getRamPercent(double usage, double limit) {
+		return limit < 1 ? 0.0 : (usage / limit) * 100.0;
 	}
 
 }
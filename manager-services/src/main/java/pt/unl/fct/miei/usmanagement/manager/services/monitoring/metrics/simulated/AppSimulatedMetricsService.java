@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -65,6 +64,13 @@ public class AppSimulatedMetricsService {
 		return appSimulatedMetrics.findAll();
 	}
 
+	/**
+	 * Returns the simulated metrics with their apps loaded, as read by the monitoring of the services.
+	 */
+	public List<AppSimulatedMetric> getAppSimulatedMetricsAndEntities() {
+		return appSimulatedMetrics.getAppSimulatedMetricsAndEntities();
+	}
+
 	public List<AppSimulatedMetric> getAppSimulatedMetricByApp(String appName) {
 		return appSimulatedMetrics.findByApp(appName);
 	}
@@ -92,7 +98,7 @@ public class AppSimulatedMetricsService {
 	public AppSimulatedMetric updateAppSimulatedMetric(String simulatedMetricName,
 													   AppSimulatedMetric newAppSimulatedMetric) {
 		log.info("Updating simulated app metric {} with {}", simulatedMetricName,
-			ToStringBuilder.reflectionToString(newAppSimulatedMetric));
+			EntityUtils.reflectionToString(newAppSimulatedMetric));
 		AppSimulatedMetric appSimulatedMetric = getAppSimulatedMetric(simulatedMetricName);
 		EntityUtils.copyValidProperties(newAppSimulatedMetric, appSimulatedMetric);
 		appSimulatedMetric = saveAppSimulatedMetric(appSimulatedMetric);
@@ -101,10 +107,11 @@ public class AppSimulatedMetricsService {
 	}
 
 	public AppSimulatedMetric saveAppSimulatedMetric(AppSimulatedMetric appSimulatedMetric) {
-		log.info("Saving appSimulatedMetric {}", ToStringBuilder.reflectionToString(appSimulatedMetric));
+		log.info("Saving appSimulatedMetric {}", EntityUtils.reflectionToString(appSimulatedMetric));
 		return appSimulatedMetrics.save(appSimulatedMetric);
 	}
 
+	@Transactional
 	public AppSimulatedMetric addOrUpdateSimulatedMetric(AppSimulatedMetric simulatedMetric) {
 		if (simulatedMetric.getId() != null) {
 			Optional<AppSimulatedMetric> simulatedMetricOptional = appSimulatedMetrics.findById(simulatedMetric.getId());
@@ -136,18 +143,21 @@ public class AppSimulatedMetricsService {
 		return saveAppSimulatedMetric(simulatedMetric);
 	}
 
+	@Transactional
 	public void deleteAppSimulatedMetric(Long id) {
 		log.info("Deleting simulated app metric {}", id);
 		AppSimulatedMetric appSimulatedMetric = getAppSimulatedMetric(id);
 		deleteAppSimulatedMetric(appSimulatedMetric, false);
 	}
 
+	@Transactional
 	public void deleteAppSimulatedMetric(String simulatedMetricName) {
 		log.info("Deleting simulated app metric {}", simulatedMetricName);
 		AppSimulatedMetric appSimulatedMetric = getAppSimulatedMetric(simulatedMetricName);
 		deleteAppSimulatedMetric(appSimulatedMetric, true);
 	}
 
+	@Transactional
 	public void deleteAppSimulatedMetric(AppSimulatedMetric simulatedMetric, boolean kafka) {
 		simulatedMetric.removeAssociations();
 		appSimulatedMetrics.delete(simulatedMetric);
@@ -167,10 +177,12 @@ public class AppSimulatedMetricsService {
 			new EntityNotFoundException(App.class, "appName", appName));
 	}
 
+	@Transactional
 	public void addApp(String simulatedMetricName, String appName) {
 		addApps(simulatedMetricName, List.of(appName));
 	}
 
+	@Transactional
 	public void addApps(String simulatedMetricName, List<String> appNames) {
 		log.info("Adding apps {} to simulated metric {}", appNames, simulatedMetricName);
 		AppSimulatedMetric appMetric = getAppSimulatedMetric(simulatedMetricName);
@@ -181,10 +193,12 @@ public class AppSimulatedMetricsService {
 		kafkaService.sendAppSimulatedMetric(appSimulatedMetrics.save(appMetric));
 	}
 
+	@Transactional
 	public void removeApp(String simulatedMetricName, String appName) {
 		removeApps(simulatedMetricName, List.of(appName));
 	}
 
+	@Transactional
 	public void removeApps(String simulatedMetricName, List<String> appNames) {
 		log.info("Removing apps {} from simulated metric {}", appNames, simulatedMetricName);
 		AppSimulatedMetric appMetric = getAppSimulatedMetric(simulatedMetricName);
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -65,6 +64,13 @@ public class ContainerSimulatedMetricsService {
 		return containerSimulatedMetrics.findAll();
 	}
 
+	/**
+	 * Returns the simulated metrics with their containers loaded, as read by the monitoring of the services.
+	 */
+	public List<ContainerSimulatedMetric> getContainerSimulatedMetricsAndEntities() {
+		return containerSimulatedMetrics.getContainerSimulatedMetricsAndEntities();
+	}
+
 	public List<ContainerSimulatedMetric> getServiceSimulatedMetricByContainer(String containerId) {
 		return containerSimulatedMetrics.findByContainer(containerId);
 	}
@@ -92,7 +98,7 @@ public class ContainerSimulatedMetricsService {
 	public ContainerSimulatedMetric updateContainerSimulatedMetric(String simulatedMetricName,
 																   ContainerSimulatedMetric newContainerSimulatedMetric) {
 		log.info("Updating simulated container metric {} with {}", simulatedMetricName,
-			ToStringBuilder.reflectionToString(newContainerSimulatedMetric));
+			EntityUtils.reflectionToString(newContainerSimulatedMetric));
 		ContainerSimulatedMetric containerSimulatedMetric = getContainerSimulatedMetric(simulatedMetricName);
 		EntityUtils.copyValidProperties(newContainerSimulatedMetric, containerSimulatedMetric);
 		containerSimulatedMetric = saveContainerSimulatedMetric(containerSimulatedMetric);
@@ -101,10 +107,11 @@ public class ContainerSimulatedMetricsService {
 	}
 
 	public ContainerSimulatedMetric saveContainerSimulatedMetric(ContainerSimulatedMetric containerSimulatedMetric) {
-		log.info("Saving containerSimulatedMetric {}", ToStringBuilder.reflectionToString(containerSimulatedMetric));
+		log.info("Saving containerSimulatedMetric {}", EntityUtils.reflectionToString(containerSimulatedMetric));
 		return containerSimulatedMetrics.save(containerSimulatedMetric);
 	}
 
+	@Transactional
 	public ContainerSimulatedMetric addOrUpdateSimulatedMetric(ContainerSimulatedMetric simulatedMetric) {
 		if (simulatedMetric.getId() != null) {
 			Optional<ContainerSimulatedMetric> simulatedMetricOptional = containerSimulatedMetrics.findById(simulatedMetric.getId());
@@ -136,18 +143,21 @@ public class ContainerSimulatedMetricsService {
 		return saveContainerSimulatedMetric(simulatedMetric);
 	}
 
+	@Transactional
 	public void deleteContainerSimulatedMetric(Long id) {
 		log.info("Deleting simulated container metric {}", id);
 		ContainerSimulatedMetric containerSimulatedMetric = getContainerSimulatedMetric(id);
 		deleteContainerSimulatedMetric(containerSimulatedMetric, false);
 	}
 
+	@Transactional
 	public void deleteContainerSimulatedMetric(String simulatedMetricName) {
 		log.info("Deleting simulated container metric {}", simulatedMetricName);
 		ContainerSimulatedMetric containerSimulatedMetric = getContainerSimulatedMetric(simulatedMetricName);
 		deleteContainerSimulatedMetric(containerSimulatedMetric, true);
 	}
 
+	@Transactional
 	public void deleteContainerSimulatedMetric(ContainerSimulatedMetric simulatedMetric, boolean kafka) {
 		simulatedMetric.removeAssociations();
 		containerSimulatedMetrics.delete(simulatedMetric);
@@ -167,30 +177,34 @@ public class ContainerSimulatedMetricsService {
 			new EntityNotFoundException(Container.class, "containerId", containerId));
 	}
 
+	@Transactional
 	public void addContainer(String simulatedMetricName, String containerId) {
 		addContainers(simulatedMetricName, List.of(containerId));
 	}
 
+	@Transactional
 	public void addContainers(String simulatedMetricName, List<String> containerIds) {
 		log.info("Adding containers {} to simulated metric {}", containerIds, simulatedMetricName);
 		ContainerSimulatedMetric containerMetric = getContainerSimulatedMetric(simulatedMetricName);
 		containerIds.forEach(containerId -> {
-			Container container = containersService.getContainer(containerId);
+			Container container = containersService.getContainerAndEntities(containerId);
 			container.addContainerSimulatedMetric(containerMetric);
 		});
 		ContainerSimulatedMetric containerSimulatedMetric = saveContainerSimulatedMetric(containerMetric);
 		kafkaService.sendContainerSimulatedMetric(containerSimulatedMetric);
 	}
 
+	@Transactional
 	public void removeContainer(String simulatedMetricName, String containerId) {
 		removeContainers(simulatedMetricName, List.of(containerId));
 	}
 
+	@Transactional
 	public void removeContainers(String simulatedMetricName, List<String> containerIds) {
 		log.info("Removing containers {} from simulated metric {}", containerIds, simulatedMetricName);
 		ContainerSimulatedMetric containerMetric = getContainerSimulatedMetric(simulatedMetricName);
 		containerIds.forEach(containerId ->
-			containersService.getContainer(containerId).removeContainerSimulatedMetric(containerMetric));
+			containersService.getContainerAndEntities(containerId).removeContainerSimulatedMetric(containerMetric));
 		ContainerSimulatedMetric containerSimulatedMetric = saveContainerSimulatedMetric(containerMetric);
 		kafkaService.sendContainerSimulatedMetric(containerSimulatedMetric);
 	}
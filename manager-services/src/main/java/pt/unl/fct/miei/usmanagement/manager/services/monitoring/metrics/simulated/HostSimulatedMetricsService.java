@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -96,7 +95,7 @@ public class HostSimulatedMetricsService {
 	public HostSimulatedMetric updateHostSimulatedMetric(String simulatedMetricName,
 														 HostSimulatedMetric newHostSimulatedMetric) {
 		log.info("Updating simulated host metric {} with {}", simulatedMetricName,
-			ToStringBuilder.reflectionToString(newHostSimulatedMetric));
+			EntityUtils.reflectionToString(newHostSimulatedMetric));
 		HostSimulatedMetric hostSimulatedMetric = getHostSimulatedMetric(simulatedMetricName);
 		EntityUtils.copyValidProperties(newHostSimulatedMetric, hostSimulatedMetric);
 		hostSimulatedMetric = saveHostSimulatedMetric(hostSimulatedMetric);
@@ -105,10 +104,11 @@ public class HostSimulatedMetricsService {
 	}
 
 	public HostSimulatedMetric saveHostSimulatedMetric(HostSimulatedMetric simulatedMetric) {
-		log.info("Saving hostSimulatedMetric {}", ToStringBuilder.reflectionToString(simulatedMetric));
+		log.info("Saving hostSimulatedMetric {}", EntityUtils.reflectionToString(simulatedMetric));
 		return hostSimulatedMetrics.save(simulatedMetric);
 	}
 
+	@Transactional
 	public HostSimulatedMetric addOrUpdateSimulatedMetric(HostSimulatedMetric simulatedMetric) {
 		if (simulatedMetric.getId() != null) {
 			Optional<HostSimulatedMetric> simulatedMetricOptional = hostSimulatedMetrics.findById(simulatedMetric.getId());
@@ -159,18 +159,21 @@ public class HostSimulatedMetricsService {
 		return saveHostSimulatedMetric(simulatedMetric);
 	}
 
+	@Transactional
 	public void deleteHostSimulatedMetric(Long id) {
 		log.info("Deleting simulated host metric {}", id);
 		HostSimulatedMetric simulatedHostMetric = getHostSimulatedMetric(id);
 		deleteHostSimulatedMetric(simulatedHostMetric, false);
 	}
 
+	@Transactional
 	public void deleteHostSimulatedMetric(String simulatedMetricName) {
 		log.info("Deleting simulated host metric {}", simulatedMetricName);
 		HostSimulatedMetric simulatedHostMetric = getHostSimulatedMetric(simulatedMetricName);
 		deleteHostSimulatedMetric(simulatedHostMetric, true);
 	}
 
+	@Transactional
 	public void deleteHostSimulatedMetric(HostSimulatedMetric simulatedMetric, boolean kafka) {
 		simulatedMetric.removeAssociations();
 		hostSimulatedMetrics.delete(simulatedMetric);
@@ -199,10 +202,12 @@ public class HostSimulatedMetricsService {
 			new EntityNotFoundException(CloudHost.class, "instanceId", instanceId));
 	}
 
+	@Transactional
 	public void addCloudHost(String simulatedMetricName, String instanceId) {
 		addCloudHosts(simulatedMetricName, List.of(instanceId));
 	}
 
+	@Transactional
 	public void addCloudHosts(String simulatedMetricName, List<String> instanceIds) {
 		log.info("Adding cloud hosts {} to simulated metric {}", instanceIds, simulatedMetricName);
 		HostSimulatedMetric hostMetric = getHostSimulatedMetric(simulatedMetricName);
@@ -213,10 +218,12 @@ public class HostSimulatedMetricsService {
 		kafkaService.sendHostSimulatedMetric(hostSimulatedMetrics.save(hostMetric));
 	}
 
+	@Transactional
 	public void removeCloudHost(String simulatedMetricName, String instanceId) {
 		removeCloudHosts(simulatedMetricName, List.of(instanceId));
 	}
 
+	@Transactional
 	public void removeCloudHosts(String simulatedMetricName, List<String> instanceIds) {
 		log.info("Removing cloud hosts {} from simulated metric {}", instanceIds, simulatedMetricName);
 		HostSimulatedMetric hostMetric = getHostSimulatedMetric(simulatedMetricName);
@@ -235,10 +242,12 @@ public class HostSimulatedMetricsService {
 			new EntityNotFoundException(EdgeHost.class, "hostname", hostname));
 	}
 
+	@Transactional
 	public void addEdgeHost(String simulatedMetricName, HostAddress hostAddress) {
 		addEdgeHosts(simulatedMetricName, List.of(hostAddress));
 	}
 
+	@Transactional
 	public void addEdgeHosts(String simulatedMetricName, List<HostAddress> hostAddresses) {
 		log.info("Adding edge hosts {} to simulated metric {}", hostAddresses, simulatedMetricName);
 		HostSimulatedMetric hostMetric = getHostSimulatedMetric(simulatedMetricName);
@@ -249,10 +258,12 @@ public class HostSimulatedMetricsService {
 		kafkaService.sendHostSimulatedMetric(hostSimulatedMetrics.save(hostMetric));
 	}
 
+	@Transactional
 	public void removeEdgeHost(String simulatedMetricName, HostAddress hostAddress) {
 		removeEdgeHosts(simulatedMetricName, List.of(hostAddress));
 	}
 
+	@Transactional
 	public void removeEdgeHosts(String simulatedMetricName, List<HostAddress> hostAddresses) {
 		log.info("Removing edge hosts {} from simulated metric {}", hostAddresses, simulatedMetricName);
 		HostSimulatedMetric hostMetric = getHostSimulatedMetric(simulatedMetricName);
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
@@ -64,6 +63,13 @@ public class ServiceSimulatedMetricsService {
 		return serviceSimulatedMetrics.findAll();
 	}
 
+	/**
+	 * Returns the simulated metrics with their services loaded, as read by the monitoring of the services.
+	 */
+	public List<ServiceSimulatedMetric> getServiceSimulatedMetricsAndEntities() {
+		return serviceSimulatedMetrics.getServiceSimulatedMetricsAndEntities();
+	}
+
 	public List<ServiceSimulatedMetric> getServiceSimulatedMetricByService(String serviceName) {
 		return serviceSimulatedMetrics.findByService(serviceName);
 	}
@@ -91,7 +97,7 @@ public class ServiceSimulatedMetricsService {
 	public ServiceSimulatedMetric updateServiceSimulatedMetric(String simulatedMetricName,
 															   ServiceSimulatedMetric newServiceSimulatedMetric) {
 		log.info("Updating simulated service metric {} with {}", simulatedMetricName,
-			ToStringBuilder.reflectionToString(newServiceSimulatedMetric));
+			EntityUtils.reflectionToString(newServiceSimulatedMetric));
 		ServiceSimulatedMetric serviceSimulatedMetric = getServiceSimulatedMetric(simulatedMetricName);
 		EntityUtils.copyValidProperties(newServiceSimulatedMetric, serviceSimulatedMetric);
 		serviceSimulatedMetric = saveServiceSimulatedMetric(serviceSimulatedMetric);
@@ -100,10 +106,11 @@ public class ServiceSimulatedMetricsService {
 	}
 
 	public ServiceSimulatedMetric saveServiceSimulatedMetric(ServiceSimulatedMetric serviceSimulatedMetric) {
-		log.info("Saving serviceSimulatedMetric {}", ToStringBuilder.reflectionToString(serviceSimulatedMetric));
+		log.info("Saving serviceSimulatedMetric {}", EntityUtils.reflectionToString(serviceSimulatedMetric));
 		return serviceSimulatedMetrics.save(serviceSimulatedMetric);
 	}
 
+	@Transactional
 	public ServiceSimulatedMetric addOrUpdateSimulatedMetric(ServiceSimulatedMetric simulatedMetric) {
 		if (simulatedMetric.getId() != null) {
 			Optional<ServiceSimulatedMetric> simulatedMetricOptional = serviceSimulatedMetrics.findById(simulatedMetric.getId());
@@ -135,18 +142,21 @@ public class ServiceSimulatedMetricsService {
 		return saveServiceSimulatedMetric(simulatedMetric);
 	}
 
+	@Transactional
 	public void deleteServiceSimulatedMetric(Long id) {
 		log.info("Deleting simulated service metric {}", id);
 		ServiceSimulatedMetric serviceSimulatedMetric = getServiceSimulatedMetric(id);
 		deleteServiceSimulatedMetric(serviceSimulatedMetric, false);
 	}
 
+	@Transactional
 	public void deleteServiceSimulatedMetric(String simulatedMetricName) {
 		log.info("Deleting simulated service metric {}", simulatedMetricName);
 		ServiceSimulatedMetric serviceSimulatedMetric = getServiceSimulatedMetric(simulatedMetricName);
 		deleteServiceSimulatedMetric(serviceSimulatedMetric, true);
 	}
 
+	@Transactional
 	public void deleteServiceSimulatedMetric(ServiceSimulatedMetric simulatedMetric, boolean kafka) {
 		simulatedMetric.removeAssociations();
 		serviceSimulatedMetrics.delete(simulatedMetric);
@@ -175,10 +185,12 @@ public class ServiceSimulatedMetricsService {
 			new EntityNotFoundException(Service.class, "serviceName", serviceName));
 	}
 
+	@Transactional
 	public void addService(String simulatedMetricName, String serviceName) {
 		addServices(simulatedMetricName, List.of(serviceName));
 	}
 
+	@Transactional
 	public void addServices(String simulatedMetricName, List<String> serviceNames) {
 		log.info("Adding services {} to simulated metric {}", serviceNames, simulatedMetricName);
 		ServiceSimulatedMetric serviceMetric = getServiceSimulatedMetric(simulatedMetricName);
@@ -190,10 +202,12 @@ public class ServiceSimulatedMetricsService {
 		kafkaService.sendServiceSimulatedMetric(serviceSimulatedMetric);
 	}
 
+	@Transactional
 	public void removeService(String simulatedMetricName, String serviceName) {
 		removeServices(simulatedMetricName, List.of(serviceName));
 	}
 
+	@Transactional
 	public void removeServices(String simulatedMetricName, List<String> serviceNames) {
 		log.info("Removing services {} from simulated metric {}", serviceNames, simulatedMetricName);
 		ServiceSimulatedMetric serviceMetric = getServiceSimulatedMetric(simulatedMetricName);
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated;
+
+import pt.unl.fct.miei.usmanagement.manager.apps.App;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.AppSimulatedMetric;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ContainerSimulatedMetric;
+import pt.unl.fct.miei.usmanagement.manager.metrics.simulated.ServiceSimulatedMetric;
+import pt.unl.fct.miei.usmanagement.manager.services.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of the active simulated metrics, loaded once per monitoring tick
+ * and indexed by app name, service name (case insensitive) and container id.
+ */
+public final class SimulatedMetricsSnapshot {
+
+	private final Map<String, List<AppSimulatedMetric>> appMetrics;
+	private final List<ServiceSimulatedMetric> genericServiceMetrics;
+	private final Map<String, List<ServiceSimulatedMetric>> serviceMetrics;
+	private final Map<String, List<ContainerSimulatedMetric>> containerMetrics;
+
+	private SimulatedMetricsSnapshot(Map<String, List<AppSimulatedMetric>> appMetrics,
+									 List<ServiceSimulatedMetric> genericServiceMetrics,
+									 Map<String, List<ServiceSimulatedMetric>> serviceMetrics,
+									 Map<String, List<ContainerSimulatedMetric>> containerMetrics) {
+		this.appMetrics = appMetrics;
+		this.genericServiceMetrics = genericServiceMetrics;
+		this.serviceMetrics = serviceMetrics;
+		this.containerMetrics = containerMetrics;
+	}
+
+	public static SimulatedMetricsSnapshot of(Collection<AppSimulatedMetric> appSimulatedMetrics,
+											  Collection<ServiceSimulatedMetric> serviceSimulatedMetrics,
+											  Collection<ContainerSimulatedMetric> containerSimulatedMetrics) {
+		Map<String, List<AppSimulatedMetric>> appMetrics = new HashMap<>();
+		for (AppSimulatedMetric metric : appSimulatedMetrics) {
+			if (metric.isActive() && metric.getApps() != null) {
+				for (App app : metric.getApps()) {
+					appMetrics.computeIfAbsent(app.getName(), k -> new ArrayList<>()).add(metric);
+				}
+			}
+		}
+		List<ServiceSimulatedMetric> genericServiceMetrics = new ArrayList<>();
+		Map<String, List<ServiceSimulatedMetric>> serviceMetrics = new HashMap<>();
+		for (ServiceSimulatedMetric metric : serviceSimulatedMetrics) {
+			if (!metric.isActive()) {
+				continue;
+			}
+			if (metric.isGeneric()) {
+				genericServiceMetrics.add(metric);
+			}
+			if (metric.getServices() != null) {
+				for (Service service : metric.getServices()) {
+					serviceMetrics.computeIfAbsent(service.getServiceName().toLowerCase(), k -> new ArrayList<>()).add(metric);
+				}
+			}
+		}
+		Map<String, List<ContainerSimulatedMetric>> containerMetrics = new HashMap<>();
+		for (ContainerSimulatedMetric metric : containerSimulatedMetrics) {
+			if (metric.isActive() && metric.getContainers() != null) {
+				for (Container container : metric.getContainers()) {
+					containerMetrics.computeIfAbsent(container.getId(), k -> new ArrayList<>()).add(metric);
+				}
+			}
+		}
+		return new SimulatedMetricsSnapshot(appMetrics, genericServiceMetrics, serviceMetrics, containerMetrics);
+	}
+
+	public List<AppSimulatedMetric> getAppMetrics(String appName) {
+		return appMetrics.getOrDefault(appName, Collections.emptyList());
+	}
+
+	/**
+	 * Same semantics as {@link ServiceSimulatedMetricsService#getServiceSimulatedMetricByService(String)}:
+	 * the generic metrics plus the ones associated with the service.
+	 */
+	public List<ServiceSimulatedMetric> getServiceMetrics(String serviceName) {
+		List<ServiceSimulatedMetric> metrics = serviceName == null
+			? Collections.emptyList()
+			: serviceMetrics.getOrDefault(serviceName.toLowerCase(), Collections.emptyList());
+		if (genericServiceMetrics.isEmpty()) {
+			return metrics;
+		}
+		Set<ServiceSimulatedMetric> merged = new LinkedHashSet<>(genericServiceMetrics);
+		merged.addAll(metrics);
+		return new ArrayList<>(merged);
+	}
+
+	public List<ContainerSimulatedMetric> getContainerMetrics(String containerId) {
+		return containerMetrics.getOrDefault(containerId, Collections.emptyList());
+	}
+
+}
@@ -40,6 +40,8 @@ public class PrometheusProperties {
 	public static final String URL = "http://%s:%d/api/v1/query";
 
 	private int port;
+	private int connectTimeout;
+	private int readTimeout;
 	private final NodeExporter nodeExporter;
 
 	public PrometheusProperties() {
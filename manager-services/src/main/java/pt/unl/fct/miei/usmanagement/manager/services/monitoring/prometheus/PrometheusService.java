@@ -24,17 +24,17 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.gson.Gson;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
-import pt.unl.fct.miei.usmanagement.manager.config.PrometheusRequestInterceptor;
 import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
 import pt.unl.fct.miei.usmanagement.manager.containers.ContainerTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.exceptions.ManagerException;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.metrics.PrometheusQueryEnum;
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
@@ -42,56 +42,255 @@ import pt.unl.fct.miei.usmanagement.manager.services.ServiceTypeEnum;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 public class PrometheusService {
 
+	// Label added to each series of a combined query, to tell which query it answers
+	private static final String QUERY_LABEL = "usm_query";
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
 	private final HostsService hostsService;
 
 	private final String managerId;
 	private final int port;
 	private final String dockerHubUsername;
-	private final RestTemplate restTemplate;
+	private final String authorization;
+	private final Duration readTimeout;
+	private final HttpClient httpClient;
 
 	public PrometheusService(@Lazy HostsService hostsService, DockerProperties dockerProperties, PrometheusProperties prometheusProperties,
-							 PrometheusRequestInterceptor requestInterceptor, Environment environment) {
+							 Environment environment) {
 		this.hostsService = hostsService;
 		this.managerId = environment.getProperty(ContainerConstants.Environment.Manager.ID);
 		this.port = prometheusProperties.getPort();
 		this.dockerHubUsername = dockerProperties.getHub().getUsername();
-		this.restTemplate = new RestTemplate();
-		this.restTemplate.setInterceptors(List.of(requestInterceptor));
+		String username = dockerProperties.getApiProxy().getUsername();
+		String password = dockerProperties.getApiProxy().getPassword();
+		byte[] auth = String.format("%s:%s", username, password).getBytes();
+		this.authorization = String.format("Basic %s", new String(Base64.getEncoder().encode(auth)));
+		this.readTimeout = Duration.ofMillis(prometheusProperties.getReadTimeout());
+		// the http client keeps a pool of connections per host, reused across requests
+		this.httpClient = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofMillis(prometheusProperties.getConnectTimeout()))
+			.build();
 	}
 
 	public Optional<Double> getStat(HostAddress hostAddress, int port, PrometheusQueryEnum prometheusQuery) {
-		String value = "";
+		return Optional.ofNullable(getStats(hostAddress, port, List.of(prometheusQuery)).get(prometheusQuery));
+	}
+
+	public Map<PrometheusQueryEnum, Double> getStats(HostAddress hostAddress, int port, Collection<PrometheusQueryEnum> prometheusQueries) {
+		try {
+			return getStatsAsync(hostAddress, port, prometheusQueries).join();
+		}
+		catch (CompletionException e) {
+			log.error("Failed to get stats {} from prometheus on {}: {}", prometheusQueries, hostAddress.toSimpleString(),
+				e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+			return new EnumMap<>(PrometheusQueryEnum.class);
+		}
+	}
+
+	/**
+	 * Gets the result of all queries with a single request to the prometheus of the host.
+	 * The queries are combined into one, each one tagged with its own label. If prometheus rejects the combined query,
+	 * the queries are sent separately, concurrently.
+	 */
+	public CompletableFuture<Map<PrometheusQueryEnum, Double>> getStatsAsync(HostAddress hostAddress, int port,
+																			 Collection<PrometheusQueryEnum> prometheusQueries) {
+		List<PrometheusQueryEnum> queries = new ArrayList<>(new LinkedHashSet<>(prometheusQueries));
+		if (queries.isEmpty()) {
+			return CompletableFuture.completedFuture(new EnumMap<>(PrometheusQueryEnum.class));
+		}
+		if (queries.size() == 1) {
+			return query(hostAddress, port, queries.get(0).getQuery(), 1)
+				.thenApply(values -> toStats(queries, values));
+		}
+		StringBuilder combinedQuery = new StringBuilder();
+		for (int i = 0; i < queries.size(); i++) {
+			if (i > 0) {
+				combinedQuery.append(" or ");
+			}
+			combinedQuery.append(String.format("label_replace(%s, \"%s\", \"%d\", \"\", \"\")",
+				queries.get(i).getQuery(), QUERY_LABEL, i));
+		}
+		return query(hostAddress, port, combinedQuery.toString(), queries.size())
+			.thenApply(values -> toStats(queries, values))
+			.handle((stats, e) -> {
+				if (e == null) {
+					return CompletableFuture.completedFuture(stats);
+				}
+				log.warn("Combined prometheus query failed on {}, sending queries separately: {}", hostAddress.toSimpleString(),
+					e.getMessage());
+				return getStatsSeparately(hostAddress, port, queries);
+			})
+			.thenCompose(Function.identity());
+	}
+
+	private CompletableFuture<Map<PrometheusQueryEnum, Double>> getStatsSeparately(HostAddress hostAddress, int port,
+																				   List<PrometheusQueryEnum> queries) {
+		List<CompletableFuture<Map<PrometheusQueryEnum, Double>>> requests = new ArrayList<>(queries.size());
+		for (PrometheusQueryEnum query : queries) {
+			requests.add(query(hostAddress, port, query.getQuery(), 1)
+				.thenApply(values -> toStats(List.of(query), values))
+				.exceptionally(e -> new EnumMap<>(PrometheusQueryEnum.class)));
+		}
+		return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+			Map<PrometheusQueryEnum, Double> stats = new EnumMap<>(PrometheusQueryEnum.class);
+			requests.forEach(request -> stats.putAll(request.join()));
+			return stats;
+		});
+	}
+
+	private Map<PrometheusQueryEnum, Double> toStats(List<PrometheusQueryEnum> queries, double[] values) {
+		Map<PrometheusQueryEnum, Double> stats = new EnumMap<>(PrometheusQueryEnum.class);
+		for (int i = 0; i < queries.size(); i++) {
+			if (!Double.isNaN(values[i])) {
+				stats.put(queries.get(i), values[i]);
+			}
+		}
+		return stats;
+	}
+
+	private CompletableFuture<double[]> query(HostAddress hostAddress, int port, String query, int queriesCount) {
 		String address = String.format(PrometheusProperties.URL, hostAddress.getPublicIpAddress(), port);
-		String query = URLEncoder.encode(prometheusQuery.getQuery(), StandardCharsets.UTF_8);
 		String time = Double.toString((System.currentTimeMillis() * 1.0) / 1000.0);
-		URI uri = UriComponentsBuilder
-			.fromHttpUrl(address)
-			.queryParam("query", query)
-			.queryParam("time", time)
-			.build(true).toUri();
-		QueryOutput queryOutput = restTemplate.getForObject(uri, QueryOutput.class);
-		if (queryOutput != null && Objects.equals(queryOutput.getStatus(), "success")) {
-			List<QueryResult> results = queryOutput.getData().getResult();
-			if (!results.isEmpty()) {
-				List<String> values = results.get(0).getValue();
-				if (values.size() == 2) {
-					// values.get(0) is the timestamp
-					value = values.get(1);
+		String form = "query=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&time=" + time;
+		HttpRequest request = HttpRequest.newBuilder(URI.create(address))
+			.timeout(readTimeout)
+			.header("Authorization", authorization)
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.POST(HttpRequest.BodyPublishers.ofString(form))
+			.build();
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+			.thenApply(response -> {
+				try (InputStream body = response.body()) {
+					if (response.statusCode() != 200) {
+						throw new ManagerException("Prometheus replied with status %d", response.statusCode());
+					}
+					return parseQueryOutput(body, queriesCount);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
+
+	/**
+	 * Parses the query output as it is read, keeping only the value of the first series of each query.
+	 * Series without the query label are attributed to the first query, which is the case of a single, uncombined query.
+	 *
+	 * @return the value of each query, by query index, or NaN if the query got no result
+	 */
+	private double[] parseQueryOutput(InputStream body, int queriesCount) throws IOException {
+		double[] values = new double[queriesCount];
+		boolean[] found = new boolean[queriesCount];
+		String status = null;
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new ManagerException("Invalid prometheus query output");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				parser.nextToken();
+				if ("status".equals(fieldName)) {
+					status = parser.getText();
+				}
+				else if ("data".equals(fieldName) && parser.currentToken() == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String dataFieldName = parser.getCurrentName();
+						parser.nextToken();
+						if ("result".equals(dataFieldName) && parser.currentToken() == JsonToken.START_ARRAY) {
+							while (parser.nextToken() == JsonToken.START_OBJECT) {
+								parseSeries(parser, values, found);
+							}
+						}
+						else {
+							parser.skipChildren();
+						}
+					}
+				}
+				else {
+					parser.skipChildren();
 				}
 			}
 		}
-		return value.isEmpty() ? Optional.empty() : Optional.of(Double.parseDouble(value));
+		if (!"success".equals(status)) {
+			throw new ManagerException("Prometheus query failed with status %s", status);
+		}
+		for (int i = 0; i < queriesCount; i++) {
+			if (!found[i]) {
+				values[i] = Double.NaN;
+			}
+		}
+		return values;
+	}
+
+	private void parseSeries(JsonParser parser, double[] values, boolean[] found) throws IOException {
+		int index = 0;
+		String value = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			parser.nextToken();
+			if ("metric".equals(fieldName) && parser.currentToken() == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String label = parser.getCurrentName();
+					parser.nextToken();
+					if (QUERY_LABEL.equals(label)) {
+						index = Integer.parseInt(parser.getText());
+					}
+				}
+			}
+			else if ("value".equals(fieldName) && parser.currentToken() == JsonToken.START_ARRAY) {
+				// [timestamp, "value"]
+				parser.nextToken();
+				parser.nextToken();
+				value = parser.getText();
+				while (parser.currentToken() != JsonToken.END_ARRAY) {
+					parser.nextToken();
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		if (value != null && index >= 0 && index < values.length && !found[index]) {
+			values[index] = parseValue(value);
+			found[index] = true;
+		}
+	}
+
+	private double parseValue(String value) {
+		switch (value) {
+			case "+Inf":
+				return Double.POSITIVE_INFINITY;
+			case "-Inf":
+				return Double.NEGATIVE_INFINITY;
+			default:
+				return Double.parseDouble(value);
+		}
 	}
 
 	public String launchPrometheus(HostAddress hostAddress) {
@@ -22,16 +22,16 @@
  * SOFTWARE.
  */
 
-package pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
 
-@Data
-@NoArgsConstructor
-class QueryOutput {
+public enum Aggregate {
 
-	private String status;
-	private QueryData data;
+	AVG,
+	MIN,
+	MAX,
+	SUM,
+	COUNT,
+	LAST
 
 }
@@ -0,0 +1,258 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * A block of samples compressed as in Facebook's Gorilla: each timestamp is stored as the difference between its delta
+ * and the previous one, and each value as the XOR with the previous value, keeping only its meaningful bits.
+ * Samples taken at a steady period, with values that rarely change, take a couple of bits each instead of 16 bytes.
+ * Values are stored without any loss, and timestamps may go back, e.g. for a late sample.
+ */
+final class SampleBlock {
+
+	private static final int INITIAL_WORDS = 4;
+
+	// the encoded samples, starting at the most significant bit of the first word
+	private long[] bits;
+	private int bitCount;
+	private int size;
+	private long maxTimestamp;
+
+	private long lastTimestamp;
+	private long lastDelta;
+	private long lastValueBits;
+	private int lastLeadingZeros;
+	private int lastTrailingZeros;
+
+	SampleBlock() {
+		this.bits = new long[INITIAL_WORDS];
+		this.maxTimestamp = Long.MIN_VALUE;
+		this.lastLeadingZeros = Integer.MAX_VALUE;
+	}
+
+	void add(long timestamp, double value) {
+		long valueBits = Double.doubleToRawLongBits(value);
+		if (size == 0) {
+			write(timestamp, 64);
+			write(valueBits, 64);
+		}
+		else {
+			long delta = timestamp - lastTimestamp;
+			writeDeltaOfDelta(delta - lastDelta);
+			writeXor(valueBits ^ lastValueBits);
+			lastDelta = delta;
+		}
+		lastTimestamp = timestamp;
+		lastValueBits = valueBits;
+		maxTimestamp = Math.max(maxTimestamp, timestamp);
+		size++;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getMaxTimestamp() {
+		return maxTimestamp;
+	}
+
+	int getBytes() {
+		return bits.length * Long.BYTES;
+	}
+
+	/**
+	 * Releases the unused space of the buffer, once no more samples are added to the block.
+	 */
+	void trim() {
+		bits = Arrays.copyOf(bits, (bitCount + Long.SIZE - 1) / Long.SIZE);
+	}
+
+	void forEach(SampleConsumer consumer) {
+		BitReader reader = new BitReader(bits);
+		long timestamp = 0;
+		long delta = 0;
+		long valueBits = 0;
+		int leadingZeros = 0;
+		int trailingZeros = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0) {
+				timestamp = reader.read(64);
+				valueBits = reader.read(64);
+			}
+			else {
+				delta += readDeltaOfDelta(reader);
+				timestamp += delta;
+				if (reader.read(1) == 1) {
+					if (reader.read(1) == 1) {
+						leadingZeros = (int) reader.read(6);
+						int meaningfulBits = (int) reader.read(6) + 1;
+						trailingZeros = Long.SIZE - leadingZeros - meaningfulBits;
+					}
+					valueBits ^= reader.read(Long.SIZE - leadingZeros - trailingZeros) << trailingZeros;
+				}
+			}
+			consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+		}
+	}
+
+	// zig-zag encoded, so that small negative values also take few bits, behind a prefix with the number of bits
+	private void writeDeltaOfDelta(long deltaOfDelta) {
+		long zigZag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+		if (zigZag == 0) {
+			write(0b0, 1);
+		}
+		else if (zigZag >>> 7 == 0) {
+			write(0b10, 2);
+			write(zigZag, 7);
+		}
+		else if (zigZag >>> 9 == 0) {
+			write(0b110, 3);
+			write(zigZag, 9);
+		}
+		else if (zigZag >>> 12 == 0) {
+			write(0b1110, 4);
+			write(zigZag, 12);
+		}
+		else if (zigZag >>> 32 == 0) {
+			write(0b11110, 5);
+			write(zigZag, 32);
+		}
+		else {
+			write(0b11111, 5);
+			write(zigZag, 64);
+		}
+	}
+
+	private static long readDeltaOfDelta(BitReader reader) {
+		int prefix = 0;
+		while (prefix < 5 && reader.read(1) == 1) {
+			prefix++;
+		}
+		long zigZag;
+		switch (prefix) {
+			case 0:
+				return 0;
+			case 1:
+				zigZag = reader.read(7);
+				break;
+			case 2:
+				zigZag = reader.read(9);
+				break;
+			case 3:
+				zigZag = reader.read(12);
+				break;
+			case 4:
+				zigZag = reader.read(32);
+				break;
+			default:
+				zigZag = reader.read(64);
+				break;
+		}
+		return (zigZag >>> 1) ^ -(zigZag & 1);
+	}
+
+	// the meaningful bits of the xor reuse the window of the previous value when they fit in it
+	private void writeXor(long xor) {
+		if (xor == 0) {
+			write(0b0, 1);
+			return;
+		}
+		int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 63);
+		int trailingZeros = Long.numberOfTrailingZeros(xor);
+		if (leadingZeros >= lastLeadingZeros && trailingZeros >= lastTrailingZeros) {
+			write(0b10, 2);
+			write(xor >>> lastTrailingZeros, Long.SIZE - lastLeadingZeros - lastTrailingZeros);
+		}
+		else {
+			int meaningfulBits = Long.SIZE - leadingZeros - trailingZeros;
+			write(0b11, 2);
+			write(leadingZeros, 6);
+			write(meaningfulBits - 1, 6);
+			write(xor >>> trailingZeros, meaningfulBits);
+			lastLeadingZeros = leadingZeros;
+			lastTrailingZeros = trailingZeros;
+		}
+	}
+
+	// writes the given number of low bits of the value, from 1 to 64
+	private void write(long value, int count) {
+		int words = (bitCount + count + Long.SIZE - 1) / Long.SIZE;
+		if (words > bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(words, 2 * bits.length));
+		}
+		if (count < Long.SIZE) {
+			value &= (1L << count) - 1;
+		}
+		int word = bitCount / Long.SIZE;
+		int free = Long.SIZE - bitCount % Long.SIZE;
+		if (count <= free) {
+			bits[word] |= value << (free - count);
+		}
+		else {
+			int rest = count - free;
+			bits[word] |= value >>> rest;
+			bits[word + 1] |= value << (Long.SIZE - rest);
+		}
+		bitCount += count;
+	}
+
+	@FunctionalInterface
+	interface SampleConsumer {
+
+		void accept(long timestamp, double value);
+
+	}
+
+	private static final class BitReader {
+
+		private final long[] bits;
+		private int position;
+
+		private BitReader(long[] bits) {
+			this.bits = bits;
+		}
+
+		// reads the given number of bits, from 1 to 64
+		private long read(int count) {
+			int word = position / Long.SIZE;
+			int free = Long.SIZE - position % Long.SIZE;
+			long value;
+			if (count <= free) {
+				value = bits[word] >>> (free - count);
+			}
+			else {
+				int rest = count - free;
+				value = (bits[word] << rest) | (bits[word + 1] >>> (Long.SIZE - rest));
+			}
+			position += count;
+			return count < Long.SIZE ? value & ((1L << count) - 1) : value;
+		}
+
+	}
+
+}
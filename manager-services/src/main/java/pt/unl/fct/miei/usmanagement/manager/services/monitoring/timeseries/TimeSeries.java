@@ -0,0 +1,343 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples of a single (entity, field) pair. The most recent samples are kept in compressed blocks (see
+ * {@link SampleBlock}), dropping the oldest block once there are more samples than the raw capacity. Every sample is
+ * also folded into 1 minute, 10 minutes and 1 hour rollups, each of them a ring buffer, so that older ranges can still
+ * be queried, at a coarser resolution, after the raw samples are gone. The rollups start small and grow with the
+ * samples, up to their capacities, so a short-lived series only takes the memory of the samples it got.
+ */
+public class TimeSeries {
+
+	public static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+	public static final long TEN_MINUTES = TimeUnit.MINUTES.toMillis(10);
+	public static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+	private static final int INITIAL_CAPACITY = 8;
+	private static final int BLOCK_SIZE = 128;
+
+	private final int blockSize;
+	private final int maxBlocks;
+	// oldest first, only the last block still gets samples
+	private final ArrayDeque<SampleBlock> blocks;
+	private long lastTimestamp;
+	private long oldestEvicted;
+
+	private final Rollup[] rollups;
+
+	public TimeSeries(int rawCapacity, int minuteCapacity, int tenMinutesCapacity, int hourCapacity) {
+		int capacity = Math.max(rawCapacity, 1);
+		this.blockSize = Math.min(capacity, BLOCK_SIZE);
+		// one more block than needed, so that at least capacity samples are kept after dropping the oldest one
+		this.maxBlocks = (capacity + blockSize - 1) / blockSize + 1;
+		this.blocks = new ArrayDeque<>();
+		this.lastTimestamp = Long.MIN_VALUE;
+		this.oldestEvicted = Long.MIN_VALUE;
+		this.rollups = new Rollup[]{
+			new Rollup(MINUTE, minuteCapacity),
+			new Rollup(TEN_MINUTES, tenMinutesCapacity),
+			new Rollup(HOUR, hourCapacity)
+		};
+	}
+
+	public synchronized void add(long timestamp, double value) {
+		SampleBlock block = blocks.peekLast();
+		if (block == null || block.size() == blockSize) {
+			if (block != null) {
+				block.trim();
+			}
+			if (blocks.size() == maxBlocks) {
+				oldestEvicted = Math.max(oldestEvicted, blocks.removeFirst().getMaxTimestamp());
+			}
+			block = new SampleBlock();
+			blocks.addLast(block);
+		}
+		block.add(timestamp, value);
+		lastTimestamp = timestamp;
+		for (Rollup rollup : rollups) {
+			rollup.add(timestamp, value);
+		}
+	}
+
+	public synchronized boolean isEmpty() {
+		return blocks.isEmpty();
+	}
+
+	public synchronized long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	public synchronized int getRawSize() {
+		return blocks.stream().mapToInt(SampleBlock::size).sum();
+	}
+
+	/**
+	 * Memory taken by the compressed raw samples, in bytes.
+	 */
+	public synchronized int getRawBytes() {
+		return blocks.stream().mapToInt(SampleBlock::getBytes).sum();
+	}
+
+	/**
+	 * Samples between from and to (both inclusive). With a step of 0 the raw samples are returned, otherwise
+	 * the samples are grouped in buckets of step milliseconds, read from the finest resolution that still covers from.
+	 */
+	public synchronized List<TimeSeriesPoint> query(long from, long to, long step, Aggregate aggregate) {
+		if (from > to || blocks.isEmpty()) {
+			return new ArrayList<>();
+		}
+		if (step <= 0) {
+			return raw(from, to);
+		}
+		Map<Long, Bucket> buckets = new TreeMap<>();
+		if (oldestEvicted < from) {
+			blocks.forEach(block -> block.forEach((timestamp, value) -> {
+				if (timestamp >= from && timestamp <= to) {
+					buckets.computeIfAbsent(bucketOf(timestamp, step), k -> new Bucket()).add(timestamp, value);
+				}
+			}));
+		}
+		else {
+			selectRollup(from, step).collect(from, to, step, buckets);
+		}
+		List<TimeSeriesPoint> points = new ArrayList<>(buckets.size());
+		buckets.forEach((timestamp, bucket) -> points.add(new TimeSeriesPoint(timestamp, bucket.get(aggregate))));
+		return points;
+	}
+
+	private List<TimeSeriesPoint> raw(long from, long to) {
+		List<TimeSeriesPoint> points = new ArrayList<>();
+		blocks.forEach(block -> block.forEach((timestamp, value) -> {
+			if (timestamp >= from && timestamp <= to) {
+				points.add(new TimeSeriesPoint(timestamp, value));
+			}
+		}));
+		points.sort(Comparator.comparingLong(TimeSeriesPoint::getTimestamp));
+		return points;
+	}
+
+	// the finest rollup no coarser than step that covers from, otherwise the finest one that covers it,
+	// otherwise the one that goes back the furthest
+	private Rollup selectRollup(long from, long step) {
+		Rollup covering = null;
+		for (Rollup rollup : rollups) {
+			if (rollup.covers(from)) {
+				if (rollup.resolution <= step) {
+					return rollup;
+				}
+				if (covering == null) {
+					covering = rollup;
+				}
+			}
+		}
+		return covering != null ? covering : rollups[rollups.length - 1];
+	}
+
+	private static long bucketOf(long timestamp, long step) {
+		return timestamp - Math.floorMod(timestamp, step);
+	}
+
+	private static int initialCapacity(int capacity) {
+		return Math.min(capacity, INITIAL_CAPACITY);
+	}
+
+	private static int grownCapacity(int length, int capacity) {
+		return (int) Math.min(capacity, 2L * length);
+	}
+
+	// copies the ring buffer, an array of any type, into a new array of the given length, starting at index 0
+	@SuppressWarnings("unchecked")
+	private static <T> T copyOf(T ring, int head, int size, int length) {
+		T copy = (T) Array.newInstance(ring.getClass().getComponentType(), length);
+		int first = Math.min(size, Array.getLength(ring) - head);
+		System.arraycopy(ring, head, copy, 0, first);
+		System.arraycopy(ring, 0, copy, first, size - first);
+		return copy;
+	}
+
+	private static final class Rollup {
+
+		private final long resolution;
+		private final int capacity;
+		private long[] starts;
+		private int[] counts;
+		private double[] sums;
+		private double[] mins;
+		private double[] maxs;
+		private double[] lasts;
+		private long[] lastTimestamps;
+		private int head;
+		private int size;
+		private long oldestEvicted;
+
+		private Rollup(long resolution, int capacity) {
+			this.resolution = resolution;
+			this.capacity = Math.max(capacity, 1);
+			int length = initialCapacity(this.capacity);
+			this.starts = new long[length];
+			this.counts = new int[length];
+			this.sums = new double[length];
+			this.mins = new double[length];
+			this.maxs = new double[length];
+			this.lasts = new double[length];
+			this.lastTimestamps = new long[length];
+			this.oldestEvicted = Long.MIN_VALUE;
+		}
+
+		private void grow() {
+			int length = grownCapacity(size, capacity);
+			starts = copyOf(starts, head, size, length);
+			counts = copyOf(counts, head, size, length);
+			sums = copyOf(sums, head, size, length);
+			mins = copyOf(mins, head, size, length);
+			maxs = copyOf(maxs, head, size, length);
+			lasts = copyOf(lasts, head, size, length);
+			lastTimestamps = copyOf(lastTimestamps, head, size, length);
+			head = 0;
+		}
+
+		private void add(long timestamp, double value) {
+			long start = bucketOf(timestamp, resolution);
+			// samples usually arrive in order, so the bucket is almost always the last one
+			for (int i = size - 1; i >= 0; i--) {
+				int index = (head + i) % starts.length;
+				if (starts[index] == start) {
+					update(index, timestamp, value);
+					return;
+				}
+				if (starts[index] < start) {
+					break;
+				}
+			}
+			if (size > 0 && start < starts[(head + size - 1) % starts.length]) {
+				// late sample for a bucket that was already evicted, or never existed, in the middle of the ring
+				return;
+			}
+			if (size == starts.length && size < capacity) {
+				grow();
+			}
+			int index = (head + size) % starts.length;
+			if (size == starts.length) {
+				oldestEvicted = Math.max(oldestEvicted, starts[head] + resolution - 1);
+				head = (head + 1) % starts.length;
+			}
+			else {
+				size++;
+			}
+			starts[index] = start;
+			counts[index] = 1;
+			sums[index] = value;
+			mins[index] = value;
+			maxs[index] = value;
+			lasts[index] = value;
+			lastTimestamps[index] = timestamp;
+		}
+
+		private void update(int index, long timestamp, double value) {
+			counts[index]++;
+			sums[index] += value;
+			mins[index] = Math.min(mins[index], value);
+			maxs[index] = Math.max(maxs[index], value);
+			if (timestamp >= lastTimestamps[index]) {
+				lasts[index] = value;
+				lastTimestamps[index] = timestamp;
+			}
+		}
+
+		private boolean covers(long from) {
+			return oldestEvicted < from;
+		}
+
+		private void collect(long from, long to, long step, Map<Long, Bucket> buckets) {
+			long bucketStep = Math.max(step, resolution);
+			for (int i = 0; i < size; i++) {
+				int index = (head + i) % starts.length;
+				long start = starts[index];
+				if (start + resolution > from && start <= to) {
+					buckets.computeIfAbsent(bucketOf(start, bucketStep), k -> new Bucket())
+						.merge(counts[index], sums[index], mins[index], maxs[index], lasts[index], lastTimestamps[index]);
+				}
+			}
+		}
+
+	}
+
+	private static final class Bucket {
+
+		private int count;
+		private double sum;
+		private double min = Double.POSITIVE_INFINITY;
+		private double max = Double.NEGATIVE_INFINITY;
+		private double last;
+		private long lastTimestamp = Long.MIN_VALUE;
+
+		private void add(long timestamp, double value) {
+			merge(1, value, value, value, value, timestamp);
+		}
+
+		private void merge(int count, double sum, double min, double max, double last, long lastTimestamp) {
+			this.count += count;
+			this.sum += sum;
+			this.min = Math.min(this.min, min);
+			this.max = Math.max(this.max, max);
+			if (lastTimestamp >= this.lastTimestamp) {
+				this.last = last;
+				this.lastTimestamp = lastTimestamp;
+			}
+		}
+
+		private double get(Aggregate aggregate) {
+			switch (aggregate) {
+				case MIN:
+					return min;
+				case MAX:
+					return max;
+				case SUM:
+					return sum;
+				case COUNT:
+					return count;
+				case LAST:
+					return last;
+				case AVG:
+				default:
+					return sum / count;
+			}
+		}
+
+	}
+
+}
@@ -22,18 +22,15 @@
  * SOFTWARE.
  */
 
-package pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
 
-import java.util.List;
+import lombok.Value;
 
-@Data
-@NoArgsConstructor
-class QueryResult {
+@Value
+public class TimeSeriesPoint {
 
-	private QueryMetric metric;
-	private List<String> value;
+	long timestamp;
+	double value;
 
 }
@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Time range, in epoch milliseconds, of a time-series query. A step of 0 returns the raw samples,
+ * otherwise the samples are grouped in buckets of step milliseconds and reduced with the aggregate.
+ */
+@Getter
+@ToString
+public class TimeSeriesQuery {
+
+	private final long from;
+	private final long to;
+	private final long step;
+	private final Aggregate aggregate;
+
+	public TimeSeriesQuery(Long from, Long to, Long step, Aggregate aggregate) {
+		this.from = from == null ? 0 : from;
+		this.to = to == null ? Long.MAX_VALUE : to;
+		this.step = step == null ? 0 : Math.max(step, 0);
+		this.aggregate = aggregate == null ? Aggregate.AVG : aggregate;
+	}
+
+}
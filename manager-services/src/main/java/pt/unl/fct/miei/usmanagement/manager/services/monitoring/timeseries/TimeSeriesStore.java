@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries;
+
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In memory time-series, one per entity (e.g. a container or a host) and field. The memory of each series is bounded
+ * by the capacities of its ring buffers, and the series of an entity are removed together with the entity.
+ */
+public class TimeSeriesStore<K> {
+
+	// entity -> lower case field -> series
+	private final Map<K, Map<String, FieldSeries>> series;
+	private final MonitoringProperties.Logs capacities;
+
+	public TimeSeriesStore(MonitoringProperties.Logs capacities) {
+		this.series = new ConcurrentHashMap<>();
+		this.capacities = capacities;
+	}
+
+	public void record(K key, String field, long timestamp, double value) {
+		series.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+			.computeIfAbsent(field.toLowerCase(), k -> new FieldSeries(field, newTimeSeries()))
+			.timeSeries.add(timestamp, value);
+	}
+
+	public <T> List<T> query(Predicate<K> filter, TimeSeriesQuery query, PointMapper<K, T> mapper) {
+		List<T> results = new ArrayList<>();
+		series.forEach((key, fields) -> {
+			if (filter.test(key)) {
+				fields.values().forEach(fieldSeries ->
+					fieldSeries.timeSeries.query(query.getFrom(), query.getTo(), query.getStep(), query.getAggregate())
+						.forEach(point -> results.add(mapper.map(key, fieldSeries.field, point))));
+			}
+		});
+		return results;
+	}
+
+	public void remove(K key) {
+		series.remove(key);
+	}
+
+	public void removeIf(Predicate<K> filter) {
+		series.keySet().removeIf(filter);
+	}
+
+	public void clear() {
+		series.clear();
+	}
+
+	public int size() {
+		return series.size();
+	}
+
+	private TimeSeries newTimeSeries() {
+		return new TimeSeries(capacities.getRawCapacity(), capacities.getMinuteCapacity(),
+			capacities.getTenMinutesCapacity(), capacities.getHourCapacity());
+	}
+
+	@FunctionalInterface
+	public interface PointMapper<K, T> {
+
+		T map(K key, String field, TimeSeriesPoint point);
+
+	}
+
+	private static final class FieldSeries {
+
+		private final String field;
+		private final TimeSeries timeSeries;
+
+		private FieldSeries(String field, TimeSeries timeSeries) {
+			this.field = field;
+			this.timeSeries = timeSeries;
+		}
+
+	}
+
+}
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.operators;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -87,6 +86,7 @@ public class OperatorsService {
 		});
 	}
 
+	@Transactional
 	public Operator addOrUpdateOperator(Operator operator) {
 		if (operator.getId() != null) {
 			Optional<Operator> optionalOptional = operators.findById(operator.getId());
@@ -111,13 +111,13 @@ public class OperatorsService {
 	}
 
 	public Operator saveOperator(Operator operator) {
-		log.info("Saving operator {}", ToStringBuilder.reflectionToString(operator));
+		log.info("Saving operator {}", EntityUtils.reflectionToString(operator));
 		return operators.save(operator);
 	}
 
 	public Operator updateOperator(String operatorName, Operator newOperator) {
 		Operator operator = getOperator(operatorName);
-		log.info("Updating operator {} with {}", ToStringBuilder.reflectionToString(operator), ToStringBuilder.reflectionToString(newOperator));
+		log.info("Updating operator {} with {}", EntityUtils.reflectionToString(operator), EntityUtils.reflectionToString(newOperator));
 		EntityUtils.copyValidProperties(newOperator, operator);
 		operator = saveOperator(operator);
 		kafkaService.sendOperator(operator);
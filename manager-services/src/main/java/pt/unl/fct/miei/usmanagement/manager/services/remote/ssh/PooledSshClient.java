@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.remote.ssh;
+
+import lombok.extern.slf4j.Slf4j;
+import net.schmizz.sshj.SSHClient;
+
+import java.io.IOException;
+
+/**
+ * Authenticated ssh connection to a single host, shared by the callers of {@link SshService}.
+ * Each caller opens its own session on the connection, up to a maximum of concurrent sessions.
+ * The connection is closed when evicted and no session is left.
+ */
+@Slf4j
+final class PooledSshClient {
+
+	private final String host;
+	private final SSHClient sshClient;
+	private int sessions;
+	private long lastUsed;
+	private boolean evicted;
+
+	PooledSshClient(String host, SSHClient sshClient) {
+		this.host = host;
+		this.sshClient = sshClient;
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	SSHClient getSshClient() {
+		return sshClient;
+	}
+
+	/**
+	 * @return true if a new session can be opened on this client, false if it is evicted, disconnected or full
+	 */
+	synchronized boolean acquire(int maxSessions) {
+		if (evicted || sessions >= maxSessions || !isConnected()) {
+			return false;
+		}
+		sessions++;
+		lastUsed = System.currentTimeMillis();
+		return true;
+	}
+
+	synchronized void release() {
+		sessions--;
+		lastUsed = System.currentTimeMillis();
+		if (evicted && sessions == 0) {
+			close();
+		}
+	}
+
+	synchronized int getSessions() {
+		return sessions;
+	}
+
+	boolean isConnected() {
+		return sshClient.isConnected() && sshClient.isAuthenticated();
+	}
+
+	synchronized boolean isIdle(long idleTimeout) {
+		return !evicted && sessions == 0 && System.currentTimeMillis() - lastUsed >= idleTimeout;
+	}
+
+	/**
+	 * Marks this client as evicted. It is closed right away if there are no sessions,
+	 * otherwise when the last session is released.
+	 */
+	synchronized void evict() {
+		evicted = true;
+		if (sessions == 0) {
+			close();
+		}
+	}
+
+	private void close() {
+		log.info("Closing ssh client of host {}", host);
+		try {
+			sshClient.close();
+		}
+		catch (IOException e) {
+			log.error("Failed to close ssh client of host {}: {}", host, e.getMessage());
+		}
+	}
+
+}
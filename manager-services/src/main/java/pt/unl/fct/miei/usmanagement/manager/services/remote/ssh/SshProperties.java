@@ -24,7 +24,9 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.remote.ssh;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +37,23 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties("ssh")
 public class SshProperties {
 
+	private final Pool pool;
 	private int connectionTimeout;
 
+	public SshProperties() {
+		this.pool = new Pool();
+	}
+
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	@Setter
+	public static final class Pool {
+
+		private int maxSessions;
+		private int keepAliveInterval;
+		private long idleTimeout;
+		private long evictionPeriod;
+
+	}
+
 }
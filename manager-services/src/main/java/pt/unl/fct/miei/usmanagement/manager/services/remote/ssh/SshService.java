@@ -24,12 +24,14 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.remote.ssh;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.schmizz.sshj.SSHClient;
 import net.schmizz.sshj.common.IOUtils;
 import net.schmizz.sshj.connection.channel.direct.Session;
 import net.schmizz.sshj.sftp.SFTPClient;
 import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import net.schmizz.sshj.userauth.keyprovider.KeyProvider;
 import net.schmizz.sshj.userauth.keyprovider.PKCS8KeyFile;
 import net.schmizz.sshj.xfer.FileSystemFile;
 import org.springframework.context.annotation.Lazy;
@@ -45,12 +47,15 @@ import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsServi
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.edge.EdgeHostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus.PrometheusProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+import pt.unl.fct.miei.usmanagement.manager.util.HitCounters;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -60,6 +65,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -76,11 +83,20 @@ public class SshService {
 	private final int connectionTimeout;
 	private final String awsKeyFilePath;
 	private final Map<String, String> scriptPaths;
+	private final int maxSessions;
+	private final int keepAliveInterval;
+	private final long idleTimeout;
+
+	private final Map<String, List<PooledSshClient>> sshClients;
+	private final Map<String, KeyProvider> keyFiles;
+	private final HitCounters hitCounters;
+	private final SchedulerService schedulerService;
 
 	public SshService(EdgeHostsService edgeHostsService, CloudHostsService cloudHostsService,
 					  @Lazy HostsService hostsService,
 					  SshProperties sshProperties, AwsProperties awsProperties, DockerProperties dockerProperties,
-					  PrometheusProperties prometheusProperties) {
+					  PrometheusProperties prometheusProperties, MeterRegistry meterRegistry,
+					  SchedulerService schedulerService) {
 		this.edgeHostsService = edgeHostsService;
 		this.cloudHostsService = cloudHostsService;
 		this.connectionTimeout = sshProperties.getConnectionTimeout();
@@ -89,6 +105,20 @@ public class SshService {
 		this.scriptPaths = new HashMap<>();
 		this.initScripts(dockerProperties, prometheusProperties);
 		Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+		this.maxSessions = sshProperties.getPool().getMaxSessions();
+		this.keepAliveInterval = sshProperties.getPool().getKeepAliveInterval();
+		this.idleTimeout = sshProperties.getPool().getIdleTimeout();
+		this.sshClients = new ConcurrentHashMap<>();
+		this.keyFiles = new ConcurrentHashMap<>();
+		this.hitCounters = new HitCounters(meterRegistry, "ssh.clients");
+		meterRegistry.gauge("ssh.clients.open", sshClients, clients -> clients.values().stream().mapToInt(List::size).sum());
+		meterRegistry.gauge("ssh.sessions.open", sshClients, clients -> clients.values().stream()
+			.flatMap(List::stream).mapToInt(PooledSshClient::getSessions).sum());
+		this.schedulerService = schedulerService;
+		long evictionPeriod = sshProperties.getPool().getEvictionPeriod();
+		if (evictionPeriod > 0) {
+			schedulerService.schedule("ssh-clients-eviction", evictionPeriod, this::evictIdleSshClients);
+		}
 	}
 
 	private void initScripts(DockerProperties dockerProperties, PrometheusProperties prometheusProperties) {
@@ -147,15 +177,131 @@ public class SshService {
 		sshClient.addHostKeyVerifier(new PromiscuousVerifier());
 		log.info("Logging in to host {}@{} using key {}", username, hostname, publicKeyFile);
 		sshClient.connect(hostname);
-		PKCS8KeyFile keyFile = new PKCS8KeyFile();
-		InputStream is = getClass().getClassLoader().getResourceAsStream(publicKeyFile);
-		Reader reader = new InputStreamReader(is);
-		keyFile.init(reader);
-		sshClient.authPublickey(username, keyFile);
+		try {
+			sshClient.authPublickey(username, getKeyFile(publicKeyFile));
+		}
+		catch (IOException e) {
+			sshClient.close();
+			throw e;
+		}
 		log.info("Successfully logged in to host {}@{}", username, hostname);
 		return sshClient;
 	}
 
+	private KeyProvider getKeyFile(String publicKeyFile) throws IOException {
+		try {
+			return keyFiles.computeIfAbsent(publicKeyFile, this::loadKeyFile);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private KeyProvider loadKeyFile(String publicKeyFile) {
+		InputStream is = getClass().getClassLoader().getResourceAsStream(publicKeyFile);
+		if (is == null) {
+			throw new UncheckedIOException(new IOException("Key file " + publicKeyFile + " not found"));
+		}
+		try (Reader reader = new InputStreamReader(is)) {
+			PKCS8KeyFile keyFile = new PKCS8KeyFile();
+			keyFile.init(reader);
+			// parses the key while the reader is still open, the key pair is then kept by the key file
+			keyFile.getPrivate();
+			return keyFile;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns an authenticated client of the host with room for one more session, reusing a pooled connection
+	 * when possible. The caller must release the client once the session is closed.
+	 */
+	private PooledSshClient acquireSshClient(HostAddress hostAddress) throws IOException {
+		String host = hostAddress.getPublicIpAddress();
+		List<PooledSshClient> hostClients = sshClients.computeIfAbsent(host, h -> new CopyOnWriteArrayList<>());
+		for (PooledSshClient pooledClient : hostClients) {
+			if (pooledClient.acquire(maxSessions)) {
+				hitCounters.hit();
+				return pooledClient;
+			}
+			if (!pooledClient.isConnected()) {
+				removeSshClient(host, pooledClient);
+			}
+		}
+		SSHClient sshClient = initClient(hostAddress);
+		sshClient.getConnection().getKeepAlive().setKeepAliveInterval(keepAliveInterval);
+		PooledSshClient pooledClient = new PooledSshClient(host, sshClient);
+		pooledClient.acquire(maxSessions);
+		sshClients.computeIfAbsent(host, h -> new CopyOnWriteArrayList<>()).add(pooledClient);
+		hitCounters.miss();
+		return pooledClient;
+	}
+
+	private void removeSshClient(String host, PooledSshClient pooledClient) {
+		List<PooledSshClient> hostClients = sshClients.get(host);
+		if (hostClients != null && hostClients.remove(pooledClient)) {
+			pooledClient.evict();
+		}
+	}
+
+	/**
+	 * Runs the callback on a new session of a pooled client of the host.
+	 * If the session can't be opened, e.g. because the pooled connection went stale, it is retried once on a new connection.
+	 */
+	private <T> T executeSession(HostAddress hostAddress, SessionCallback<T> callback) throws IOException {
+		String host = hostAddress.getPublicIpAddress();
+		for (int attempt = 0; ; attempt++) {
+			PooledSshClient pooledClient = acquireSshClient(hostAddress);
+			try {
+				Session session;
+				try {
+					session = pooledClient.getSshClient().startSession();
+				}
+				catch (IOException e) {
+					removeSshClient(host, pooledClient);
+					if (attempt == 0) {
+						log.info("Failed to start session on pooled ssh client of host {}: {}... retrying", host, e.getMessage());
+						continue;
+					}
+					throw e;
+				}
+				try (session) {
+					return callback.execute(session);
+				}
+				finally {
+					if (!pooledClient.isConnected()) {
+						removeSshClient(host, pooledClient);
+					}
+				}
+			}
+			finally {
+				pooledClient.release();
+			}
+		}
+	}
+
+	private void evictIdleSshClients() {
+		sshClients.forEach((host, hostClients) -> hostClients.forEach(pooledClient -> {
+			if ((pooledClient.isIdle(idleTimeout) || !pooledClient.isConnected()) && hostClients.remove(pooledClient)) {
+				log.info("Evicting idle ssh client of host {}", host);
+				pooledClient.evict();
+			}
+		}));
+		sshClients.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+	}
+
+	public void closeSshClients() {
+		schedulerService.cancel("ssh-clients-eviction");
+		sshClients.keySet().forEach(host -> {
+			List<PooledSshClient> hostClients = sshClients.remove(host);
+			if (hostClients != null) {
+				hostClients.forEach(PooledSshClient::evict);
+			}
+		});
+	}
+
 	private SSHClient initClient(HostAddress hostAddress, char[] password) throws IOException {
 		String hostname = hostAddress.getPublicIpAddress();
 		String username = hostAddress.getUsername();
@@ -175,19 +321,31 @@ public class SshService {
 	}
 
 	public void uploadFile(HostAddress hostAddress, String filename) {
-		try (SSHClient sshClient = initClient(hostAddress); SFTPClient sftpClient = sshClient.newSFTPClient()) {
-			String scriptPath = scriptPaths.get(filename);
-			if (scriptPath == null) {
-				throw new EntityNotFoundException(File.class, "name", filename);
+		String scriptPath = scriptPaths.get(filename);
+		if (scriptPath == null) {
+			throw new EntityNotFoundException(File.class, "name", filename);
+		}
+		PooledSshClient pooledClient = null;
+		try {
+			pooledClient = acquireSshClient(hostAddress);
+			try (SFTPClient sftpClient = pooledClient.getSshClient().newSFTPClient()) {
+				Path source = Paths.get(this.getClass().getResource(File.separator).getPath());
+				File file = Paths.get(source.toAbsolutePath() + File.separator + scriptPath).toFile();
+				log.info("Transferring file {} to host {}", filename, hostAddress);
+				sftpClient.put(new FileSystemFile(file), filename);
 			}
-			Path source = Paths.get(this.getClass().getResource(File.separator).getPath());
-			File file = Paths.get(source.toAbsolutePath() + File.separator + scriptPath).toFile();
-			log.info("Transferring file {} to host {}", filename, hostAddress);
-			sftpClient.put(new FileSystemFile(file), filename);
 		}
 		catch (IOException e) {
+			if (pooledClient != null && !pooledClient.isConnected()) {
+				removeSshClient(hostAddress.getPublicIpAddress(), pooledClient);
+			}
 			throw new ManagerException("Failed to transfer file %s to %s: %s", filename, hostAddress.toSimpleString(), e.getMessage());
 		}
+		finally {
+			if (pooledClient != null) {
+				pooledClient.release();
+			}
+		}
 	}
 
 	public SshCommandResult executeCommandSync(String command, HostAddress hostAddress) {
@@ -213,8 +371,8 @@ public class SshService {
 	}
 
 	public SshCommandResult executeCommand(String command, HostAddress hostAddress, long timeout) {
-		try (SSHClient sshClient = initClient(hostAddress)) {
-			return executeCommand(command, hostAddress, sshClient, timeout);
+		try {
+			return executeSession(hostAddress, session -> executeCommand(session, command, hostAddress, timeout));
 		}
 		catch (IOException e) {
 			log.error("Failed to execute command {} on host {}: {}", command, hostAddress.toSimpleString(), e.getMessage());
@@ -280,8 +438,8 @@ public class SshService {
 
 	public boolean hasConnection(HostAddress hostAddress) {
 		log.info("Checking connectivity to {}", hostAddress);
-		try (SSHClient client = initClient(hostAddress);
-			 Session ignored = client.startSession()) {
+		try {
+			executeSession(hostAddress, session -> true);
 			log.info("Successfully connected to {}", hostAddress);
 			return true;
 		}
@@ -300,4 +458,11 @@ public class SshService {
 		return scriptPaths.keySet();
 	}
 
+	@FunctionalInterface
+	private interface SessionCallback<T> {
+
+		T execute(Session session) throws IOException;
+
+	}
+
 }
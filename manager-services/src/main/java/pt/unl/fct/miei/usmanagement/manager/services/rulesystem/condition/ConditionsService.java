@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.condition;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -94,7 +93,7 @@ public class ConditionsService {
 
 	public Condition updateCondition(String conditionName, Condition newCondition) {
 		Condition condition = getCondition(conditionName);
-		log.info("Updating condition {} with {}", ToStringBuilder.reflectionToString(condition), ToStringBuilder.reflectionToString(newCondition));
+		log.info("Updating condition {} with {}", EntityUtils.reflectionToString(condition), EntityUtils.reflectionToString(newCondition));
 		EntityUtils.copyValidProperties(newCondition, condition);
 		condition.setField(fieldsService.getField(condition.getField().getName()));
 		condition = conditions.save(condition);
@@ -103,7 +102,7 @@ public class ConditionsService {
 	}
 
 	public Condition saveCondition(Condition condition) {
-		log.info("Saving condition {}", ToStringBuilder.reflectionToString(condition));
+		log.info("Saving condition {}", EntityUtils.reflectionToString(condition));
 		return conditions.save(condition);
 	}
 
@@ -115,6 +114,7 @@ public class ConditionsService {
 		});
 	}
 
+	@Transactional
 	public Condition addOrUpdateCondition(Condition condition) {
 		if (condition.getId() != null) {
 			Optional<Condition> optionalCondition = conditions.findById(condition.getId());
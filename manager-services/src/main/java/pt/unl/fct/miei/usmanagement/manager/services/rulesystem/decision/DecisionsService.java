@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -128,6 +127,7 @@ public class DecisionsService {
 		});
 	}
 
+	@Transactional
 	public Decision addOrUpdateDecision(Decision decision) {
 		if (decision.getId() != null) {
 			Optional<Decision> decisionOptional = decisions.findById(decision.getId());
@@ -163,7 +163,7 @@ public class DecisionsService {
 	}
 
 	public pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.Decision saveDecision(Decision decision) {
-		log.info("Saving decision {}", ToStringBuilder.reflectionToString(decision));
+		log.info("Saving decision {}", EntityUtils.reflectionToString(decision));
 		return decisions.save(decision);
 	}
 
@@ -221,7 +221,7 @@ public class DecisionsService {
 	}
 
 	public ServiceDecision saveServiceDecision(ServiceDecision serviceDecision) {
-		log.info("Saving service decision: {}", ToStringBuilder.reflectionToString(serviceDecision));
+		log.info("Saving service decision: {}", EntityUtils.reflectionToString(serviceDecision));
 		return serviceDecisions.save(serviceDecision);
 	}
 
@@ -234,7 +234,7 @@ public class DecisionsService {
 	}
 
 	public HostDecision saveHostDecision(HostDecision hostDecision) {
-		log.info("Saving host decision: {}", ToStringBuilder.reflectionToString(hostDecision));
+		log.info("Saving host decision: {}", EntityUtils.reflectionToString(hostDecision));
 		return hostDecisions.save(hostDecision);
 	}
 
@@ -15,10 +15,12 @@ public class MonitoringProperties {
 
 	private final MonitoringProperties.Hosts hosts;
 	private final MonitoringProperties.Services services;
+	private final MonitoringProperties.Logs logs;
 
 	public MonitoringProperties() {
 		this.hosts = new MonitoringProperties.Hosts();
 		this.services = new MonitoringProperties.Services();
+		this.logs = new MonitoringProperties.Logs();
 	}
 
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -31,6 +33,9 @@ public class MonitoringProperties {
 		private double maximumCpuPercentage;
 		private int overworkEventCount;
 		private int underworkEventCount;
+		private long flushPeriod;
+		private long capacityRefreshPeriod;
+		private long capacityReservationTtl;
 
 	}
 
@@ -43,6 +48,19 @@ public class MonitoringProperties {
 		private int replicateEventCount;
 		private int migrateEventCount;
 		private int stopEventCount;
+		private long flushPeriod;
+
+	}
+
+	@NoArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	@Setter
+	public static final class Logs {
+
+		private int rawCapacity;
+		private int minuteCapacity;
+		private int tenMinutesCapacity;
+		private int hourCapacity;
 
 	}
 }
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -87,6 +86,11 @@ public class AppRulesService {
 			new EntityNotFoundException(AppRule.class, "name", name));
 	}
 
+	public AppRule getRuleAndEntities(String name) {
+		return rules.findByNameWithEntities(name).orElseThrow(() ->
+			new EntityNotFoundException(AppRule.class, "name", name));
+	}
+
 	public AppRule addRule(AppRule rule) {
 		checkRuleDoesntExist(rule);
 		rule = saveRule(rule);
@@ -97,8 +101,9 @@ public class AppRulesService {
 		return rule;
 	}
 
+	@Transactional
 	public AppRule updateRule(String ruleName, AppRule newRule) {
-		log.info("Updating rule {} with {}", ruleName, ToStringBuilder.reflectionToString(newRule));
+		log.info("Updating rule {} with {}", ruleName, EntityUtils.reflectionToString(newRule));
 		AppRule rule = getRule(ruleName);
 		EntityUtils.copyValidProperties(newRule, rule);
 		rule = saveRule(rule);
@@ -107,24 +112,27 @@ public class AppRulesService {
 	}
 
 	public AppRule saveRule(AppRule appRule) {
-		log.info("Saving appRule {}", ToStringBuilder.reflectionToString(appRule));
+		log.info("Saving appRule {}", EntityUtils.reflectionToString(appRule));
 		AppRule rule = rules.save(appRule);
 		serviceRulesService.setLastUpdateServiceRules();
 		return rule;
 	}
 
+	@Transactional
 	public void deleteRule(Long id) {
 		log.info("Deleting rule {}", id);
 		AppRule rule = getRule(id);
 		deleteRule(rule, false);
 	}
 
+	@Transactional
 	public void deleteRule(String ruleName) {
 		log.info("Deleting rule {}", ruleName);
 		AppRule rule = getRule(ruleName);
 		deleteRule(rule, true);
 	}
 
+	@Transactional
 	public void deleteRule(AppRule rule, boolean kafka) {
 		rule.removeAssociations();
 		rules.delete(rule);
@@ -149,10 +157,11 @@ public class AppRulesService {
 		return rules.getConditions(ruleName);
 	}
 
+	@Transactional
 	public void addCondition(String ruleName, String conditionName) {
 		log.info("Adding condition {} to rule {}", conditionName, ruleName);
 		Condition condition = conditionsService.getCondition(conditionName);
-		AppRule rule = getRule(ruleName);
+		AppRule rule = getRuleAndEntities(ruleName);
 		AppRuleCondition appRuleCondition = AppRuleCondition.builder()
 			.id(new RuleConditionKey(rule.getId(), condition.getId()))
 			.rule(rule).condition(condition).build();
@@ -161,17 +170,20 @@ public class AppRulesService {
 		kafkaService.sendAppRule(rule);
 	}
 
+	@Transactional
 	public void addConditions(String ruleName, List<String> conditions) {
 		conditions.forEach(condition -> addCondition(ruleName, condition));
 	}
 
+	@Transactional
 	public void removeCondition(String ruleName, String conditionName) {
 		removeConditions(ruleName, List.of(conditionName));
 	}
 
+	@Transactional
 	public void removeConditions(String ruleName, List<String> conditionNames) {
 		log.info("Removing conditions {}", conditionNames);
-		AppRule rule = getRule(ruleName);
+		AppRule rule = getRuleAndEntities(ruleName);
 		rule.getConditions().removeIf(condition -> conditionNames.contains(condition.getCondition().getName()));
 		rule = saveRule(rule);
 		kafkaService.sendAppRule(rule);
@@ -188,13 +200,15 @@ public class AppRulesService {
 		return rules.getApps(ruleName);
 	}
 
+	@Transactional
 	public void addApp(String ruleName, String appName) {
 		addApps(ruleName, List.of(appName));
 	}
 
+	@Transactional
 	public void addApps(String ruleName, List<String> appNames) {
 		log.info("Adding apps {} to rule {}", appNames, ruleName);
-		AppRule rule = getRule(ruleName);
+		AppRule rule = getRuleAndEntities(ruleName);
 		appNames.forEach(appName -> {
 			App app = appsService.getApp(appName);
 			app.addRule(rule);
@@ -203,13 +217,15 @@ public class AppRulesService {
 		kafkaService.sendAppRule(appRule);
 	}
 
+	@Transactional
 	public void removeApp(String ruleName, String appName) {
 		removeApps(ruleName, List.of(appName));
 	}
 
+	@Transactional
 	public void removeApps(String ruleName, List<String> appNames) {
 		log.info("Removing apps {} from rule {}", appNames, ruleName);
-		AppRule rule = getRule(ruleName);
+		AppRule rule = getRuleAndEntities(ruleName);
 		appNames.forEach(appName -> appsService.getApp(appName).removeRule(rule));
 		AppRule appRule = saveRule(rule);
 		kafkaService.sendAppRule(appRule);
@@ -236,6 +252,7 @@ public class AppRulesService {
 		});
 	}
 
+	@Transactional
 	public AppRule addOrUpdateRule(AppRule appRule) {
 		if (appRule.getId() != null) {
 			Optional<AppRule> optionalRule = rules.findById(appRule.getId());
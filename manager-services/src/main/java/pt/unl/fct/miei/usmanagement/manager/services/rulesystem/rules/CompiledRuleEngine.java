@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ContainerEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.Event;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.Decision;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.HostDecisionResult;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.ServiceDecisionResult;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rule engine for the threshold rules, without drools.
+ * Each rule is a conjunction of field comparisons, so the rules of a service or host are compiled into flat arrays
+ * and evaluated directly on the fields of the event. The rule templates are not used.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "rules.engine", havingValue = "compiled")
+public class CompiledRuleEngine implements RuleEngine {
+
+	private static final String SERVICE_RULES = "service";
+	private static final String HOST_RULES = "host";
+
+	private final ConcurrentMap<String, Long> lastUpdateServiceRules;
+	private final ConcurrentMap<HostAddress, Long> lastUpdateHostRules;
+	private final ConcurrentMap<String, CompiledRules> serviceRules;
+	private final ConcurrentMap<HostAddress, CompiledRules> hostRules;
+	private final Timer serviceRulesCompileTimer;
+	private final Timer hostRulesCompileTimer;
+
+	public CompiledRuleEngine(MeterRegistry meterRegistry) {
+		this.lastUpdateServiceRules = new ConcurrentHashMap<>();
+		this.lastUpdateHostRules = new ConcurrentHashMap<>();
+		this.serviceRules = new ConcurrentHashMap<>();
+		this.hostRules = new ConcurrentHashMap<>();
+		this.serviceRulesCompileTimer = meterRegistry.timer("rules.compiler.session", Tags.of("rules", SERVICE_RULES));
+		this.hostRulesCompileTimer = meterRegistry.timer("rules.compiler.session", Tags.of("rules", HOST_RULES));
+	}
+
+	@Override
+	public boolean shouldCreateNewServiceRuleSession(String serviceName, long lastUpdate) {
+		return RuleEngine.advanceLastUpdate(lastUpdateServiceRules, serviceName, lastUpdate);
+	}
+
+	@Override
+	public boolean shouldCreateNewHostRuleSession(HostAddress hostAddress, long lastUpdate) {
+		return RuleEngine.advanceLastUpdate(lastUpdateHostRules, hostAddress, lastUpdate);
+	}
+
+	@Override
+	public void createNewServiceRuleSession(String serviceName, Event event, List<Rule> rules, String templateFile) {
+		CompiledRules compiledRules = serviceRulesCompileTimer.record(() -> new CompiledRules(rules));
+		serviceRules.put(serviceName, compiledRules);
+		log.info("Compiled {} rules of service {}", compiledRules.size(), serviceName);
+	}
+
+	@Override
+	public void createNewHostRuleSession(HostAddress hostAddress, Event event, List<Rule> rules, String templateFile) {
+		CompiledRules compiledRules = hostRulesCompileTimer.record(() -> new CompiledRules(rules));
+		hostRules.put(hostAddress, compiledRules);
+		log.info("Compiled {} rules of host {}", compiledRules.size(), hostAddress.toSimpleString());
+	}
+
+	@Override
+	public ServiceDecisionResult evaluate(HostAddress hostAddress, ContainerEvent event) {
+		Decision containerDecision = new Decision();
+		String serviceName = event.getServiceName();
+		CompiledRules compiledRules = serviceRules.get(serviceName);
+		long ruleId = 0;
+		if (compiledRules == null) {
+			log.warn("No rules compiled for service {}", serviceName);
+		}
+		else {
+			ruleId = compiledRules.evaluate(compiledRules.toFieldVector(event.getFields()), containerDecision);
+		}
+		return new ServiceDecisionResult(hostAddress, event.getContainerId(), event.getServiceName(),
+			containerDecision.getDecision(), ruleId, event.getFields(), containerDecision.getPriority());
+	}
+
+	@Override
+	public HostDecisionResult evaluate(HostEvent event) {
+		Decision hostDecision = new Decision();
+		HostAddress hostAddress = event.getHostAddress();
+		CompiledRules compiledRules = hostRules.get(hostAddress);
+		long ruleId = 0;
+		if (compiledRules == null) {
+			log.warn("No rules compiled for host {}", hostAddress.toSimpleString());
+		}
+		else {
+			ruleId = compiledRules.evaluate(compiledRules.toFieldVector(event.getFields()), hostDecision);
+		}
+		return new HostDecisionResult(hostAddress, hostDecision.getDecision(), ruleId, event.getFields(), hostDecision.getPriority());
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import pt.unl.fct.miei.usmanagement.manager.exceptions.ManagerException;
+import pt.unl.fct.miei.usmanagement.manager.operators.OperatorEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.condition.Condition;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.Decision;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules of one service or host, compiled into flat arrays.
+ * The rules are kept in firing order: decreasing priority, then the order they were given. Drools breaks ties between
+ * rules of the same salience by the order they were loaded into the kie base, which is the order they were given for
+ * the rules that are new to the shared kie base of {@link DroolsService}, but not for a rule that was already loaded
+ * for another session, which keeps its earlier place. The conditions are comparisons of a slot of a field vector
+ * against a constant.
+ * Fields missing from the event are NaN in the vector, so only != holds for them, as with null in drools.
+ */
+final class CompiledRules {
+
+	private static final byte EQUAL_TO = 0;
+	private static final byte NOT_EQUAL_TO = 1;
+	private static final byte GREATER_THAN = 2;
+	private static final byte LESS_THAN = 3;
+	private static final byte GREATER_THAN_OR_EQUAL_TO = 4;
+	private static final byte LESS_THAN_OR_EQUAL_TO = 5;
+
+	private final String[] fieldNames;
+	// conditions of rule i are [conditionsStart[i], conditionsStart[i + 1])
+	private final int[] conditionsStart;
+	private final int[] conditionFields;
+	private final byte[] conditionOperators;
+	private final double[] conditionValues;
+	private final long[] ruleIds;
+	private final RuleDecisionEnum[] decisions;
+	private final int[] priorities;
+
+	CompiledRules(List<Rule> rules) {
+		List<Rule> sortedRules = new ArrayList<>(rules);
+		// the sort is stable, so rules of the same priority keep the order they were given
+		sortedRules.sort(Comparator.comparingInt(Rule::getPriority).reversed());
+		int rulesCount = sortedRules.size();
+		int conditionsCount = sortedRules.stream().mapToInt(rule -> rule.getConditions().size()).sum();
+		Map<String, Integer> fieldIndexes = new HashMap<>();
+		List<String> fieldNames = new ArrayList<>();
+		this.conditionsStart = new int[rulesCount + 1];
+		this.conditionFields = new int[conditionsCount];
+		this.conditionOperators = new byte[conditionsCount];
+		this.conditionValues = new double[conditionsCount];
+		this.ruleIds = new long[rulesCount];
+		this.decisions = new RuleDecisionEnum[rulesCount];
+		this.priorities = new int[rulesCount];
+		int condition = 0;
+		for (int i = 0; i < rulesCount; i++) {
+			Rule rule = sortedRules.get(i);
+			conditionsStart[i] = condition;
+			for (Condition ruleCondition : rule.getConditions()) {
+				conditionFields[condition] = fieldIndexes.computeIfAbsent(ruleCondition.getFieldName(), fieldName -> {
+					fieldNames.add(fieldName);
+					return fieldNames.size() - 1;
+				});
+				conditionOperators[condition] = compile(ruleCondition.getOperator());
+				Double value = ruleCondition.getValue();
+				conditionValues[condition] = value == null ? Double.NaN : value;
+				condition++;
+			}
+			ruleIds[i] = rule.getId();
+			decisions[i] = rule.getDecision();
+			priorities[i] = rule.getPriority();
+		}
+		conditionsStart[rulesCount] = condition;
+		this.fieldNames = fieldNames.toArray(new String[0]);
+	}
+
+	double[] toFieldVector(Map<String, Double> fields) {
+		double[] vector = new double[fieldNames.length];
+		for (int i = 0; i < fieldNames.length; i++) {
+			Double value = fields.get(fieldNames[i]);
+			vector[i] = value == null ? Double.NaN : value;
+		}
+		return vector;
+	}
+
+	/**
+	 * Sets the decision and priority of the last rule that fires, and returns the id of the first one, or 0 if none fires.
+	 */
+	long evaluate(double[] vector, Decision decision) {
+		int first = 0;
+		while (first < ruleIds.length && !matches(first, vector)) {
+			first++;
+		}
+		if (first == ruleIds.length) {
+			return 0;
+		}
+		int last = ruleIds.length - 1;
+		while (last > first && !matches(last, vector)) {
+			last--;
+		}
+		decision.setDecision(decisions[last]);
+		decision.setPriority(priorities[last]);
+		return ruleIds[first];
+	}
+
+	int size() {
+		return ruleIds.length;
+	}
+
+	private boolean matches(int rule, double[] vector) {
+		for (int condition = conditionsStart[rule]; condition < conditionsStart[rule + 1]; condition++) {
+			double field = vector[conditionFields[condition]];
+			double value = conditionValues[condition];
+			boolean matches;
+			switch (conditionOperators[condition]) {
+				case EQUAL_TO:
+					matches = field == value;
+					break;
+				case NOT_EQUAL_TO:
+					matches = field != value;
+					break;
+				case GREATER_THAN:
+					matches = field > value;
+					break;
+				case LESS_THAN:
+					matches = field < value;
+					break;
+				case GREATER_THAN_OR_EQUAL_TO:
+					matches = field >= value;
+					break;
+				case LESS_THAN_OR_EQUAL_TO:
+					matches = field <= value;
+					break;
+				default:
+					matches = false;
+			}
+			if (!matches) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte compile(OperatorEnum operator) {
+		switch (operator) {
+			case EQUAL_TO:
+				return EQUAL_TO;
+			case NOT_EQUAL_TO:
+				return NOT_EQUAL_TO;
+			case GREATER_THAN:
+				return GREATER_THAN;
+			case LESS_THAN:
+				return LESS_THAN;
+			case GREATER_THAN_OR_EQUAL_TO:
+				return GREATER_THAN_OR_EQUAL_TO;
+			case LESS_THAN_OR_EQUAL_TO:
+				return LESS_THAN_OR_EQUAL_TO;
+			default:
+				throw new ManagerException("Unsupported operator %s", operator);
+		}
+	}
+
+}
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -84,6 +83,11 @@ public class ContainerRulesService {
 			new EntityNotFoundException(ContainerRule.class, "name", name));
 	}
 
+	public ContainerRule getRuleAndEntities(String name) {
+		return rules.findByNameWithEntities(name).orElseThrow(() ->
+			new EntityNotFoundException(ContainerRule.class, "name", name));
+	}
+
 	public ContainerRule addRule(ContainerRule rule) {
 		checkRuleDoesntExist(rule);
 		rule = saveRule(rule);
@@ -94,8 +98,9 @@ public class ContainerRulesService {
 		return rule;
 	}
 
+	@Transactional
 	public ContainerRule updateRule(String ruleName, ContainerRule newRule) {
-		log.info("Updating rule {} with {}", ruleName, ToStringBuilder.reflectionToString(newRule));
+		log.info("Updating rule {} with {}", ruleName, EntityUtils.reflectionToString(newRule));
 		ContainerRule rule = getRule(ruleName);
 		EntityUtils.copyValidProperties(newRule, rule);
 		rule = saveRule(rule);
@@ -104,24 +109,27 @@ public class ContainerRulesService {
 	}
 
 	public ContainerRule saveRule(ContainerRule containerRule) {
-		log.info("Saving containerRule {}", ToStringBuilder.reflectionToString(containerRule));
+		log.info("Saving containerRule {}", EntityUtils.reflectionToString(containerRule));
 		containerRule = rules.save(containerRule);
 		serviceRulesService.setLastUpdateServiceRules();
 		return containerRule;
 	}
 
+	@Transactional
 	public void deleteRule(Long id) {
 		log.info("Deleting rule {}", id);
 		ContainerRule rule = getRule(id);
 		deleteRule(rule, false);
 	}
 
+	@Transactional
 	public void deleteRule(String ruleName) {
 		log.info("Deleting rule {}", ruleName);
 		ContainerRule rule = getRule(ruleName);
 		deleteRule(rule, true);
 	}
 
+	@Transactional
 	public void deleteRule(ContainerRule rule, boolean kafka) {
 		rule.removeAssociations();
 		rules.delete(rule);
@@ -142,10 +150,11 @@ public class ContainerRulesService {
 		return rules.getConditions(ruleName);
 	}
 
+	@Transactional
 	public void addCondition(String ruleName, String conditionName) {
 		log.info("Adding condition {} to rule {}", conditionName, ruleName);
 		Condition condition = conditionsService.getCondition(conditionName);
-		ContainerRule rule = getRule(ruleName);
+		ContainerRule rule = getRuleAndEntities(ruleName);
 		ContainerRuleCondition containerRuleCondition = ContainerRuleCondition.builder()
 			.id(new RuleConditionKey(rule.getId(), condition.getId()))
 			.rule(rule).condition(condition).build();
@@ -154,17 +163,20 @@ public class ContainerRulesService {
 		kafkaService.sendContainerRule(rule);
 	}
 
+	@Transactional
 	public void addConditions(String ruleName, List<String> conditions) {
 		conditions.forEach(condition -> addCondition(ruleName, condition));
 	}
 
+	@Transactional
 	public void removeCondition(String ruleName, String conditionName) {
 		removeConditions(ruleName, List.of(conditionName));
 	}
 
+	@Transactional
 	public void removeConditions(String ruleName, List<String> conditionNames) {
 		log.info("Removing conditions {}", conditionNames);
-		ContainerRule rule = getRule(ruleName);
+		ContainerRule rule = getRuleAndEntities(ruleName);
 		rule.getConditions().removeIf(condition -> conditionNames.contains(condition.getCondition().getName()));
 		rule = saveRule(rule);
 		kafkaService.sendContainerRule(rule);
@@ -181,29 +193,33 @@ public class ContainerRulesService {
 		return rules.getContainers(ruleName);
 	}
 
+	@Transactional
 	public void addContainer(String ruleName, String containerId) {
 		addContainers(ruleName, List.of(containerId));
 	}
 
+	@Transactional
 	public void addContainers(String ruleName, List<String> containerIds) {
 		log.info("Adding containers {} to rule {}", containerIds, ruleName);
-		ContainerRule rule = getRule(ruleName);
+		ContainerRule rule = getRuleAndEntities(ruleName);
 		containerIds.forEach(containerId -> {
-			Container container = containersService.getContainer(containerId);
+			Container container = containersService.getContainerAndEntities(containerId);
 			container.addRule(rule);
 		});
 		ContainerRule containerRule = saveRule(rule);
 		kafkaService.sendContainerRule(containerRule);
 	}
 
+	@Transactional
 	public void removeContainer(String ruleName, String containerId) {
 		removeContainers(ruleName, List.of(containerId));
 	}
 
+	@Transactional
 	public void removeContainers(String ruleName, List<String> containerIds) {
 		log.info("Removing containers {} from rule {}", containerIds, ruleName);
-		ContainerRule rule = getRule(ruleName);
-		containerIds.forEach(containerId -> containersService.getContainer(containerId).removeRule(rule));
+		ContainerRule rule = getRuleAndEntities(ruleName);
+		containerIds.forEach(containerId -> containersService.getContainerAndEntities(containerId).removeRule(rule));
 		ContainerRule containerRule = saveRule(rule);
 		kafkaService.sendContainerRule(containerRule);
 	}
@@ -229,6 +245,7 @@ public class ContainerRulesService {
 		});
 	}
 
+	@Transactional
 	public ContainerRule addOrUpdateRule(ContainerRule containerRule) {
 		if (containerRule.getId() != null) {
 			Optional<ContainerRule> optionalRule = rules.findById(containerRule.getId());
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.core.impl.KnowledgeBaseFactory;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.builder.KnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.io.ResourceFactory;
+import pt.unl.fct.miei.usmanagement.manager.util.HitCounters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Kie base shared by every rule session of one kind (service or host rules).
+ * Each rule is compiled on its own and kept under its name, which carries the rule id and a hash of its content,
+ * so a rule is only compiled again when it changes. Sessions only see their own rules through an agenda filter.
+ */
+@Slf4j
+final class DroolsRuleBase {
+
+	@Getter
+	private final String name;
+	private final InternalKnowledgeBase kieBase;
+	// rule name -> package name
+	private final Map<String, String> compiledRules;
+	private final HitCounters hitCounters;
+	private final Timer compileTimer;
+
+	DroolsRuleBase(String name, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.kieBase = KnowledgeBaseFactory.newKnowledgeBase();
+		this.compiledRules = new HashMap<>();
+		Tags tags = Tags.of("rules", name);
+		this.hitCounters = new HitCounters(meterRegistry, "rules.compiler", tags);
+		meterRegistry.gauge("rules.compiler.compiled", tags, compiledRules, Map::size);
+		this.compileTimer = meterRegistry.timer("rules.compiler.compile", tags);
+	}
+
+	/**
+	 * Makes sure every rule is part of the kie base, compiling only those that are not cached yet.
+	 *
+	 * @param drls the drl of each rule, by rule name, generated only when the rule is not cached
+	 */
+	synchronized void addRules(Map<String, Supplier<String>> drls) {
+		List<KiePackage> packages = new ArrayList<>();
+		drls.forEach((ruleName, drl) -> {
+			if (compiledRules.containsKey(ruleName)) {
+				hitCounters.hit();
+				return;
+			}
+			hitCounters.miss();
+			Collection<KiePackage> rulePackages = compileTimer.record(() -> compile(ruleName, drl.get()));
+			if (rulePackages != null && !rulePackages.isEmpty()) {
+				packages.addAll(rulePackages);
+				compiledRules.put(ruleName, rulePackages.iterator().next().getName());
+			}
+		});
+		if (!packages.isEmpty()) {
+			kieBase.addPackages(packages);
+			log.info("Added {} compiled {} rules to the kie base", packages.size(), name);
+		}
+	}
+
+	/**
+	 * Removes from the kie base the rules that are no longer used by any session.
+	 */
+	synchronized void retainRules(Set<String> ruleNames) {
+		Set<String> removedRules = new HashSet<>(compiledRules.keySet());
+		removedRules.removeAll(ruleNames);
+		for (String ruleName : removedRules) {
+			String packageName = compiledRules.remove(ruleName);
+			if (kieBase.getRule(packageName, ruleName) != null) {
+				kieBase.removeRule(packageName, ruleName);
+			}
+		}
+		if (!removedRules.isEmpty()) {
+			log.info("Removed {} unused {} rules from the kie base", removedRules.size(), name);
+		}
+	}
+
+	StatelessKieSession newStatelessKieSession() {
+		return kieBase.newStatelessKieSession();
+	}
+
+	private Collection<KiePackage> compile(String ruleName, String drl) {
+		KnowledgeBuilder knowledgeBuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+		knowledgeBuilder.add(ResourceFactory.newByteArrayResource(drl.getBytes(StandardCharsets.UTF_8)), ResourceType.DRL);
+		if (knowledgeBuilder.hasErrors()) {
+			log.error("Failed to compile rule {}: {}", ruleName, knowledgeBuilder.getErrors());
+			return null;
+		}
+		return knowledgeBuilder.getKnowledgePackages();
+	}
+
+}
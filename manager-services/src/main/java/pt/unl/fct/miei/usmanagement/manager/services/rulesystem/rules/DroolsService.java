@@ -24,19 +24,21 @@
 
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.drools.core.event.DefaultAgendaEventListener;
+import org.drools.core.command.runtime.rule.FireAllRulesCommand;
 import org.drools.template.ObjectDataCompiler;
 import org.kie.api.KieServices;
-import org.kie.api.builder.KieFileSystem;
-import org.kie.api.builder.ReleaseId;
-import org.kie.api.event.rule.AfterMatchFiredEvent;
-import org.kie.api.event.rule.AgendaEventListener;
-import org.kie.api.io.Resource;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
 import org.kie.api.runtime.StatelessKieSession;
-import org.kie.api.runtime.rule.Match;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
@@ -52,97 +54,146 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-public class DroolsService {
+@ConditionalOnProperty(name = "rules.engine", havingValue = "drools", matchIfMissing = true)
+public class DroolsService implements RuleEngine {
 
-	private final Map<String, Long> lastUpdateServiceRules;
-	private final Map<HostAddress, Long> lastUpdateHostRules;
-	private final Map<String, StatelessKieSession> serviceRuleSessions;
-	private final Map<HostAddress, StatelessKieSession> hostRuleSessions;
+	private static final String SERVICE_RULES = "service";
+	private static final String HOST_RULES = "host";
+	private static final String FIRED_RULES = "firedRules";
 
-	public DroolsService() {
-		this.lastUpdateServiceRules = new HashMap<>();
-		this.lastUpdateHostRules = new HashMap<>();
-		this.serviceRuleSessions = new HashMap<>();
-		this.hostRuleSessions = new HashMap<>();
+	private final ConcurrentMap<String, Long> lastUpdateServiceRules;
+	private final ConcurrentMap<HostAddress, Long> lastUpdateHostRules;
+	private final ConcurrentMap<String, RuleSession> serviceRuleSessions;
+	private final ConcurrentMap<HostAddress, RuleSession> hostRuleSessions;
+	private final ConcurrentMap<String, CompletableFuture<Void>> pendingServiceRuleSessions;
+	private final ConcurrentMap<HostAddress, CompletableFuture<Void>> pendingHostRuleSessions;
+	private final DroolsRuleBase serviceRuleBase;
+	private final DroolsRuleBase hostRuleBase;
+	private final ExecutorService rulesCompiler;
+	private final MeterRegistry meterRegistry;
+
+	public DroolsService(MeterRegistry meterRegistry) {
+		this.lastUpdateServiceRules = new ConcurrentHashMap<>();
+		this.lastUpdateHostRules = new ConcurrentHashMap<>();
+		this.serviceRuleSessions = new ConcurrentHashMap<>();
+		this.hostRuleSessions = new ConcurrentHashMap<>();
+		this.pendingServiceRuleSessions = new ConcurrentHashMap<>();
+		this.pendingHostRuleSessions = new ConcurrentHashMap<>();
+		this.serviceRuleBase = new DroolsRuleBase(SERVICE_RULES, meterRegistry);
+		this.hostRuleBase = new DroolsRuleBase(HOST_RULES, meterRegistry);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rules-compiler-");
+		threadFactory.setDaemon(true);
+		this.rulesCompiler = Executors.newSingleThreadExecutor(threadFactory);
+		this.meterRegistry = meterRegistry;
 	}
 
+	@Override
 	public boolean shouldCreateNewServiceRuleSession(String serviceName, long lastUpdate) {
-		final long currVal = lastUpdateServiceRules.getOrDefault(serviceName, -1L);
-		if (currVal < lastUpdate) {
-			lastUpdateServiceRules.put(serviceName, lastUpdate);
-			return true;
-		}
-		return false;
+		return RuleEngine.advanceLastUpdate(lastUpdateServiceRules, serviceName, lastUpdate);
 	}
 
+	@Override
 	public boolean shouldCreateNewHostRuleSession(HostAddress hostAddress, long lastUpdate) {
-		long currentTimestamp = lastUpdateHostRules.getOrDefault(hostAddress, -1L);
-		if (currentTimestamp < lastUpdate) {
-			lastUpdateHostRules.put(hostAddress, lastUpdate);
-			return true;
-		}
-		return false;
+		return RuleEngine.advanceLastUpdate(lastUpdateHostRules, hostAddress, lastUpdate);
 	}
 
-	public void createNewServiceRuleSession(String serviceName, Map<Long, String> drls) {
-		KieServices kieServices = KieServices.Factory.get();
-		KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
-		for (Map.Entry<Long, String> drl : drls.entrySet()) {
-			Resource resource = kieServices.getResources().newByteArrayResource(drl.getValue().getBytes());
-			//TODO
-			resource.setTargetPath("rules/rule_container_" + drl.getKey() + ".drl");
-			kieFileSystem.write(resource);
-		}
-		kieServices.newKieBuilder(kieFileSystem).buildAll();
-		ReleaseId releaseId = kieServices.getRepository().getDefaultReleaseId();
-		StatelessKieSession serviceRuleSession = kieServices
-			.newKieContainer(releaseId).getKieBase().newStatelessKieSession();
-		TrackingAgendaEventListener agendaEventListener = new TrackingAgendaEventListener();
-		serviceRuleSession.addEventListener(agendaEventListener);
-		serviceRuleSessions.put(serviceName, serviceRuleSession);
-	}
-
-	public void createNewHostRuleSession(HostAddress hostAddress, Map<Long, String> drools) {
-		KieServices kieServices = KieServices.Factory.get();
-		KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
-		for (Map.Entry<Long, String> drl : drools.entrySet()) {
-			Resource resource = kieServices.getResources().newByteArrayResource(drl.getValue().getBytes());
-			resource.setTargetPath("rules/rule_host_" + drl.getKey() + ".drl");
-			kieFileSystem.write(resource);
+	// The new session is built on the rules compiler thread, while the previous one, if any, keeps serving.
+	// Only the evaluations that find no session at all wait for the build
+	@Override
+	public void createNewServiceRuleSession(String serviceName, Event event, List<Rule> rules, String templateFile) {
+		Map<String, Supplier<String>> drls = generateDrls(SERVICE_RULES, event, rules, templateFile);
+		CompletableFuture<Void> ruleSession = CompletableFuture.runAsync(() -> {
+			RuleSession session = createRuleSession(serviceRuleBase, drls);
+			serviceRuleSessions.put(serviceName, session);
+			serviceRuleBase.retainRules(getRuleNames(serviceRuleSessions.values()));
+		}, rulesCompiler).exceptionally(e -> {
+			log.error("Failed to create rule session of service {}: {}", serviceName, e.getMessage());
+			lastUpdateServiceRules.remove(serviceName);
+			return null;
+		});
+		pendingServiceRuleSessions.put(serviceName, ruleSession);
+		ruleSession.whenComplete((result, e) -> pendingServiceRuleSessions.remove(serviceName, ruleSession));
+	}
+
+	@Override
+	public void createNewHostRuleSession(HostAddress hostAddress, Event event, List<Rule> rules, String templateFile) {
+		Map<String, Supplier<String>> drls = generateDrls(HOST_RULES, event, rules, templateFile);
+		CompletableFuture<Void> ruleSession = CompletableFuture.runAsync(() -> {
+			RuleSession session = createRuleSession(hostRuleBase, drls);
+			hostRuleSessions.put(hostAddress, session);
+			hostRuleBase.retainRules(getRuleNames(hostRuleSessions.values()));
+		}, rulesCompiler).exceptionally(e -> {
+			log.error("Failed to create rule session of host {}: {}", hostAddress.toSimpleString(), e.getMessage());
+			lastUpdateHostRules.remove(hostAddress);
+			return null;
+		});
+		pendingHostRuleSessions.put(hostAddress, ruleSession);
+		ruleSession.whenComplete((result, e) -> pendingHostRuleSessions.remove(hostAddress, ruleSession));
+	}
+
+	private RuleSession createRuleSession(DroolsRuleBase ruleBase, Map<String, Supplier<String>> drls) {
+		Timer sessionTimer = meterRegistry.timer("rules.compiler.session", Tags.of("rules", ruleBase.getName()));
+		return sessionTimer.record(() -> {
+			ruleBase.addRules(drls);
+			return new RuleSession(ruleBase.newStatelessKieSession(), drls.keySet());
+		});
+	}
+
+	private <K> RuleSession getRuleSession(Map<K, RuleSession> ruleSessions,
+										   Map<K, CompletableFuture<Void>> pendingRuleSessions, K key) {
+		RuleSession ruleSession = ruleSessions.get(key);
+		if (ruleSession == null) {
+			CompletableFuture<Void> pendingRuleSession = pendingRuleSessions.get(key);
+			if (pendingRuleSession != null) {
+				pendingRuleSession.join();
+				ruleSession = ruleSessions.get(key);
+			}
 		}
-		kieServices.newKieBuilder(kieFileSystem).buildAll();
-		ReleaseId releaseId = kieServices.getRepository().getDefaultReleaseId();
-		StatelessKieSession hostRuleSession = kieServices
-			.newKieContainer(releaseId).getKieBase().newStatelessKieSession();
-		TrackingAgendaEventListener agendaEventListener = new TrackingAgendaEventListener();
-		hostRuleSession.addEventListener(agendaEventListener);
-		hostRuleSessions.put(hostAddress, hostRuleSession);
+		return ruleSession;
 	}
 
-	public Map<Long, String> executeDroolsRules(Event event, List<Rule> rules, String templateFile) {
-		Map<Long, String> droolsRules = new HashMap<>();
+	private Set<String> getRuleNames(Collection<RuleSession> ruleSessions) {
+		Set<String> ruleNames = new HashSet<>();
+		ruleSessions.forEach(ruleSession -> ruleNames.addAll(ruleSession.getRuleNames()));
+		return ruleNames;
+	}
+
+	// The drl of each rule is only generated if the rule base doesn't have it compiled yet
+	private Map<String, Supplier<String>> generateDrls(String rulesType, Event event, List<Rule> rules, String templateFile) {
+		Map<String, Supplier<String>> drls = new LinkedHashMap<>();
 		for (Rule rule : rules) {
-			String droolsRule = applyRuleTemplate(event, rule, templateFile);
-			droolsRules.put(rule.getId(), droolsRule);
+			String ruleHash = getRuleHash(event, rule, templateFile);
+			String ruleName = String.format("%s_rule_%d_%s", rulesType, rule.getId(), ruleHash);
+			drls.put(ruleName, () -> applyRuleTemplate(event, rule, ruleHash, templateFile));
 		}
-		return droolsRules;
+		return drls;
 	}
 
-	private String applyRuleTemplate(Event event, Rule rule, String templateFile) {
+	private String getRuleHash(Event event, Rule rule, String templateFile) {
+		int hash = Objects.hash(templateFile, event.getClass().getName(), rule.toString(), rule.getDecision().name(), rule.getPriority());
+		return Integer.toHexString(hash);
+	}
+
+	private String applyRuleTemplate(Event event, Rule rule, String ruleHash, String templateFile) {
 		Map<String, Object> data = Map.of(
 			"ruleId", rule.getId(),
+			"ruleHash", ruleHash,
 			"rule", rule,
 			"eventType", event.getClass().getName(),
 			"decision", RuleDecisionEnum.class.getCanonicalName() + "." + rule.getDecision().toString(),
@@ -171,72 +222,70 @@ public class DroolsService {
 		return result.toString(StandardCharsets.UTF_8);
 	}
 
+	@Override
 	public ServiceDecisionResult evaluate(HostAddress hostAddress, ContainerEvent event) {
 		Decision containerDecision = new Decision();
 		String serviceName = event.getServiceName();
-		StatelessKieSession serviceRuleSession = serviceRuleSessions.get(serviceName);
-		serviceRuleSession.getGlobals().set("containerDecision", containerDecision);
-		serviceRuleSession.execute(event);
-		long ruleId = getRuleFired(new ArrayList<>(serviceRuleSession.getAgendaEventListeners()));
+		RuleSession serviceRuleSession = getRuleSession(serviceRuleSessions, pendingServiceRuleSessions, serviceName);
+		long ruleId = 0;
+		if (serviceRuleSession == null) {
+			log.warn("No rule session available for service {}", serviceName);
+		}
+		else {
+			ExecutionResults results = serviceRuleSession.execute(event, "containerDecision", containerDecision);
+			ruleId = getRuleFired(results);
+		}
 		return new ServiceDecisionResult(hostAddress, event.getContainerId(), event.getServiceName(),
 			containerDecision.getDecision(), ruleId, event.getFields(), containerDecision.getPriority());
 	}
 
+	@Override
 	public HostDecisionResult evaluate(HostEvent event) {
 		Decision hostDecision = new Decision();
 		HostAddress hostAddress = event.getHostAddress();
-		StatelessKieSession hostRuleSession = hostRuleSessions.get(hostAddress);
-		hostRuleSession.getGlobals().set("hostDecision", hostDecision);
-		hostRuleSession.execute(event);
-		long ruleId = getRuleFired(hostRuleSession.getAgendaEventListeners());
+		RuleSession hostRuleSession = getRuleSession(hostRuleSessions, pendingHostRuleSessions, hostAddress);
+		long ruleId = 0;
+		if (hostRuleSession == null) {
+			log.warn("No rule session available for host {}", hostAddress.toSimpleString());
+		}
+		else {
+			ExecutionResults results = hostRuleSession.execute(event, "hostDecision", hostDecision);
+			ruleId = getRuleFired(results);
+		}
 		return new HostDecisionResult(hostAddress, hostDecision.getDecision(), ruleId, event.getFields(), hostDecision.getPriority());
 	}
 
-	private long getRuleFired(Collection<AgendaEventListener> agendaEvents) {
-		Optional<AgendaEventListener> agendaEvent = agendaEvents.stream().findFirst();
-		if (agendaEvent.isEmpty()) {
-			return 0;
-		}
-		TrackingAgendaEventListener trackingAgendaEvent = (TrackingAgendaEventListener) agendaEvent.get();
-		List<Match> matchList = trackingAgendaEvent.getMatchList();
-		if (matchList.isEmpty()) {
+	@SuppressWarnings("unchecked")
+	private long getRuleFired(ExecutionResults results) {
+		List<String> firedRules = (List<String>) results.getValue(FIRED_RULES);
+		if (firedRules == null || firedRules.isEmpty()) {
 			return 0;
 		}
-		String[] ruleNameSplit = matchList.get(0).getRule().getName().split("_");
-		trackingAgendaEvent.reset();
+		String[] ruleNameSplit = firedRules.get(0).split("_");
 		return Long.parseLong(ruleNameSplit[2]);
 	}
 
+	// A stateless session of the shared kie base, restricted to the rules of one service or host.
+	// It holds no per-evaluation state: the decision global and the fired rules are bound to each execution
 	@Getter
-	static final class TrackingAgendaEventListener extends DefaultAgendaEventListener {
+	static final class RuleSession {
 
-		private final List<Match> matchList;
-
-		TrackingAgendaEventListener() {
-			matchList = new LinkedList<>();
-		}
-
-		@Override
-		public void afterMatchFired(AfterMatchFiredEvent event) {
-			matchList.add(event.getMatch());
-		}
-
-		public boolean isRuleFired(String ruleName) {
-			return matchList.stream()
-				.map(Match::getRule).map(org.kie.api.definition.rule.Rule::getName)
-				.anyMatch(n -> Objects.equals(n, ruleName));
-		}
+		private final StatelessKieSession kieSession;
+		private final Set<String> ruleNames;
 
-		public void reset() {
-			matchList.clear();
+		RuleSession(StatelessKieSession kieSession, Set<String> ruleNames) {
+			this.kieSession = kieSession;
+			this.ruleNames = Set.copyOf(ruleNames);
 		}
 
-		@Override
-		public String toString() {
-			return matchList.isEmpty()
-				? "No matches occurred."
-				: "Matches: " + matchList.stream()
-				.map(m -> "\n  rule: " + m.getRule().getName()).collect(Collectors.joining());
+		ExecutionResults execute(Object fact, String decisionGlobal, Decision decision) {
+			KieCommands commands = KieServices.Factory.get().getCommands();
+			List<Command<?>> batch = List.of(
+				commands.newSetGlobal(decisionGlobal, decision),
+				new FiredRulesCommand(FIRED_RULES),
+				commands.newInsert(fact),
+				new FireAllRulesCommand(match -> ruleNames.contains(match.getRule().getName())));
+			return kieSession.execute(commands.newBatchExecution(batch));
 		}
 
 	}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import org.drools.core.event.DefaultAgendaEventListener;
+import org.drools.core.runtime.impl.ExecutionResultImpl;
+import org.kie.api.command.ExecutableCommand;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.runtime.Context;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.command.RegistryContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the rules fired during one execution of a stateless session.
+ * The names of the fired rules, in firing order, are returned in the execution results under the given identifier.
+ */
+final class FiredRulesCommand implements ExecutableCommand<List<String>> {
+
+	private final String outIdentifier;
+
+	FiredRulesCommand(String outIdentifier) {
+		this.outIdentifier = outIdentifier;
+	}
+
+	@Override
+	public List<String> execute(Context context) {
+		KieSession kieSession = ((RegistryContext) context).lookup(KieSession.class);
+		List<String> firedRules = new ArrayList<>();
+		kieSession.addEventListener(new DefaultAgendaEventListener() {
+			@Override
+			public void afterMatchFired(AfterMatchFiredEvent event) {
+				firedRules.add(event.getMatch().getRule().getName());
+			}
+		});
+		((RegistryContext) context).lookup(ExecutionResultImpl.class).getResults().put(outIdentifier, firedRules);
+		return firedRules;
+	}
+
+}
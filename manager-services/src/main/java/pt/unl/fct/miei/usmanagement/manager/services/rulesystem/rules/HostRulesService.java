@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -61,7 +60,7 @@ public class HostRulesService {
 	private final RuleConditionsService ruleConditionsService;
 	private final CloudHostsService cloudHostsService;
 	private final EdgeHostsService edgeHostsService;
-	private final DroolsService droolsService;
+	private final RuleEngine ruleEngine;
 	private final KafkaService kafkaService;
 
 	private final HostRules rules;
@@ -70,13 +69,13 @@ public class HostRulesService {
 	private final AtomicLong lastUpdateHostRules;
 
 	public HostRulesService(ConditionsService conditionsService, RuleConditionsService ruleConditionsService, CloudHostsService cloudHostsService,
-							EdgeHostsService edgeHostsService, DroolsService droolsService, KafkaService kafkaService,
+							EdgeHostsService edgeHostsService, RuleEngine ruleEngine, KafkaService kafkaService,
 							HostRules rules, RulesProperties rulesProperties) {
 		this.conditionsService = conditionsService;
 		this.ruleConditionsService = ruleConditionsService;
 		this.cloudHostsService = cloudHostsService;
 		this.edgeHostsService = edgeHostsService;
-		this.droolsService = droolsService;
+		this.ruleEngine = ruleEngine;
 		this.kafkaService = kafkaService;
 		this.rules = rules;
 		this.hostRuleTemplateFile = rulesProperties.getHostRuleTemplateFile();
@@ -124,8 +123,9 @@ public class HostRulesService {
 		return rule;
 	}
 
+	@Transactional
 	public HostRule updateRule(String ruleName, HostRule newRule) {
-		log.info("Updating rule {} with {}", ruleName, ToStringBuilder.reflectionToString(newRule));
+		log.info("Updating rule {} with {}", ruleName, EntityUtils.reflectionToString(newRule));
 		HostRule rule = getRule(ruleName);
 		EntityUtils.copyValidProperties(newRule, rule);
 		rule = saveRule(rule);
@@ -141,6 +141,7 @@ public class HostRulesService {
 		});
 	}
 
+	@Transactional
 	public HostRule addOrUpdateRule(HostRule hostRule) {
 		if (hostRule.getId() != null) {
 			Optional<HostRule> optionalRule = rules.findById(hostRule.getId());
@@ -197,24 +198,27 @@ public class HostRulesService {
 	}
 
 	public HostRule saveRule(HostRule hostRule) {
-		log.info("Saving hostRule {}", ToStringBuilder.reflectionToString(hostRule));
+		log.info("Saving hostRule {}", EntityUtils.reflectionToString(hostRule));
 		hostRule = rules.save(hostRule);
 		setLastUpdateHostRules();
 		return hostRule;
 	}
 
+	@Transactional
 	public void deleteRule(Long id) {
 		log.info("Deleting rule {}", id);
 		HostRule rule = getRule(id);
 		deleteRule(rule, false);
 	}
 
+	@Transactional
 	public void deleteRule(String ruleName) {
 		log.info("Deleting rule {}", ruleName);
 		HostRule rule = getRule(ruleName);
 		deleteRule(rule, true);
 	}
 
+	@Transactional
 	public void deleteRule(HostRule rule, boolean kafka) {
 		rule.removeAssociations();
 		rules.delete(rule);
@@ -244,6 +248,7 @@ public class HostRulesService {
 		return rules.getConditions(ruleName);
 	}
 
+	@Transactional
 	public void addCondition(String ruleName, String conditionName) {
 		log.info("Adding condition {} to rule {}", conditionName, ruleName);
 		Condition condition = conditionsService.getCondition(conditionName);
@@ -256,14 +261,17 @@ public class HostRulesService {
 		kafkaService.sendHostRule(rule);
 	}
 
+	@Transactional
 	public void addConditions(String ruleName, List<String> conditions) {
 		conditions.forEach(condition -> addCondition(ruleName, condition));
 	}
 
+	@Transactional
 	public void removeCondition(String ruleName, String conditionName) {
 		removeConditions(ruleName, List.of(conditionName));
 	}
 
+	@Transactional
 	public void removeConditions(String ruleName, List<String> conditionNames) {
 		log.info("Removing conditions {}", conditionNames);
 		HostRule rule = getRuleAndEntities(ruleName);
@@ -283,10 +291,12 @@ public class HostRulesService {
 		return rules.getCloudHosts(ruleName);
 	}
 
+	@Transactional
 	public void addCloudHost(String ruleName, String instanceId) {
 		addCloudHosts(ruleName, List.of(instanceId));
 	}
 
+	@Transactional
 	public void addCloudHosts(String ruleName, List<String> instanceIds) {
 		log.info("Adding cloud hosts {} to rule {}", instanceIds, ruleName);
 		HostRule rule = getRuleAndEntities(ruleName);
@@ -298,10 +308,12 @@ public class HostRulesService {
 		kafkaService.sendHostRule(hostRule);
 	}
 
+	@Transactional
 	public void removeCloudHost(String ruleName, String instanceId) {
 		removeCloudHosts(ruleName, List.of(instanceId));
 	}
 
+	@Transactional
 	public void removeCloudHosts(String ruleName, List<String> instanceIds) {
 		log.info("Removing cloud hosts {} from rule {}", instanceIds, ruleName);
 		HostRule rule = getRuleAndEntities(ruleName);
@@ -321,10 +333,12 @@ public class HostRulesService {
 		return rules.getEdgeHosts(ruleName);
 	}
 
+	@Transactional
 	public void addEdgeHost(String ruleName, HostAddress hostAddress) {
 		addEdgeHosts(ruleName, List.of(hostAddress));
 	}
 
+	@Transactional
 	public void addEdgeHosts(String ruleName, List<HostAddress> hostAddresses) {
 		log.info("Adding edge hosts {} to rule {}", hostAddresses, ruleName);
 		HostRule rule = getRuleAndEntities(ruleName);
@@ -336,10 +350,12 @@ public class HostRulesService {
 		kafkaService.sendHostRule(hostRule);
 	}
 
+	@Transactional
 	public void removeEdgeHost(String ruleName, HostAddress hostAddress) {
 		removeEdgeHosts(ruleName, List.of(hostAddress));
 	}
 
+	@Transactional
 	public void removeEdgeHosts(String ruleName, List<HostAddress> hostAddresses) {
 		log.info("Removing edge hosts {} from rule {}", hostAddresses, ruleName);
 		HostRule rule = getRuleAndEntities(ruleName);
@@ -367,12 +383,11 @@ public class HostRulesService {
 
 	public HostDecisionResult processHostEvent(HostEvent hostEvent) {
 		HostAddress hostAddress = hostEvent.getHostAddress();
-		if (droolsService.shouldCreateNewHostRuleSession(hostAddress, lastUpdateHostRules.get())) {
+		if (ruleEngine.shouldCreateNewHostRuleSession(hostAddress, lastUpdateHostRules.get())) {
 			List<Rule> rules = generateHostRules(hostAddress);
-			Map<Long, String> drools = droolsService.executeDroolsRules(hostEvent, rules, hostRuleTemplateFile);
-			droolsService.createNewHostRuleSession(hostAddress, drools);
+			ruleEngine.createNewHostRuleSession(hostAddress, hostEvent, rules, hostRuleTemplateFile);
 		}
-		return droolsService.evaluate(hostEvent);
+		return ruleEngine.evaluate(hostEvent);
 	}
 
 	private List<Rule> generateHostRules(HostAddress hostAddress) {
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
+
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ContainerEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.Event;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.HostDecisionResult;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.ServiceDecisionResult;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Evaluates the rules of a service or host against its monitoring events.
+ * The implementation is chosen with the rules.engine property: drools (default) or compiled.
+ *
+ * <p>Rules fire in decreasing priority. The decision and priority of the result are the ones of the last rule
+ * fired, i.e. the matching rule with the lowest priority, while the rule id is the one of the first rule fired.
+ */
+public interface RuleEngine {
+
+	boolean shouldCreateNewServiceRuleSession(String serviceName, long lastUpdate);
+
+	boolean shouldCreateNewHostRuleSession(HostAddress hostAddress, long lastUpdate);
+
+	void createNewServiceRuleSession(String serviceName, Event event, List<Rule> rules, String templateFile);
+
+	void createNewHostRuleSession(HostAddress hostAddress, Event event, List<Rule> rules, String templateFile);
+
+	ServiceDecisionResult evaluate(HostAddress hostAddress, ContainerEvent event);
+
+	HostDecisionResult evaluate(HostEvent event);
+
+	// Only the caller that actually advances the timestamp gets to create the new session,
+	// even if several evaluations of the same service or host see the rules update at once
+	static <K> boolean advanceLastUpdate(ConcurrentMap<K, Long> lastUpdates, K key, long lastUpdate) {
+		while (true) {
+			Long currentLastUpdate = lastUpdates.putIfAbsent(key, lastUpdate);
+			if (currentLastUpdate == null) {
+				return true;
+			}
+			if (currentLastUpdate >= lastUpdate) {
+				return false;
+			}
+			if (lastUpdates.replace(key, currentLastUpdate, lastUpdate)) {
+				return true;
+			}
+		}
+	}
+
+}
@@ -39,5 +39,7 @@ public class RulesProperties {
 
 	private String serviceRuleTemplateFile;
 	private String hostRuleTemplateFile;
+	// drools or compiled, see RuleEngine
+	private String engine;
 
 }
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
@@ -54,7 +53,6 @@ import pt.unl.fct.miei.usmanagement.manager.util.EntityUtils;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
@@ -66,7 +64,7 @@ public class ServiceRulesService {
 
 	private final ConditionsService conditionsService;
 	private final RuleConditionsService ruleConditionsService;
-	private final DroolsService droolsService;
+	private final RuleEngine ruleEngine;
 	private final ServicesService servicesService;
 	private final ContainersService containersService;
 	private final AppRulesService appRulesService;
@@ -78,13 +76,13 @@ public class ServiceRulesService {
 	private final String serviceRuleTemplateFile;
 	private final AtomicLong lastUpdateServiceRules;
 
-	public ServiceRulesService(ConditionsService conditionsService, RuleConditionsService ruleConditionsService, DroolsService droolsService,
+	public ServiceRulesService(ConditionsService conditionsService, RuleConditionsService ruleConditionsService, RuleEngine ruleEngine,
 							   @Lazy ServicesService servicesService, @Lazy ContainersService containersService,
 							   @Lazy AppRulesService appRulesService,  @Lazy ContainerRulesService containerRulesService,
 							   KafkaService kafkaService, ServiceRules rules, RulesProperties rulesProperties) {
 		this.conditionsService = conditionsService;
 		this.ruleConditionsService = ruleConditionsService;
-		this.droolsService = droolsService;
+		this.ruleEngine = ruleEngine;
 		this.servicesService = servicesService;
 		this.containersService = containersService;
 		this.appRulesService = appRulesService;
@@ -115,6 +113,11 @@ public class ServiceRulesService {
 			new EntityNotFoundException(ServiceRule.class, "name", name));
 	}
 
+	public ServiceRule getRuleAndEntities(String name) {
+		return rules.findByNameWithEntities(name).orElseThrow(() ->
+			new EntityNotFoundException(ServiceRule.class, "name", name));
+	}
+
 	public ServiceRule addRule(ServiceRule rule) {
 		checkRuleDoesntExist(rule);
 		rule = saveRule(rule);
@@ -125,8 +128,9 @@ public class ServiceRulesService {
 		return rule;
 	}
 
+	@Transactional
 	public ServiceRule updateRule(String ruleName, ServiceRule newRule) {
-		log.info("Updating rule {} with {}", ruleName, ToStringBuilder.reflectionToString(newRule));
+		log.info("Updating rule {} with {}", ruleName, EntityUtils.reflectionToString(newRule));
 		ServiceRule rule = getRule(ruleName);
 		EntityUtils.copyValidProperties(newRule, rule);
 		rule = saveRule(rule);
@@ -135,7 +139,7 @@ public class ServiceRulesService {
 	}
 
 	public ServiceRule saveRule(ServiceRule serviceRule) {
-		log.info("Saving serviceRule {}", ToStringBuilder.reflectionToString(serviceRule));
+		log.info("Saving serviceRule {}", EntityUtils.reflectionToString(serviceRule));
 		serviceRule = rules.save(serviceRule);
 		setLastUpdateServiceRules();
 		return serviceRule;
@@ -149,6 +153,7 @@ public class ServiceRulesService {
 		});
 	}
 
+	@Transactional
 	public ServiceRule addOrUpdateRule(ServiceRule serviceRule) {
 		if (serviceRule.getId() != null) {
 			Optional<ServiceRule> serviceRuleOptional = rules.findById(serviceRule.getId());
@@ -171,18 +176,21 @@ public class ServiceRulesService {
 		return saveRule(serviceRule);
 	}
 
+	@Transactional
 	public void deleteRule(Long id) {
 		log.info("Deleting rule {}", id);
 		ServiceRule rule = getRule(id);
 		deleteRule(rule, false);
 	}
 
+	@Transactional
 	public void deleteRule(String ruleName) {
 		log.info("Deleting rule {}", ruleName);
 		ServiceRule rule = getRule(ruleName);
 		deleteRule(rule, true);
 	}
 
+	@Transactional
 	public void deleteRule(ServiceRule rule, boolean kafka) {
 		rule.removeAssociations();
 		rules.delete(rule);
@@ -211,10 +219,11 @@ public class ServiceRulesService {
 		return rules.getConditions(ruleName);
 	}
 
+	@Transactional
 	public void addCondition(String ruleName, String conditionName) {
 		log.info("Adding condition {} to rule {}", conditionName, ruleName);
 		Condition condition = conditionsService.getCondition(conditionName);
-		ServiceRule rule = getRule(ruleName);
+		ServiceRule rule = getRuleAndEntities(ruleName);
 		ServiceRuleCondition serviceRuleCondition = ServiceRuleCondition.builder()
 			.id(new RuleConditionKey(rule.getId(), condition.getId()))
 			.rule(rule).condition(condition).build();
@@ -223,17 +232,20 @@ public class ServiceRulesService {
 		kafkaService.sendServiceRule(rule);
 	}
 
+	@Transactional
 	public void addConditions(String ruleName, List<String> conditions) {
 		conditions.forEach(condition -> addCondition(ruleName, condition));
 	}
 
+	@Transactional
 	public void removeCondition(String ruleName, String conditionName) {
 		removeConditions(ruleName, List.of(conditionName));
 	}
 
+	@Transactional
 	public void removeConditions(String ruleName, List<String> conditionNames) {
 		log.info("Removing conditions {}", conditionNames);
-		ServiceRule rule = getRule(ruleName);
+		ServiceRule rule = getRuleAndEntities(ruleName);
 		rule.getConditions().removeIf(condition -> conditionNames.contains(condition.getCondition().getName()));
 		rule = saveRule(rule);
 		kafkaService.sendServiceRule(rule);
@@ -250,13 +262,15 @@ public class ServiceRulesService {
 		return rules.getServices(ruleName);
 	}
 
+	@Transactional
 	public void addService(String ruleName, String serviceName) {
 		addServices(ruleName, List.of(serviceName));
 	}
 
+	@Transactional
 	public void addServices(String ruleName, List<String> serviceNames) {
 		log.info("Adding services {} to rule {}", serviceNames, ruleName);
-		ServiceRule rule = getRule(ruleName);
+		ServiceRule rule = getRuleAndEntities(ruleName);
 		serviceNames.forEach(serviceName -> {
 			Service service = servicesService.getService(serviceName);
 			service.addRule(rule);
@@ -265,13 +279,15 @@ public class ServiceRulesService {
 		kafkaService.sendServiceRule(serviceRule);
 	}
 
+	@Transactional
 	public void removeService(String ruleName, String serviceName) {
 		removeServices(ruleName, List.of(serviceName));
 	}
 
+	@Transactional
 	public void removeServices(String ruleName, List<String> serviceNames) {
 		log.info("Removing services {} from rule {}", serviceNames, ruleName);
-		ServiceRule rule = getRule(ruleName);
+		ServiceRule rule = getRuleAndEntities(ruleName);
 		serviceNames.forEach(serviceName -> servicesService.getService(serviceName).removeRule(rule));
 		ServiceRule serviceRule = saveRule(rule);
 		kafkaService.sendServiceRule(serviceRule);
@@ -293,15 +309,14 @@ public class ServiceRulesService {
 	public ServiceDecisionResult processServiceEvent(HostAddress hostAddress, ContainerEvent containerEvent) {
 		String serviceName = containerEvent.getServiceName();
 		String containerId = containerEvent.getContainerId();
-		if (droolsService.shouldCreateNewServiceRuleSession(serviceName, lastUpdateServiceRules.get())) {
+		if (ruleEngine.shouldCreateNewServiceRuleSession(serviceName, lastUpdateServiceRules.get())) {
 			List<Rule> rules = generateServiceRules(serviceName, containerId);
-			Map<Long, String> drools = droolsService.executeDroolsRules(containerEvent, rules, serviceRuleTemplateFile);
-			droolsService.createNewServiceRuleSession(serviceName, drools);
+			ruleEngine.createNewServiceRuleSession(serviceName, containerEvent, rules, serviceRuleTemplateFile);
 		}
-		return droolsService.evaluate(hostAddress, containerEvent);
+		return ruleEngine.evaluate(hostAddress, containerEvent);
 	}
 
-	private List<Rule> generateServiceRules(String serviceName, String containerId) {
+	List<Rule> generateServiceRules(String serviceName, String containerId) {
 		List<ServiceRule> genericServiceRules = getGenericServiceRules();
 		List<AppRule> appRules = new LinkedList<>();
 		for (App app : servicesService.getAppsAndAppRules(serviceName)) {
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A periodic task of the {@link SchedulerService}. Runs never overlap: a tick that finds the previous run still going
+ * is skipped and counted as missed.
+ */
+public class ScheduledTask {
+
+	private final String name;
+	private final Runnable task;
+	private final AtomicBoolean running;
+	private final Timer duration;
+	private final Counter missedTicks;
+	private final Counter failures;
+	private volatile long period;
+	private volatile long nextTick;
+	private volatile long lastRun;
+	private volatile ScheduledFuture<?> future;
+	private volatile boolean cancelled;
+
+	ScheduledTask(String name, long period, Runnable task, Timer duration, Counter missedTicks, Counter failures) {
+		this.name = name;
+		this.period = period;
+		this.task = task;
+		this.running = new AtomicBoolean();
+		this.duration = duration;
+		this.missedTicks = missedTicks;
+		this.failures = failures;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getPeriod() {
+		return period;
+	}
+
+	void setPeriod(long period) {
+		this.period = period;
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public long getLastRun() {
+		return lastRun;
+	}
+
+	public long getRuns() {
+		return duration.count();
+	}
+
+	public double getMeanDuration() {
+		return duration.mean(TimeUnit.MILLISECONDS);
+	}
+
+	public double getMaxDuration() {
+		return duration.max(TimeUnit.MILLISECONDS);
+	}
+
+	public long getMissedTicks() {
+		return (long) missedTicks.count();
+	}
+
+	public long getFailures() {
+		return (long) failures.count();
+	}
+
+	long getNextTick() {
+		return nextTick;
+	}
+
+	void setNextTick(long nextTick) {
+		this.nextTick = nextTick;
+	}
+
+	void setFuture(ScheduledFuture<?> future) {
+		this.future = future;
+	}
+
+	void missed(long ticks) {
+		missedTicks.increment(ticks);
+	}
+
+	/**
+	 * Runs the task, unless the previous run is still going.
+	 *
+	 * @return false if the tick was skipped
+	 */
+	boolean run() {
+		if (!running.compareAndSet(false, true)) {
+			missed(1);
+			return false;
+		}
+		try {
+			lastRun = System.currentTimeMillis();
+			duration.record(task);
+		}
+		catch (RuntimeException e) {
+			failures.increment();
+			throw e;
+		}
+		finally {
+			running.set(false);
+		}
+		return true;
+	}
+
+	void cancel() {
+		cancelled = true;
+		ScheduledFuture<?> future = this.future;
+		if (future != null) {
+			future.cancel(false);
+		}
+	}
+
+}
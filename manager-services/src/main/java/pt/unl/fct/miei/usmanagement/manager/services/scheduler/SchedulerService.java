@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 manager
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package pt.unl.fct.miei.usmanagement.manager.services.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import pt.unl.fct.miei.usmanagement.manager.exceptions.EntityNotFoundException;
+import pt.unl.fct.miei.usmanagement.manager.exceptions.ManagerException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs all the periodic tasks of the manager on a bounded pool of threads, instead of one {@link java.util.Timer} each.
+ * Ticks of the same task never overlap, get a random jitter to spread the load, and are skipped (and counted as
+ * missed) when the pool is too busy to run them on time. The period of each task can be changed while it is running.
+ * Tasks that block for long, or that must never be delayed by the others, can be given a thread of their own through
+ * the dedicated property.
+ */
+@Slf4j
+@Service
+public class SchedulerService {
+
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Long> periods;
+	private final double jitter;
+	private final ScheduledThreadPoolExecutor executor;
+	private final Set<String> dedicated;
+	// task name -> executor with a single thread, for the dedicated tasks
+	private final Map<String, ScheduledThreadPoolExecutor> dedicatedExecutors;
+	private final Map<String, ScheduledTask> tasks;
+	private volatile boolean stopped;
+
+	public SchedulerService(MeterRegistry meterRegistry, SchedulerProperties schedulerProperties) {
+		this.meterRegistry = meterRegistry;
+		this.periods = schedulerProperties.getPeriods();
+		// the jitter is kept below half a period, so that it is never mistaken for a missed tick
+		this.jitter = Math.min(Math.max(0, schedulerProperties.getJitter()), 0.5);
+		this.executor = newExecutor("scheduler-", schedulerProperties.getThreads());
+		this.dedicated = schedulerProperties.getDedicated();
+		this.dedicatedExecutors = new ConcurrentHashMap<>();
+		this.tasks = new ConcurrentHashMap<>();
+	}
+
+	private static ScheduledThreadPoolExecutor newExecutor(String threadNamePrefix, int threads) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+		threadFactory.setDaemon(true);
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), threadFactory);
+		executor.setRemoveOnCancelPolicy(true);
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		return executor;
+	}
+
+	private ScheduledThreadPoolExecutor getExecutor(String name) {
+		if (!dedicated.contains(name)) {
+			return executor;
+		}
+		return dedicatedExecutors.computeIfAbsent(name, taskName -> newExecutor("scheduler-" + taskName + "-", 1));
+	}
+
+	public ScheduledTask schedule(String name, long period, Runnable task) {
+		return schedule(name, period, period, task);
+	}
+
+	/**
+	 * Schedules the task to run every period milliseconds, replacing any task previously scheduled with the same name.
+	 */
+	public ScheduledTask schedule(String name, long initialDelay, long period, Runnable task) {
+		period = periods.getOrDefault(name, period);
+		if (period <= 0) {
+			throw new ManagerException("Period of task %s must be positive, instead got %d", name, period);
+		}
+		Timer duration = Timer.builder("scheduler.tasks.duration").tag("task", name)
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+		Counter missedTicks = meterRegistry.counter("scheduler.tasks.missed", "task", name);
+		Counter failures = meterRegistry.counter("scheduler.tasks.failures", "task", name);
+		ScheduledTask scheduledTask = new ScheduledTask(name, period, task, duration, missedTicks, failures);
+		ScheduledTask previousTask = tasks.put(name, scheduledTask);
+		if (previousTask != null) {
+			previousTask.cancel();
+		}
+		scheduleTick(scheduledTask, System.currentTimeMillis() + Math.max(0, initialDelay));
+		log.info("Scheduled task {} with a period of {} ms", name, period);
+		return scheduledTask;
+	}
+
+	/**
+	 * Runs the task once, after the delay. Once the scheduler is stopped, the task is dropped and null is returned.
+	 */
+	public ScheduledFuture<?> scheduleOnce(String name, long delay, Runnable task) {
+		if (stopped) {
+			log.info("Scheduler is stopped, dropping task {}", name);
+			return null;
+		}
+		try {
+			return getExecutor(name).schedule(() -> {
+				try {
+					task.run();
+				}
+				catch (Exception e) {
+					log.error("Failed to execute task {}: {}", name, e.getMessage());
+				}
+			}, Math.max(0, delay), TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException e) {
+			// stopped concurrently
+			log.info("Scheduler is stopped, dropping task {}", name);
+			return null;
+		}
+	}
+
+	public List<ScheduledTask> getTasks() {
+		List<ScheduledTask> scheduledTasks = new ArrayList<>(tasks.values());
+		scheduledTasks.sort(Comparator.comparing(ScheduledTask::getName));
+		return scheduledTasks;
+	}
+
+	public ScheduledTask getTask(String name) {
+		ScheduledTask task = tasks.get(name);
+		if (task == null) {
+			throw new EntityNotFoundException(ScheduledTask.class, "name", name);
+		}
+		return task;
+	}
+
+	/**
+	 * Changes the period of the task. The next tick is moved to one period after the last one.
+	 */
+	public ScheduledTask setPeriod(String name, long period) {
+		if (period <= 0) {
+			throw new ManagerException("Period of task %s must be positive, instead got %d", name, period);
+		}
+		ScheduledTask task = getTask(name);
+		synchronized (task) {
+			long previousTick = task.getNextTick() - task.getPeriod();
+			task.setPeriod(period);
+			if (!task.isCancelled()) {
+				scheduleTick(task, Math.max(previousTick + period, System.currentTimeMillis()));
+			}
+		}
+		log.info("Changed period of task {} to {} ms", name, period);
+		return task;
+	}
+
+	public void cancel(String name) {
+		ScheduledTask task = tasks.remove(name);
+		if (task != null) {
+			task.cancel();
+			log.info("Cancelled task {}", name);
+		}
+	}
+
+	public void stop() {
+		stopped = true;
+		tasks.values().forEach(ScheduledTask::cancel);
+		tasks.clear();
+		executor.shutdownNow();
+		dedicatedExecutors.values().forEach(ScheduledThreadPoolExecutor::shutdownNow);
+	}
+
+	private void scheduleTick(ScheduledTask task, long tick) {
+		synchronized (task) {
+			if (stopped) {
+				return;
+			}
+			task.setNextTick(tick);
+			long delay = Math.max(0, tick - System.currentTimeMillis()) + jitter(task.getPeriod());
+			try {
+				task.setFuture(getExecutor(task.getName()).schedule(() -> tick(task, tick), delay, TimeUnit.MILLISECONDS));
+			}
+			catch (RejectedExecutionException e) {
+				// stopped concurrently
+				log.info("Scheduler is stopped, dropping the next tick of task {}", task.getName());
+			}
+		}
+	}
+
+	private long jitter(long period) {
+		long maxJitter = (long) (period * jitter);
+		return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(maxJitter) : 0;
+	}
+
+	private void tick(ScheduledTask task, long tick) {
+		long period = task.getPeriod();
+		long now = System.currentTimeMillis();
+		long nextTick = tick + period;
+		synchronized (task) {
+			if (task.isCancelled() || task.getNextTick() != tick) {
+				// cancelled, or rescheduled with a new period
+				return;
+			}
+			// the next tick is scheduled before running, so a slow run doesn't shift the following ones
+			long missedTicks = 0;
+			while (nextTick <= now) {
+				nextTick += period;
+				missedTicks++;
+			}
+			scheduleTick(task, nextTick);
+			if (missedTicks > 0) {
+				// the pool was too busy to run this tick on time, skip it
+				task.missed(missedTicks);
+				log.warn("Task {} is {} ticks behind, skipping them", task.getName(), missedTicks);
+				return;
+			}
+		}
+		try {
+			if (!task.run()) {
+				log.warn("Previous run of task {} is still going, skipping this tick", task.getName());
+			}
+		}
+		catch (Exception e) {
+			log.error("Failed to execute task {}: {}", task.getName(), e.getMessage());
+		}
+	}
+
+}
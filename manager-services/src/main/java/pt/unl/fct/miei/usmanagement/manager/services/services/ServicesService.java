@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.services;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
@@ -109,9 +108,10 @@ public class ServicesService {
 		return service;
 	}
 
+	@Transactional
 	public Service updateService(String serviceName, Service newService) {
 		Service service = getService(serviceName);
-		log.info("Updating service {} with {}", ToStringBuilder.reflectionToString(service), ToStringBuilder.reflectionToString(newService));
+		log.info("Updating service {} with {}", EntityUtils.reflectionToString(service), EntityUtils.reflectionToString(newService));
 		EntityUtils.copyValidProperties(newService, service);
 		service = saveService(service);
 		kafkaService.sendService(service);
@@ -126,8 +126,9 @@ public class ServicesService {
 		});
 	}
 
+	@Transactional
 	public Service addOrUpdateService(Service service) {
-		Optional<Service> serviceOptional = services.findById(service.getServiceName());
+		Optional<Service> serviceOptional = services.getServiceAndEntities(service.getServiceName());
 		if (serviceOptional.isPresent()) {
 			Service existingService = serviceOptional.get();
 			Set<ServiceRule> rules = service.getServiceRules();
@@ -219,15 +220,17 @@ public class ServicesService {
 	}
 
 	public Service saveService(Service service) {
-		log.info("Saving service {}", ToStringBuilder.reflectionToString(service));
+		log.info("Saving service {}", EntityUtils.reflectionToString(service));
 		return services.save(service);
 	}
 
+	@Transactional
 	public void deleteService(String serviceName) {
 		log.info("Deleting service {}", serviceName);
 		services.deleteById(serviceName);
 	}
 
+	@Transactional
 	public void deleteServiceByName(String serviceName) {
 		Service service = getService(serviceName);
 		services.delete(service);
@@ -250,6 +253,7 @@ public class ServicesService {
 		return services.getAppsAndAppRules(serviceName);
 	}
 
+	@Transactional
 	public void addApp(String serviceName, AddServiceApp addServiceApp) {
 		Service service = getServiceAndEntities(serviceName);
 		String appName = addServiceApp.getName();
@@ -261,16 +265,19 @@ public class ServicesService {
 		kafkaService.sendService(service);
 	}
 
+	@Transactional
 	public void addApps(String serviceName, List<AddServiceApp> addServiceApps) {
 		addServiceApps.forEach(addServiceApp -> addApp(serviceName, addServiceApp));
 	}
 
+	@Transactional
 	public void removeApp(String serviceName, String app) {
 		removeApps(serviceName, List.of(app));
 	}
 
+	@Transactional
 	public void removeApps(String serviceName, List<String> apps) {
-		Service service = getService(serviceName);
+		Service service = getServiceAndEntities(serviceName);
 		log.info("Removing apps {}", apps);
 		service.getAppServices().removeIf(appService -> apps.contains(appsService.getApp(appService.getId().getAppId()).getName()));
 		service = saveService(service);
@@ -297,8 +304,9 @@ public class ServicesService {
 		return services.dependsOn(serviceName, otherServiceName);
 	}
 
+	@Transactional
 	public void addDependency(String serviceName, String dependencyName) {
-		Service service = getService(serviceName);
+		Service service = getServiceAndEntities(serviceName);
 		Service dependency = getService(dependencyName);
 		ServiceDependency serviceDependency = ServiceDependency.builder()
 			.id(new ServiceDependencyKey(service.getServiceName(), dependency.getServiceName())).service(service).dependency(dependency).build();
@@ -307,16 +315,19 @@ public class ServicesService {
 		kafkaService.sendService(service);
 	}
 
+	@Transactional
 	public void addDependencies(String serviceName, List<String> dependenciesNames) {
 		dependenciesNames.forEach(dependencyName -> addDependency(serviceName, dependencyName));
 	}
 
+	@Transactional
 	public void removeDependency(String serviceName, String dependency) {
 		removeDependencies(serviceName, List.of(dependency));
 	}
 
+	@Transactional
 	public void removeDependencies(String serviceName, List<String> dependencies) {
-		Service service = getService(serviceName);
+		Service service = getServiceAndEntities(serviceName);
 		log.info("Removing dependencies {}", dependencies);
 		service.getDependencies().removeIf(dependency -> dependencies.contains(dependency.getDependency().getServiceName()));
 		service = saveService(service);
@@ -333,8 +344,9 @@ public class ServicesService {
 		return services.getPredictions(serviceName);
 	}
 
+	@Transactional
 	public ServiceEventPrediction addPrediction(String serviceName, ServiceEventPrediction prediction) {
-		Service service = getService(serviceName);
+		Service service = getServiceAndEntities(serviceName);
 		ServiceEventPrediction servicePrediction = prediction.toBuilder()
 			.service(service).lastUpdate(Timestamp.from(Instant.now())).build();
 		service = service.toBuilder().eventPrediction(servicePrediction).build();
@@ -343,6 +355,7 @@ public class ServicesService {
 		return getEventPrediction(serviceName, prediction.getName());
 	}
 
+	@Transactional
 	public List<ServiceEventPrediction> addPredictions(String serviceName,
 													   List<ServiceEventPrediction> predictions) {
 		List<ServiceEventPrediction> predictionsEntities = new ArrayList<>(predictions.size());
@@ -350,12 +363,14 @@ public class ServicesService {
 		return predictionsEntities;
 	}
 
+	@Transactional
 	public void removePrediction(String serviceName, String predictionName) {
 		removePredictions(serviceName, List.of(predictionName));
 	}
 
+	@Transactional
 	public void removePredictions(String serviceName, List<String> predictionsName) {
-		Service service = getService(serviceName);
+		Service service = getServiceAndEntities(serviceName);
 		service.getEventPredictions()
 			.removeIf(prediction -> predictionsName.contains(prediction.getName()));
 		service = saveService(service);
@@ -25,7 +25,6 @@
 package pt.unl.fct.miei.usmanagement.manager.services.valuemodes;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -79,7 +78,7 @@ public class ValueModesService {
 
 	public ValueMode updateValueMode(String valueModeName, ValueMode newValueMode) {
 		ValueMode valueMode = getValueMode(valueModeName);
-		log.info("Updating valueMode {} with {}", ToStringBuilder.reflectionToString(valueMode), ToStringBuilder.reflectionToString(newValueMode));
+		log.info("Updating valueMode {} with {}", EntityUtils.reflectionToString(valueMode), EntityUtils.reflectionToString(newValueMode));
 		EntityUtils.copyValidProperties(newValueMode, valueMode);
 		valueMode = saveValueMode(valueMode);
 		kafkaService.sendValueMode(valueMode);
@@ -87,7 +86,7 @@ public class ValueModesService {
 	}
 
 	public ValueMode saveValueMode(ValueMode valueMode) {
-		log.info("Saving valueMode {}", ToStringBuilder.reflectionToString(valueMode));
+		log.info("Saving valueMode {}", EntityUtils.reflectionToString(valueMode));
 		return valueModes.save(valueMode);
 	}
 
@@ -99,6 +98,7 @@ public class ValueModesService {
 		});
 	}
 
+	@Transactional
 	public ValueMode addOrUpdateValueMode(ValueMode valueMode) {
 		if (valueMode.getId() != null) {
 			Optional<ValueMode> valueModeOptional = valueModes.findById(valueMode.getId());
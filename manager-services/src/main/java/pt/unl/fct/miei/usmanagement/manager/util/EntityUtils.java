@@ -26,6 +26,8 @@ package pt.unl.fct.miei.usmanagement.manager.util;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.experimental.UtilityClass;
+import org.apache.commons.lang.builder.ReflectionToStringBuilder;
+import org.hibernate.Hibernate;
 import org.springframework.beans.BeanUtils;
 
 import javax.persistence.ManyToMany;
@@ -54,6 +56,27 @@ public class EntityUtils {
 		BeanUtils.copyProperties(source, target, ignoreProperties.toArray(new String[0]));
 	}
 
+	/**
+	 * Same as {@link ReflectionToStringBuilder#toString(Object)}, except that lazy associations which were not loaded
+	 * are left out, instead of being loaded just to be logged, or failing outside a session.
+	 */
+	public String reflectionToString(Object entity) {
+		return new ReflectionToStringBuilder(entity) {
+			@Override
+			protected boolean accept(Field field) {
+				if (!super.accept(field)) {
+					return false;
+				}
+				try {
+					return Hibernate.isInitialized(getValue(field));
+				}
+				catch (IllegalAccessException e) {
+					return false;
+				}
+			}
+		}.toString();
+	}
+
 	private boolean hasInvalidAnnotation(Field field) {
 		return field.getAnnotation(OneToMany.class) != null
 			|| field.getAnnotation(ManyToMany.class) != null
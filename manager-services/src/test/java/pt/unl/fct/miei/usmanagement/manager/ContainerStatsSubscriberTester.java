@@ -0,0 +1,133 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.ContainerStatsSubscriber;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+public class ContainerStatsSubscriberTester {
+
+	private static final String STATS = "{\"cpu_stats\":{\"cpu_usage\":{\"total_usage\":%d,\"percpu_usage\":[%d,%d]},"
+		+ "\"system_cpu_usage\":%d,\"online_cpus\":2},\"precpu_stats\":{\"cpu_usage\":{\"total_usage\":%d},"
+		+ "\"system_cpu_usage\":%d},\"memory_stats\":{\"usage\":%d,\"limit\":%d},"
+		+ "\"networks\":{\"eth0\":{\"rx_bytes\":%d,\"tx_bytes\":%d},\"eth1\":{\"rx_bytes\":%d,\"tx_bytes\":%d}}}";
+	private static final int CONTAINERS = 100;
+	private static final int TICKS = 5;
+
+	private ContainerStatsSubscriber newSubscriber() {
+		return newSubscriber(HttpClient.newHttpClient());
+	}
+
+	private ContainerStatsSubscriber newSubscriber(HttpClient httpClient) {
+		return new ContainerStatsSubscriber("127.0.0.1", httpClient, "http://127.0.0.1:2375", "");
+	}
+
+	private String stats(long tick) {
+		return String.format(STATS, 2000 + tick, 1000 + tick, 1000, 20000 + tick * 10, 1000 + tick, 10000 + tick * 10,
+			512, 1024, 100 + tick, 200 + tick, 10, 20);
+	}
+
+	@Test
+	public void testStatsValues() {
+		ContainerStatsSubscriber subscriber = newSubscriber();
+		subscriber.update("container", stats(0));
+		Optional<Map<String, Double>> stats = subscriber.getStats("container", 0);
+		assertThat(stats).isPresent();
+		assertThat(stats.get())
+			.containsEntry("cpu", 2000.0)
+			.containsEntry("cpu-%", 20.0)
+			.containsEntry("ram", 512.0)
+			.containsEntry("ram-%", 50.0)
+			.containsEntry("rx-bytes", 110.0)
+			.containsEntry("tx-bytes", 220.0);
+		assertThat(subscriber.getStats("container", System.currentTimeMillis() + 1000)).isEmpty();
+		assertThat(subscriber.getStats("other", 0)).isEmpty();
+	}
+
+	@Test
+	public void testTickMakesNoRequestsOnceSubscribed() {
+		HttpClient httpClient = mock(HttpClient.class);
+		when(httpClient.<Void>sendAsync(any(), any())).thenReturn(new CompletableFuture<>());
+		ContainerStatsSubscriber subscriber = newSubscriber(httpClient);
+		List<String> containerIds = IntStream.range(0, CONTAINERS).mapToObj(i -> "container-" + i).collect(Collectors.toList());
+
+		for (int tick = 0; tick < TICKS; tick++) {
+			// the streams keep delivering new stats in between ticks
+			long notBefore = System.currentTimeMillis();
+			for (String containerId : containerIds) {
+				subscriber.update(containerId, stats(tick));
+			}
+			// a monitoring tick keeps the streams of the running containers and reads their latest stats
+			subscriber.retain(containerIds);
+			for (String containerId : containerIds) {
+				assertThat(subscriber.getStats(containerId, notBefore)).isPresent();
+			}
+		}
+
+		// one stream was opened per container on the first tick, no other request was made
+		assertThat(subscriber.getSubscriptions()).isEqualTo(CONTAINERS);
+		verify(httpClient, times(CONTAINERS)).sendAsync(any(), any());
+		verifyNoMoreInteractions(httpClient);
+	}
+
+	@Test
+	public void testStoppedContainersAreUnsubscribed() {
+		HttpClient httpClient = mock(HttpClient.class);
+		when(httpClient.<Void>sendAsync(any(), any())).thenReturn(new CompletableFuture<>());
+		ContainerStatsSubscriber subscriber = newSubscriber(httpClient);
+		subscriber.retain(List.of("container-1", "container-2"));
+		subscriber.update("container-1", stats(0));
+		subscriber.update("container-2", stats(0));
+
+		subscriber.retain(List.of("container-2"));
+
+		assertThat(subscriber.isSubscribed("container-1")).isFalse();
+		assertThat(subscriber.getStats("container-1", 0)).isEmpty();
+		assertThat(subscriber.getStats("container-2", 0)).isPresent();
+		verify(httpClient, times(2)).sendAsync(any(), any());
+	}
+
+	@Test
+	public void testPollWithoutPerCpuUsage() throws Exception {
+		// cgroup v2 hosts don't report the usage of each cpu, only the number of online cpus
+		String stats = "{\"cpu_stats\":{\"cpu_usage\":{\"total_usage\":2000},\"system_cpu_usage\":20000,\"online_cpus\":2},"
+			+ "\"precpu_stats\":{\"cpu_usage\":{\"total_usage\":1000},\"system_cpu_usage\":10000},"
+			+ "\"memory_stats\":{\"usage\":512,\"limit\":1024}}";
+		HttpClient httpClient = mock(HttpClient.class);
+		@SuppressWarnings("unchecked")
+		HttpResponse<String> response = mock(HttpResponse.class);
+		when(response.statusCode()).thenReturn(200);
+		when(response.body()).thenReturn(stats, stats.replace(",\"online_cpus\":2", ""));
+		when(httpClient.<String>send(any(), any())).thenReturn(response);
+		ContainerStatsSubscriber subscriber = newSubscriber(httpClient);
+
+		assertThat(subscriber.poll("container")).hasValueSatisfying(containerStats -> assertThat(containerStats)
+			.containsEntry("cpu-%", 20.0)
+			.containsEntry("ram-%", 50.0)
+			.containsEntry("rx-bytes", 0.0));
+		// without either, the cpu percentage is unknown
+		assertThat(subscriber.poll("container")).hasValueSatisfying(containerStats ->
+			assertThat(containerStats).containsEntry("cpu-%", 0.0));
+		// polled stats are not kept, only the stream updates them
+		assertThat(subscriber.getStats("container", 0)).isEmpty();
+	}
+
+}
@@ -0,0 +1,137 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.core.env.Environment;
+import org.springframework.data.util.Pair;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.config.ParallelismProperties;
+import pt.unl.fct.miei.usmanagement.manager.containers.Container;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.containers.Containers;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
+import pt.unl.fct.miei.usmanagement.manager.services.ServiceTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.zookeeper.ZookeeperService;
+import pt.unl.fct.miei.usmanagement.manager.services.configurations.ConfigurationsService;
+import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.proxy.DockerApiProxyService;
+import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
+import pt.unl.fct.miei.usmanagement.manager.services.loadbalancer.nginx.LoadBalancerService;
+import pt.unl.fct.miei.usmanagement.manager.services.location.LocationRequestsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs.ServiceMonitoringLogsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.ContainerSimulatedMetricsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.prometheus.PrometheusService;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.ContainerRulesService;
+import pt.unl.fct.miei.usmanagement.manager.services.services.ServicesService;
+import pt.unl.fct.miei.usmanagement.manager.services.services.discovery.registration.RegistrationServerService;
+import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+public class ContainersLabelQueriesTester {
+
+	private static final HostAddress HOST = new HostAddress("10.0.0.1", "192.168.1.1");
+
+	private Containers containers;
+	private ContainersService containersService;
+
+	@Before
+	public void setUp() {
+		containers = mock(Containers.class);
+		containersService = new ContainersService(mock(DockerContainersService.class), mock(ContainerRulesService.class),
+			mock(ContainerSimulatedMetricsService.class), mock(DockerApiProxyService.class), mock(WorkerManagersService.class),
+			mock(ServicesService.class), mock(HostsService.class), mock(ConfigurationsService.class),
+			mock(RegistrationServerService.class), mock(LoadBalancerService.class), mock(KafkaService.class),
+			mock(ZookeeperService.class), mock(LoadBalancerService.class), mock(LocationRequestsService.class),
+			mock(PrometheusService.class), mock(ServiceMonitoringLogsService.class), mock(Environment.class), containers,
+			mock(ParallelismProperties.class));
+	}
+
+	private Container container(String id, String serviceName, ServiceTypeEnum serviceType, RegionEnum region) {
+		return Container.builder()
+			.id(id)
+			.publicIpAddress(HOST.getPublicIpAddress())
+			.privateIpAddress(HOST.getPrivateIpAddress())
+			.labels(Map.of(
+				ContainerConstants.Label.SERVICE_NAME, serviceName,
+				ContainerConstants.Label.SERVICE_TYPE, serviceType.name(),
+				ContainerConstants.Label.REGION, region.name()))
+			.build();
+	}
+
+	@Test
+	public void testLabelQuery() {
+		Container frontend = container("frontend", "frontend", ServiceTypeEnum.FRONTEND, RegionEnum.EUROPE);
+		Container backend = container("backend", "backend", ServiceTypeEnum.BACKEND, RegionEnum.EUROPE);
+		when(containers.getContainersWithLabel(eq(ContainerConstants.Label.SERVICE_TYPE), anyCollection()))
+			.thenReturn(List.of(frontend, backend));
+
+		List<Container> appContainers = containersService.getContainersWithLabels(Set.of(
+			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.FRONTEND.name()),
+			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.BACKEND.name())));
+
+		assertThat(appContainers).containsExactly(frontend, backend);
+		verify(containers).getContainersWithLabel(ContainerConstants.Label.SERVICE_TYPE,
+			Set.of(ServiceTypeEnum.FRONTEND.name(), ServiceTypeEnum.BACKEND.name()));
+		verify(containers, never()).findAll();
+	}
+
+	@Test
+	public void testMultipleLabelsQuery() {
+		Container europe = container("europe", "backend", ServiceTypeEnum.BACKEND, RegionEnum.EUROPE);
+		Container asia = container("asia", "backend", ServiceTypeEnum.BACKEND, RegionEnum.ASIA);
+		when(containers.getHostContainersWithLabel(eq(HOST.getPublicIpAddress()), eq(HOST.getPrivateIpAddress()), anyString(),
+			anyCollection())).thenReturn(List.of(europe, asia));
+
+		// the query matches one of the labels, the others are checked on its results
+		List<Container> hostContainers = containersService.getHostContainersWithLabels(HOST, Set.of(
+			Pair.of(ContainerConstants.Label.SERVICE_NAME, "backend"),
+			Pair.of(ContainerConstants.Label.REGION, RegionEnum.EUROPE.name())));
+
+		assertThat(hostContainers).containsExactly(europe);
+		verify(containers, never()).findAll();
+		verify(containers, never()).findByPublicIpAddressAndPrivateIpAddress(anyString(), anyString());
+	}
+
+	@Test
+	public void testSingletonContainer() {
+		Container prometheus = container("prometheus", ServiceConstants.Name.PROMETHEUS, ServiceTypeEnum.SYSTEM, RegionEnum.EUROPE);
+		when(containers.getSingletonContainers(HOST.getPublicIpAddress(), HOST.getPrivateIpAddress(), ServiceConstants.Name.PROMETHEUS))
+			.thenReturn(List.of(prometheus));
+
+		Optional<Container> container = containersService.getSingletonContainer(HOST, ServiceConstants.Name.PROMETHEUS);
+
+		assertThat(container).hasValue(prometheus);
+		assertThat(containersService.getSingletonContainer(HOST, ServiceConstants.Name.REQUEST_LOCATION_MONITOR)).isEmpty();
+		verify(containers, never()).findAll();
+		verify(containers, never()).getHostContainersWithLabel(anyString(), anyString(), anyString(), anyCollection());
+	}
+
+	@Test
+	public void testRegionQuery() {
+		when(containers.hasContainersWithLabel(ContainerConstants.Label.REGION, Set.of(RegionEnum.EUROPE.name()))).thenReturn(true);
+
+		assertThat(containersService.hasContainers(RegionEnum.EUROPE)).isTrue();
+		assertThat(containersService.hasContainers(RegionEnum.ASIA)).isFalse();
+		verify(containers, never()).findAll();
+	}
+
+}
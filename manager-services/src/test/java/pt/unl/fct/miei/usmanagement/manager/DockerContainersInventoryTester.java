@@ -0,0 +1,208 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.util.Pair;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.exceptions.ManagerException;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.services.ServiceTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersInventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+public class DockerContainersInventoryTester {
+
+	private static final int HOSTS = 4;
+	private static final int HOST_CONTAINERS = 25;
+	private static final long LOAD_DELAY = 200;
+
+	private List<HostAddress> hosts;
+	private Map<String, List<DockerContainer>> hostsContainers;
+	private Map<String, AtomicInteger> loads;
+	private AtomicInteger hostsListings;
+	// hosts whose docker client fails with an unexpected exception
+	private Set<String> failingHosts;
+	private MeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() {
+		hosts = IntStream.range(0, HOSTS).mapToObj(i -> new HostAddress("10.0.0." + i)).collect(Collectors.toList());
+		hostsContainers = new ConcurrentHashMap<>();
+		hosts.forEach(host -> hostsContainers.put(host.getPublicIpAddress(), IntStream.range(0, HOST_CONTAINERS)
+			.mapToObj(i -> dockerContainer(host, i))
+			.collect(Collectors.toList())));
+		loads = new ConcurrentHashMap<>();
+		hostsListings = new AtomicInteger();
+		failingHosts = ConcurrentHashMap.newKeySet();
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	private DockerContainer dockerContainer(HostAddress host, int i) {
+		String serviceName = "service-" + (i % 5);
+		String serviceType = i % 2 == 0 ? ServiceTypeEnum.FRONTEND.name() : ServiceTypeEnum.BACKEND.name();
+		return new DockerContainer(host.getPublicIpAddress() + "-" + i, ContainerTypeEnum.BY_REQUEST, 0, serviceName,
+			serviceName, null, null, "running", "Up", host.getPublicIpAddress(), null, Set.of(), null, null, Set.of(),
+			Map.of(ContainerConstants.Label.SERVICE_NAME, serviceName, ContainerConstants.Label.SERVICE_TYPE, serviceType));
+	}
+
+	private DockerContainersInventory newInventory(long maxStaleness) {
+		return new DockerContainersInventory(() -> {
+			hostsListings.incrementAndGet();
+			return hosts;
+		}, host -> {
+			loads.computeIfAbsent(host.getPublicIpAddress(), h -> new AtomicInteger()).incrementAndGet();
+			try {
+				Thread.sleep(LOAD_DELAY);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failingHosts.contains(host.getPublicIpAddress())) {
+				throw new IllegalStateException("Connection reset");
+			}
+			List<DockerContainer> containers = hostsContainers.get(host.getPublicIpAddress());
+			if (containers == null) {
+				throw new ManagerException("Failed to get containers running at %s", host.getPublicIpAddress());
+			}
+			return containers;
+		}, maxStaleness, HOSTS, meterRegistry);
+	}
+
+	private int loads() {
+		return loads.values().stream().mapToInt(AtomicInteger::get).sum();
+	}
+
+	@Test
+	public void testLookups() {
+		DockerContainersInventory inventory = newInventory(TimeUnit.MINUTES.toMillis(1));
+		HostAddress host = hosts.get(1);
+
+		assertThat(inventory.getContainers()).hasSize(HOSTS * HOST_CONTAINERS);
+		assertThat(inventory.getContainer("10.0.0.1-3")).hasValueSatisfying(container ->
+			assertThat(container.getPublicIpAddress()).isEqualTo("10.0.0.1"));
+		assertThat(inventory.getContainer("unknown")).isEmpty();
+		assertThat(inventory.getHostContainers(host)).hasSize(HOST_CONTAINERS)
+			.allMatch(container -> container.getHostAddress().equals(host));
+		assertThat(inventory.getServiceContainers("service-0")).hasSize(HOSTS * HOST_CONTAINERS / 5)
+			.allMatch(container -> container.getName().equals("service-0"));
+		assertThat(inventory.getContainersWithLabels(Set.of(
+			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.FRONTEND.name()),
+			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.BACKEND.name()))))
+			.hasSize(HOSTS * HOST_CONTAINERS);
+		assertThat(inventory.getHostContainersWithLabels(host, Set.of(
+			Pair.of(ContainerConstants.Label.SERVICE_NAME, "service-1"),
+			Pair.of(ContainerConstants.Label.SERVICE_TYPE, ServiceTypeEnum.BACKEND.name()))))
+			.extracting(DockerContainer::getId)
+			.containsExactlyInAnyOrder("10.0.0.1-1", "10.0.0.1-11", "10.0.0.1-21");
+
+		// every host was listed once, all other lookups were served from the inventory
+		assertThat(loads()).isEqualTo(HOSTS);
+		assertThat(meterRegistry.get("docker.containers.inventory.misses").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("docker.containers.inventory.hits").counter().count()).isEqualTo(6);
+		assertThat(meterRegistry.get("docker.containers.inventory.refresh").timer().count()).isEqualTo(HOSTS);
+		assertThat(inventory.getHitRatio()).isEqualTo(6 / 7.0);
+	}
+
+	@Test
+	public void testParallelRefresh() {
+		DockerContainersInventory inventory = newInventory(TimeUnit.MINUTES.toMillis(1));
+		long start = System.nanoTime();
+		inventory.getContainers();
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertThat(elapsed).isLessThan(HOSTS * LOAD_DELAY);
+	}
+
+	@Test
+	public void testInvalidation() {
+		DockerContainersInventory inventory = newInventory(TimeUnit.MINUTES.toMillis(1));
+		HostAddress host = hosts.get(2);
+		inventory.getContainers();
+
+		DockerContainer launched = dockerContainer(host, HOST_CONTAINERS);
+		hostsContainers.compute(host.getPublicIpAddress(), (h, containers) -> {
+			List<DockerContainer> newContainers = new ArrayList<>(containers);
+			newContainers.add(launched);
+			return newContainers;
+		});
+		assertThat(inventory.getContainer(launched.getId())).isEmpty();
+
+		inventory.invalidate(host);
+		assertThat(inventory.getContainer(launched.getId())).hasValue(launched);
+		// only the invalidated host was listed again
+		assertThat(loads.get(host.getPublicIpAddress())).hasValue(2);
+		assertThat(loads()).isEqualTo(HOSTS + 1);
+		assertThat(hostsListings).hasValue(1);
+	}
+
+	@Test
+	public void testStaleness() throws InterruptedException {
+		DockerContainersInventory inventory = newInventory(LOAD_DELAY);
+		inventory.getContainers();
+		assertThat(loads()).isEqualTo(HOSTS);
+		Thread.sleep(LOAD_DELAY);
+		inventory.getContainers();
+		assertThat(loads()).isEqualTo(2 * HOSTS);
+	}
+
+	@Test
+	public void testRefreshSlowerThanStaleness() {
+		// each listing takes longer than the maximum staleness
+		DockerContainersInventory inventory = newInventory(LOAD_DELAY / 2);
+		inventory.getContainers();
+		inventory.getContainers();
+		// the containers are fresh once listed, so the second lookup is served from the inventory
+		assertThat(loads()).isEqualTo(HOSTS);
+		assertThat(hostsListings).hasValue(1);
+		assertThat(meterRegistry.get("docker.containers.inventory.hits").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testUnreachableHost() {
+		DockerContainersInventory inventory = newInventory(TimeUnit.MINUTES.toMillis(1));
+		inventory.getContainers();
+		HostAddress host = hosts.get(3);
+		hostsContainers.remove(host.getPublicIpAddress());
+		inventory.refresh();
+		// the last known containers of the host are kept
+		assertThat(inventory.getHostContainers(host)).hasSize(HOST_CONTAINERS);
+		assertThat(inventory.getContainers()).hasSize(HOSTS * HOST_CONTAINERS);
+	}
+
+	@Test
+	public void testFailingHost() {
+		DockerContainersInventory inventory = newInventory(TimeUnit.MINUTES.toMillis(1));
+		inventory.getContainers();
+		HostAddress failingHost = hosts.get(3);
+		failingHosts.add(failingHost.getPublicIpAddress());
+		HostAddress host = hosts.get(0);
+		DockerContainer launched = dockerContainer(host, HOST_CONTAINERS);
+		hostsContainers.compute(host.getPublicIpAddress(), (h, containers) -> {
+			List<DockerContainer> newContainers = new ArrayList<>(containers);
+			newContainers.add(launched);
+			return newContainers;
+		});
+
+		// the other hosts are still refreshed, and the last known containers of the failing host are kept
+		assertThat(inventory.refresh()).hasSize(HOSTS * HOST_CONTAINERS + 1).contains(launched);
+		assertThat(inventory.getHostContainers(failingHost)).hasSize(HOST_CONTAINERS);
+	}
+
+}
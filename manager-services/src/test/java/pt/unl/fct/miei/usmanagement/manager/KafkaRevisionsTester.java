@@ -0,0 +1,152 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.kafka.KafkaRevision;
+import pt.unl.fct.miei.usmanagement.manager.kafka.KafkaRevisions;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaRevisionsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+public class KafkaRevisionsTester {
+
+	private static final TopicPartition APPS = new TopicPartition("apps", 0);
+	private static final TopicPartition SERVICES = new TopicPartition("services", 1);
+
+	// the worker database, which survives the restarts
+	private Map<String, KafkaRevision> database;
+	private KafkaRevisions kafkaRevisions;
+
+	@Before
+	public void setUp() {
+		database = new HashMap<>();
+		kafkaRevisions = mock(KafkaRevisions.class);
+		when(kafkaRevisions.findAll()).thenAnswer(invocation -> new ArrayList<>(database.values()));
+		when(kafkaRevisions.saveAll(any())).thenAnswer(invocation -> {
+			Iterable<KafkaRevision> revisions = invocation.getArgument(0);
+			revisions.forEach(revision -> database.put(revision.getId(), revision));
+			return revisions;
+		});
+	}
+
+	// the log of each partition, as kept by the broker
+	private List<ConsumerRecord<String, String>> log(int entities) {
+		List<ConsumerRecord<String, String>> log = new ArrayList<>();
+		for (int i = 0; i < entities; i++) {
+			log.add(new ConsumerRecord<>(APPS.topic(), APPS.partition(), i, "app-" + i, "app"));
+			log.add(new ConsumerRecord<>(SERVICES.topic(), SERVICES.partition(), i, "service-" + i, "service"));
+		}
+		return log;
+	}
+
+	// starts a worker: resumes each partition as WorkerKafkaService does, and applies whatever it receives
+	private int start(List<ConsumerRecord<String, String>> log) {
+		KafkaRevisionsService kafkaRevisionsService = new KafkaRevisionsService(kafkaRevisions);
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		List<TopicPartition> partitions = List.of(APPS, SERVICES);
+		consumer.assign(partitions);
+		consumer.updateBeginningOffsets(Map.of(APPS, 0L, SERVICES, 0L));
+		Map<TopicPartition, Long> positions = kafkaRevisionsService.getPositions(partitions);
+		for (TopicPartition partition : partitions) {
+			Long position = positions.get(partition);
+			if (position != null) {
+				consumer.seek(partition, position);
+			}
+			else {
+				consumer.seekToBeginning(List.of(partition));
+			}
+		}
+		log.forEach(consumer::addRecord);
+		ConsumerRecords<String, String> records = consumer.poll(Duration.ZERO);
+		List<ConsumerRecord<String, String>> applied = new ArrayList<>();
+		records.forEach(applied::add);
+		kafkaRevisionsService.applied(applied);
+		return applied.size();
+	}
+
+	@Test
+	public void testFirstStartReadsEverything() {
+		assertThat(start(log(100))).isEqualTo(200);
+		assertThat(database).hasSize(2);
+		assertThat(database.get(APPS.toString()).getRevision()).isEqualTo(99);
+	}
+
+	@Test
+	public void testRestartWithUpToDateDatabase() {
+		for (int entities : new int[]{10, 10_000}) {
+			database.clear();
+			List<ConsumerRecord<String, String>> log = log(entities);
+			assertThat(start(log)).isEqualTo(2 * entities);
+
+			assertThat(start(log)).isZero();
+		}
+	}
+
+	@Test
+	public void testRestartReadsOnlyNewerRecords() {
+		List<ConsumerRecord<String, String>> log = log(1000);
+		start(log);
+
+		log.add(new ConsumerRecord<>(APPS.topic(), APPS.partition(), 1000, "app-1000", "app"));
+		// a tombstone, the service was deleted
+		log.add(new ConsumerRecord<>(SERVICES.topic(), SERVICES.partition(), 1000, "service-0", null));
+
+		assertThat(start(log)).isEqualTo(2);
+		assertThat(start(log)).isZero();
+	}
+
+	@Test
+	public void testRestartWithEmptyDatabase() {
+		List<ConsumerRecord<String, String>> log = log(1000);
+		start(log);
+		database.clear();
+
+		assertThat(start(log)).isEqualTo(2000);
+	}
+
+	@Test
+	public void testFailedRecordsAreReadAgainAfterRestart() {
+		KafkaRevisionsService kafkaRevisionsService = new KafkaRevisionsService(kafkaRevisions);
+		ConsumerRecord<String, String> failed = new ConsumerRecord<>(APPS.topic(), APPS.partition(), 5, "app-5", "app");
+		List<ConsumerRecord<String, String>> batch = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			batch.add(i == 5 ? failed : new ConsumerRecord<>(APPS.topic(), APPS.partition(), i, "app-" + i, "app"));
+		}
+		kafkaRevisionsService.applied(batch, List.of(failed));
+		assertThat(database.get(APPS.toString()).getRevision()).isEqualTo(4);
+
+		// the following batches don't move past the failed record either
+		kafkaRevisionsService.applied(List.of(new ConsumerRecord<>(APPS.topic(), APPS.partition(), 10, "app-10", "app")));
+		assertThat(database.get(APPS.toString()).getRevision()).isEqualTo(4);
+
+		List<ConsumerRecord<String, String>> log = log(20);
+		assertThat(start(log)).isEqualTo(15 + 20);
+		assertThat(start(log)).isZero();
+	}
+
+	@Test
+	public void testNestedRecordsAreIgnored() {
+		KafkaRevisionsService kafkaRevisionsService = new KafkaRevisionsService(kafkaRevisions);
+		kafkaRevisionsService.applied(List.of(new ConsumerRecord<>("conditions", -1, -1, null, "condition")));
+
+		assertThat(database).isEmpty();
+	}
+
+}
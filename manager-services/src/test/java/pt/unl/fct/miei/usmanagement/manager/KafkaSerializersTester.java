@@ -0,0 +1,157 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.containers.ContainerTypeEnum;
+import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerDTO;
+import pt.unl.fct.miei.usmanagement.manager.dtos.kafka.ContainerRuleDTO;
+import pt.unl.fct.miei.usmanagement.manager.hosts.Coordinates;
+import pt.unl.fct.miei.usmanagement.manager.regions.RegionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.BinaryDeserializer;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.BinarySerializer;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaTopicKey;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(SpringRunner.class)
+public class KafkaSerializersTester {
+
+	private static final String TOPIC = "containers";
+
+	private ContainerDTO container() {
+		ContainerDTO container = new ContainerDTO("container-1");
+		container.setType(ContainerTypeEnum.SINGLETON);
+		container.setName("registration-server");
+		container.setLabels(Map.of("serviceName", "registration-server", "serviceType", "SYSTEM"));
+		container.setRegion(RegionEnum.EUROPE);
+		container.setCoordinates(new Coordinates(38.66, -9.20));
+		container.setMounts(Set.of("/var/run/docker.sock:/var/run/docker.sock"));
+		ContainerRuleDTO rule = new ContainerRuleDTO(1L);
+		rule.setName("rule");
+		rule.setPriority(2);
+		rule.setContainers(new HashSet<>(Set.of(container)));
+		container.setContainerRules(new HashSet<>(Set.of(rule)));
+		return container;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		BinarySerializer<Object> serializer = new BinarySerializer<>();
+		BinaryDeserializer<Object> deserializer = new BinaryDeserializer<>();
+		Headers headers = new RecordHeaders();
+
+		byte[] data = serializer.serialize(TOPIC, headers, container());
+		Object value = deserializer.deserialize(TOPIC, headers, data);
+
+		assertThat(value).isInstanceOf(ContainerDTO.class);
+		ContainerDTO container = (ContainerDTO) value;
+		assertThat(container.getId()).isEqualTo("container-1");
+		assertThat(container.getType()).isEqualTo(ContainerTypeEnum.SINGLETON);
+		assertThat(container.getLabels()).containsEntry("serviceName", "registration-server");
+		assertThat(container.getRegion()).isEqualTo(RegionEnum.EUROPE);
+		assertThat(container.getCoordinates().getLatitude()).isEqualTo(38.66);
+		assertThat(container.getContainerRules()).hasSize(1);
+		ContainerRuleDTO rule = container.getContainerRules().iterator().next();
+		assertThat(rule.getPriority()).isEqualTo(2);
+		assertThat(rule.getContainers().iterator().next()).isSameAs(container);
+	}
+
+	@Test
+	public void testKeys() {
+		BinarySerializer<Object> serializer = new BinarySerializer<>();
+		serializer.configure(Map.of(), true);
+		BinaryDeserializer<Object> deserializer = new BinaryDeserializer<>();
+		deserializer.configure(Map.of(), true);
+		Headers headers = new RecordHeaders();
+
+		KafkaTopicKey key = new KafkaTopicKey("master-manager", "container-1");
+		byte[] data = serializer.serialize(TOPIC, headers, key);
+
+		assertThat(deserializer.deserialize(TOPIC, headers, data)).isEqualTo(key);
+		assertThat(serializer.serialize(TOPIC, new RecordHeaders(), new KafkaTopicKey("master-manager", "container-1"))).isEqualTo(data);
+	}
+
+	@Test
+	public void testWithoutHeaders() {
+		byte[] data = new BinarySerializer<>().serialize(TOPIC, container());
+		BinaryDeserializer<Object> deserializer = new BinaryDeserializer<>();
+		deserializer.configure(Map.of(JsonDeserializer.VALUE_DEFAULT_TYPE, ContainerDTO.class.getName()), false);
+
+		Object value = deserializer.deserialize(TOPIC, data);
+
+		assertThat(value).isInstanceOf(ContainerDTO.class);
+		assertThat(((ContainerDTO) value).getName()).isEqualTo("registration-server");
+		assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), data)).isInstanceOf(ContainerDTO.class);
+	}
+
+	@Test
+	public void testWithoutHeadersNorDefaultType() {
+		byte[] data = new BinarySerializer<>().serialize(TOPIC, container());
+
+		Object value = new BinaryDeserializer<>().deserialize(TOPIC, data);
+
+		assertThat(value).isInstanceOf(JsonNode.class);
+		assertThat(((JsonNode) value).get("name").asText()).isEqualTo("registration-server");
+	}
+
+	@Test
+	public void testSmallerThanJson() {
+		Headers headers = new RecordHeaders();
+		byte[] binary = new BinarySerializer<>().serialize(TOPIC, headers, container());
+		byte[] json = new JsonSerializer<>().serialize(TOPIC, new RecordHeaders(), container());
+
+		assertThat(binary.length).isLessThan(json.length);
+	}
+
+	@Test
+	public void testReadsJson() {
+		Headers headers = new RecordHeaders();
+		byte[] json = new JsonSerializer<>().serialize(TOPIC, headers, container());
+
+		Object value = new BinaryDeserializer<>().deserialize(TOPIC, headers, json);
+
+		assertThat(value).isInstanceOf(ContainerDTO.class);
+		assertThat(((ContainerDTO) value).getName()).isEqualTo("registration-server");
+	}
+
+	@Test
+	public void testTombstone() {
+		Headers headers = new RecordHeaders();
+		assertThat(new BinarySerializer<>().serialize(TOPIC, headers, null)).isNull();
+		assertThat(new BinaryDeserializer<>().deserialize(TOPIC, headers, null)).isNull();
+	}
+
+	@Test
+	public void testUnsupportedSchemaVersion() {
+		Headers headers = new RecordHeaders();
+		byte[] data = new BinarySerializer<>().serialize(TOPIC, headers, container());
+		data[0] = 2;
+
+		assertThatThrownBy(() -> new BinaryDeserializer<>().deserialize(TOPIC, headers, data))
+			.isInstanceOf(SerializationException.class)
+			.hasMessageContaining("schema version");
+	}
+
+	@Test
+	public void testUntrustedType() {
+		Headers headers = new RecordHeaders();
+		byte[] data = new BinarySerializer<>().serialize(TOPIC, headers, Map.of("id", "container-1"));
+
+		assertThatThrownBy(() -> new BinaryDeserializer<>().deserialize(TOPIC, headers, data))
+			.isInstanceOf(SerializationException.class)
+			.hasMessageContaining("trusted");
+	}
+
+}
@@ -0,0 +1,146 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
+import pt.unl.fct.miei.usmanagement.manager.operators.OperatorEnum;
+import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ContainerEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.HostEvent;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.condition.Condition;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.DecisionResult;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.CompiledRuleEngine;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.DroolsService;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+public class RuleEngineTester {
+
+	private static final String SERVICE_RULE_TEMPLATE = "drools/service-rule-template.drl";
+	private static final String HOST_RULE_TEMPLATE = "drools/host-rule-template.drl";
+	private static final List<String> FIELDS = List.of("cpu-%", "ram-%", "rx-bytes", "tx-bytes", "latency");
+	// few distinct values, so that == and != conditions also match
+	private static final double[] VALUES = {0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+	private static final RuleDecisionEnum[] SERVICE_DECISIONS = {
+		RuleDecisionEnum.NONE, RuleDecisionEnum.STOP, RuleDecisionEnum.REPLICATE, RuleDecisionEnum.MIGRATE};
+	private static final RuleDecisionEnum[] HOST_DECISIONS = {
+		RuleDecisionEnum.NONE, RuleDecisionEnum.OVERWORK, RuleDecisionEnum.UNDERWORK};
+	private static final int PRIORITIES = 3;
+	private static final int RULE_SETS = 20;
+	private static final int EVENTS = 500;
+
+	private final Random random = new Random(42);
+
+	private List<Rule> randomRules(int count, RuleDecisionEnum[] decisions) {
+		List<Rule> rules = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			List<Condition> conditions = new ArrayList<>();
+			int conditionsCount = 1 + random.nextInt(3);
+			for (int j = 0; j < conditionsCount; j++) {
+				String field = FIELDS.get(random.nextInt(FIELDS.size()));
+				OperatorEnum operator = OperatorEnum.values()[random.nextInt(OperatorEnum.values().length)];
+				conditions.add(new Condition(field, VALUES[random.nextInt(VALUES.length)], operator));
+			}
+			RuleDecisionEnum decision = decisions[random.nextInt(decisions.length)];
+			// few distinct priorities, so that ties have to be broken by the order of the rules, as drools does
+			// for the rules that are new to the kie base
+			int priority = 1 + random.nextInt(PRIORITIES);
+			rules.add(new Rule(1 + random.nextInt(1_000_000), conditions, decision, priority));
+		}
+		return rules;
+	}
+
+	private ContainerEvent randomContainerEvent(String serviceName, HostAddress hostAddress) {
+		ContainerEvent event = new ContainerEvent("container", serviceName, hostAddress);
+		FIELDS.forEach(field -> event.getFields().put(field, VALUES[random.nextInt(VALUES.length)]));
+		return event;
+	}
+
+	private HostEvent randomHostEvent(HostAddress hostAddress) {
+		HostEvent event = new HostEvent(null, hostAddress);
+		FIELDS.forEach(field -> event.getFields().put(field, VALUES[random.nextInt(VALUES.length)]));
+		return event;
+	}
+
+	private void assertSameDecision(DecisionResult droolsResult, DecisionResult compiledResult) {
+		assertThat(compiledResult.getDecision()).isEqualTo(droolsResult.getDecision());
+		assertThat(compiledResult.getPriority()).isEqualTo(droolsResult.getPriority());
+		assertThat(compiledResult.getRuleId()).isEqualTo(droolsResult.getRuleId());
+	}
+
+	@Test
+	public void testServiceDecisionsMatchDrools() {
+		DroolsService drools = new DroolsService(new SimpleMeterRegistry());
+		CompiledRuleEngine compiled = new CompiledRuleEngine(new SimpleMeterRegistry());
+		HostAddress hostAddress = new HostAddress("127.0.0.1");
+		for (int i = 0; i < RULE_SETS; i++) {
+			String serviceName = "service-" + i;
+			List<Rule> rules = randomRules(1 + random.nextInt(15), SERVICE_DECISIONS);
+			ContainerEvent firstEvent = randomContainerEvent(serviceName, hostAddress);
+			drools.createNewServiceRuleSession(serviceName, firstEvent, rules, SERVICE_RULE_TEMPLATE);
+			compiled.createNewServiceRuleSession(serviceName, firstEvent, rules, SERVICE_RULE_TEMPLATE);
+			for (int j = 0; j < EVENTS; j++) {
+				ContainerEvent event = randomContainerEvent(serviceName, hostAddress);
+				assertSameDecision(drools.evaluate(hostAddress, event), compiled.evaluate(hostAddress, event));
+			}
+		}
+	}
+
+	@Test
+	public void testHostDecisionsMatchDrools() {
+		DroolsService drools = new DroolsService(new SimpleMeterRegistry());
+		CompiledRuleEngine compiled = new CompiledRuleEngine(new SimpleMeterRegistry());
+		for (int i = 0; i < RULE_SETS; i++) {
+			HostAddress hostAddress = new HostAddress("10.0.0." + i);
+			List<Rule> rules = randomRules(1 + random.nextInt(15), HOST_DECISIONS);
+			HostEvent firstEvent = randomHostEvent(hostAddress);
+			drools.createNewHostRuleSession(hostAddress, firstEvent, rules, HOST_RULE_TEMPLATE);
+			compiled.createNewHostRuleSession(hostAddress, firstEvent, rules, HOST_RULE_TEMPLATE);
+			for (int j = 0; j < EVENTS; j++) {
+				HostEvent event = randomHostEvent(hostAddress);
+				assertSameDecision(drools.evaluate(event), compiled.evaluate(event));
+			}
+		}
+	}
+
+	@Test
+	public void testTiesFollowTheOrderOfTheRules() {
+		DroolsService drools = new DroolsService(new SimpleMeterRegistry());
+		CompiledRuleEngine compiled = new CompiledRuleEngine(new SimpleMeterRegistry());
+		HostAddress hostAddress = new HostAddress("127.0.0.1");
+		ContainerEvent event = new ContainerEvent("container", "service", hostAddress);
+		event.getFields().put("cpu-%", 10.0);
+		Condition condition = new Condition("cpu-%", 5.0, OperatorEnum.GREATER_THAN);
+		List<Rule> rules = List.of(
+			new Rule(2, List.of(condition), RuleDecisionEnum.REPLICATE, 1),
+			new Rule(1, List.of(condition), RuleDecisionEnum.STOP, 1));
+		drools.createNewServiceRuleSession("service", event, rules, SERVICE_RULE_TEMPLATE);
+		compiled.createNewServiceRuleSession("service", event, rules, SERVICE_RULE_TEMPLATE);
+		DecisionResult result = compiled.evaluate(hostAddress, event);
+		assertThat(result.getRuleId()).isEqualTo(2);
+		assertSameDecision(drools.evaluate(hostAddress, event), result);
+	}
+
+	@Test
+	public void testNoRulesFired() {
+		CompiledRuleEngine compiled = new CompiledRuleEngine(new SimpleMeterRegistry());
+		HostAddress hostAddress = new HostAddress("127.0.0.1");
+		ContainerEvent event = new ContainerEvent("container", "service", hostAddress);
+		event.getFields().put("cpu-%", 10.0);
+		assertThat(compiled.evaluate(hostAddress, event).getDecision()).isEqualTo(RuleDecisionEnum.NONE);
+		Rule rule = new Rule(1, List.of(new Condition("cpu-%", 50.0, OperatorEnum.GREATER_THAN)), RuleDecisionEnum.REPLICATE, 1);
+		compiled.createNewServiceRuleSession("service", event, List.of(rule), SERVICE_RULE_TEMPLATE);
+		DecisionResult result = compiled.evaluate(hostAddress, event);
+		assertThat(result.getDecision()).isEqualTo(RuleDecisionEnum.NONE);
+		assertThat(result.getRuleId()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,70 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerProperties;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@RunWith(SpringRunner.class)
+public class SchedulerServiceTester {
+
+	private static final String DEDICATED_TASK = "heartbeat";
+
+	private SchedulerService schedulerService;
+	private CountDownLatch release;
+
+	@Before
+	public void setUp() {
+		SchedulerProperties schedulerProperties = new SchedulerProperties();
+		schedulerProperties.setThreads(1);
+		schedulerProperties.getDedicated().add(DEDICATED_TASK);
+		schedulerService = new SchedulerService(new SimpleMeterRegistry(), schedulerProperties);
+		release = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		schedulerService.stop();
+	}
+
+	@Test
+	public void testDedicatedTaskRunsWhileThePoolIsBusy() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		schedulerService.scheduleOnce("blocking-task", 0, () -> {
+			blocked.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch ticked = new CountDownLatch(2);
+		schedulerService.schedule(DEDICATED_TASK, 0, 10, ticked::countDown);
+		assertThat(ticked.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testTasksAreDroppedOnceStopped() {
+		schedulerService.stop();
+
+		assertThatCode(() -> assertThat(schedulerService.scheduleOnce("stop-load-balancer-europe", 0, () -> {
+		})).isNull()).doesNotThrowAnyException();
+		assertThatCode(() -> schedulerService.schedule("nodes-database-synchronization", 10, () -> {
+		})).doesNotThrowAnyException();
+	}
+
+}
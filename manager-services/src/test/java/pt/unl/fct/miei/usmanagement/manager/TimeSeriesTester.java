@@ -0,0 +1,189 @@
+package pt.unl.fct.miei.usmanagement.manager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringRunner;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.Aggregate;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeries;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesPoint;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesStore;
+import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+public class TimeSeriesTester {
+
+	// a whole hour, so that the buckets of every resolution start at it
+	private static final long START = 1_600_000_000_000L - 1_600_000_000_000L % TimeSeries.HOUR;
+	private static final long PERIOD = 10_000;
+
+	private static long minute(int minute) {
+		return START + minute * TimeSeries.MINUTE;
+	}
+
+	@Test
+	public void testRawSamplesAreLossless() {
+		TimeSeries timeSeries = new TimeSeries(1000, 60, 144, 168);
+		Random random = new Random(42);
+		List<TimeSeriesPoint> samples = new ArrayList<>();
+		long timestamp = START;
+		for (int i = 0; i < 500; i++) {
+			// mostly on time, some jittered, some late
+			timestamp += i % 7 == 0 ? -random.nextInt(30_000) : PERIOD + random.nextInt(100) - 50;
+			double value = i % 3 == 0 ? random.nextGaussian() * 1e6 : Math.round(random.nextDouble() * 100);
+			timeSeries.add(timestamp, value);
+			samples.add(new TimeSeriesPoint(timestamp, value));
+		}
+		samples.sort(Comparator.comparingLong(TimeSeriesPoint::getTimestamp));
+
+		assertThat(timeSeries.query(Long.MIN_VALUE, Long.MAX_VALUE, 0, Aggregate.AVG)).isEqualTo(samples);
+	}
+
+	@Test
+	public void testRawSamplesAreCompressed() {
+		int samples = 720;
+		TimeSeries timeSeries = new TimeSeries(samples, 60, 144, 168);
+		for (int i = 0; i < samples; i++) {
+			timeSeries.add(START + i * PERIOD, i % 10 == 0 ? 55.5 : 50.0);
+		}
+
+		assertThat(timeSeries.getRawSize()).isEqualTo(samples);
+		// a timestamp and a double take 16 bytes each when kept as they are
+		assertThat(timeSeries.getRawBytes()).isLessThan(samples * 16 / 10);
+	}
+
+	@Test
+	public void testRawEviction() {
+		int capacity = 300;
+		TimeSeries timeSeries = new TimeSeries(capacity, 60, 144, 168);
+		for (int i = 0; i < 1000; i++) {
+			timeSeries.add(START + i * PERIOD, i);
+		}
+
+		// whole blocks are dropped, so a bit more than the capacity may be kept
+		assertThat(timeSeries.getRawSize()).isBetween(capacity, 2 * capacity);
+		List<TimeSeriesPoint> raw = timeSeries.query(Long.MIN_VALUE, Long.MAX_VALUE, 0, Aggregate.AVG);
+		assertThat(raw).hasSize(timeSeries.getRawSize());
+		assertThat(raw.get(raw.size() - 1)).isEqualTo(new TimeSeriesPoint(START + 999 * PERIOD, 999));
+		assertThat(timeSeries.getLastTimestamp()).isEqualTo(START + 999 * PERIOD);
+	}
+
+	@Test
+	public void testRollupWrapsAroundAfterGrowth() {
+		int minutes = 20;
+		// the minute rollup starts with room for 8 buckets, grows up to 20 and then wraps around
+		TimeSeries timeSeries = new TimeSeries(10, minutes, 144, 168);
+		long samplesPerMinute = TimeSeries.MINUTE / PERIOD;
+		for (long timestamp = START; timestamp < minute(30); timestamp += PERIOD) {
+			timeSeries.add(timestamp, 1);
+		}
+
+		// the raw samples of the range are gone, so the minute rollup answers it
+		List<TimeSeriesPoint> lastMinutes = timeSeries.query(minute(10), minute(30) - 1, TimeSeries.MINUTE, Aggregate.COUNT);
+		assertThat(lastMinutes).extracting(TimeSeriesPoint::getTimestamp)
+			.containsExactlyElementsOf(LongStream.range(10, 30).map(minute -> minute(Math.toIntExact(minute)))
+				.boxed().collect(Collectors.toList()));
+		assertThat(lastMinutes).extracting(TimeSeriesPoint::getValue).containsOnly((double) samplesPerMinute);
+	}
+
+	@Test
+	public void testFallsBackToCoarserRollups() {
+		TimeSeries timeSeries = new TimeSeries(10, 20, 144, 168);
+		for (long timestamp = START; timestamp < minute(30); timestamp += PERIOD) {
+			timeSeries.add(timestamp, 1);
+		}
+		long samplesPerTenMinutes = TimeSeries.TEN_MINUTES / PERIOD;
+
+		// the first minutes are also gone from the minute rollup, so the 10 minutes one answers, at its own resolution
+		List<TimeSeriesPoint> allMinutes = timeSeries.query(START, minute(30) - 1, TimeSeries.MINUTE, Aggregate.COUNT);
+		assertThat(allMinutes).extracting(TimeSeriesPoint::getTimestamp).containsExactly(minute(0), minute(10), minute(20));
+		assertThat(allMinutes).extracting(TimeSeriesPoint::getValue).containsOnly((double) samplesPerTenMinutes);
+
+		// coarser steps merge the buckets of the finest rollup that covers the range
+		List<TimeSeriesPoint> hours = timeSeries.query(START, minute(30) - 1, TimeSeries.HOUR, Aggregate.COUNT);
+		assertThat(hours).containsExactly(new TimeSeriesPoint(START, 3 * samplesPerTenMinutes));
+
+		// while the recent range is still answered by the raw samples
+		List<TimeSeriesPoint> recent = timeSeries.query(minute(30) - 5 * PERIOD, minute(30), PERIOD, Aggregate.COUNT);
+		assertThat(recent).hasSize(5).extracting(TimeSeriesPoint::getValue).containsOnly(1.0);
+	}
+
+	@Test
+	public void testLateSamples() {
+		// with a single raw sample kept, the queries are answered by the rollups
+		TimeSeries timeSeries = new TimeSeries(1, 60, 144, 168);
+		timeSeries.add(minute(2) + 10_000, 1);
+		timeSeries.add(minute(3) + 10_000, 2);
+		// late, for a bucket that is still kept
+		timeSeries.add(minute(2) + 50_000, 3);
+		// late, and older than the last sample of its bucket
+		timeSeries.add(minute(2) + 5_000, 4);
+		// late, for a bucket before the oldest one, which is dropped by the rollups
+		timeSeries.add(minute(1), 5);
+		timeSeries.add(minute(4), 6);
+
+		assertThat(timeSeries.query(minute(1), minute(4) - 1, TimeSeries.MINUTE, Aggregate.COUNT))
+			.containsExactly(new TimeSeriesPoint(minute(2), 3), new TimeSeriesPoint(minute(3), 1));
+		assertThat(timeSeries.query(minute(2), minute(3) - 1, TimeSeries.MINUTE, Aggregate.LAST))
+			.containsExactly(new TimeSeriesPoint(minute(2), 3));
+	}
+
+	@Test
+	public void testAggregates() {
+		Map<Aggregate, Double> expected = Map.of(
+			Aggregate.AVG, 2.5,
+			Aggregate.MIN, 1.0,
+			Aggregate.MAX, 4.0,
+			Aggregate.SUM, 10.0,
+			Aggregate.COUNT, 4.0,
+			Aggregate.LAST, 3.0
+		);
+		assertThat(expected).containsOnlyKeys(Aggregate.values());
+		// raw samples, and rollups once the raw samples are gone
+		for (int rawCapacity : new int[]{100, 1}) {
+			TimeSeries timeSeries = new TimeSeries(rawCapacity, 60, 144, 168);
+			timeSeries.add(minute(0), 1);
+			timeSeries.add(minute(0) + 10_000, 4);
+			timeSeries.add(minute(0) + 30_000, 3);
+			timeSeries.add(minute(0) + 20_000, 2);
+			timeSeries.add(minute(1), 0);
+			for (Aggregate aggregate : Aggregate.values()) {
+				assertThat(timeSeries.query(minute(0), minute(1) - 1, TimeSeries.MINUTE, aggregate))
+					.as("%s with a raw capacity of %d", aggregate, rawCapacity)
+					.containsExactly(new TimeSeriesPoint(minute(0), expected.get(aggregate)));
+			}
+		}
+	}
+
+	@Test
+	public void testStore() {
+		MonitoringProperties.Logs capacities = new MonitoringProperties().getLogs();
+		capacities.setRawCapacity(100);
+		capacities.setMinuteCapacity(60);
+		capacities.setTenMinutesCapacity(144);
+		capacities.setHourCapacity(168);
+		TimeSeriesStore<String> store = new TimeSeriesStore<>(capacities);
+		store.record("container-1", "cpu-%", START, 10);
+		store.record("container-1", "CPU-%", START + PERIOD, 20);
+		store.record("container-2", "cpu-%", START, 30);
+
+		TimeSeriesQuery query = new TimeSeriesQuery(null, null, TimeSeries.MINUTE, Aggregate.MAX);
+		assertThat(store.query("container-1"::equals, query, (key, field, point) -> key + " " + field + " " + point.getValue()))
+			.containsExactly("container-1 cpu-% 20.0");
+
+		store.removeIf(key -> key.endsWith("1"));
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(store.query(key -> true, query, (key, field, point) -> key)).containsExactly("container-2");
+	}
+
+}
@@ -35,8 +35,12 @@ import pt.unl.fct.miei.usmanagement.manager.management.monitoring.ServicesMonito
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
+import pt.unl.fct.miei.usmanagement.manager.services.docker.DockerCoreService;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainer;
 import pt.unl.fct.miei.usmanagement.manager.services.docker.swarm.DockerSwarmService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.HostCapacityService;
+import pt.unl.fct.miei.usmanagement.manager.services.remote.ssh.SshService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.sync.SyncService;
 
 import java.util.Objects;
@@ -48,6 +52,10 @@ public class ManagerWorkerShutdown implements ApplicationListener<ContextClosedE
 
 	private final ContainersService containersService;
 	private final DockerSwarmService dockerSwarmService;
+	private final DockerCoreService dockerCoreService;
+	private final HostCapacityService hostCapacityService;
+	private final SshService sshService;
+	private final SchedulerService schedulerService;
 	private final HostsMonitoringService hostsMonitoringService;
 	private final ServicesMonitoringService servicesMonitoringService;
 	private final SyncService syncService;
@@ -55,11 +63,17 @@ public class ManagerWorkerShutdown implements ApplicationListener<ContextClosedE
 
 	public ManagerWorkerShutdown(ContainersService containersService, ServicesMonitoringService servicesMonitoringService,
 								 SyncService syncService, DockerSwarmService dockerSwarmService,
-								 HostsMonitoringService hostsMonitoringService, KafkaService kafkaService) {
+								 HostsMonitoringService hostsMonitoringService, KafkaService kafkaService,
+								 DockerCoreService dockerCoreService, HostCapacityService hostCapacityService,
+								 SshService sshService, SchedulerService schedulerService) {
 		this.containersService = containersService;
 		this.servicesMonitoringService = servicesMonitoringService;
 		this.syncService = syncService;
 		this.dockerSwarmService = dockerSwarmService;
+		this.dockerCoreService = dockerCoreService;
+		this.hostCapacityService = hostCapacityService;
+		this.sshService = sshService;
+		this.schedulerService = schedulerService;
 		this.hostsMonitoringService = hostsMonitoringService;
 		this.kafkaService = kafkaService;
 	}
@@ -67,6 +81,7 @@ public class ManagerWorkerShutdown implements ApplicationListener<ContextClosedE
 	@Override
 	public void onApplicationEvent(@NonNull ContextClosedEvent event) {
 		hostsMonitoringService.stopHostMonitoring();
+		hostCapacityService.stop();
 		servicesMonitoringService.stopServiceMonitoring();
 		syncService.stopCloudHostsDatabaseSynchronization();
 		syncService.stopContainersDatabaseSynchronization();
@@ -94,6 +109,10 @@ public class ManagerWorkerShutdown implements ApplicationListener<ContextClosedE
 		catch (Exception e) {
 			log.error("Failed to stop all docker api proxies: {}", e.getMessage());
 		}
+		// only stopped now, since stopping the containers schedules tasks, e.g. the stop of idle load balancers
+		schedulerService.stop();
+		dockerCoreService.closeDockerClients();
+		sshService.closeSshClients();
 	}
 
 }
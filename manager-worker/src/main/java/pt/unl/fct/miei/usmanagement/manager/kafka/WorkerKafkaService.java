@@ -1,11 +1,13 @@
 package pt.unl.fct.miei.usmanagement.manager.kafka;
 
-import com.google.common.base.Objects;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.hibernate.Session;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pt.unl.fct.miei.usmanagement.manager.apps.App;
@@ -77,6 +79,7 @@ import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.HostRule;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.ServiceRule;
 import pt.unl.fct.miei.usmanagement.manager.services.ServiceConstants;
 import pt.unl.fct.miei.usmanagement.manager.services.apps.AppsService;
+import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaRevisionsService;
 import pt.unl.fct.miei.usmanagement.manager.services.communication.kafka.KafkaTopicKey;
 import pt.unl.fct.miei.usmanagement.manager.services.componenttypes.ComponentTypesService;
 import pt.unl.fct.miei.usmanagement.manager.services.containers.ContainersService;
@@ -102,15 +105,19 @@ import pt.unl.fct.miei.usmanagement.manager.services.valuemodes.ValueModesServic
 import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagersService;
 import pt.unl.fct.miei.usmanagement.manager.valuemodes.ValueMode;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-public class WorkerKafkaService {
+public class WorkerKafkaService implements ConsumerSeekAware {
 
 	private final AppsService appsService;
 	private final CloudHostsService cloudHostsService;
@@ -135,8 +142,9 @@ public class WorkerKafkaService {
 	private final ValueModesService valueModesService;
 	private final WorkerManagersService workerManagersService;
 	private final HostsService hostsService;
-
-	private final CycleAvoidingMappingContext context;
+	private final KafkaRevisionsService kafkaRevisionsService;
+	private final EntityManager entityManager;
+	private final MeterRegistry meterRegistry;
 
 	public WorkerKafkaService(AppsService appsService, CloudHostsService cloudHostsService,
 							  ComponentTypesService componentTypesService, ConditionsService conditionsService,
@@ -149,7 +157,9 @@ public class WorkerKafkaService {
 							  ContainerSimulatedMetricsService containerSimulatedMetricsService,
 							  HostRulesService hostRulesService, AppRulesService appRulesService,
 							  ServiceRulesService serviceRulesService, ContainerRulesService containerRulesService,
-							  ValueModesService valueModesService, WorkerManagersService workerManagersService, HostsService hostsService) {
+							  ValueModesService valueModesService, WorkerManagersService workerManagersService, HostsService hostsService,
+							  KafkaRevisionsService kafkaRevisionsService, EntityManager entityManager,
+							  MeterRegistry meterRegistry) {
 		this.appsService = appsService;
 		this.cloudHostsService = cloudHostsService;
 		this.componentTypesService = componentTypesService;
@@ -173,20 +183,40 @@ public class WorkerKafkaService {
 		this.valueModesService = valueModesService;
 		this.workerManagersService = workerManagersService;
 		this.hostsService = hostsService;
-		this.context = new CycleAvoidingMappingContext();
+		this.kafkaRevisionsService = kafkaRevisionsService;
+		this.entityManager = entityManager;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+		Map<TopicPartition, Long> positions = kafkaRevisionsService.getPositions(assignments.keySet());
+		for (TopicPartition partition : assignments.keySet()) {
+			Long position = positions.get(partition);
+			if (position != null) {
+				callback.seek(partition.topic(), partition.partition(), position);
+			}
+			else {
+				callback.seekToBeginning(partition.topic(), partition.partition());
+			}
+		}
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "apps", autoStartup = "false")
-	public void listenApps(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<AppDTO> appDTOs) {
-		int i = 0;
-		for (AppDTO appDTO : appDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, appDTO.toString());
+	public void listenApps(List<ConsumerRecord<KafkaTopicKey, AppDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, AppDTO>> latestRecords = latest(records);
+		prefetch(App.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, AppDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, AppDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			AppDTO appDTO = record.value();
+			log.debug("Received key={} message={}", key, appDTO);
 			try {
 				App app = AppMapper.MAPPER.toApp(appDTO, context);
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = app.getId();
+				if (appDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					appsService.deleteApp(id);
 				}
 				else {
@@ -201,23 +231,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic apps with key={} and message={}: {}", key, appDTO.toString(), e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic apps with key={} and message={}: {}", key, appDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "cloud-hosts", autoStartup = "false")
-	public void listenCloudHosts(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<CloudHostDTO> cloudHostDTOs) {
-		int i = 0;
-		for (CloudHostDTO cloudHostDTO : cloudHostDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, cloudHostDTO.toString());
+	public void listenCloudHosts(List<ConsumerRecord<KafkaTopicKey, CloudHostDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, CloudHostDTO>> latestRecords = latest(records);
+		prefetch(CloudHost.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, CloudHostDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, CloudHostDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			CloudHostDTO cloudHostDTO = record.value();
+			log.debug("Received key={} message={}", key, cloudHostDTO);
 			CloudHost cloudHost = CloudHostMapper.MAPPER.toCloudHost(cloudHostDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = cloudHost.getId();
+				if (cloudHostDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					cloudHostsService.deleteCloudHost(id);
 				}
 				else {
@@ -228,23 +263,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic cloud-hosts with key={} and message={}: {}", key, cloudHostDTO.toString(), e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic cloud-hosts with key={} and message={}: {}", key, cloudHostDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "component-types", autoStartup = "false")
-	public void listenComponentTypes(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ComponentTypeDTO> componentTypeDTOs) {
-		int i = 0;
-		for (ComponentTypeDTO componentTypeDTO : componentTypeDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenComponentTypes(List<ConsumerRecord<KafkaTopicKey, ComponentTypeDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ComponentTypeDTO>> latestRecords = latest(records);
+		prefetch(ComponentType.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ComponentTypeDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ComponentTypeDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ComponentTypeDTO componentTypeDTO = record.value();
 			log.debug("Received key={} message={}", key, componentTypeDTO);
 			ComponentType componentType = ComponentTypeMapper.MAPPER.toComponentType(componentTypeDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = componentType.getId();
+				if (componentTypeDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					componentTypesService.deleteComponentType(id);
 				}
 				else {
@@ -260,23 +300,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic component-types with key={} and message={}: {}", key, componentTypeDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic component-types with key={} and message={}: {}", key, componentTypeDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "conditions", autoStartup = "false")
-	public void listenConditions(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ConditionDTO> conditionDTOs) {
-		int i = 0;
-		for (ConditionDTO conditionDTO : conditionDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenConditions(List<ConsumerRecord<KafkaTopicKey, ConditionDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ConditionDTO>> latestRecords = latest(records);
+		prefetch(Condition.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ConditionDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ConditionDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ConditionDTO conditionDTO = record.value();
 			log.debug("Received key={} message={}", key, conditionDTO);
 			Condition condition = ConditionMapper.MAPPER.toCondition(conditionDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = condition.getId();
+				if (conditionDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					conditionsService.deleteCondition(id);
 				}
 				else {
@@ -287,51 +332,56 @@ public class WorkerKafkaService {
 					Set<HostRuleConditionDTO> hostRuleConditions = conditionDTO.getHostConditions();
 					if (hostRuleConditions != null && hostRuleConditions.size() > 0) {
 						Set<HostRuleDTO> hostRules = hostRuleConditions.stream().map(HostRuleConditionDTO::getRule).collect(Collectors.toSet());
-						listenHostRules(new ArrayList<>(Collections.nCopies(hostRuleConditions.size(), null)), hostRules);
+						listenHostRules(records("host-rules", hostRules));
 					}
 
 					Set<AppRuleConditionDTO> appRuleConditions = conditionDTO.getAppConditions();
 					if (appRuleConditions != null && appRuleConditions.size() > 0) {
 						Set<AppRuleDTO> appRules = appRuleConditions.stream().map(AppRuleConditionDTO::getRule).collect(Collectors.toSet());
-						listenAppRules(new ArrayList<>(Collections.nCopies(appRuleConditions.size(), null)), appRules);
+						listenAppRules(records("app-rules", appRules));
 					}
 
 					Set<ServiceRuleConditionDTO> serviceRuleConditions = conditionDTO.getServiceConditions();
 					if (serviceRuleConditions != null && serviceRuleConditions.size() > 0) {
 						Set<ServiceRuleDTO> serviceRules = serviceRuleConditions.stream().map(ServiceRuleConditionDTO::getRule).collect(Collectors.toSet());
-						listenServiceRules(new ArrayList<>(Collections.nCopies(serviceRuleConditions.size(), null)), serviceRules);
+						listenServiceRules(records("service-rules", serviceRules));
 					}
 
 					Set<ContainerRuleConditionDTO> containerRuleConditions = conditionDTO.getContainerConditions();
 					if (containerRuleConditions != null && containerRuleConditions.size() > 0) {
 						Set<ContainerRuleDTO> containerRules = containerRuleConditions.stream().map(ContainerRuleConditionDTO::getRule).collect(Collectors.toSet());
-						listenContainerRules(new ArrayList<>(Collections.nCopies(containerRuleConditions.size(), null)), containerRules);
+						listenContainerRules(records("container-rules", containerRules));
 					}
 
 					conditionsService.addOrUpdateCondition(condition);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic conditions with key={} and message={}: {}", key, conditionDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic conditions with key={} and message={}: {}", key, conditionDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "containers", autoStartup = "false")
-	public void listenContainers(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ContainerDTO> containerDTOs) {
-		int i = 0;
-		for (ContainerDTO containerDTO : containerDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenContainers(List<ConsumerRecord<KafkaTopicKey, ContainerDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ContainerDTO>> latestRecords = latest(records);
+		prefetch(Container.class, latestRecords, Function.identity());
+		List<ConsumerRecord<KafkaTopicKey, ContainerDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ContainerDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ContainerDTO containerDTO = record.value();
 			log.debug("Received key={} message={}", key, containerDTO);
 			if (key != null && key.getManagerId() != null && !key.getManagerId().equalsIgnoreCase(ServiceConstants.Name.MASTER_MANAGER)) {
 				continue;
 			}
 			Container container = ContainerMapper.MAPPER.toContainer(containerDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					String id = container.getId();
+				if (containerDTO == null) {
+					String id = key.getId();
 					if (containersService.hasContainer(id)) {
 						containersService.deleteContainer(id);
 					}
@@ -342,24 +392,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic containers with key={} and message={}: {}", key, containerDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic containers with key={} and message={}: {}", key, containerDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
-
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "decisions", autoStartup = "false")
-	public void listenDecisions(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<DecisionDTO> decisionDTOs) {
-		int i = 0;
-		for (DecisionDTO decisionDTO : decisionDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, decisionDTO.toString());
+	public void listenDecisions(List<ConsumerRecord<KafkaTopicKey, DecisionDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, DecisionDTO>> latestRecords = latest(records);
+		prefetch(Decision.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, DecisionDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, DecisionDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			DecisionDTO decisionDTO = record.value();
+			log.debug("Received key={} message={}", key, decisionDTO);
 			Decision decision = DecisionMapper.MAPPER.toDecision(decisionDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = decision.getId();
+				if (decisionDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					decisionsService.deleteDecision(id);
 				}
 				else {
@@ -368,23 +422,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic decisions with key={} and message={}: {}", key, decisionDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic decisions with key={} and message={}: {}", key, decisionDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "edge-hosts", autoStartup = "false")
-	public void listenEdgeHosts(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<EdgeHostDTO> edgeHostDTOs) {
-		int i = 0;
-		for (EdgeHostDTO edgeHostDTO : edgeHostDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, edgeHostDTO.toString());
+	public void listenEdgeHosts(List<ConsumerRecord<KafkaTopicKey, EdgeHostDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, EdgeHostDTO>> latestRecords = latest(records);
+		prefetch(EdgeHost.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, EdgeHostDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, EdgeHostDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			EdgeHostDTO edgeHostDTO = record.value();
+			log.debug("Received key={} message={}", key, edgeHostDTO);
 			EdgeHost edgeHost = EdgeHostMapper.MAPPER.toEdgeHost(edgeHostDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = edgeHost.getId();
+				if (edgeHostDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					edgeHostsService.deleteEdgeHost(id);
 				}
 				else {
@@ -395,23 +454,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic edge-hosts with key={} and message={}: {}", key, edgeHostDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic edge-hosts with key={} and message={}: {}", key, edgeHostDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "eips", autoStartup = "false")
-	public void listenElasticIps(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ElasticIpDTO> elasticIpDTOs) {
-		int i = 0;
-		for (ElasticIpDTO elasticIpDTO : elasticIpDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, elasticIpDTO.toString());
+	public void listenElasticIps(List<ConsumerRecord<KafkaTopicKey, ElasticIpDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ElasticIpDTO>> latestRecords = latest(records);
+		prefetch(ElasticIp.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ElasticIpDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ElasticIpDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ElasticIpDTO elasticIpDTO = record.value();
+			log.debug("Received key={} message={}", key, elasticIpDTO);
 			ElasticIp elasticIp = ElasticIpMapper.MAPPER.toElasticIp(elasticIpDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = elasticIp.getId();
+				if (elasticIpDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					elasticIpsService.deleteElasticIp(id);
 				}
 				else {
@@ -419,54 +483,60 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic eips with key={} and message={}: {}", key, elasticIpDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic eips with key={} and message={}: {}", key, elasticIpDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "fields", autoStartup = "false")
-	public void listenFields(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<FieldDTO> fieldDTOs) {
-		int i = 0;
-		for (FieldDTO fieldDTO : fieldDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, fieldDTO.toString());
+	public void listenFields(List<ConsumerRecord<KafkaTopicKey, FieldDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, FieldDTO>> latestRecords = latest(records);
+		prefetch(Field.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, FieldDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, FieldDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			FieldDTO fieldDTO = record.value();
+			log.debug("Received key={} message={}", key, fieldDTO);
 			Field field = FieldMapper.MAPPER.toField(fieldDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = field.getId();
+				if (fieldDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					fieldsService.deleteField(id);
 				}
 				else {
 					Set<ConditionDTO> conditions = fieldDTO.getConditions();
 					if (conditions != null && conditions.size() > 0) {
-						listenConditions(new ArrayList<>(Collections.nCopies(conditions.size(), null)), conditions);
+						listenConditions(records("conditions", conditions));
 					}
 					fieldsService.addOrUpdateField(field);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic fields with key={} and message={}: {}", key, fieldDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic fields with key={} and message={}: {}", key, fieldDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	/*@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "nodes", autoStartup = "false")
-	public void listenNodes(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<NodeDTO> nodeDTOs) {
-		int i = 0;
-		for (NodeDTO nodeDTO : nodeDTOs) {
-			KafkaTopicKey key = keys.get(i++);
+	public void listenNodes(List<ConsumerRecord<KafkaTopicKey, NodeDTO>> records) {
+		for (ConsumerRecord<KafkaTopicKey, NodeDTO> record : records) {
+			KafkaTopicKey key = record.key();
+			NodeDTO nodeDTO = record.value();
 			if (key == null && nodeDTO.getRegion() != hostsService.getManagerHostAddress().getRegion()) {
 				continue;
 			}
-			log.debug("Received key={} message={}", key, nodeDTO.toString());
+			log.debug("Received key={} message={}", key, nodeDTO);
 			Node node = NodeMapper.MAPPER.toNode(nodeDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					String id = node.getId();
+				if (nodeDTO == null) {
+					String id = key.getId();
 					nodesService.deleteNode(id);
 				}
 				else {
@@ -482,43 +552,52 @@ public class WorkerKafkaService {
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "operators", autoStartup = "false")
-	public void listenOperators(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<OperatorDTO> operatorDTOs) {
-		int i = 0;
-		for (OperatorDTO operatorDTO : operatorDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, operatorDTO.toString());
+	public void listenOperators(List<ConsumerRecord<KafkaTopicKey, OperatorDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, OperatorDTO>> latestRecords = latest(records);
+		prefetch(Operator.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, OperatorDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, OperatorDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			OperatorDTO operatorDTO = record.value();
+			log.debug("Received key={} message={}", key, operatorDTO);
 			Operator operator = OperatorMapper.MAPPER.toOperator(operatorDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = operator.getId();
+				if (operatorDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					operatorsService.deleteOperator(id);
 				}
 				else {
 					Set<ConditionDTO> conditions = operatorDTO.getConditions();
 					if (conditions != null && conditions.size() > 0) {
-						listenConditions(new ArrayList<>(Collections.nCopies(conditions.size(), null)), conditions);
+						listenConditions(records("conditions", conditions));
 					}
 					operatorsService.addOrUpdateOperator(operator);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic operators with key={} and message={}: {}", key, operatorDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic operators with key={} and message={}: {}", key, operatorDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "services", autoStartup = "false")
-	public void listenService(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ServiceDTO> serviceDTOs) {
-		int i = 0;
-		for (ServiceDTO serviceDTO : serviceDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, serviceDTO.toString());
+	public void listenService(List<ConsumerRecord<KafkaTopicKey, ServiceDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ServiceDTO>> latestRecords = latest(records);
+		prefetch(pt.unl.fct.miei.usmanagement.manager.services.Service.class, latestRecords, Function.identity());
+		List<ConsumerRecord<KafkaTopicKey, ServiceDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ServiceDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ServiceDTO serviceDTO = record.value();
+			log.debug("Received key={} message={}", key, serviceDTO);
 			try {
 				pt.unl.fct.miei.usmanagement.manager.services.Service service = ServiceMapper.MAPPER.toService(serviceDTO, context);
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					String serviceName = service.getServiceName();
+				if (serviceDTO == null) {
+					String serviceName = key.getId();
 					servicesService.deleteServiceByName(serviceName);
 				}
 				else {
@@ -547,24 +626,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic services with key={} and message={}: {}", key, serviceDTO.toString(), e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic services with key={} and message={}: {}", key, serviceDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "simulated-host-metrics", autoStartup = "false")
-	public void listenSimulatedHostMetrics(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys,
-										   List<HostSimulatedMetricDTO> hostSimulatedMetricDTOs) {
-		int i = 0;
-		for (HostSimulatedMetricDTO hostSimulatedMetricDTO : hostSimulatedMetricDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, hostSimulatedMetricDTO.toString());
+	public void listenSimulatedHostMetrics(List<ConsumerRecord<KafkaTopicKey, HostSimulatedMetricDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, HostSimulatedMetricDTO>> latestRecords = latest(records);
+		prefetch(HostSimulatedMetric.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, HostSimulatedMetricDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, HostSimulatedMetricDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			HostSimulatedMetricDTO hostSimulatedMetricDTO = record.value();
+			log.debug("Received key={} message={}", key, hostSimulatedMetricDTO);
 			HostSimulatedMetric hostSimulatedMetric = HostSimulatedMetricMapper.MAPPER.toHostSimulatedMetric(hostSimulatedMetricDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = hostSimulatedMetric.getId();
+				if (hostSimulatedMetricDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					hostSimulatedMetricsService.deleteHostSimulatedMetric(id);
 				}
 				else {
@@ -589,24 +672,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic simulated-host-metrics with key={} and message={}: {}", key, hostSimulatedMetricDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic simulated-host-metrics with key={} and message={}: {}", key, hostSimulatedMetricDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "simulated-app-metrics", autoStartup = "false")
-	public void listenSimulatedAppMetrics(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys,
-										  List<AppSimulatedMetricDTO> appSimulatedMetricDTOs) {
-		int i = 0;
-		for (AppSimulatedMetricDTO appSimulatedMetricDTO : appSimulatedMetricDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, appSimulatedMetricDTO.toString());
+	public void listenSimulatedAppMetrics(List<ConsumerRecord<KafkaTopicKey, AppSimulatedMetricDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, AppSimulatedMetricDTO>> latestRecords = latest(records);
+		prefetch(AppSimulatedMetric.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, AppSimulatedMetricDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, AppSimulatedMetricDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			AppSimulatedMetricDTO appSimulatedMetricDTO = record.value();
+			log.debug("Received key={} message={}", key, appSimulatedMetricDTO);
 			AppSimulatedMetric appSimulatedMetric = AppSimulatedMetricMapper.MAPPER.toAppSimulatedMetric(appSimulatedMetricDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = appSimulatedMetric.getId();
+				if (appSimulatedMetricDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					appSimulatedMetricsService.deleteAppSimulatedMetric(id);
 				}
 				else {
@@ -623,24 +710,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic simulated-app-metrics with key={} and message={}: {}", key, appSimulatedMetricDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic simulated-app-metrics with key={} and message={}: {}", key, appSimulatedMetricDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "simulated-service-metrics", autoStartup = "false")
-	public void listenSimulatedServiceMetrics(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys,
-											  List<ServiceSimulatedMetricDTO> serviceSimulatedMetricDTOs) {
-		int i = 0;
-		for (ServiceSimulatedMetricDTO serviceSimulatedMetricDTO : serviceSimulatedMetricDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, serviceSimulatedMetricDTO.toString());
+	public void listenSimulatedServiceMetrics(List<ConsumerRecord<KafkaTopicKey, ServiceSimulatedMetricDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ServiceSimulatedMetricDTO>> latestRecords = latest(records);
+		prefetch(ServiceSimulatedMetric.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ServiceSimulatedMetricDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ServiceSimulatedMetricDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ServiceSimulatedMetricDTO serviceSimulatedMetricDTO = record.value();
+			log.debug("Received key={} message={}", key, serviceSimulatedMetricDTO);
 			ServiceSimulatedMetric serviceSimulatedMetric = ServiceSimulatedMetricMapper.MAPPER.toServiceSimulatedMetric(serviceSimulatedMetricDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = serviceSimulatedMetric.getId();
+				if (serviceSimulatedMetricDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					serviceSimulatedMetricsService.deleteServiceSimulatedMetric(id);
 				}
 				else {
@@ -657,23 +748,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic simulated-service-metrics with key={} and message={}: {}", key, serviceSimulatedMetricDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic simulated-service-metrics with key={} and message={}: {}", key, serviceSimulatedMetricDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "simulated-container-metrics", autoStartup = "false")
-	public void listenSimulatedContainerMetrics(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ContainerSimulatedMetricDTO> containerSimulatedMetricDTOs) {
-		int i = 0;
-		for (ContainerSimulatedMetricDTO containerSimulatedMetricDTO : containerSimulatedMetricDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, containerSimulatedMetricDTO.toString());
+	public void listenSimulatedContainerMetrics(List<ConsumerRecord<KafkaTopicKey, ContainerSimulatedMetricDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ContainerSimulatedMetricDTO>> latestRecords = latest(records);
+		prefetch(ContainerSimulatedMetric.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ContainerSimulatedMetricDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ContainerSimulatedMetricDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ContainerSimulatedMetricDTO containerSimulatedMetricDTO = record.value();
+			log.debug("Received key={} message={}", key, containerSimulatedMetricDTO);
 			ContainerSimulatedMetric containerSimulatedMetric = ContainerSimulatedMetricMapper.MAPPER.toContainerSimulatedMetric(containerSimulatedMetricDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = containerSimulatedMetric.getId();
+				if (containerSimulatedMetricDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					containerSimulatedMetricsService.deleteContainerSimulatedMetric(id);
 				}
 				else {
@@ -690,27 +786,32 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic simulated-container-metrics with key={} and message={}: {}", key, containerSimulatedMetricDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic simulated-container-metrics with key={} and message={}: {}", key, containerSimulatedMetricDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "host-rules", autoStartup = "false")
-	public void listenHostRules(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<HostRuleDTO> hostRuleDTOs) {
-		int i = 0;
-		for (HostRuleDTO hostRuleDTO : hostRuleDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, hostRuleDTO.toString());
+	public void listenHostRules(List<ConsumerRecord<KafkaTopicKey, HostRuleDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, HostRuleDTO>> latestRecords = latest(records);
+		prefetch(HostRule.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, HostRuleDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, HostRuleDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			HostRuleDTO hostRuleDTO = record.value();
+			log.debug("Received key={} message={}", key, hostRuleDTO);
 			HostRule hostRule = HostRuleMapper.MAPPER.toHostRule(hostRuleDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = hostRule.getId();
+				if (hostRuleDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					hostRulesService.deleteRule(id);
 				}
 				else {
-					listenDecisions(new ArrayList<>(Collections.nCopies(1, null)), Set.of(hostRuleDTO.getDecision()));
+					listenDecisions(records("decisions", Set.of(hostRuleDTO.getDecision())));
 					Set<HostRuleConditionDTO> ruleConditions = hostRuleDTO.getConditions();
 					if (ruleConditions != null && ruleConditions.size() > 0) {
 						ruleConditions.stream().map(HostRuleConditionDTO::getCondition)
@@ -747,23 +848,28 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic host-rules with key={} and message={}: {}", key, hostRuleDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic host-rules with key={} and message={}: {}", key, hostRuleDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "app-rules", autoStartup = "false")
-	public void listenAppRules(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<AppRuleDTO> appRuleDTOs) {
-		int i = 0;
-		for (AppRuleDTO appRuleDTO : appRuleDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, appRuleDTO.toString());
+	public void listenAppRules(List<ConsumerRecord<KafkaTopicKey, AppRuleDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, AppRuleDTO>> latestRecords = latest(records);
+		prefetch(AppRule.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, AppRuleDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, AppRuleDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			AppRuleDTO appRuleDTO = record.value();
+			log.debug("Received key={} message={}", key, appRuleDTO);
 			AppRule appRule = AppRuleMapper.MAPPER.toAppRule(appRuleDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = appRule.getId();
+				if (appRuleDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					appRulesService.deleteRule(id);
 				}
 				else {
@@ -797,27 +903,32 @@ public class WorkerKafkaService {
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic app-rules with key={} and message={}: {}", key, appRuleDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic app-rules with key={} and message={}: {}", key, appRuleDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "service-rules", autoStartup = "false")
-	public void listenServiceRules(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ServiceRuleDTO> serviceRuleDTOs) {
-		int i = 0;
-		for (ServiceRuleDTO serviceRuleDTO : serviceRuleDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, serviceRuleDTO.toString());
+	public void listenServiceRules(List<ConsumerRecord<KafkaTopicKey, ServiceRuleDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ServiceRuleDTO>> latestRecords = latest(records);
+		prefetch(ServiceRule.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ServiceRuleDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ServiceRuleDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ServiceRuleDTO serviceRuleDTO = record.value();
+			log.debug("Received key={} message={}", key, serviceRuleDTO);
 			ServiceRule serviceRule = ServiceRuleMapper.MAPPER.toServiceRule(serviceRuleDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = serviceRule.getId();
+				if (serviceRuleDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					serviceRulesService.deleteRule(id);
 				}
 				else {
-					listenDecisions(new ArrayList<>(Collections.nCopies(1, null)), Set.of(serviceRuleDTO.getDecision()));
+					listenDecisions(records("decisions", Set.of(serviceRuleDTO.getDecision())));
 					Set<ServiceRuleConditionDTO> ruleConditions = serviceRuleDTO.getConditions();
 					if (ruleConditions != null && ruleConditions.size() > 0) {
 						ruleConditions.stream().map(ServiceRuleConditionDTO::getCondition)
@@ -834,36 +945,44 @@ public class WorkerKafkaService {
 							.collect(Collectors.toSet())
 							.forEach(serviceRulesService::addIfNotPresent);
 					}
-					for (ServiceDTO serviceDTO : serviceRuleDTO.getServices()) {
-						pt.unl.fct.miei.usmanagement.manager.services.Service service = ServiceMapper.MAPPER.toService(serviceDTO, context);
-						service = servicesService.addIfNotPresent(service);
-						service.addRule(serviceRule);
+					Set<ServiceDTO> services = serviceRuleDTO.getServices();
+					if (services != null) {
+						for (ServiceDTO serviceDTO : services) {
+							pt.unl.fct.miei.usmanagement.manager.services.Service service = ServiceMapper.MAPPER.toService(serviceDTO, context);
+							service = servicesService.addIfNotPresent(service);
+							service.addRule(serviceRule);
+						}
 					}
 					serviceRulesService.addOrUpdateRule(serviceRule);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error from topic service-rules while saving {}: {}", serviceRuleDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error from topic service-rules while saving {}: {}", serviceRuleDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "container-rules", autoStartup = "false")
-	public void listenContainerRules(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ContainerRuleDTO> containerRuleDTOs) {
-		int i = 0;
-		for (ContainerRuleDTO containerRuleDTO : containerRuleDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, containerRuleDTO.toString());
+	public void listenContainerRules(List<ConsumerRecord<KafkaTopicKey, ContainerRuleDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ContainerRuleDTO>> latestRecords = latest(records);
+		prefetch(ContainerRule.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ContainerRuleDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ContainerRuleDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ContainerRuleDTO containerRuleDTO = record.value();
+			log.debug("Received key={} message={}", key, containerRuleDTO);
 			ContainerRule containerRule = ContainerRuleMapper.MAPPER.toContainerRule(containerRuleDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = containerRule.getId();
+				if (containerRuleDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					containerRulesService.deleteRule(id);
 				}
 				else {
-					listenDecisions(new ArrayList<>(Collections.nCopies(1, null)), Set.of(containerRuleDTO.getDecision()));
+					listenDecisions(records("decisions", Set.of(containerRuleDTO.getDecision())));
 					Set<ContainerRuleConditionDTO> ruleConditions = containerRuleDTO.getConditions();
 					if (ruleConditions != null && ruleConditions.size() > 0) {
 						ruleConditions.stream().map(ContainerRuleConditionDTO::getCondition)
@@ -880,47 +999,111 @@ public class WorkerKafkaService {
 							.collect(Collectors.toSet())
 							.forEach(containerRulesService::addIfNotPresent);
 					}
-					for (ContainerDTO containerDTO : containerRuleDTO.getContainers()) {
-						Container container = ContainerMapper.MAPPER.toContainer(containerDTO, context);
-						container = containersService.addIfNotPresent(container);
-						container.addRule(containerRule);
+					Set<ContainerDTO> containers = containerRuleDTO.getContainers();
+					if (containers != null) {
+						for (ContainerDTO containerDTO : containers) {
+							Container container = ContainerMapper.MAPPER.toContainer(containerDTO, context);
+							container = containersService.addIfNotPresent(container);
+							container.addRule(containerRule);
+						}
 					}
 					containerRulesService.addOrUpdateRule(containerRule);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic container-rules with key={} and message={}: {}", key, containerRuleDTO, e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic container-rules with key={} and message={}: {}", key, containerRuleDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
 	}
 
 	@Transactional(noRollbackFor = ConstraintViolationException.class)
 	@KafkaListener(topics = "value-modes", autoStartup = "false")
-	public void listenValueModes(@Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) List<KafkaTopicKey> keys, Set<ValueModeDTO> valueModeDTOs) {
-		int i = 0;
-		for (ValueModeDTO valueModeDTO : valueModeDTOs) {
-			KafkaTopicKey key = keys.get(i++);
-			log.debug("Received key={} message={}", key, valueModeDTO.toString());
+	public void listenValueModes(List<ConsumerRecord<KafkaTopicKey, ValueModeDTO>> records) {
+		List<ConsumerRecord<KafkaTopicKey, ValueModeDTO>> latestRecords = latest(records);
+		prefetch(ValueMode.class, latestRecords, Long::valueOf);
+		List<ConsumerRecord<KafkaTopicKey, ValueModeDTO>> failedRecords = new ArrayList<>();
+		for (ConsumerRecord<KafkaTopicKey, ValueModeDTO> record : latestRecords) {
+			CycleAvoidingMappingContext context = new CycleAvoidingMappingContext();
+			KafkaTopicKey key = record.key();
+			ValueModeDTO valueModeDTO = record.value();
+			log.debug("Received key={} message={}", key, valueModeDTO);
 			ValueMode valueMode = ValueModeMapper.MAPPER.toValueMode(valueModeDTO, context);
 			try {
-				if (key != null && Objects.equal(key.getOperation(), "DELETE")) {
-					Long id = valueMode.getId();
+				if (valueModeDTO == null) {
+					Long id = Long.valueOf(key.getId());
 					valueModesService.deleteValueMode(id);
 				}
 				else {
 					Set<ConditionDTO> conditions = valueModeDTO.getConditions();
 					if (conditions != null && conditions.size() > 0) {
-						listenConditions(new ArrayList<>(Collections.nCopies(conditions.size(), null)), conditions);
+						listenConditions(records("conditions", conditions));
 					}
 					valueModesService.addOrUpdateValueMode(valueMode);
 				}
 			}
 			catch (Exception e) {
-				log.error("Error while processing topic value-modes with key={} and message={}: {}", key, valueModeDTO.toString(), e.getMessage());
-				e.printStackTrace();
+				log.error("Error while processing topic value-modes with key={} and message={}: {}", key, valueModeDTO, e.getMessage(), e);
+				failedRecords.add(record);
 			}
 		}
+		kafkaRevisionsService.applied(records, failedRecords);
+	}
+
+	/**
+	 * Keeps only the last record of each key, preserving their order. Earlier records of the same key would be
+	 * overwritten by it within the same transaction, so there is no point in applying them.
+	 * Records without key, such as the ones wrapping nested entities, are always kept.
+	 */
+	private <T> List<ConsumerRecord<KafkaTopicKey, T>> latest(List<ConsumerRecord<KafkaTopicKey, T>> records) {
+		Map<KafkaTopicKey, Integer> lastIndexes = new HashMap<>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			KafkaTopicKey key = records.get(i).key();
+			if (key != null && key.getId() != null) {
+				lastIndexes.put(key, i);
+			}
+		}
+		List<ConsumerRecord<KafkaTopicKey, T>> latestRecords = new ArrayList<>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			ConsumerRecord<KafkaTopicKey, T> record = records.get(i);
+			KafkaTopicKey key = record.key();
+			if (key == null || key.getId() == null || lastIndexes.get(key) == i) {
+				latestRecords.add(record);
+			}
+		}
+		if (!records.isEmpty() && records.get(0).offset() >= 0) {
+			String topic = records.get(0).topic();
+			meterRegistry.counter("kafka.consumer.records", "topic", topic).increment(records.size());
+			meterRegistry.counter("kafka.consumer.records.coalesced", "topic", topic).increment(records.size() - latestRecords.size());
+		}
+		return latestRecords;
+	}
+
+	/**
+	 * Loads the entities of the keys in the batch with a single query, so that the lookups done while
+	 * processing each record are answered by the persistence context, instead of one select per record.
+	 */
+	private <T> void prefetch(Class<?> entityClass, List<ConsumerRecord<KafkaTopicKey, T>> records, Function<String, ?> id) {
+		List<?> ids = records.stream()
+			.map(ConsumerRecord::key)
+			.filter(key -> key != null && key.getId() != null)
+			.map(key -> id.apply(key.getId()))
+			.distinct()
+			.collect(Collectors.toList());
+		if (ids.size() > 1) {
+			entityManager.unwrap(Session.class).byMultipleIds(entityClass).enableSessionCheck(true).multiLoad(ids);
+		}
+	}
+
+	/**
+	 * Wraps the entities nested in a message, to be processed as if they had been received on their own topic.
+	 * The records have no offset, so they don't change the revisions.
+	 */
+	private <T> List<ConsumerRecord<KafkaTopicKey, T>> records(String topic, Collection<T> values) {
+		return values.stream()
+			.map(value -> new ConsumerRecord<KafkaTopicKey, T>(topic, -1, -1, null, value))
+			.collect(Collectors.toList());
 	}
 
 }
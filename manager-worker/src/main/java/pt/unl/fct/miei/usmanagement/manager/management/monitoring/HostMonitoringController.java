@@ -29,11 +29,14 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pt.unl.fct.miei.usmanagement.manager.hosts.HostAddress;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostFieldAverage;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoring;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.HostMonitoringLog;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.Aggregate;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
 
 import java.util.List;
 
@@ -69,13 +72,16 @@ public class HostMonitoringController {
 	}
 
 	@GetMapping("/logs")
-	public List<HostMonitoringLog> getHostMonitoringLogs() {
-		return hostsMonitoringService.getHostMonitoringLogs();
+	public List<HostMonitoringLog> getHostMonitoringLogs(@RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+														 @RequestParam(required = false) Long step, @RequestParam(required = false) Aggregate aggregate) {
+		return hostsMonitoringService.getHostMonitoringLogs(new TimeSeriesQuery(from, to, step, aggregate));
 	}
 
 	@GetMapping("/{hostname}/logs")
-	public List<HostMonitoringLog> getHostMonitoringLogs(@PathVariable String hostname) {
-		return hostsMonitoringService.getHostMonitoringLogs(new HostAddress(hostname));
+	public List<HostMonitoringLog> getHostMonitoringLogs(@PathVariable String hostname,
+														 @RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+														 @RequestParam(required = false) Long step, @RequestParam(required = false) Aggregate aggregate) {
+		return hostsMonitoringService.getHostMonitoringLogs(new HostAddress(hostname), new TimeSeriesQuery(from, to, step, aggregate));
 	}
 
 }
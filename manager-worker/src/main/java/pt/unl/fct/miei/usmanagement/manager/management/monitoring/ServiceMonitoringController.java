@@ -29,10 +29,13 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceFieldAverage;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoring;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoringLog;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.Aggregate;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
 
 import java.util.List;
 
@@ -67,18 +70,23 @@ public class ServiceMonitoringController {
 	}
 
 	@GetMapping("/logs")
-	public List<ServiceMonitoringLog> getServiceMonitoringLogs() {
-		return servicesMonitoringService.getServiceMonitoringLogs();
+	public List<ServiceMonitoringLog> getServiceMonitoringLogs(@RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+															   @RequestParam(required = false) Long step, @RequestParam(required = false) Aggregate aggregate) {
+		return servicesMonitoringService.getServiceMonitoringLogs(new TimeSeriesQuery(from, to, step, aggregate));
 	}
 
 	@GetMapping("/logs/{serviceName}")
-	public List<ServiceMonitoringLog> getServiceMonitoringLogsByServiceName(@PathVariable String serviceName) {
-		return servicesMonitoringService.getServiceMonitoringLogsByServiceName(serviceName);
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByServiceName(@PathVariable String serviceName,
+																			@RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+																			@RequestParam(required = false) Long step, @RequestParam(required = false) Aggregate aggregate) {
+		return servicesMonitoringService.getServiceMonitoringLogsByServiceName(serviceName, new TimeSeriesQuery(from, to, step, aggregate));
 	}
 
 	@GetMapping("/logs/containers/{containerId}")
-	public List<ServiceMonitoringLog> getServiceMonitoringLogsByContainerId(@PathVariable String containerId) {
-		return servicesMonitoringService.getServiceMonitoringLogsByContainerId(containerId);
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByContainerId(@PathVariable String containerId,
+																			@RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+																			@RequestParam(required = false) Long step, @RequestParam(required = false) Aggregate aggregate) {
+		return servicesMonitoringService.getServiceMonitoringLogsByContainerId(containerId, new TimeSeriesQuery(from, to, step, aggregate));
 	}
 
 }
@@ -24,8 +24,13 @@
 
 package pt.unl.fct.miei.usmanagement.manager.management.monitoring;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.util.Pair;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pt.unl.fct.miei.usmanagement.manager.config.ParallelismProperties;
 import pt.unl.fct.miei.usmanagement.manager.apps.App;
 import pt.unl.fct.miei.usmanagement.manager.containers.Container;
 import pt.unl.fct.miei.usmanagement.manager.containers.ContainerConstants;
@@ -39,16 +44,22 @@ import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerCon
 import pt.unl.fct.miei.usmanagement.manager.services.docker.containers.DockerContainersService;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.HostsService;
 import pt.unl.fct.miei.usmanagement.manager.services.location.LocationRequestsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates.ServiceMonitoringAggregate;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.aggregates.ServicesMonitoringAggregatesService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ContainerEvent;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.events.ServicesEventsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.logs.ServiceMonitoringLogsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.ServiceMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.AppSimulatedMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.ContainerSimulatedMetricsService;
 import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.ServiceSimulatedMetricsService;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.metrics.simulated.SimulatedMetricsSnapshot;
+import pt.unl.fct.miei.usmanagement.manager.services.monitoring.timeseries.TimeSeriesQuery;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.DecisionsService;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.MonitoringProperties;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.decision.ServiceDecisionResult;
 import pt.unl.fct.miei.usmanagement.manager.services.rulesystem.rules.ServiceRulesService;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 import pt.unl.fct.miei.usmanagement.manager.services.services.ServicesService;
 import pt.unl.fct.miei.usmanagement.manager.services.workermanagers.WorkerManagerProperties;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ContainerFieldAverage;
@@ -56,38 +67,39 @@ import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceEvent;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceFieldAverage;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoring;
 import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoringLog;
-import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitoringLogs;
-import pt.unl.fct.miei.usmanagement.manager.monitoring.ServiceMonitorings;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.decision.ServiceDecision;
 import pt.unl.fct.miei.usmanagement.manager.rulesystem.rules.RuleDecisionEnum;
 import pt.unl.fct.miei.usmanagement.manager.sync.SyncService;
 
-import java.sql.Timestamp;
-import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @org.springframework.stereotype.Service
 public class ServicesMonitoringService {
 
+	private static final String MONITORING_TASK = "services-monitoring";
+
 	// Container minimum logs to start applying rules
 	private static final int CONTAINER_MINIMUM_LOGS_COUNT = 1;
 
-	private final ServiceMonitorings servicesMonitoring;
-	private final ServiceMonitoringLogs serviceMonitoringLogs;
+	private final ServiceMonitoringLogsService serviceMonitoringLogs;
+	private final ServicesMonitoringAggregatesService servicesMonitoringAggregates;
 
 	private final DockerContainersService dockerContainersService;
 	private final ContainersService containersService;
@@ -104,16 +116,18 @@ public class ServicesMonitoringService {
 	private final ContainersRecoveryService containersRecoveryService;
 	private final SyncService syncService;
 	private final KafkaService kafkaService;
+	private final MeterRegistry meterRegistry;
 
 	private final long monitorPeriod;
 	private final int stopContainerOnEventCount;
 	private final int replicateContainerOnEventCount;
 	private final int migrateContainerOnEventCount;
 	private final boolean isTestEnable;
-	private Timer serviceMonitoringTimer;
+	private final ExecutorService monitoringExecutor;
+	private final SchedulerService schedulerService;
 
-	public ServicesMonitoringService(ServiceMonitorings servicesMonitoring,
-									 ServiceMonitoringLogs serviceMonitoringLogs,
+	public ServicesMonitoringService(ServiceMonitoringLogsService serviceMonitoringLogs,
+									 ServicesMonitoringAggregatesService servicesMonitoringAggregates,
 									 DockerContainersService dockerContainersService,
 									 ContainersService containersService, ServicesService servicesService, ServiceRulesService serviceRulesService,
 									 ServicesEventsService servicesEventsService, HostsService hostsService,
@@ -123,9 +137,10 @@ public class ServicesMonitoringService {
 									 ServiceSimulatedMetricsService serviceSimulatedMetricsService,
 									 ContainerSimulatedMetricsService containerSimulatedMetricsService,
 									 ContainersRecoveryService containersRecoveryService, SyncService syncService,
-									 KafkaService kafkaService, MonitoringProperties monitoringProperties, WorkerManagerProperties workerManagerProperties) {
+									 KafkaService kafkaService, MonitoringProperties monitoringProperties, WorkerManagerProperties workerManagerProperties,
+									 ParallelismProperties parallelismProperties, MeterRegistry meterRegistry, SchedulerService schedulerService) {
 		this.serviceMonitoringLogs = serviceMonitoringLogs;
-		this.servicesMonitoring = servicesMonitoring;
+		this.servicesMonitoringAggregates = servicesMonitoringAggregates;
 		this.dockerContainersService = dockerContainersService;
 		this.containersService = containersService;
 		this.servicesService = servicesService;
@@ -146,65 +161,53 @@ public class ServicesMonitoringService {
 		this.replicateContainerOnEventCount = monitoringProperties.getServices().getReplicateEventCount();
 		this.migrateContainerOnEventCount = monitoringProperties.getServices().getMigrateEventCount();
 		this.isTestEnable = workerManagerProperties.getTests().isEnabled();
+		this.meterRegistry = meterRegistry;
+		this.monitoringExecutor = Executors.newFixedThreadPool(parallelismProperties.getThreads(),
+			new CustomizableThreadFactory("services-monitoring-"));
+		this.schedulerService = schedulerService;
 	}
 
 	public List<ServiceMonitoring> getServicesMonitoring() {
-		return servicesMonitoring.findAll();
+		return servicesMonitoringAggregates.getServicesMonitoring();
 	}
 
 	public List<ServiceMonitoring> getServiceMonitoring(String serviceName) {
-		return servicesMonitoring.getByServiceNameIgnoreCase(serviceName);
+		return servicesMonitoringAggregates.getServiceMonitoring(serviceName);
 	}
 
 	public List<ServiceMonitoring> getContainerMonitoring(String containerId) {
-		return servicesMonitoring.getByContainerId(containerId);
+		return servicesMonitoringAggregates.getContainerMonitoring(containerId);
 	}
 
 	public ServiceMonitoring getContainerMonitoring(String containerId, String field) {
-		return servicesMonitoring.getByContainerIdAndFieldIgnoreCase(containerId, field);
+		return servicesMonitoringAggregates.getContainerMonitoring(containerId, field);
 	}
 
 	public void saveServiceMonitoring(String containerId, String serviceName, String hostname, String field, double value) {
-		ServiceMonitoring serviceMonitoring = getContainerMonitoring(containerId, field);
-		Timestamp updateTime = Timestamp.from(Instant.now());
-		if (serviceMonitoring == null) {
-			serviceMonitoring = ServiceMonitoring.builder()
-				.containerId(containerId)
-				.serviceName(serviceName)
-				.hostname(hostname)
-				.field(field)
-				.minValue(value).maxValue(value).sumValue(value).lastValue(value)
-				.count(1)
-				.lastUpdate(updateTime)
-				.build();
-		}
-		else {
-			serviceMonitoring.update(value, updateTime);
-		}
-		servicesMonitoring.save(serviceMonitoring);
+		servicesMonitoringAggregates.update(containerId, serviceName, hostname, field, value, System.currentTimeMillis());
 		/*if (isTestEnable) {*/
 			saveServiceMonitoringLog(containerId, serviceName, field, value);
 		/*}*/
 	}
 
 	public List<ServiceFieldAverage> getServiceFieldsAvg(String serviceName) {
-		return servicesMonitoring.getServiceFieldsAvg(serviceName);
+		return servicesMonitoringAggregates.getServiceFieldsAvg(serviceName);
 	}
 
 	public ServiceFieldAverage getServiceFieldAverage(String serviceName, String field) {
-		return servicesMonitoring.getServiceFieldAverage(serviceName, field);
+		return servicesMonitoringAggregates.getServiceFieldAverage(serviceName, field);
 	}
 
 	public List<ContainerFieldAverage> getContainerFieldsAvg(String containerId) {
-		return servicesMonitoring.getContainerFieldsAvg(containerId);
+		return servicesMonitoringAggregates.getContainerFieldsAvg(containerId);
 	}
 
 	public ContainerFieldAverage getContainerFieldAverage(String containerId, String field) {
-		return servicesMonitoring.getContainerFieldAverage(containerId, field);
+		return servicesMonitoringAggregates.getContainerFieldAverage(containerId, field);
 	}
 
 	public List<ServiceMonitoring> getTopContainersByField(List<String> containerIds, String field) {
-		return servicesMonitoring.getTopContainersByField(containerIds, field);
+		return servicesMonitoringAggregates.getTopContainersByField(containerIds, field);
 	}
 
 	public void saveServiceMonitoringLog(String containerId, String serviceName, String field, double effectiveValue) {
@@ -215,44 +218,33 @@ public class ServicesMonitoringService {
 			.timestamp(LocalDateTime.now())
 			.value(effectiveValue)
 			.build();
-		serviceMonitoringLog = serviceMonitoringLogs.save(serviceMonitoringLog);
+		serviceMonitoringLogs.addServiceMonitoringLog(serviceMonitoringLog);
 		kafkaService.sendServiceMonitoringLog(serviceMonitoringLog);
 	}
 
-	public List<ServiceMonitoringLog> getServiceMonitoringLogs() {
-		return serviceMonitoringLogs.findAll();
+	public List<ServiceMonitoringLog> getServiceMonitoringLogs(TimeSeriesQuery query) {
+		return serviceMonitoringLogs.getServiceMonitoringLogs(query);
 	}
 
-	public List<ServiceMonitoringLog> getServiceMonitoringLogsByServiceName(String serviceName) {
-		return serviceMonitoringLogs.findByServiceName(serviceName);
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByServiceName(String serviceName, TimeSeriesQuery query) {
+		return serviceMonitoringLogs.getServiceMonitoringLogsByServiceName(serviceName, query);
 	}
 
-	public List<ServiceMonitoringLog> getServiceMonitoringLogsByContainerId(String containerId) {
-		return serviceMonitoringLogs.findByContainerIdStartingWith(containerId);
+	public List<ServiceMonitoringLog> getServiceMonitoringLogsByContainerId(String containerId, TimeSeriesQuery query) {
+		return serviceMonitoringLogs.getServiceMonitoringLogsByContainerId(containerId, query);
 	}
 
 	public void initServiceMonitorTimer() {
-		serviceMonitoringTimer = new Timer("services-monitoring", true);
-		serviceMonitoringTimer.schedule(new TimerTask() {
-			private long previousTime = System.currentTimeMillis();
-
-			@Override
-			public void run() {
-				long currentTime = System.currentTimeMillis();
-				int interval = (int) (currentTime - previousTime);
-				previousTime = currentTime;
-				try {
-					monitorServicesTask(interval);
-				}
-				catch (Exception e) {
-					log.error("Failed to execute monitor services task: {}", e.getMessage());
-					e.printStackTrace();
-				}
-			}
-		}, monitorPeriod, monitorPeriod);
+		// ticks never overlap, the scheduler skips them while the previous one is still running
+		AtomicLong previousTime = new AtomicLong(System.currentTimeMillis());
+		schedulerService.schedule(MONITORING_TASK, monitorPeriod, () -> {
+			long currentTime = System.currentTimeMillis();
+			int interval = (int) (currentTime - previousTime.getAndSet(currentTime));
+			runMonitoringPipeline(interval);
+		});
 	}
 
-	private void monitorServicesTask(int interval) {
+	private void runMonitoringPipeline(int interval) {
 		List<DockerContainer> monitoringContainers = dockerContainersService.getAppContainers();
 		//List<DockerContainer> systemContainers = dockerContainersService.getSystemContainers();
 		//List<Container> synchronizedContainers = syncService.synchronizeContainersDatabase();
@@ -264,39 +256,89 @@ public class ServicesMonitoringService {
 			.distinct()
 			.forEach(containersRecoveryService::restartContainer);*/
 
-		Map<String, List<ServiceDecisionResult>> containersDecisions = new HashMap<>();
+		if (monitoringContainers.isEmpty()) {
+			log.info("No service containers to monitor");
+			return;
+		}
+
+		// Metrics from the docker stats streams, new containers are requested concurrently on the bounded monitoring executor
+		List<ContainerSample> samples = timeStage("stats", () -> collectContainersStats(monitoringContainers));
 
-		monitoringContainers.forEach(container -> {
-			/*if (synchronizedContainers.stream().noneMatch(c ->
-				Objects.equals(c.getContainerId(), container.getContainerId()) && Objects.equals(c.getHostAddress(), container.getHostAddress()))) {
-				containersService.launchContainer(container.getHostAddress(), container.getServiceName(), ContainerTypeEnum.SINGLETON);
-			}
-			else {*/
-			HostAddress hostAddress = container.getHostAddress();
-			String containerId = container.getId();
-			String serviceName = container.getLabels().get(ContainerConstants.Label.SERVICE_NAME);
+		// Simulated and calculated metrics, aggregated in memory and written behind to the database
+		timeStage("simulated", () -> aggregateContainersMetrics(samples, interval));
 
-			// Metrics from docker
-			Map<String, Double> stats = serviceMetricsService.getContainerStats(hostAddress, containerId);
+		// Rules are evaluated in parallel for every container, the decisions are then grouped by service
+		Map<String, List<ServiceDecisionResult>> containersDecisions = timeStage("rules", () -> runRules(samples));
+
+		int saved = timeStage("persist", () -> saveServiceMonitoringLogs(samples));
+		log.info("Monitored {} containers, saved {} monitoring logs", samples.size(), saved);
+
+		if (!containersDecisions.isEmpty()) {
+			processContainerDecisions(containersDecisions);
+		}
+		else {
+			log.info("No service decisions to process");
+		}
+	}
+
+	private <T> T timeStage(String stage, Supplier<T> supplier) {
+		return meterRegistry.timer("monitoring.services.stage", "stage", stage).record(supplier);
+	}
+
+	private List<ContainerSample> collectContainersStats(List<DockerContainer> containers) {
+		Map<HostAddress, List<DockerContainer>> hostsContainers = containers.stream()
+			.collect(Collectors.groupingBy(DockerContainer::getHostAddress));
+		// Stats are streamed by docker for each running container, only new containers are requested once
+		serviceMetricsService.subscribeContainers(hostsContainers.entrySet().stream()
+			.collect(Collectors.toMap(Map.Entry::getKey, hostContainers -> hostContainers.getValue().stream()
+				.map(DockerContainer::getId).collect(Collectors.toList()))));
+		List<CompletableFuture<ContainerSample>> futureSamples = new ArrayList<>(containers.size());
+		hostsContainers.forEach((hostAddress, hostContainers) -> hostContainers.forEach(container ->
+			futureSamples.add(CompletableFuture.supplyAsync(() -> {
+				String serviceName = container.getLabels().get(ContainerConstants.Label.SERVICE_NAME);
+				Map<String, Double> stats = serviceMetricsService.getContainerStats(hostAddress, container.getId());
+				return new ContainerSample(container, serviceName, stats);
+			}, monitoringExecutor).exceptionally(e -> {
+				log.error("Failed to get stats of container {} on {}: {}", container.getId(), hostAddress, e.getMessage());
+				return null;
+			}))));
+		return futureSamples.stream()
+			.map(CompletableFuture::join)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toList());
+	}
+
+	private int aggregateContainersMetrics(List<ContainerSample> samples, int interval) {
+		SimulatedMetricsSnapshot simulatedMetrics = SimulatedMetricsSnapshot.of(
+			appSimulatedMetricsService.getAppSimulatedMetricsAndEntities(),
+			serviceSimulatedMetricsService.getServiceSimulatedMetricsAndEntities(),
+			containerSimulatedMetricsService.getContainerSimulatedMetricsAndEntities());
+		Map<String, List<App>> servicesApps = new HashMap<>();
+
+		long updateTime = System.currentTimeMillis();
+		int updated = 0;
+		for (ContainerSample sample : samples) {
+			String containerId = sample.getContainerId();
+			String serviceName = sample.getServiceName();
+			Map<String, Double> stats = sample.getStats();
 
 			// Simulated app metrics
-			for (App app : servicesService.getApps(serviceName)) {
-				String appName = app.getName();
-				Map<String, Double> appSimulatedFields = appSimulatedMetricsService.getAppSimulatedMetricByApp(appName)
-					.stream().filter(metric -> metric.isActive() && (!stats.containsKey(metric.getField().getName()) || metric.isOverride()))
+			for (App app : servicesApps.computeIfAbsent(serviceName, servicesService::getApps)) {
+				Map<String, Double> appSimulatedFields = simulatedMetrics.getAppMetrics(app.getName())
+					.stream().filter(metric -> !stats.containsKey(metric.getField().getName()) || metric.isOverride())
 					.collect(Collectors.toMap(metric -> metric.getField().getName(), appSimulatedMetricsService::randomizeFieldValue, (m1, m2) -> m1));
 				stats.putAll(appSimulatedFields);
 			}
 
 			// Simulated service metrics
-			Map<String, Double> serviceSimulatedFields = serviceSimulatedMetricsService.getServiceSimulatedMetricByService(serviceName)
-				.stream().filter(metric -> metric.isActive() && (!stats.containsKey(metric.getField().getName()) || metric.isOverride()))
+			Map<String, Double> serviceSimulatedFields = simulatedMetrics.getServiceMetrics(serviceName)
+				.stream().filter(metric -> !stats.containsKey(metric.getField().getName()) || metric.isOverride())
 				.collect(Collectors.toMap(metric -> metric.getField().getName(), serviceSimulatedMetricsService::randomizeFieldValue, (m1, m2) -> m1));
 			stats.putAll(serviceSimulatedFields);
 
 			// Simulated container metrics
-			Map<String, Double> containerSimulatedFields = containerSimulatedMetricsService.getServiceSimulatedMetricByContainer(containerId)
-				.stream().filter(metric -> metric.isActive() && (!stats.containsKey(metric.getField().getName()) || metric.isOverride()))
+			Map<String, Double> containerSimulatedFields = simulatedMetrics.getContainerMetrics(containerId)
+				.stream().filter(metric -> !stats.containsKey(metric.getField().getName()) || metric.isOverride())
 				.collect(Collectors.toMap(metric -> metric.getField().getName(), containerSimulatedMetricsService::randomizeFieldValue, (m1, m2) -> m1));
 			stats.putAll(containerSimulatedFields);
 
@@ -313,56 +355,83 @@ public class ServicesMonitoringService {
 				calculatedMetrics.put("tx-bytes", stats.get("tx-bytes"));
 			}
 			calculatedMetrics.forEach((field, value) -> {
-				ServiceMonitoring monitoring = getContainerMonitoring(containerId, field);
-				double lastValue = monitoring == null ? 0 : monitoring.getLastValue();
+				double lastValue = servicesMonitoringAggregates.getContainerAggregate(containerId, field)
+					.map(ServiceMonitoringAggregate::getLastValue).orElse(0d);
 				double bytesPerSec = Math.max(0, (value - lastValue) / TimeUnit.MILLISECONDS.toSeconds(interval));
 				stats.put(field + "-per-sec", bytesPerSec);
 			});
 
-			stats.forEach((stat, value) -> saveServiceMonitoring(containerId, serviceName, hostAddress.getPublicIpAddress(), stat, value));
-
-			ServiceDecisionResult containerDecisionResult = runRules(hostAddress, containerId, serviceName, stats);
-			List<ServiceDecisionResult> containerDecisions = containersDecisions.get(serviceName);
-			if (containerDecisions != null) {
-				containerDecisions.add(containerDecisionResult);
-			}
-			else {
-				containerDecisions = new LinkedList<>();
-				containerDecisions.add(containerDecisionResult);
-				containersDecisions.put(serviceName, containerDecisions);
-			}
-			/*}*/
-
-		});
+			String hostname = sample.getHostAddress().getPublicIpAddress();
+			stats.forEach((field, value) ->
+				servicesMonitoringAggregates.update(containerId, serviceName, hostname, field, value, updateTime));
+			updated += stats.size();
+		}
+		return updated;
+	}
 
-		if (!containersDecisions.isEmpty()) {
-			processContainerDecisions(containersDecisions);
+	private int saveServiceMonitoringLogs(List<ContainerSample> samples) {
+		List<ServiceMonitoringLog> monitoringLogs = new ArrayList<>();
+		LocalDateTime timestamp = LocalDateTime.now();
+		for (ContainerSample sample : samples) {
+			sample.getStats().forEach((field, value) ->
+				monitoringLogs.add(ServiceMonitoringLog.builder()
+					.containerId(sample.getContainerId())
+					.serviceName(sample.getServiceName())
+					.field(field)
+					.timestamp(timestamp)
+					.value(value)
+					.build()));
 		}
-		else {
-			log.info("No service decisions to process");
+		for (ServiceMonitoringLog monitoringLog : monitoringLogs) {
+			serviceMonitoringLogs.addServiceMonitoringLog(monitoringLog);
+			kafkaService.sendServiceMonitoringLog(monitoringLog);
 		}
+		return monitoringLogs.size();
+	}
+
+	private Map<String, List<ServiceDecisionResult>> runRules(List<ContainerSample> samples) {
+		// rule evaluations don't share state, so every container is evaluated on its own
+		List<CompletableFuture<ServiceDecisionResult>> futureDecisions = samples.stream()
+			.map(sample -> CompletableFuture.supplyAsync(() ->
+				runRules(sample.getHostAddress(), sample.getContainerId(), sample.getServiceName(), sample.getStats()), monitoringExecutor)
+				.exceptionally(e -> {
+					log.error("Failed to evaluate rules of container {}: {}", sample.getContainerId(), e.getMessage());
+					return null;
+				}))
+			.collect(Collectors.toList());
+		return futureDecisions.stream()
+			.map(CompletableFuture::join)
+			.filter(Objects::nonNull)
+			.filter(decision -> {
+				if (decision.getServiceName() == null) {
+					log.warn("Ignoring decision of container {} without a service name", decision.getContainerId());
+					return false;
+				}
+				return true;
+			})
+			.collect(Collectors.groupingBy(ServiceDecisionResult::getServiceName));
 	}
 
-	private ServiceDecisionResult runRules(HostAddress hostAddress, String containerId, String serviceName, Map<String, Double> newFields) {
+	private ServiceDecisionResult runRules(HostAddress hostAddress, String containerId, String serviceName,
+										   Map<String, Double> newFields) {
 
 		ContainerEvent containerEvent = new ContainerEvent(containerId, serviceName, hostAddress);
 		Map<String, Double> containerEventFields = containerEvent.getFields();
 
-		getContainerMonitoring(containerId)
-			.stream()
-			.filter(loggedField -> loggedField.getCount() >= CONTAINER_MINIMUM_LOGS_COUNT && newFields.get(loggedField.getField()) != null)
-			.forEach(loggedField -> {
-				String field = loggedField.getField();
-				Double newValue = newFields.get(field);
-				containerEventFields.put(field + "-effective-val", newValue);
-				double average = loggedField.getSumValue() / loggedField.getCount();
-				containerEventFields.put(field + "-avg-val", average);
-				double deviationFromAverageValue = ((newValue - average) / average) * 100;
-				containerEventFields.put(field + "-deviation-%-on-avg-val", deviationFromAverageValue);
-				double lastValue = loggedField.getLastValue();
-				double deviationFromLastValue = ((newValue - lastValue) / lastValue) * 100;
-				containerEventFields.put(field + "-deviation-%-on-last-val", deviationFromLastValue);
-			});
+		newFields.forEach((field, newValue) -> {
+			ServiceMonitoringAggregate loggedField = servicesMonitoringAggregates.getContainerAggregate(containerId, field).orElse(null);
+			if (loggedField == null || loggedField.getCount() < CONTAINER_MINIMUM_LOGS_COUNT || newValue == null) {
+				return;
+			}
+			containerEventFields.put(field + "-effective-val", newValue);
+			double average = loggedField.getAverage();
+			containerEventFields.put(field + "-avg-val", average);
+			double deviationFromAverageValue = ((newValue - average) / average) * 100;
+			containerEventFields.put(field + "-deviation-%-on-avg-val", deviationFromAverageValue);
+			double lastValue = loggedField.getLastValue();
+			double deviationFromLastValue = ((newValue - lastValue) / lastValue) * 100;
+			containerEventFields.put(field + "-deviation-%-on-last-val", deviationFromLastValue);
+		});
 
 		return serviceRulesService.processServiceEvent(hostAddress, containerEvent);
 	}
@@ -519,14 +588,36 @@ public class ServicesMonitoringService {
 	}
 
 	public void stopServiceMonitoring() {
-		if (serviceMonitoringTimer != null) {
-			serviceMonitoringTimer.cancel();
-			log.info("Stopped service monitoring");
-		}
+		schedulerService.cancel(MONITORING_TASK);
+		log.info("Stopped service monitoring");
+		monitoringExecutor.shutdownNow();
+		serviceMetricsService.stop();
+		servicesMonitoringAggregates.stop();
+		servicesEventsService.stop();
 	}
 
 	public void reset() {
 		log.info("Clearing all service monitoring");
-		servicesMonitoring.deleteAll();
+		servicesMonitoringAggregates.reset();
+		serviceMonitoringLogs.reset();
 	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static final class ContainerSample {
+
+		private final DockerContainer container;
+		private final String serviceName;
+		private final Map<String, Double> stats;
+
+		private String getContainerId() {
+			return container.getId();
+		}
+
+		private HostAddress getHostAddress() {
+			return container.getHostAddress();
+		}
+
+	}
+
 }
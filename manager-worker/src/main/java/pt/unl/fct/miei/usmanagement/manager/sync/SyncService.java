@@ -21,13 +21,12 @@ import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.CloudHostsServi
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsInstanceState;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsService;
 import pt.unl.fct.miei.usmanagement.manager.services.hosts.cloud.aws.AwsSimpleInstance;
+import pt.unl.fct.miei.usmanagement.manager.services.scheduler.SchedulerService;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -37,6 +36,9 @@ public class SyncService {
 	private final static int CLOUD_HOSTS_DATABASE_SYNC_INTERVAL = 45000;
 	private final static int CONTAINERS_DATABASE_SYNC_INTERVAL = 10000;
 	private final static int NODES_DATABASE_SYNC_INTERVAL = 10000;
+	private final static String CLOUD_HOSTS_SYNC_TASK = "cloud-hosts-database-synchronization";
+	private final static String CONTAINERS_SYNC_TASK = "containers-database-synchronization";
+	private final static String NODES_SYNC_TASK = "nodes-database-synchronization";
 
 	private final CloudHostsService cloudHostsService;
 	private final AwsService awsService;
@@ -46,15 +48,14 @@ public class SyncService {
 	private final DockerSwarmService dockerSwarmService;
 	private final ConfigurationsService configurationsService;
 
-	private Timer cloudHostsDatabaseSyncTimer;
-	private Timer containersDatabaseSyncTimer;
-	private Timer nodesDatabaseSyncTimer;
+	private final SchedulerService schedulerService;
 	private final String managerId;
 
 	public SyncService(CloudHostsService cloudHostsService, AwsService awsService, ContainersService containersService,
 					   DockerContainersService dockerContainersService,
 					   NodesService nodesService, DockerSwarmService dockerSwarmService,
-					   ConfigurationsService configurationsService, Environment environment) {
+					   ConfigurationsService configurationsService, SchedulerService schedulerService,
+					   Environment environment) {
 		this.cloudHostsService = cloudHostsService;
 		this.awsService = awsService;
 		this.containersService = containersService;
@@ -62,29 +63,17 @@ public class SyncService {
 		this.nodesService = nodesService;
 		this.dockerSwarmService = dockerSwarmService;
 		this.configurationsService = configurationsService;
+		this.schedulerService = schedulerService;
 		this.managerId = environment.getProperty(ContainerConstants.Environment.Manager.ID);
 	}
 
 	public void startCloudHostsDatabaseSynchronization() {
-		cloudHostsDatabaseSyncTimer = new Timer("cloud-hosts-database-synchronization", true);
-		cloudHostsDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					synchronizeCloudHostsDatabase();
-				}
-				catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL);
+		schedulerService.schedule(CLOUD_HOSTS_SYNC_TASK, CLOUD_HOSTS_DATABASE_SYNC_INTERVAL, this::synchronizeCloudHostsDatabase);
 	}
 
 	public void stopCloudHostsDatabaseSynchronization() {
-		if (cloudHostsDatabaseSyncTimer != null) {
-			cloudHostsDatabaseSyncTimer.cancel();
-			log.info("Stopped database cloud hosts synchronization");
-		}
+		schedulerService.cancel(CLOUD_HOSTS_SYNC_TASK);
+		log.info("Stopped database cloud hosts synchronization");
 	}
 
 	public List<CloudHost> synchronizeCloudHostsDatabase() {
@@ -145,25 +134,12 @@ public class SyncService {
 	}
 
 	public void startContainersDatabaseSynchronization() {
-		containersDatabaseSyncTimer = new Timer("containers-database-synchronization", true);
-		containersDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					synchronizeContainersDatabase();
-				}
-				catch (Exception e) {
-					log.error("Error while synchronizing containers database: {}", e.getMessage());
-				}
-			}
-		}, CONTAINERS_DATABASE_SYNC_INTERVAL, CONTAINERS_DATABASE_SYNC_INTERVAL);
+		schedulerService.schedule(CONTAINERS_SYNC_TASK, CONTAINERS_DATABASE_SYNC_INTERVAL, this::synchronizeContainersDatabase);
 	}
 
 	public void stopContainersDatabaseSynchronization() {
-		if (containersDatabaseSyncTimer != null) {
-			containersDatabaseSyncTimer.cancel();
-			log.info("Stopped containers database synchronization");
-		}
+		schedulerService.cancel(CONTAINERS_SYNC_TASK);
+		log.info("Stopped containers database synchronization");
 	}
 
 	public List<Container> synchronizeContainersDatabase() {
@@ -228,25 +204,12 @@ public class SyncService {
 	}
 
 	public void startNodesDatabaseSynchronization() {
-		nodesDatabaseSyncTimer = new Timer("nodes-database-synchronization", true);
-		nodesDatabaseSyncTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				try {
-					synchronizeNodesDatabase();
-				}
-				catch (Exception e) {
-					log.error("Error while synchronizing nodes database: {}", e.getMessage());
-				}
-			}
-		}, NODES_DATABASE_SYNC_INTERVAL, NODES_DATABASE_SYNC_INTERVAL);
+		schedulerService.schedule(NODES_SYNC_TASK, NODES_DATABASE_SYNC_INTERVAL, this::synchronizeNodesDatabase);
 	}
 
 	public void stopNodesDatabaseSynchronization() {
-		if (nodesDatabaseSyncTimer != null) {
-			nodesDatabaseSyncTimer.cancel();
-			log.info("Stopped nodes database synchronization");
-		}
+		schedulerService.cancel(NODES_SYNC_TASK);
+		log.info("Stopped nodes database synchronization");
 	}
 
 	public List<pt.unl.fct.miei.usmanagement.manager.nodes.Node> synchronizeNodesDatabase() {